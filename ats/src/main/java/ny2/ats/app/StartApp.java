@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 
+import ny2.ats.core.journal.EventJournalReplayer;
 import ny2.ats.core.router.IEventRouter;
 import ny2.ats.indicator.IIndicatorDataHolder;
 import ny2.ats.market.transport.IMarketManager;
@@ -35,6 +36,10 @@ public class StartApp {
             IIndicatorDataHolder indicatorDataHolder = context.getBean(IIndicatorDataHolder.class);
             indicatorDataHolder.initialize();
 
+            // Event Journal を再生
+            EventJournalReplayer eventJournalReplayer = context.getBean(EventJournalReplayer.class);
+            eventJournalReplayer.replay();
+
             // 接続先にログイン
             IMarketManager marketManager = context.getBean(IMarketManager.class);
 
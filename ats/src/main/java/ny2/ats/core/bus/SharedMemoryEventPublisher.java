@@ -0,0 +1,159 @@
+package ny2.ats.core.bus;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import ny2.ats.core.event.EventType;
+import ny2.ats.core.event.IEvent;
+import ny2.ats.core.journal.EventJournalCodec;
+
+/**
+ * Router に登録されたイベントを共有メモリ(SharedMemoryRingFile)に送信するクラスです。<br>
+ * 同一ホストの別JVMで SharedMemorySubscriberEventRouterImpl が受信します。
+ * 形式は Event Journal と同じで、対象は MarketUpdate, MarketOrder, OrderUpdate, TimerInformation, ModelInformation, PLInformation
+ * のうち bus.publish.eventtypes で指定したものです。<br>
+ * IndicatorUpdate は Indicator への参照を持つため送信できません。受信側で MarketUpdate, TimerInformation から再計算してください。
+ */
+@Component
+@ManagedResource(objectName = "EventBus:name=SharedMemoryEventPublisher")
+public class SharedMemoryEventPublisher {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /** 1レコードの最大サイズ */
+    private static final int MAX_RECORD_SIZE = 64 * 1024;
+
+    /** 送信するかどうか */
+    @Value("${bus.publish.enabled:false}")
+    private boolean enabled;
+
+    /** 送信先のRingファイル */
+    @Value("${bus.publish.file:/dev/shm/ats-bus.ring}")
+    private String file;
+
+    /** RingのサイズMB(2の累乗) */
+    @Value("${bus.publish.capacity:64}")
+    private int capacityMb;
+
+    /** 送信するEventType (カンマ区切り) */
+    @Value("${bus.publish.eventtypes:MARKET_UPDATE,ORDER_UPDATE,TIMER_INFORMATION}")
+    private String eventTypesStr;
+
+    private final EnumSet<EventType> targetEventTypes = EnumSet.noneOf(EventType.class);
+
+    private SharedMemoryRingFile ringFile;
+
+    /** エンコード用バッファ(synchronized内で再利用) */
+    private final ByteBuffer encodeBuffer = ByteBuffer.allocate(MAX_RECORD_SIZE);
+
+    private final Map<EventType, AtomicLong> publishedCountMap = new EnumMap<>(EventType.class);
+    private final AtomicLong failedCount = new AtomicLong();
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    public SharedMemoryEventPublisher() {
+        logger.info("Create instance.");
+        for (EventType eventType : EventType.values()) {
+            publishedCountMap.put(eventType, new AtomicLong());
+        }
+    }
+
+    @PostConstruct
+    private void init() throws IOException {
+        logger.info("PostConstruct instance.");
+        if (!enabled) {
+            return;
+        }
+        for (String eventTypeStr : StringUtils.split(eventTypesStr, ',')) {
+            EventType eventType = EventType.valueOf(eventTypeStr.trim());
+            if (!EventJournalCodec.isBusTarget(eventType)) {
+                logger.warn("EventType {} is not supported by event bus.", eventType);
+                continue;
+            }
+            targetEventTypes.add(eventType);
+        }
+        ringFile = SharedMemoryRingFile.openWriter(file, capacityMb * 1024 * 1024);
+        logger.info("Event Bus publish file = {}, event types = {}", ringFile.getPath(), targetEventTypes);
+    }
+
+    @PreDestroy
+    private void destroy() throws IOException {
+        if (ringFile != null) {
+            ringFile.close();
+        }
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * イベントを送信します。対象外のイベントは無視します。
+     *
+     * @param event
+     */
+    public void publish(IEvent<?> event) {
+        EventType eventType = event.getEventType();
+        if (!enabled || !targetEventTypes.contains(eventType)) {
+            return;
+        }
+        synchronized (this) {
+            try {
+                encodeBuffer.clear();
+                EventJournalCodec.encode(event, encodeBuffer);
+                encodeBuffer.flip();
+                if (ringFile.write((byte) eventType.ordinal(), encodeBuffer)) {
+                    publishedCountMap.get(eventType).incrementAndGet();
+                } else {
+                    failedCount.incrementAndGet();
+                }
+            } catch (BufferOverflowException e) {
+                failedCount.incrementAndGet();
+                logger.error("Failed to publish event. " + eventType, e);
+            }
+        }
+    }
+
+    /**
+     * 送信状況をチェックします
+     */
+    @ManagedOperation
+    public String checkPublishStatus() {
+        StringBuilder sb = new StringBuilder("[Publish Status]\n");
+        sb.append("Enabled : ").append(enabled).append("\n");
+        if (ringFile != null) {
+            sb.append("File : ").append(ringFile.getPath()).append(", position=").append(ringFile.readWritePosition()).append("\n");
+        }
+        for (Entry<EventType, AtomicLong> entry : publishedCountMap.entrySet()) {
+            if (targetEventTypes.contains(entry.getKey())) {
+                sb.append(entry.getKey().name()).append(" : ").append(entry.getValue().get()).append("\n");
+            }
+        }
+        sb.append("Failed : ").append(failedCount.get());
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,237 @@
+package ny2.ats.core.bus;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import sun.misc.Unsafe;
+
+/**
+ * 同一ホストのプロセス間でイベントを受け渡すメモリマップドファイルの Ring です。<br>
+ * 書き込みは1プロセス(1 Thread)のみ、読み込みは複数プロセスが独立した位置で行います。
+ * 書き込み側は読み込み側を待たずに上書きし、読み込み側は周回遅れを検知して最新位置から再開します。<br>
+ * レイアウト : [Header 64byte][Data capacity byte]<br>
+ * Header : [long 書き込み位置(累積byte)][int capacity][int MAGIC]<br>
+ * レコード : [int 長さ][byte EventType][データ] を8byte境界に揃えて配置します。長さ -1 は周回のPaddingです。<br>
+ * 書き込み位置はレコード書き込み後に更新します。
+ * Java8 の MappedByteBuffer には順序保証付きの操作がないため、Unsafe の storeFence / loadFence で
+ * 「レコード書き込み → 書き込み位置の更新」「書き込み位置の読み込み → レコード読み込み」の順序を保証します。
+ */
+public class SharedMemoryRingFile implements AutoCloseable {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    private static final int MAGIC = 0x4E324255;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int WRITE_POSITION_OFFSET = 0;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int MAGIC_OFFSET = 12;
+
+    private static final int ALIGNMENT = 8;
+    private static final int PADDING = -1;
+
+    /** レコードヘッダ(長さ + EventType) */
+    public static final int RECORD_HEADER_SIZE = Integer.BYTES + Byte.BYTES;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    /** 一括コピー用のView(1インスタンスは1 Threadで使用) */
+    private final ByteBuffer view;
+
+    private final int capacity;
+    private final int mask;
+
+    /** メモリバリア用 */
+    private static final Unsafe UNSAFE = findUnsafe();
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    private SharedMemoryRingFile(Path path, FileChannel channel, MappedByteBuffer buffer, int capacity) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.view = buffer.duplicate();
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * 書き込み用に開きます。同じcapacityの既存ファイルは書き込み位置を引き継ぎます。
+     *
+     * @param file
+     * @param capacity Data領域のbyte数(2の累乗)
+     * @return
+     * @throws IOException
+     */
+    public static SharedMemoryRingFile openWriter(String file, int capacity) throws IOException {
+        if (Integer.bitCount(capacity) != 1 || capacity < ALIGNMENT) {
+            throw new IllegalArgumentException("capacity must be a power of two. " + capacity);
+        }
+        Path path = Paths.get(file);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE + capacity);
+        SharedMemoryRingFile ringFile = new SharedMemoryRingFile(path, channel, buffer, capacity);
+        if (buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getInt(CAPACITY_OFFSET) != capacity) {
+            buffer.putLong(WRITE_POSITION_OFFSET, 0L);
+            buffer.putInt(CAPACITY_OFFSET, capacity);
+            buffer.putInt(MAGIC_OFFSET, MAGIC);
+        }
+        return ringFile;
+    }
+
+    /**
+     * 読み込み用に開きます。書き込み側が作成するまで待ちません。
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static SharedMemoryRingFile openReader(String file) throws IOException {
+        Path path = Paths.get(file);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE);
+        if (header.getInt(MAGIC_OFFSET) != MAGIC) {
+            channel.close();
+            throw new IOException("Ring file is not initialized. " + path);
+        }
+        int capacity = header.getInt(CAPACITY_OFFSET);
+        MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE + capacity);
+        return new SharedMemoryRingFile(path, channel, buffer, capacity);
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * レコードを書き込みます。単一Threadから呼び出してください。
+     *
+     * @param eventTypeOrdinal
+     * @param payload position から limit までを書き込みます(positionは進みます)
+     * @return 書き込めた場合 true (レコードがcapacityの半分を超える場合 false)
+     */
+    public boolean write(byte eventTypeOrdinal, ByteBuffer payload) {
+        int recordSize = align(RECORD_HEADER_SIZE + payload.remaining());
+        if (recordSize > capacity >> 1) {
+            return false;
+        }
+        long writePosition = buffer.getLong(WRITE_POSITION_OFFSET);
+        int offset = (int) (writePosition & mask);
+        int remaining = capacity - offset;
+        if (remaining < recordSize) {
+            // 末尾に収まらない場合は Padding を置いて先頭へ
+            buffer.putInt(HEADER_SIZE + offset, PADDING);
+            writePosition += remaining;
+            offset = 0;
+        }
+        int index = HEADER_SIZE + offset;
+        buffer.putInt(index, RECORD_HEADER_SIZE + payload.remaining());
+        buffer.put(index + Integer.BYTES, eventTypeOrdinal);
+        view.limit(view.capacity()).position(index + RECORD_HEADER_SIZE);
+        view.put(payload);
+        // レコード書き込み後に位置を公開
+        UNSAFE.storeFence();
+        buffer.putLong(WRITE_POSITION_OFFSET, writePosition + recordSize);
+        return true;
+    }
+
+    /**
+     * 現在の書き込み位置を返します
+     */
+    public long readWritePosition() {
+        // 直前のレコード読み込みの後に位置を読む(上書きの確認用)
+        UNSAFE.loadFence();
+        long writePosition = buffer.getLong(WRITE_POSITION_OFFSET);
+        // 位置の読み込み後にレコードを読む
+        UNSAFE.loadFence();
+        return writePosition;
+    }
+
+    /**
+     * 読み込み位置のレコードを取得します。
+     * 読み込み後に {@link #isOverrun(long, long)} で上書きされていないことを確認してください。
+     *
+     * @param readPosition
+     * @param target レコードのEventType以降を書き込むバッファ
+     * @return 次の読み込み位置。Paddingの場合は空のtargetで次の周回の先頭を返します
+     */
+    public long read(long readPosition, ByteBuffer target) {
+        target.clear().limit(0);
+        int offset = (int) (readPosition & mask);
+        int index = HEADER_SIZE + offset;
+        int length = buffer.getInt(index);
+        if (length == PADDING) {
+            return readPosition + (capacity - offset);
+        }
+        if (length < RECORD_HEADER_SIZE || length > capacity - offset || length - Integer.BYTES > target.capacity()) {
+            // 上書き中のレコード。呼び出し側で周回遅れとして扱う
+            return -1;
+        }
+        target.clear();
+        view.limit(index + length).position(index + Integer.BYTES);
+        target.put(view);
+        target.flip();
+        return readPosition + align(length);
+    }
+
+    /**
+     * 読み込み開始位置のデータが上書きされている(可能性がある)かを返します。
+     * 書き込み中の未公開レコード分(最大capacityの半分)を考慮し、capacityの半分以上遅れている場合を周回遅れとします。
+     *
+     * @param readPosition
+     * @param writePosition
+     * @return
+     */
+    public boolean isOverrun(long readPosition, long writePosition) {
+        return writePosition - readPosition > capacity >> 1;
+    }
+
+    private static int align(int size) {
+        return (size + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    private static Unsafe findUnsafe() {
+        try {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return (Unsafe) field.get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // //////////////////////////////////////
+    // Getters and Setters
+    // //////////////////////////////////////
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+}
@@ -0,0 +1,102 @@
+package ny2.ats.core.data;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.ToString;
+import ny2.ats.core.common.Period;
+import ny2.ats.core.common.Symbol;
+import ny2.ats.indicator.Indicator;
+import ny2.ats.indicator.IndicatorType;
+
+/**
+ * 1本の足(Symbol, Period)の確定時に計算した全Indicatorの断面を保持するクラスです<br>
+ * 全てのIndicatorを計算してから作成するため、受信側は足ごとに1回、一貫した断面で処理できます。
+ */
+@Getter
+@ToString(callSuper=true)
+public class IndicatorBarInformation extends AbstractData {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** 対象の通貨ペア */
+    private final Symbol symbol;
+
+    /** 対象の期間 */
+    private final Period period;
+
+    /** データの基準時刻 */
+    private final LocalDateTime dateTime;
+
+    /** IndicatorTypeごとの断面 (IndicatorType順) */
+    private final Map<IndicatorType, IndicatorInformation> indicatorInformationMap;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    /**
+     * 同じ足のIndicatorから作成します
+     *
+     * @param symbol
+     * @param period
+     * @param indicators 計算済みのIndicator(OHLCを含む)
+     */
+    public IndicatorBarInformation(Symbol symbol, Period period, List<Indicator<?>> indicators) {
+        super();
+        this.symbol = symbol;
+        this.period = period;
+        Map<IndicatorType, IndicatorInformation> map = new EnumMap<>(IndicatorType.class);
+        LocalDateTime lastDateTime = null;
+        for (Indicator<?> indicator : indicators) {
+            IndicatorInformation indicatorInformation = new IndicatorInformation(indicator);
+            map.put(indicatorInformation.getType(), indicatorInformation);
+            if (indicatorInformation.getType() == IndicatorType.OHLC || lastDateTime == null) {
+                lastDateTime = indicatorInformation.getDateTime();
+            }
+        }
+        this.dateTime = lastDateTime;
+        this.indicatorInformationMap = Collections.unmodifiableMap(map);
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    @Override
+    public String toStringSummary() {
+        StringBuilder sb = new StringBuilder(200);
+        sb.append("IndicatorBarInformation [")
+                .append(symbol.name()).append(TO_STRING_DELIMITER)
+                .append(period.name()).append(TO_STRING_DELIMITER)
+                .append(dateTime).append(TO_STRING_DELIMITER)
+                .append(indicatorInformationMap.keySet())
+                .append("]");
+        return sb.toString();
+    }
+
+    /**
+     * IndicatorTypeの断面を返します
+     *
+     * @param indicatorType
+     * @return 対象の足で計算していない場合はnull
+     */
+    public IndicatorInformation getIndicatorInformation(IndicatorType indicatorType) {
+        return indicatorInformationMap.get(indicatorType);
+    }
+
+    /**
+     * 全Indicatorの断面をIndicatorType順(OHLCが先頭)に返します
+     */
+    public Collection<IndicatorInformation> getIndicatorInformations() {
+        return indicatorInformationMap.values();
+    }
+
+}
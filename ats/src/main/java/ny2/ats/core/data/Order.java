@@ -1,6 +1,7 @@
 package ny2.ats.core.data;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -30,6 +31,15 @@ public class Order extends AbstractData {
     // ID作成
     private static final IdGenerator idGenerator = new IdGenerator();
 
+    /** Symbolごとの通番で採番する場合の Symbol の桁 */
+    private static final long SYMBOL_ID_BASE = 1_000_000_000_000L;
+
+    /** Symbolごとの通番で採番するかどうか */
+    private static volatile boolean symbolSequenceId = false;
+
+    /** Symbolごとの通番 */
+    private static final AtomicLongArray symbolSequences = new AtomicLongArray(Symbol.values().length);
+
     // 全般
     /** 通貨ペア */
     private final Symbol symbol;
@@ -135,7 +145,7 @@ public class Order extends AbstractData {
     public static OrderBuilder createNewOrderBuilder(MarketType marketType,  ModelType modelType, ModelVersion modelVersion,
                 String quoteId, Symbol symbol, Side side, OrderType orderType, double orderPrice, int orderAmount) {
         OrderBuilder orderBuilder = new OrderBuilder();
-        orderBuilder.setOrderId(numberNewID());
+        orderBuilder.setOrderId(numberNewID(symbol));
 
         // 全般
         orderBuilder.setSymbol(symbol);
@@ -166,7 +176,7 @@ public class Order extends AbstractData {
     public static OrderBuilder createNewOrderBuilderAsClose(MarketType marketType,  ModelType modelType, ModelVersion modelVersion,
                 String quoteId, Symbol symbol, Side side, OrderType orderType, double orderPrice, int orderAmount, Long originalOrderId, String originalMarketId) {
         OrderBuilder orderBuilder = new OrderBuilder();
-        orderBuilder.setOrderId(numberNewID());
+        orderBuilder.setOrderId(numberNewID(symbol));
 
         // 全般
         orderBuilder.setSymbol(symbol);
@@ -230,10 +240,27 @@ public class Order extends AbstractData {
      * IDを採番します
      * @return
      */
-    private static Long numberNewID() {
+    private static Long numberNewID(Symbol symbol) {
+        if (symbolSequenceId) {
+            return (symbol.ordinal() + 1) * SYMBOL_ID_BASE + symbolSequences.incrementAndGet(symbol.ordinal());
+        }
         return idGenerator.createLongIdDateTime6Number();
     }
 
+    /**
+     * IDの採番方法を変更し、Symbolごとの通番を初期化します。<br>
+     * true の場合は (Symbol.ordinal() + 1) * 10^12 + Symbolごとの通番 で採番します。
+     * 時刻と他Symbolのオーダー作成順に依存しないため、バックテストではRouterによらず同じIDになります。
+     *
+     * @param use Symbolごとの通番で採番する場合 true
+     */
+    public static void changeSymbolSequenceId(boolean use) {
+        for (int i = 0; i < symbolSequences.length(); i++) {
+            symbolSequences.set(i, 0);
+        }
+        symbolSequenceId = use;
+    }
+
     // //////////////////////////////////////
     // Getters and Setters
     // //////////////////////////////////////
@@ -65,6 +65,22 @@ public class PLInformation extends AbstractData {
         this.reportDateTime = reportDateTime;
     }
 
+    /**
+     * 計算済みの明細から作成します。Event Bus などで受信したデータの復元に使用します。
+     */
+    public PLInformation(PLInformationType plInformationType, ModelType modelType, ModelVersion modelVersion,
+            int plJpy, String plDetail, String netAmountDetail, String netAmountCcy, LocalDateTime reportDateTime) {
+        super();
+        this.plInformationType = plInformationType;
+        this.modelType = modelType;
+        this.modelVersion = modelVersion;
+        this.plJpy = plJpy;
+        this.plDetail = plDetail;
+        this.netAmountDetail = netAmountDetail;
+        this.netAmountCcy = netAmountCcy;
+        this.reportDateTime = reportDateTime;
+    }
+
     @Override
     public PLInformation clone() {
         try {
@@ -59,6 +59,23 @@ public class Position extends AbstractData implements Cloneable {
         this.symbol = symbol;
     }
 
+    /**
+     * 保存済みの値からPositionを復元します。Event Journal の Checkpoint から復元する場合に使用します。
+     */
+    public Position(Symbol symbol, int netOpenAmount, double averagePrice, double calcPrice, int totalPlJpy,
+            int realizedPlJpy, double realizedPlCcy2, double realizedPlPips, Long lastExecuteOrderId, LocalDateTime executeDateTime) {
+        this.symbol = symbol;
+        this.netOpenAmount = netOpenAmount;
+        this.averagePrice = averagePrice;
+        this.calcPrice = calcPrice;
+        this.totalPlJpy = totalPlJpy;
+        this.realizedPlJpy = realizedPlJpy;
+        this.realizedPlCcy2 = realizedPlCcy2;
+        this.realizedPlPips = realizedPlPips;
+        this.lastExecuteOrderId = lastExecuteOrderId;
+        this.executeDateTime = executeDateTime;
+    }
+
     @Override
     public Position clone() {
         try {
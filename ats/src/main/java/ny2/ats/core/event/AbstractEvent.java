@@ -19,6 +19,9 @@ public abstract class AbstractEvent<T extends AbstractData> implements IEvent<T>
     /** イベント作成クラス */
     private Class<?> creatorClass;
 
+    /** Routerへの登録時刻(System.nanoTime) レイテンシ計測用 */
+    private long enqueueNanoTime;
+
     // /** 作成時刻 */
     // private LocalDateTime createDateTime;
 
@@ -36,6 +39,18 @@ public abstract class AbstractEvent<T extends AbstractData> implements IEvent<T>
     // Method
     // //////////////////////////////////////
 
+    /**
+     * 再利用時に作成元を設定し直します
+     *
+     * @param creatorUUID
+     * @param creatorClass
+     */
+    protected void reset(UUID creatorUUID, Class<?> creatorClass) {
+        this.creatorUUID = creatorUUID;
+        this.creatorClass = creatorClass;
+        this.enqueueNanoTime = 0L;
+    }
+
     @Override
     public String toString() {
         // 自分と中身のEventを表示する
@@ -57,6 +72,16 @@ public abstract class AbstractEvent<T extends AbstractData> implements IEvent<T>
         return creatorClass;
     }
 
+    @Override
+    public long getEnqueueNanoTime() {
+        return enqueueNanoTime;
+    }
+
+    @Override
+    public void setEnqueueNanoTime(long enqueueNanoTime) {
+        this.enqueueNanoTime = enqueueNanoTime;
+    }
+
     // public LocalDateTime getCreateDateTime() {
     //      return createDateTime;
     // }
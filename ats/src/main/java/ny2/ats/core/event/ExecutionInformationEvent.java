@@ -2,7 +2,9 @@ package ny2.ats.core.event;
 
 import java.util.UUID;
 
+import ny2.ats.core.common.Symbol;
 import ny2.ats.core.data.OptimizedExecution;
+import ny2.ats.market.connection.MarketType;
 
 /**
  * 新規オーダーをあらわすイベントです
@@ -42,4 +44,14 @@ public class ExecutionInformationEvent extends AbstractEvent<OptimizedExecution>
         return optimizedExecution;
     }
 
+    @Override
+    public Symbol getSymbol() {
+        return optimizedExecution.getSymbol();
+    }
+
+    @Override
+    public MarketType getMarketType() {
+        return optimizedExecution.getMarketType();
+    }
+
 }
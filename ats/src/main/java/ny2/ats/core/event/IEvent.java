@@ -2,7 +2,9 @@ package ny2.ats.core.event;
 
 import java.util.UUID;
 
+import ny2.ats.core.common.Symbol;
 import ny2.ats.core.data.IData;
+import ny2.ats.market.connection.MarketType;
 
 public interface IEvent<T extends IData> {
 
@@ -34,4 +36,36 @@ public interface IEvent<T extends IData> {
      */
     public T getContent();
 
+    /**
+     * Return System.nanoTime() when this event was added to the router. 未登録の場合は0です。
+     *
+     * @return long nanoTime
+     */
+    public long getEnqueueNanoTime();
+
+    /**
+     * Set System.nanoTime() when this event is added to the router.
+     *
+     * @param enqueueNanoTime nanoTime
+     */
+    public void setEnqueueNanoTime(long enqueueNanoTime);
+
+    /**
+     * Return Symbol of this event. Symbolを持たないイベントはnullを返します。
+     *
+     * @return Symbol 対象のSymbol
+     */
+    public default Symbol getSymbol() {
+        return null;
+    }
+
+    /**
+     * Return MarketType of this event. MarketTypeを持たないイベントはnullを返します。
+     *
+     * @return MarketType 対象のMarketType
+     */
+    public default MarketType getMarketType() {
+        return null;
+    }
+
 }
@@ -1,5 +1,7 @@
 package ny2.ats.core.event;
 
+import java.util.List;
+
 import ny2.ats.core.exception.UnExpectedEventException;
 
 /**
@@ -99,6 +101,61 @@ public interface IEventListener {
         new UnExpectedEventException(event.getEventType());
     }
 
+    /**
+     * MarketUpdateEvent の間引き(同一Symbol, MarketTypeの未配信分を最新で置き換え)を受け入れるかを返します。
+     * 全Tickが必要なリスナーは false を返してください。
+     *
+     * @return 間引きを受け入れる場合 true
+     */
+    public default boolean isConflatedMarketUpdateAcceptable() {
+        return true;
+    }
+
+    /**
+     * 起動時の Event Journal 再生で MarketUpdate, TimerInformation, OrderUpdate を受信するかを返します。
+     * 再生中に作成したイベントは Router で破棄されます。
+     *
+     * @return 再生対象の場合 true
+     */
+    public default boolean isJournalReplayTarget() {
+        return false;
+    }
+
+    /**
+     * 複数イベントをまとめて受信するかを返します。
+     * true の場合、Routerは受信可能なイベントをまとめて onEvents で送信します。
+     * 非同期型Routerでは Queue の受信Threadから直接呼び出すため、onEvents は重い処理を別Threadに渡して短時間で戻してください。
+     *
+     * @return まとめて受信する場合 true
+     */
+    public default boolean isBatchListener() {
+        return false;
+    }
+
+    /**
+     * Symbol 分割型Router(PartitionedEventRouterImpl)で、Symbol を持つイベントを Symbol の Partition Thread で受信できるかを返します。
+     * true の場合、Symbol を持つイベントの処理では同じ Symbol の状態のみを更新し、他の Symbol の処理と並行して呼び出されても問題ないようにしてください。<br>
+     * false の場合は、同期型Routerと同じ順序で1つのThreadから受信します(Partition で発生したイベントは Barrier でまとめて受信します)。
+     *
+     * @return Partition Thread で受信できる場合 true
+     */
+    public default boolean isSymbolPartitionable() {
+        return false;
+    }
+
+    /**
+     * 同一EventTypeの複数イベント受信処理。
+     * リストは呼び出し後にRouterが再利用する場合があるため、保持する場合はコピーしてください。
+     *
+     * @param eventType - 対象のEventType
+     * @param events - 受信順のイベント
+     */
+    public default void onEvents(EventType eventType, List<? extends IEvent<?>> events) {
+        for (int index = 0; index < events.size(); index++) {
+            onEvent(events.get(index));
+        }
+    }
+
     /**
      * 未定義Event受信処理
      *
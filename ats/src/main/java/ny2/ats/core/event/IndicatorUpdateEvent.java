@@ -2,9 +2,13 @@ package ny2.ats.core.event;
 
 import java.util.UUID;
 
-import ny2.ats.core.data.IndicatorInformation;
+import ny2.ats.core.common.Symbol;
+import ny2.ats.core.data.IndicatorBarInformation;
 
-public class IndicatorUpdateEvent extends AbstractEvent<IndicatorInformation> {
+/**
+ * 足の確定を通知するイベントです。1つの(Symbol, Period)の全Indicatorを1イベントで送信します。
+ */
+public class IndicatorUpdateEvent extends AbstractEvent<IndicatorBarInformation> {
 
     // //////////////////////////////////////
     // Field
@@ -13,16 +17,16 @@ public class IndicatorUpdateEvent extends AbstractEvent<IndicatorInformation> {
     /** Event種別 */
     public static final EventType eventType = EventType.INDICATOR_UPDATE;
 
-    /** Indicator情報 */
-    private final IndicatorInformation indicator;
+    /** 足ごとのIndicator情報 */
+    private final IndicatorBarInformation indicatorBar;
 
     // //////////////////////////////////////
     // Constructor
     // //////////////////////////////////////
 
-    public IndicatorUpdateEvent(UUID creatorUUID, Class<?> creatorClass, IndicatorInformation indicator) {
+    public IndicatorUpdateEvent(UUID creatorUUID, Class<?> creatorClass, IndicatorBarInformation indicatorBar) {
         super(creatorUUID, creatorClass);
-        this.indicator = indicator;
+        this.indicatorBar = indicatorBar;
     }
 
     // //////////////////////////////////////
@@ -35,8 +39,13 @@ public class IndicatorUpdateEvent extends AbstractEvent<IndicatorInformation> {
     }
 
     @Override
-    public IndicatorInformation getContent() {
-        return indicator;
+    public IndicatorBarInformation getContent() {
+        return indicatorBar;
+    }
+
+    @Override
+    public Symbol getSymbol() {
+        return indicatorBar.getSymbol();
     }
 
 }
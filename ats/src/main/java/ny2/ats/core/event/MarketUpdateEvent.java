@@ -20,7 +20,13 @@ public class MarketUpdateEvent extends AbstractEvent<MarketData> {
     public static final EventType eventType = EventType.MARKET_UPDATE;
 
     /** Marketレートデータ */
-    private final MarketData marketData;
+    private MarketData marketData;
+
+    /** 再利用元のPool (再利用しない場合はnull) */
+    private final MarketUpdateEventPool pool;
+
+    /** Poolに返却済みかどうか */
+    private boolean released;
 
     // //////////////////////////////////////
     // Constructor
@@ -29,6 +35,15 @@ public class MarketUpdateEvent extends AbstractEvent<MarketData> {
     public MarketUpdateEvent(UUID creatorUUID, Class<?> creatorClass, MarketData marketData) {
         super(creatorUUID, creatorClass);
         this.marketData = marketData;
+        this.pool = null;
+    }
+
+    /**
+     * MarketUpdateEventPool 用のコンストラクタです
+     */
+    MarketUpdateEvent(MarketUpdateEventPool pool) {
+        super(null, null);
+        this.pool = pool;
     }
 
     public MarketUpdateEvent(UUID creatorUUID, Class<?> creatorClass,
@@ -38,12 +53,42 @@ public class MarketUpdateEvent extends AbstractEvent<MarketData> {
         super(creatorUUID, creatorClass);
 
         this.marketData = new MarketData(marketType, symbol, rateID, bidRate, askRate, bidAmount, askAmount, quoteCondition, marketDateTime);
+        this.pool = null;
     }
 
     // //////////////////////////////////////
     // Method
     // //////////////////////////////////////
 
+    /**
+     * Poolから取り出したイベントに内容を設定します
+     */
+    void reuse(UUID creatorUUID, Class<?> creatorClass, MarketData marketData) {
+        reset(creatorUUID, creatorClass);
+        this.marketData = marketData;
+        this.released = false;
+    }
+
+    /**
+     * Poolへの返却を記録します
+     */
+    void release() {
+        this.released = true;
+    }
+
+    /**
+     * 返却後の参照をPoolに通知します
+     */
+    private void checkReleased() {
+        if (released) {
+            pool.reportAccessAfterRelease(this);
+        }
+    }
+
+    MarketUpdateEventPool getPool() {
+        return pool;
+    }
+
     // //////////////////////////////////////
     // Getters and Setters
     // //////////////////////////////////////
@@ -55,14 +100,24 @@ public class MarketUpdateEvent extends AbstractEvent<MarketData> {
 
     @Override
     public MarketData getContent() {
+        checkReleased();
         return marketData;
     }
 
+    @Override
+    public Symbol getSymbol() {
+        checkReleased();
+        return marketData.getSymbol();
+    }
+
     public MarketData getMarketData() {
+        checkReleased();
         return marketData;
     }
 
+    @Override
     public MarketType getMarketType() {
+        checkReleased();
         return marketData.getMarketType();
     }
 }
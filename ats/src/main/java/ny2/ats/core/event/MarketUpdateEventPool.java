@@ -0,0 +1,141 @@
+package ny2.ats.core.event;
+
+import java.util.ArrayDeque;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ny2.ats.core.data.MarketData;
+
+/**
+ * MarketUpdateEvent を再利用するPoolです。同期型Router(バックテスト)で Tick ごとのイベント(MarketData を包むオブジェクト)の作成を無くすために使用します。<br>
+ * 再利用するのはイベントのみです。MarketData はバックテストでは HistoricalDao がロード時に1行ごとに作成したもので、
+ * ロードしたリストと Listener(Position, 注文管理, Indicator, DB登録の Queue など)が配信後も保持するため、イベントの返却時点では再利用できません。<br>
+ * Router は配信から戻った時点でイベントを返却するため、Listener はコールバック後にイベントを保持してはいけません
+ * (MarketData は再利用しないため、MarketData の保持は問題ありません)。<br>
+ * DEBUG モードではイベントを再利用せず、返却後にイベントを参照した箇所をスタックトレース付きで出力します。
+ */
+public class MarketUpdateEventPool {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketUpdateEventPool.class);
+
+    /** Threadごとの最大保持数(配信中の再入分) */
+    private static final int MAX_POOL_SIZE = 64;
+
+    /** 返却後参照のログ出力上限 */
+    private static final int MAX_LEAK_LOG = 100;
+
+    private final PoolMode poolMode;
+
+    /** 返却済みのイベント。同期型Routerでは作成と返却が同一Threadのため Thread ごとに保持する */
+    private final ThreadLocal<ArrayDeque<MarketUpdateEvent>> freeEvents = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final AtomicLong acquiredCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    public MarketUpdateEventPool(PoolMode poolMode) {
+        this.poolMode = poolMode;
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * MarketUpdateEventを取得します。OFF の場合は毎回作成します。
+     *
+     * @param creatorUUID
+     * @param creatorClass
+     * @param marketData
+     * @return
+     */
+    public MarketUpdateEvent acquire(UUID creatorUUID, Class<?> creatorClass, MarketData marketData) {
+        if (poolMode == PoolMode.OFF) {
+            return new MarketUpdateEvent(creatorUUID, creatorClass, marketData);
+        }
+        acquiredCount.incrementAndGet();
+        MarketUpdateEvent event = poolMode == PoolMode.POOLED ? freeEvents.get().pollLast() : null;
+        if (event == null) {
+            createdCount.incrementAndGet();
+            event = new MarketUpdateEvent(this);
+        }
+        event.reuse(creatorUUID, creatorClass, marketData);
+        return event;
+    }
+
+    /**
+     * 配信を終えたイベントを返却します。このPoolで作成したイベント以外は無視します。
+     *
+     * @param event
+     */
+    public void release(MarketUpdateEvent event) {
+        if (event.getPool() != this) {
+            return;
+        }
+        event.release();
+        if (poolMode == PoolMode.POOLED) {
+            ArrayDeque<MarketUpdateEvent> events = freeEvents.get();
+            if (events.size() < MAX_POOL_SIZE) {
+                events.addLast(event);
+            }
+        }
+    }
+
+    /**
+     * 返却後のイベントが参照されたことを記録します
+     */
+    void reportAccessAfterRelease(MarketUpdateEvent event) {
+        long count = leakCount.incrementAndGet();
+        if (count <= MAX_LEAK_LOG) {
+            logger.warn("MarketUpdateEvent is accessed after release. Listener must not keep the event after callback. count = {}", count,
+                    new IllegalStateException("Access after release"));
+        }
+    }
+
+    /**
+     * Poolの状況を返します
+     */
+    public String checkPoolStatus() {
+        StringBuilder sb = new StringBuilder("[MarketUpdateEvent Pool]\n");
+        sb.append("Mode : ").append(poolMode.name()).append("\n");
+        sb.append("Acquired : ").append(acquiredCount.get()).append(", Created : ").append(createdCount.get()).append("\n");
+        sb.append("Access after release : ").append(leakCount.get());
+        return sb.toString();
+    }
+
+    // //////////////////////////////////////
+    // Getters and Setters
+    // //////////////////////////////////////
+
+    public PoolMode getPoolMode() {
+        return poolMode;
+    }
+
+    // //////////////////////////////////////
+    // Inner Class
+    // //////////////////////////////////////
+
+    /**
+     * イベント再利用のモード
+     */
+    public enum PoolMode {
+        /** 再利用しない */
+        OFF,
+        /** 配信後に返却して再利用する */
+        POOLED,
+        /** 再利用せず、返却後の参照を検出する */
+        DEBUG;
+    }
+
+}
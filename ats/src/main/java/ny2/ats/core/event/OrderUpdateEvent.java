@@ -3,7 +3,9 @@ package ny2.ats.core.event;
 import java.util.UUID;
 
 import ny2.ats.core.common.OrderStatus;
+import ny2.ats.core.common.Symbol;
 import ny2.ats.core.data.Order;
+import ny2.ats.market.connection.MarketType;
 
 /**
  * Orderの更新を表すイベントです。
@@ -48,6 +50,16 @@ public class OrderUpdateEvent extends AbstractEvent<Order> {
         return order;
     }
 
+    @Override
+    public Symbol getSymbol() {
+        return order.getSymbol();
+    }
+
+    @Override
+    public MarketType getMarketType() {
+        return order.getMarketType();
+    }
+
     public OrderStatus getOrderStatus() {
         return order.getOrderStatus();
     }
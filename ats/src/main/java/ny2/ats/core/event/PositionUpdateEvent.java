@@ -2,6 +2,7 @@ package ny2.ats.core.event;
 
 import java.util.UUID;
 
+import ny2.ats.core.common.Symbol;
 import ny2.ats.core.data.Position;
 
 /**
@@ -42,4 +43,9 @@ public class PositionUpdateEvent extends AbstractEvent<Position> {
         return position;
     }
 
+    @Override
+    public Symbol getSymbol() {
+        return position.getSymbol();
+    }
+
 }
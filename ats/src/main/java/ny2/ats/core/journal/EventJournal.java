@@ -0,0 +1,579 @@
+package ny2.ats.core.journal;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import ny2.ats.core.common.OrderStatus;
+import ny2.ats.core.common.Period;
+import ny2.ats.core.common.Symbol;
+import ny2.ats.core.data.MarketData;
+import ny2.ats.core.data.Order;
+import ny2.ats.core.data.Order.OrderBuilder;
+import ny2.ats.core.data.Position;
+import ny2.ats.core.data.TimerInformation;
+import ny2.ats.core.event.EventType;
+import ny2.ats.core.event.IEvent;
+import ny2.ats.core.event.MarketUpdateEvent;
+import ny2.ats.core.event.OrderUpdateEvent;
+import ny2.ats.core.event.PositionUpdateEvent;
+import ny2.ats.market.connection.MarketType;
+
+/**
+ * メモリマップドファイルによる追記型の Event Journal です。<br>
+ * Router に登録された MarketUpdate, MarketOrder, OrderUpdate, TimerInformation を記録し、起動時の再生に使用します。<br>
+ * ファイルは journal.segmentsize ごとの Segment (events-00000.journal, ...) に分割し、新しい書き込みは既存の最後の Segment の次の番号から開始します。<br>
+ * Checkpoint では新しい Segment を開始し、先頭に Checkpoint レコードと、書き込んだイベントから作成した状態
+ * (MarketType, Symbol ごとの最新レート、Position、未約定オーダー)を書き込みます。
+ * 起動時は最新の Checkpoint の Segment 以降のみを再生するため、再生量は前回の Checkpoint からのイベント数で決まります。
+ * Checkpoint は日次Timer(DAILY)とJMXから作成し、Checkpoint より前の Segment はJMXから削除できます。<br>
+ * Checkpoint より前の Tick は再生しないため、Indicator は Checkpoint 以降の Tick のみから再計算されます。
+ * それ以前の履歴が必要な場合は kdb (DBConnectionManager が保存した MarketData) から Checkpoint 日時より前のデータを読み込んでください。
+ * 同じ期間を kdb と Journal の両方から読み込むと二重に計上されます。Position と未約定オーダーは Checkpoint から復元するため kdb からは再構築しません。<br>
+ * レコード形式 : [int 長さ][byte EventType][データ]。長さ 0 は Segment の終端、EventType -1 は Checkpoint を表します。
+ * 長さはデータ書き込み後に書くため、書き込み途中で停止したレコードは再生されません。
+ * Checkpoint レコードの長さは状態の書き込み後に書くため、書き込み途中で停止した Checkpoint は空の Segment として扱われます。
+ */
+@Component
+@ManagedResource(objectName = "EventJournal:name=EventJournal")
+public class EventJournal {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private static final String SEGMENT_PREFIX = "events-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    /** レコードヘッダ(長さ + EventType) */
+    private static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES;
+
+    /** 1レコードの最大サイズ */
+    private static final int MAX_RECORD_SIZE = 64 * 1024;
+
+    /** Checkpointのレコード種別(EventTypeの位置に書き込む) */
+    private static final byte CHECKPOINT_RECORD = -1;
+
+    /** 未約定のオーダーステータス(Checkpointに含めて起動時に復元する) */
+    static final EnumSet<OrderStatus> OPEN_ORDER_STATUSES = EnumSet.of(OrderStatus.NEW, OrderStatus.OPENED, OrderStatus.REPLACING, OrderStatus.CANCELING);
+
+    private final UUID uuid = UUID.randomUUID();
+
+    /** Journalを使用するかどうか */
+    @Value("${journal.enabled:false}")
+    private boolean enabled;
+
+    /** Journalの出力先 */
+    @Value("${journal.directory:journal}")
+    private String directory;
+
+    /** 1 SegmentのサイズMB */
+    @Value("${journal.segmentsize:64}")
+    private int segmentSizeMb;
+
+    /** 日次Timer(DAILY)でCheckpointを作成するかどうか */
+    @Value("${journal.checkpoint.daily:true}")
+    private boolean dailyCheckpoint;
+
+    /** 起動時の再生対象(起動時に存在した最新のCheckpoint以降のSegment) */
+    private final List<Path> replaySegments = new ArrayList<>();
+
+    /** 次回起動時の再生対象(最新のCheckpoint以降のSegment) */
+    private final List<Path> activeSegments = new ArrayList<>();
+
+    /** 最新のCheckpointより前のSegment(再生しないため削除可能) */
+    private final List<Path> obsoleteSegments = new ArrayList<>();
+
+    /** 最新のCheckpoint日時(Market日時) */
+    private LocalDateTime checkpointDateTime;
+
+    /** 起動時のSegmentを再生済みか(再生前はCheckpointの状態が揃わないため作成しない) */
+    private boolean replayed;
+
+    /** 書き込み中のSegment */
+    private int segmentNo;
+    private Path segmentPath;
+    private FileChannel segmentChannel;
+    private MappedByteBuffer segmentBuffer;
+
+    /** エンコード用バッファ(synchronized内で再利用) */
+    private final ByteBuffer encodeBuffer = ByteBuffer.allocate(MAX_RECORD_SIZE);
+
+    private final AtomicLong appendedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    //
+    // Checkpointの状態(書き込んだイベントから作成)
+    //
+    /** MarketType, Symbol ごとの最新MarketData */
+    private final Map<MarketType, Map<Symbol, MarketData>> lastMarketDataMap = new EnumMap<>(MarketType.class);
+
+    /** Symbol ごとの最新MarketData(Position計算用) */
+    private final Map<Symbol, MarketData> symbolMarketDataMap = new EnumMap<>(Symbol.class);
+
+    /** Symbol ごとのPosition */
+    private final Map<Symbol, Position> positionMap = new EnumMap<>(Symbol.class);
+
+    /** OrderId ごとの未約定オーダー */
+    private final Map<Long, Order> openOrderMap = new LinkedHashMap<>();
+
+    /** 最新のMarket日時 */
+    private LocalDateTime lastMarketDateTime;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    public EventJournal() {
+        logger.info("Create instance.");
+    }
+
+    @PostConstruct
+    private void init() throws IOException {
+        logger.info("PostConstruct instance.");
+        if (!enabled) {
+            logger.info("Event Journal is disabled.");
+            return;
+        }
+
+        Path dirPath = Paths.get(directory);
+        Files.createDirectories(dirPath);
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dirPath, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        Collections.sort(segments);
+        segmentNo = segments.isEmpty() ? 0 : parseSegmentNo(segments.get(segments.size() - 1)) + 1;
+
+        // 最新のCheckpoint以降を再生対象とする。Checkpointがない場合は全Segment
+        int replayStartIndex = 0;
+        for (int index = segments.size() - 1; index >= 0; index--) {
+            LocalDateTime dateTime = readCheckpointDateTime(segments.get(index));
+            if (dateTime != null) {
+                replayStartIndex = index;
+                checkpointDateTime = dateTime;
+                break;
+            }
+        }
+        obsoleteSegments.addAll(segments.subList(0, replayStartIndex));
+        replaySegments.addAll(segments.subList(replayStartIndex, segments.size()));
+        activeSegments.addAll(replaySegments);
+        replayed = replaySegments.isEmpty();
+        logger.info("Event Journal directory = {}, checkpoint = {}, replay segments = {}, obsolete segments = {}, next segment = {}",
+                dirPath.toAbsolutePath(), checkpointDateTime, replaySegments.size(), obsoleteSegments.size(), segmentNo);
+    }
+
+    @PreDestroy
+    private void destroy() {
+        synchronized (this) {
+            closeSegment();
+        }
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * イベントを追記します。対象外のイベントは無視します。
+     *
+     * @param event
+     */
+    public void append(IEvent<?> event) {
+        if (!enabled || !EventJournalCodec.isJournalTarget(event.getEventType())) {
+            return;
+        }
+        synchronized (this) {
+            try {
+                writeRecord(event, true);
+                appendedCount.incrementAndGet();
+            } catch (BufferOverflowException | IOException e) {
+                failedCount.incrementAndGet();
+                logger.error("Failed to append event to journal. " + event.getEventType(), e);
+                return;
+            }
+            updateCheckpointState(event);
+
+            // 日次TimerでCheckpointを作成する
+            if (dailyCheckpoint && event.getEventType() == EventType.TIMER_INFORMATION) {
+                TimerInformation timerInformation = (TimerInformation) event.getContent();
+                if (timerInformation.getPeriod() == Period.DAILY) {
+                    checkpoint(timerInformation.getCurrentDateTime());
+                }
+            }
+        }
+    }
+
+    /**
+     * イベントを1レコード書き込みます
+     *
+     * @param event
+     * @param rollable Segmentの残りが足りない場合に次のSegmentに切り替える場合 true。false の場合は BufferOverflowException
+     */
+    private void writeRecord(IEvent<?> event, boolean rollable) throws IOException {
+        encodeBuffer.clear();
+        EventJournalCodec.encode(event, encodeBuffer);
+        encodeBuffer.flip();
+
+        int recordSize = HEADER_SIZE + encodeBuffer.remaining();
+        // 終端マーカー分を残す
+        if (segmentBuffer == null || segmentBuffer.remaining() < recordSize + Integer.BYTES) {
+            if (!rollable) {
+                throw new BufferOverflowException();
+            }
+            rollSegment();
+        }
+        int position = segmentBuffer.position();
+        segmentBuffer.position(position + Integer.BYTES);
+        segmentBuffer.put((byte) event.getEventType().ordinal());
+        segmentBuffer.put(encodeBuffer);
+        // 最後に長さを書く
+        segmentBuffer.putInt(position, recordSize - Integer.BYTES);
+    }
+
+    /**
+     * 書き込んだ(再生した)イベントから Checkpoint の状態を更新します。
+     * Position は PositionManager と同じく、約定時点の最新レートで Position.updatePosition を実行して計算します。
+     *
+     * @param event
+     */
+    private void updateCheckpointState(IEvent<?> event) {
+        switch (event.getEventType()) {
+            case MARKET_UPDATE:
+                MarketData marketData = (MarketData) event.getContent();
+                if (marketData.getMarketType() != null) {
+                    lastMarketDataMap.computeIfAbsent(marketData.getMarketType(), key -> new EnumMap<>(Symbol.class)).put(marketData.getSymbol(), marketData);
+                }
+                symbolMarketDataMap.put(marketData.getSymbol(), marketData);
+                lastMarketDateTime = marketData.getMarketDateTime();
+                break;
+            case MARKET_ORDER:
+            case ORDER_UPDATE:
+                Order order = (Order) event.getContent();
+                if (order.getOrderId() == null) {
+                    break;
+                }
+                if (OPEN_ORDER_STATUSES.contains(order.getOrderStatus())) {
+                    openOrderMap.put(order.getOrderId(), order);
+                } else {
+                    openOrderMap.remove(order.getOrderId());
+                }
+                if (event.getEventType() == EventType.ORDER_UPDATE && order.getOrderStatus() == OrderStatus.FILLED) {
+                    updatePosition(order);
+                }
+                break;
+            case POSITION_UPDATE:
+                // Checkpoint から再生したPosition。再生先と共有しないようコピーを保持する
+                Position position = (Position) event.getContent();
+                positionMap.put(position.getSymbol(), position.clone());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void updatePosition(Order filledOrder) {
+        Symbol symbol = filledOrder.getSymbol();
+        MarketData marketData = symbolMarketDataMap.get(symbol);
+        MarketData ccy2JpyMarketData = symbolMarketDataMap.get(symbol.getCcy2JpySymbol());
+        // ccy2jpyが存在しない場合は、とりあえずUSDJPYで計算する
+        if (ccy2JpyMarketData == null) {
+            ccy2JpyMarketData = symbolMarketDataMap.get(Symbol.USDJPY);
+        }
+        try {
+            positionMap.computeIfAbsent(symbol, Position::new).updatePosition(filledOrder, marketData, ccy2JpyMarketData);
+        } catch (RuntimeException e) {
+            logger.error("Failed to update journal position. " + filledOrder.toStringSummary(), e);
+        }
+    }
+
+    /**
+     * Checkpoint を作成します。新しい Segment を開始し、Checkpoint レコードと現在の状態を書き込みます。
+     * 成功した場合、それまでの Segment は次回起動時に再生されなくなります。
+     *
+     * @param dateTime Checkpoint日時(Market日時)
+     * @return 作成した場合 true
+     */
+    private boolean checkpoint(LocalDateTime dateTime) {
+        if (!replayed) {
+            logger.warn("Checkpoint is skipped. Journal segments are not replayed yet.");
+            return false;
+        }
+        List<Path> previousSegments = new ArrayList<>(activeSegments);
+        int stateCount = 0;
+        try {
+            rollSegment();
+            int markerPosition = segmentBuffer.position();
+            encodeBuffer.clear();
+            EventJournalCodec.encodeCheckpoint(dateTime, encodeBuffer);
+            encodeBuffer.flip();
+            int markerSize = HEADER_SIZE + encodeBuffer.remaining();
+            segmentBuffer.position(markerPosition + Integer.BYTES);
+            segmentBuffer.put(CHECKPOINT_RECORD);
+            segmentBuffer.put(encodeBuffer);
+
+            // 状態を書き込む(最新レート -> Position -> 未約定オーダー)
+            for (Map<Symbol, MarketData> marketDataMap : lastMarketDataMap.values()) {
+                for (MarketData marketData : marketDataMap.values()) {
+                    writeRecord(new MarketUpdateEvent(uuid, getClass(), marketData), false);
+                    stateCount++;
+                }
+            }
+            for (Position position : positionMap.values()) {
+                writeRecord(new PositionUpdateEvent(uuid, getClass(), position), false);
+                stateCount++;
+            }
+            for (Order order : openOrderMap.values()) {
+                // 受信したイベントのオーダー(他のListenerと共有)のため、コピーを書き込む
+                Order snapshot = OrderBuilder.getBuilder(order).createInstance();
+                snapshot.setCreateDateTime(order.getCreateDateTime());
+                writeRecord(new OrderUpdateEvent(uuid, getClass(), snapshot), false);
+                stateCount++;
+            }
+
+            // 状態を書き込んでから Checkpoint の長さを書く
+            segmentBuffer.putInt(markerPosition, markerSize - Integer.BYTES);
+            segmentBuffer.force();
+
+        } catch (BufferOverflowException | IOException e) {
+            failedCount.incrementAndGet();
+            logger.error("Failed to write journal checkpoint. " + dateTime, e);
+            // 書き込み途中のSegmentは空として扱われるため、次の書き込みは新しいSegmentから開始する
+            closeSegment();
+            return false;
+        }
+
+        activeSegments.removeAll(previousSegments);
+        obsoleteSegments.addAll(previousSegments);
+        checkpointDateTime = dateTime;
+        logger.info("Journal checkpoint created. checkpoint = {}, segment = {}, states = {}, obsolete segments = {}",
+                dateTime, segmentPath.getFileName(), stateCount, obsoleteSegments.size());
+        return true;
+    }
+
+    /**
+     * 起動時に存在した最新のCheckpoint以降のSegmentのイベントを順に読み込みます。
+     * Checkpoint の Segment では、先頭の状態(最新レート、Position、未約定オーダー)から読み込みます。
+     *
+     * @param consumer
+     * @return 読み込んだイベント数
+     */
+    public synchronized long readReplaySegments(Consumer<IEvent<?>> consumer) {
+        long count = 0;
+        segmentLoop:
+        for (Path path : replaySegments) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+                while (buffer.remaining() >= HEADER_SIZE) {
+                    int recordPosition = buffer.position();
+                    int length = buffer.getInt();
+                    if (length <= 0 || length > buffer.remaining()) {
+                        break;
+                    }
+                    int nextPosition = buffer.position() + length;
+                    // 読み込むレコードの範囲に制限する
+                    ByteBuffer record = buffer.slice();
+                    record.limit(length);
+                    byte recordType = record.get();
+                    try {
+                        if (recordType == CHECKPOINT_RECORD) {
+                            logger.info("Read journal checkpoint : {}", EventJournalCodec.decodeCheckpoint(record));
+                        } else {
+                            EventType eventType = EventJournalCodec.toEventType(recordType);
+                            if (eventType == null) {
+                                logger.error("Stop journal replay. Unknown record type. segment = {}, position = {}, type = {}", path.getFileName(), recordPosition, recordType);
+                                break segmentLoop;
+                            }
+                            IEvent<?> event = EventJournalCodec.decode(eventType, record);
+                            updateCheckpointState(event);
+                            consumer.accept(event);
+                            count++;
+                        }
+                    } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                        // 壊れたレコード以降は状態の整合性が取れないため、以降のSegmentも含めて再生しない
+                        logger.error("Stop journal replay. Broken record. segment = " + path.getFileName() + ", position = " + recordPosition, e);
+                        break segmentLoop;
+                    }
+                    buffer.position(nextPosition);
+                }
+                logger.info("Read journal segment : {}", path.getFileName());
+            } catch (IOException e) {
+                logger.error("Failed to read journal segment : " + path, e);
+            }
+        }
+        replayed = true;
+        return count;
+    }
+
+    /**
+     * Segment の先頭が Checkpoint レコードの場合、Checkpoint日時を返します
+     *
+     * @param path
+     * @return Checkpoint でない場合 null
+     */
+    private LocalDateTime readCheckpointDateTime(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, Math.min(channel.size(), MAX_RECORD_SIZE));
+            int length = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining() || buffer.get() != CHECKPOINT_RECORD) {
+                return null;
+            }
+            return EventJournalCodec.decodeCheckpoint(buffer);
+        } catch (IOException e) {
+            logger.error("Failed to read journal segment : " + path, e);
+            return null;
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        closeSegment();
+        segmentPath = Paths.get(directory, String.format("%s%05d%s", SEGMENT_PREFIX, segmentNo++, SEGMENT_SUFFIX));
+        segmentChannel = FileChannel.open(segmentPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segmentBuffer = segmentChannel.map(MapMode.READ_WRITE, 0, (long) segmentSizeMb * 1024 * 1024);
+        activeSegments.add(segmentPath);
+        logger.info("Open journal segment : {}", segmentPath.getFileName());
+    }
+
+    private void closeSegment() {
+        if (segmentChannel == null) {
+            return;
+        }
+        try {
+            segmentBuffer.force();
+            segmentChannel.close();
+        } catch (IOException e) {
+            logger.error("Failed to close journal segment : " + segmentPath, e);
+        }
+        segmentBuffer = null;
+        segmentChannel = null;
+    }
+
+    private int parseSegmentNo(Path path) {
+        String fileName = path.getFileName().toString();
+        return Integer.parseInt(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * 書き込み中のSegmentをディスクに反映します
+     */
+    @ManagedOperation
+    public synchronized void force() {
+        if (segmentBuffer != null) {
+            segmentBuffer.force();
+        }
+    }
+
+    /**
+     * Checkpoint を作成します。Market日時は最後に書き込んだMarketUpdateの日時です。
+     */
+    @ManagedOperation
+    public synchronized String createCheckpoint() {
+        if (!enabled) {
+            return "Event Journal is disabled.";
+        }
+        LocalDateTime dateTime = lastMarketDateTime != null ? lastMarketDateTime : LocalDateTime.now();
+        if (!checkpoint(dateTime)) {
+            return "Failed to create checkpoint. " + dateTime;
+        }
+        return String.format("Checkpoint created : %s, %s", dateTime, segmentPath.getFileName());
+    }
+
+    /**
+     * 最新のCheckpointより前のSegment(次回起動時に再生しないSegment)を削除します
+     */
+    @ManagedOperation
+    public synchronized String deleteObsoleteSegments() {
+        StringBuilder sb = new StringBuilder("[Delete Segments] checkpoint = ").append(checkpointDateTime).append("\n");
+        List<Path> deletedSegments = new ArrayList<>();
+        for (Path path : obsoleteSegments) {
+            try {
+                Files.deleteIfExists(path);
+                deletedSegments.add(path);
+                sb.append(path.getFileName()).append("\n");
+            } catch (IOException e) {
+                logger.error("Failed to delete journal segment : " + path, e);
+            }
+        }
+        obsoleteSegments.removeAll(deletedSegments);
+        logger.info("Delete journal segments before checkpoint. checkpoint = {}, segments = {}", checkpointDateTime, deletedSegments.size());
+        return sb.toString();
+    }
+
+    /**
+     * Journalの状況をチェックします
+     */
+    @ManagedOperation
+    public synchronized String checkJournalStatus() {
+        StringBuilder sb = new StringBuilder("[Journal Status]\n");
+        sb.append("Enabled : ").append(enabled).append("\n");
+        sb.append("Checkpoint : ").append(checkpointDateTime).append(" (daily=").append(dailyCheckpoint).append(")\n");
+        sb.append("Replay Segments : ").append(replaySegments.size())
+                .append(", Active : ").append(activeSegments.size())
+                .append(", Obsolete : ").append(obsoleteSegments.size()).append("\n");
+        sb.append("Checkpoint State : marketData=").append(lastMarketDataMap.values().stream().mapToInt(Map::size).sum())
+                .append(", position=").append(positionMap.size())
+                .append(", openOrder=").append(openOrderMap.size()).append("\n");
+        sb.append("Current Segment : ").append(segmentPath == null ? "-" : segmentPath.getFileName())
+                .append(", position=").append(segmentBuffer == null ? 0 : segmentBuffer.position()).append("\n");
+        sb.append("Appended : ").append(appendedCount.get()).append(", Failed : ").append(failedCount.get());
+        return sb.toString();
+    }
+
+    // //////////////////////////////////////
+    // Getters and Setters
+    // //////////////////////////////////////
+
+    @ManagedAttribute
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 最新のCheckpoint日時(Market日時)を返します。
+     * kdb から履歴を読み込む場合は、この日時より前のデータを使用します。
+     *
+     * @return Checkpoint がない場合 null
+     */
+    public synchronized LocalDateTime getCheckpointDateTime() {
+        return checkpointDateTime;
+    }
+
+}
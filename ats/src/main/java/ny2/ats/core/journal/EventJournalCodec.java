@@ -0,0 +1,570 @@
+package ny2.ats.core.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import ny2.ats.core.common.OrderAction;
+import ny2.ats.core.common.OrderStatus;
+import ny2.ats.core.common.OrderType;
+import ny2.ats.core.common.Period;
+import ny2.ats.core.common.Side;
+import ny2.ats.core.common.Symbol;
+import ny2.ats.core.data.MarketData;
+import ny2.ats.core.data.ModelInformation;
+import ny2.ats.core.data.ModelInformation.ModelInfromationType;
+import ny2.ats.core.data.Order;
+import ny2.ats.core.data.PLInformation;
+import ny2.ats.core.data.PLInformation.PLInformationType;
+import ny2.ats.core.data.Position;
+import ny2.ats.core.data.TimerInformation;
+import ny2.ats.core.event.EventType;
+import ny2.ats.core.event.IEvent;
+import ny2.ats.core.event.MarketOrderEvent;
+import ny2.ats.core.event.MarketUpdateEvent;
+import ny2.ats.core.event.ModelInformationEvent;
+import ny2.ats.core.event.OrderUpdateEvent;
+import ny2.ats.core.event.PLInformationEvent;
+import ny2.ats.core.event.PositionUpdateEvent;
+import ny2.ats.core.event.TimerInformationEvent;
+import ny2.ats.core.exception.UnExpectedEventException;
+import ny2.ats.historical.HistoricalTesterSetup;
+import ny2.ats.information.TimerChecker;
+import ny2.ats.market.connection.MarketType;
+import ny2.ats.market.connection.historical.HistoricalConnector;
+import ny2.ats.market.order.impl.HistoricalOrderManagerImpl;
+import ny2.ats.model.ModelType;
+import ny2.ats.model.ModelVersion;
+import ny2.ats.model.impl.ModelManagerImpl;
+import ny2.ats.position.impl.PositionManagerImpl;
+
+/**
+ * Event Journal のバイナリ形式への変換を行うクラスです。<br>
+ * 対象は MarketUpdate, MarketOrder, OrderUpdate, TimerInformation です。PositionUpdate は Checkpoint の状態としてのみ保存します。
+ * Event Bus ではこれらに加えて ModelInformation, PLInformation を送信します。
+ * enum は ordinal、LocalDateTime は UTC の epochSecond + nano、文字列は長さ付き UTF-8 で保存します。<br>
+ * イベントの作成元は、作成クラスの番号(CREATOR_CLASSES の index, 1byte)と UUID(16byte 固定長)で保存します。
+ * 一覧にない作成クラスの場合のみ、番号の後にクラス名を保存します。
+ */
+public class EventJournalCodec {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    private static final byte NULL_ENUM = -1;
+    private static final int NULL_LENGTH = -1;
+
+    private static final Symbol[] SYMBOLS = Symbol.values();
+    private static final MarketType[] MARKET_TYPES = MarketType.values();
+    private static final OrderAction[] ORDER_ACTIONS = OrderAction.values();
+    private static final OrderStatus[] ORDER_STATUSES = OrderStatus.values();
+    private static final ModelType[] MODEL_TYPES = ModelType.values();
+    private static final Side[] SIDES = Side.values();
+    private static final OrderType[] ORDER_TYPES = OrderType.values();
+    private static final Period[] PERIODS = Period.values();
+    private static final ModelInfromationType[] MODEL_INFORMATION_TYPES = ModelInfromationType.values();
+    private static final PLInformationType[] PL_INFORMATION_TYPES = PLInformationType.values();
+    private static final EventType[] EVENT_TYPES = EventType.values();
+
+    /**
+     * Journal / Event Bus の対象イベントを作成するクラス。index を保存するため、追加は末尾に行ってください
+     */
+    private static final Class<?>[] CREATOR_CLASSES = {
+            EventJournal.class,
+            HistoricalConnector.class,
+            HistoricalTesterSetup.class,
+            HistoricalOrderManagerImpl.class,
+            TimerChecker.class,
+            ModelManagerImpl.class,
+            PositionManagerImpl.class,
+            EventJournalReplayer.class };
+
+    /** 作成クラス -> CREATOR_CLASSES の index */
+    private static final Map<Class<?>, Byte> CREATOR_INDEX_MAP = new IdentityHashMap<>();
+
+    /** CREATOR_CLASSES にない作成クラス(番号の後にクラス名を保存する) */
+    private static final byte OTHER_CREATOR = -2;
+
+    /** UUID が null の場合に保存する値 */
+    private static final UUID NULL_UUID = new UUID(0L, 0L);
+
+    /** 作成クラスごとの最後に復元した UUID。作成元ごとに UUID は固定のため、同じ値であれば再利用する */
+    private static final UUID[] lastCreatorUUIDs = new UUID[CREATOR_CLASSES.length];
+
+    static {
+        for (int i = 0; i < CREATOR_CLASSES.length; i++) {
+            CREATOR_INDEX_MAP.put(CREATOR_CLASSES[i], (byte) i);
+        }
+    }
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    private EventJournalCodec() {
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * Journal対象のEventTypeかを返します
+     *
+     * @param eventType
+     * @return
+     */
+    public static boolean isJournalTarget(EventType eventType) {
+        switch (eventType) {
+            case MARKET_UPDATE:
+            case MARKET_ORDER:
+            case ORDER_UPDATE:
+            case TIMER_INFORMATION:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Event Bus で送信できるEventTypeかを返します。
+     * IndicatorUpdate は Indicator への参照を持つため対象外です。
+     *
+     * @param eventType
+     * @return
+     */
+    public static boolean isBusTarget(EventType eventType) {
+        switch (eventType) {
+            case MODEL_INFORMATION:
+            case PL_INFORMATION:
+                return true;
+            default:
+                return isJournalTarget(eventType);
+        }
+    }
+
+    /**
+     * レコードに書き込んだ EventType の ordinal から EventType を返します
+     *
+     * @param ordinal
+     * @return 範囲外の場合 null
+     */
+    public static EventType toEventType(byte ordinal) {
+        return ordinal >= 0 && ordinal < EVENT_TYPES.length ? EVENT_TYPES[ordinal] : null;
+    }
+
+    /**
+     * イベントをバッファに書き込みます。EventTypeは含みません。
+     *
+     * @param event
+     * @param buffer
+     */
+    public static void encode(IEvent<?> event, ByteBuffer buffer) {
+        putCreator(buffer, event.getCreatorClass(), event.getCreatorUUID());
+
+        switch (event.getEventType()) {
+            case MARKET_UPDATE:
+                encodeMarketData(((MarketUpdateEvent) event).getContent(), buffer);
+                break;
+            case MARKET_ORDER:
+            case ORDER_UPDATE:
+                encodeOrder((Order) event.getContent(), buffer);
+                break;
+            case TIMER_INFORMATION:
+                encodeTimerInformation(((TimerInformationEvent) event).getContent(), buffer);
+                break;
+            case POSITION_UPDATE:
+                encodePosition(((PositionUpdateEvent) event).getContent(), buffer);
+                break;
+            case MODEL_INFORMATION:
+                encodeModelInformation(((ModelInformationEvent) event).getContent(), buffer);
+                break;
+            case PL_INFORMATION:
+                encodePLInformation(((PLInformationEvent) event).getContent(), buffer);
+                break;
+            default:
+                throw new UnExpectedEventException(event.getEventType());
+        }
+    }
+
+    /**
+     * バッファからイベントを復元します
+     *
+     * @param eventType
+     * @param buffer
+     * @return
+     */
+    public static IEvent<?> decode(EventType eventType, ByteBuffer buffer) {
+        byte creatorIndex = buffer.get();
+        Class<?> creatorClass;
+        if (creatorIndex == NULL_ENUM) {
+            creatorClass = null;
+        } else if (creatorIndex == OTHER_CREATOR) {
+            creatorClass = getClass(getString(buffer));
+        } else {
+            creatorClass = CREATOR_CLASSES[creatorIndex];
+        }
+        UUID creatorUUID = getCreatorUUID(buffer, creatorIndex);
+
+        switch (eventType) {
+            case MARKET_UPDATE:
+                return new MarketUpdateEvent(creatorUUID, creatorClass, decodeMarketData(buffer));
+            case MARKET_ORDER:
+                return new MarketOrderEvent(creatorUUID, creatorClass, decodeOrder(buffer));
+            case ORDER_UPDATE:
+                return new OrderUpdateEvent(creatorUUID, creatorClass, decodeOrder(buffer));
+            case TIMER_INFORMATION:
+                TimerInformation timerInformation = decodeTimerInformation(buffer);
+                return new TimerInformationEvent(creatorUUID, creatorClass,
+                        timerInformation.getPeriod(), timerInformation.getCurrentDateTime(), timerInformation.getNextDateTime());
+            case POSITION_UPDATE:
+                return new PositionUpdateEvent(creatorUUID, creatorClass, decodePosition(buffer));
+            case MODEL_INFORMATION:
+                return new ModelInformationEvent(creatorUUID, creatorClass, decodeModelInformation(buffer));
+            case PL_INFORMATION:
+                return new PLInformationEvent(creatorUUID, creatorClass, decodePLInformation(buffer));
+            default:
+                throw new UnExpectedEventException(eventType);
+        }
+    }
+
+    /**
+     * Checkpoint の日時をバッファに書き込みます
+     *
+     * @param checkpointDateTime
+     * @param buffer
+     */
+    public static void encodeCheckpoint(LocalDateTime checkpointDateTime, ByteBuffer buffer) {
+        putDateTime(buffer, checkpointDateTime);
+    }
+
+    /**
+     * バッファから Checkpoint の日時を復元します
+     *
+     * @param buffer
+     * @return
+     */
+    public static LocalDateTime decodeCheckpoint(ByteBuffer buffer) {
+        return getDateTime(buffer);
+    }
+
+    //
+    // Data
+    //
+
+    private static void encodeMarketData(MarketData marketData, ByteBuffer buffer) {
+        putEnum(buffer, marketData.getMarketType());
+        putEnum(buffer, marketData.getSymbol());
+        putString(buffer, marketData.getQuoteId());
+        buffer.putDouble(marketData.getBidPrice());
+        buffer.putDouble(marketData.getAskPrice());
+        buffer.putInt(marketData.getBidAmount());
+        buffer.putInt(marketData.getAskAmount());
+        buffer.put(marketData.isQuoteCondition() ? (byte) 1 : (byte) 0);
+        putDateTime(buffer, marketData.getMarketDateTime());
+    }
+
+    private static MarketData decodeMarketData(ByteBuffer buffer) {
+        MarketType marketType = getEnum(buffer, MARKET_TYPES);
+        Symbol symbol = getEnum(buffer, SYMBOLS);
+        String quoteId = getString(buffer);
+        double bidPrice = buffer.getDouble();
+        double askPrice = buffer.getDouble();
+        int bidAmount = buffer.getInt();
+        int askAmount = buffer.getInt();
+        boolean quoteCondition = buffer.get() == 1;
+        LocalDateTime marketDateTime = getDateTime(buffer);
+        return new MarketData(marketType, symbol, quoteId, bidPrice, askPrice, bidAmount, askAmount, quoteCondition, marketDateTime);
+    }
+
+    private static void encodeOrder(Order order, ByteBuffer buffer) {
+        putEnum(buffer, order.getSymbol());
+        putEnum(buffer, order.getMarketType());
+        putLong(buffer, order.getOrderId());
+        putEnum(buffer, order.getOrderAction());
+        putEnum(buffer, order.getOrderStatus());
+        putEnum(buffer, order.getModelType());
+        putModelVersion(buffer, order.getModelVersion());
+        putEnum(buffer, order.getSide());
+        putEnum(buffer, order.getOrderType());
+        buffer.putDouble(order.getOrderPrice());
+        buffer.putInt(order.getOrderAmount());
+        putString(buffer, order.getQuoteId());
+        putString(buffer, order.getMarketPositionId());
+        buffer.putDouble(order.getExecutePrice());
+        buffer.putInt(order.getExecuteAmount());
+        putLong(buffer, order.getOriginalOrderId());
+        putString(buffer, order.getOriginalMarketId());
+        putDateTime(buffer, order.getMarketDateTime());
+        putDateTime(buffer, order.getOrderDateTime());
+        buffer.put(order.isUseOrderOptimizer() ? (byte) 1 : (byte) 0);
+    }
+
+    private static Order decodeOrder(ByteBuffer buffer) {
+        Symbol symbol = getEnum(buffer, SYMBOLS);
+        MarketType marketType = getEnum(buffer, MARKET_TYPES);
+        Long orderId = getLong(buffer);
+        OrderAction orderAction = getEnum(buffer, ORDER_ACTIONS);
+        OrderStatus orderStatus = getEnum(buffer, ORDER_STATUSES);
+        ModelType modelType = getEnum(buffer, MODEL_TYPES);
+        ModelVersion modelVersion = getModelVersion(buffer);
+        Side side = getEnum(buffer, SIDES);
+        OrderType orderType = getEnum(buffer, ORDER_TYPES);
+        double orderPrice = buffer.getDouble();
+        int orderAmount = buffer.getInt();
+        String quoteId = getString(buffer);
+        String marketPositionId = getString(buffer);
+        double executePrice = buffer.getDouble();
+        int executeAmount = buffer.getInt();
+        Long originalOrderId = getLong(buffer);
+        String originalMarketId = getString(buffer);
+        LocalDateTime marketDateTime = getDateTime(buffer);
+        LocalDateTime orderDateTime = getDateTime(buffer);
+        boolean useOrderOptimizer = buffer.get() == 1;
+        return new Order(symbol, marketType, orderId, orderAction, orderStatus, modelType, modelVersion, side, orderType,
+                orderPrice, orderAmount, quoteId, marketPositionId, executePrice, executeAmount, originalOrderId, originalMarketId,
+                marketDateTime, orderDateTime, useOrderOptimizer);
+    }
+
+    private static void encodeTimerInformation(TimerInformation timerInformation, ByteBuffer buffer) {
+        putEnum(buffer, timerInformation.getPeriod());
+        putDateTime(buffer, timerInformation.getCurrentDateTime());
+        putDateTime(buffer, timerInformation.getNextDateTime());
+    }
+
+    private static TimerInformation decodeTimerInformation(ByteBuffer buffer) {
+        Period period = getEnum(buffer, PERIODS);
+        LocalDateTime currentDateTime = getDateTime(buffer);
+        LocalDateTime nextDateTime = getDateTime(buffer);
+        return new TimerInformation(period, currentDateTime, nextDateTime);
+    }
+
+    private static void encodePosition(Position position, ByteBuffer buffer) {
+        putEnum(buffer, position.getSymbol());
+        buffer.putInt(position.getNetOpenAmount());
+        buffer.putDouble(position.getAveragePrice());
+        buffer.putDouble(position.getCalcPrice());
+        buffer.putInt(position.getTotalPlJpy());
+        buffer.putInt(position.getRealizedPlJpy());
+        buffer.putDouble(position.getRealizedPlCcy2());
+        buffer.putDouble(position.getRealizedPlPips());
+        putLong(buffer, position.getLastExecuteOrderId());
+        putDateTime(buffer, position.getExecuteDateTime());
+    }
+
+    private static Position decodePosition(ByteBuffer buffer) {
+        Symbol symbol = getEnum(buffer, SYMBOLS);
+        int netOpenAmount = buffer.getInt();
+        double averagePrice = buffer.getDouble();
+        double calcPrice = buffer.getDouble();
+        int totalPlJpy = buffer.getInt();
+        int realizedPlJpy = buffer.getInt();
+        double realizedPlCcy2 = buffer.getDouble();
+        double realizedPlPips = buffer.getDouble();
+        Long lastExecuteOrderId = getLong(buffer);
+        LocalDateTime executeDateTime = getDateTime(buffer);
+        return new Position(symbol, netOpenAmount, averagePrice, calcPrice, totalPlJpy,
+                realizedPlJpy, realizedPlCcy2, realizedPlPips, lastExecuteOrderId, executeDateTime);
+    }
+
+    private static void encodeModelInformation(ModelInformation modelInformation, ByteBuffer buffer) {
+        putEnum(buffer, modelInformation.getModelType());
+        putModelVersion(buffer, modelInformation.getModelVersion());
+        putEnum(buffer, modelInformation.getModelInfromationType());
+        putString(buffer, modelInformation.getInformation1());
+        putString(buffer, modelInformation.getInformation2());
+        putString(buffer, modelInformation.getInformation3());
+        putString(buffer, modelInformation.getInformation4());
+        putString(buffer, modelInformation.getInformation5());
+        putDateTime(buffer, modelInformation.getReportDateTime());
+    }
+
+    private static ModelInformation decodeModelInformation(ByteBuffer buffer) {
+        ModelType modelType = getEnum(buffer, MODEL_TYPES);
+        ModelVersion modelVersion = getModelVersion(buffer);
+        ModelInfromationType modelInfromationType = getEnum(buffer, MODEL_INFORMATION_TYPES);
+        String information1 = getString(buffer);
+        String information2 = getString(buffer);
+        String information3 = getString(buffer);
+        String information4 = getString(buffer);
+        String information5 = getString(buffer);
+        LocalDateTime reportDateTime = getDateTime(buffer);
+        return new ModelInformation(modelType, modelVersion, modelInfromationType,
+                information1, information2, information3, information4, information5, reportDateTime);
+    }
+
+    private static void encodePLInformation(PLInformation plInformation, ByteBuffer buffer) {
+        putEnum(buffer, plInformation.getPlInformationType());
+        putEnum(buffer, plInformation.getModelType());
+        putModelVersion(buffer, plInformation.getModelVersion());
+        buffer.putInt(plInformation.getPlJpy());
+        putString(buffer, plInformation.getPlDetail());
+        putString(buffer, plInformation.getNetAmountDetail());
+        putString(buffer, plInformation.getNetAmountCcy());
+        putDateTime(buffer, plInformation.getReportDateTime());
+    }
+
+    private static PLInformation decodePLInformation(ByteBuffer buffer) {
+        PLInformationType plInformationType = getEnum(buffer, PL_INFORMATION_TYPES);
+        ModelType modelType = getEnum(buffer, MODEL_TYPES);
+        ModelVersion modelVersion = getModelVersion(buffer);
+        int plJpy = buffer.getInt();
+        String plDetail = getString(buffer);
+        String netAmountDetail = getString(buffer);
+        String netAmountCcy = getString(buffer);
+        LocalDateTime reportDateTime = getDateTime(buffer);
+        return new PLInformation(plInformationType, modelType, modelVersion, plJpy, plDetail, netAmountDetail, netAmountCcy, reportDateTime);
+    }
+
+    //
+    // Primitive
+    //
+
+    private static void putModelVersion(ByteBuffer buffer, ModelVersion modelVersion) {
+        putString(buffer, modelVersion == null ? null : modelVersion.getName());
+    }
+
+    private static ModelVersion getModelVersion(ByteBuffer buffer) {
+        String modelVersionName = getString(buffer);
+        return modelVersionName == null ? null : new JournalModelVersion(modelVersionName);
+    }
+
+    private static void putEnum(ByteBuffer buffer, Enum<?> value) {
+        buffer.put(value == null ? NULL_ENUM : (byte) value.ordinal());
+    }
+
+    private static <E extends Enum<E>> E getEnum(ByteBuffer buffer, E[] values) {
+        byte ordinal = buffer.get();
+        return ordinal == NULL_ENUM ? null : values[ordinal];
+    }
+
+    private static void putLong(ByteBuffer buffer, Long value) {
+        if (value == null) {
+            buffer.put((byte) 0);
+        } else {
+            buffer.put((byte) 1);
+            buffer.putLong(value);
+        }
+    }
+
+    private static Long getLong(ByteBuffer buffer) {
+        return buffer.get() == 0 ? null : buffer.getLong();
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putDateTime(ByteBuffer buffer, LocalDateTime dateTime) {
+        if (dateTime == null) {
+            buffer.put((byte) 0);
+            return;
+        }
+        buffer.put((byte) 1);
+        buffer.putLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(dateTime.getNano());
+    }
+
+    private static LocalDateTime getDateTime(ByteBuffer buffer) {
+        if (buffer.get() == 0) {
+            return null;
+        }
+        long epochSecond = buffer.getLong();
+        int nano = buffer.getInt();
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    private static void putCreator(ByteBuffer buffer, Class<?> creatorClass, UUID creatorUUID) {
+        if (creatorClass == null) {
+            buffer.put(NULL_ENUM);
+        } else {
+            Byte creatorIndex = CREATOR_INDEX_MAP.get(creatorClass);
+            if (creatorIndex != null) {
+                buffer.put(creatorIndex.byteValue());
+            } else {
+                buffer.put(OTHER_CREATOR);
+                putString(buffer, creatorClass.getName());
+            }
+        }
+        UUID uuid = creatorUUID == null ? NULL_UUID : creatorUUID;
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getCreatorUUID(ByteBuffer buffer, byte creatorIndex) {
+        long most = buffer.getLong();
+        long least = buffer.getLong();
+        if (most == 0L && least == 0L) {
+            return null;
+        }
+        if (creatorIndex < 0) {
+            return new UUID(most, least);
+        }
+        // 複数Threadから呼ばれるが、UUID は不変のため最新の参照が見えなくても作成し直すだけ
+        UUID uuid = lastCreatorUUIDs[creatorIndex];
+        if (uuid == null || uuid.getMostSignificantBits() != most || uuid.getLeastSignificantBits() != least) {
+            uuid = new UUID(most, least);
+            lastCreatorUUIDs[creatorIndex] = uuid;
+        }
+        return uuid;
+    }
+
+    private static Class<?> getClass(String className) {
+        if (className == null) {
+            return null;
+        }
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            return EventJournalReplayer.class;
+        }
+    }
+
+    // //////////////////////////////////////
+    // Inner Class
+    // //////////////////////////////////////
+
+    /**
+     * Journalから復元したModelVersionです。名前のみ保持します。
+     */
+    static class JournalModelVersion implements ModelVersion {
+
+        private final String name;
+
+        JournalModelVersion(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+}
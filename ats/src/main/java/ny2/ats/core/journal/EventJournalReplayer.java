@@ -0,0 +1,152 @@
+package ny2.ats.core.journal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import ny2.ats.core.data.Order;
+import ny2.ats.core.data.Position;
+import ny2.ats.core.event.EventType;
+import ny2.ats.core.event.IEvent;
+import ny2.ats.core.event.IEventListener;
+import ny2.ats.core.router.IEventRouter;
+import ny2.ats.market.order.IOrderManager;
+import ny2.ats.position.IPositionHolder;
+
+/**
+ * Event Journal を再生して起動前の状態を復元するクラスです。<br>
+ * MarketUpdate, TimerInformation, OrderUpdate を isJournalReplayTarget() が true の Listener に直接配信し、
+ * Indicator や Position を再計算します。再生中は Router へのイベント登録を抑止し、派生イベントは配信しません。<br>
+ * 再生は最新の Checkpoint から開始し、Checkpoint の Position は PositionHolder に復元してから以降の約定を反映します。
+ * 最終状態が未約定のオーダーは対象の OrderManager に復元します。<br>
+ * Checkpoint より前の Tick は再生しないため、Indicator の履歴は kdb から補完します(EventJournal 参照)。
+ */
+@Service
+public class EventJournalReplayer {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /** Listenerへ再配信するEventType */
+    private static final EnumSet<EventType> REPLAY_EVENT_TYPES = EnumSet.of(EventType.MARKET_UPDATE, EventType.TIMER_INFORMATION, EventType.ORDER_UPDATE);
+
+    @Autowired
+    private EventJournal eventJournal;
+
+    @Autowired
+    private IEventRouter eventRouter;
+
+    @Autowired(required = false)
+    private List<IEventListener> eventListeners = Collections.emptyList();
+
+    @Autowired(required = false)
+    private List<IOrderManager> orderManagers = Collections.emptyList();
+
+    @Autowired(required = false)
+    private IPositionHolder positionHolder;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    public EventJournalReplayer() {
+        logger.info("Create instance.");
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * Journalを再生します。Listener登録後、Marketへの接続前に呼び出してください。
+     */
+    public void replay() {
+        if (!eventJournal.isEnabled()) {
+            return;
+        }
+        List<IEventListener> targetListeners = new ArrayList<>();
+        for (IEventListener listener : eventListeners) {
+            if (listener.isJournalReplayTarget()) {
+                targetListeners.add(listener);
+            }
+        }
+        logger.info("Start journal replay. checkpoint = {}, target listeners = {}", eventJournal.getCheckpointDateTime(), targetListeners.size());
+
+        // OrderIdごとの最新オーダー
+        Map<Long, Order> lastOrderMap = new LinkedHashMap<>();
+
+        eventRouter.setSuppressEvents(true);
+        long count;
+        try {
+            count = eventJournal.readReplaySegments(event -> {
+                EventType eventType = event.getEventType();
+                if (eventType == EventType.MARKET_ORDER || eventType == EventType.ORDER_UPDATE) {
+                    Order order = (Order) event.getContent();
+                    if (order.getOrderId() != null) {
+                        lastOrderMap.put(order.getOrderId(), order);
+                    }
+                }
+                if (eventType == EventType.POSITION_UPDATE) {
+                    restorePosition((Position) event.getContent());
+                }
+                if (REPLAY_EVENT_TYPES.contains(eventType)) {
+                    sendEvent(targetListeners, event);
+                }
+            });
+        } finally {
+            eventRouter.setSuppressEvents(false);
+        }
+
+        int restoredCount = restoreOpenOrders(lastOrderMap);
+        logger.info("End journal replay. events = {}, restored open orders = {}", count, restoredCount);
+    }
+
+    private void sendEvent(List<IEventListener> targetListeners, IEvent<?> event) {
+        for (int index = 0; index < targetListeners.size(); index++) {
+            try {
+                targetListeners.get(index).onEvent(event);
+            } catch (Throwable t) {
+                logger.error("Error in replaying event. " + event.getEventType(), t);
+            }
+        }
+    }
+
+    private void restorePosition(Position position) {
+        if (positionHolder == null) {
+            return;
+        }
+        positionHolder.restorePosition(position);
+        logger.info("Restore position : {}", position.toStringSummary());
+    }
+
+    private int restoreOpenOrders(Map<Long, Order> lastOrderMap) {
+        int restoredCount = 0;
+        for (Order order : lastOrderMap.values()) {
+            if (!EventJournal.OPEN_ORDER_STATUSES.contains(order.getOrderStatus()) || order.getMarketType() == null) {
+                continue;
+            }
+            Class<? extends IOrderManager> orderManagerClass = order.getMarketType().getOrderManagerClass();
+            for (IOrderManager orderManager : orderManagers) {
+                if (orderManagerClass != null && orderManagerClass.isInstance(orderManager)) {
+                    orderManager.restoreOpenOrder(order);
+                    restoredCount++;
+                    logger.info("Restore open order : {}", order.toStringSummary());
+                    break;
+                }
+            }
+        }
+        return restoredCount;
+    }
+
+}
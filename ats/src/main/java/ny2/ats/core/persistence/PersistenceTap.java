@@ -0,0 +1,315 @@
+package ny2.ats.core.persistence;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import ny2.ats.core.data.IData;
+import ny2.ats.core.event.EventType;
+import ny2.ats.core.event.IEvent;
+
+/**
+ * Router に登録されたイベントのデータを、Listener への配信を経由せずにDB登録側へ渡すクラスです。<br>
+ * EventType ごとに事前確保した固定サイズの Ring を持ち、Router の登録時(acceptEvent)にデータの参照のみを書き込みます。
+ * 書き込みは複数Threadからロックなしで行い、読み込みは DB登録側の1Thread(drainTo)のみです。<br>
+ * Ring が満杯の場合は EventType ごとの OverflowPolicy に従い、DROP は即時に破棄、BLOCK は待機時間まで待ってから破棄します。
+ */
+@Component
+@ManagedResource(objectName = "EventRouter:name=PersistenceTap")
+public class PersistenceTap {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /** 待機時のpark時間 */
+    private static final long PARK_NANOSEC = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /** 破棄不可のEventType(デフォルトBLOCK) */
+    private static final EnumSet<EventType> BLOCKING_EVENT_TYPES = EnumSet.of(EventType.MARKET_ORDER, EventType.ORDER_UPDATE);
+
+    /** Tapを使用するかどうか */
+    @Value("${persistence.tap.enabled:false}")
+    private boolean enabled;
+
+    /** RingのサイズEventTypeごと(2の累乗) */
+    @Value("${persistence.tap.capacity:65536}")
+    private int capacity;
+
+    /** 満杯時の動作 EVENT_TYPE:POLICY (カンマ区切り) */
+    @Value("${persistence.tap.overflow:}")
+    private String overflowPolicySetting;
+
+    /** BLOCK の最大待機時間(ミリ秒) */
+    @Value("${persistence.tap.blocktimeout:1000}")
+    private long blockTimeoutMillis;
+
+    /** EventType.ordinal() で参照する Ring。open されていないEventTypeはnull */
+    private volatile TapRing[] rings = new TapRing[EventType.values().length];
+
+    /** EventTypeごとの満杯時の動作 */
+    private final Map<EventType, OverflowPolicy> overflowPolicyMap = new EnumMap<>(EventType.class);
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    public PersistenceTap() {
+        logger.info("Create instance.");
+    }
+
+    @PostConstruct
+    private void init() {
+        logger.info("PostConstruct instance.");
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Persistence tap capacity must be a power of 2. capacity = " + capacity);
+        }
+        for (EventType eventType : EventType.values()) {
+            overflowPolicyMap.put(eventType, BLOCKING_EVENT_TYPES.contains(eventType) ? OverflowPolicy.BLOCK : OverflowPolicy.DROP);
+        }
+        if (StringUtils.isNotBlank(overflowPolicySetting)) {
+            for (String item : StringUtils.split(overflowPolicySetting, ',')) {
+                String[] keyValue = item.trim().split(":");
+                overflowPolicyMap.put(EventType.valueOf(keyValue[0].trim()), OverflowPolicy.valueOf(keyValue[1].trim()));
+            }
+        }
+        logger.info("Persistence tap enabled = {}, capacity = {}, overflow = {}", enabled, capacity, overflowPolicyMap);
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 対象のEventTypeのRingを作成し、書き込みを開始します。DB登録側の起動時に一度だけ呼び出します。
+     *
+     * @param eventTypes 保存するEventType
+     */
+    public synchronized void open(EnumSet<EventType> eventTypes) {
+        if (!enabled) {
+            return;
+        }
+        TapRing[] newRings = new TapRing[EventType.values().length];
+        for (EventType eventType : eventTypes) {
+            newRings[eventType.ordinal()] = new TapRing(eventType, capacity, overflowPolicyMap.get(eventType));
+        }
+        rings = newRings;
+        logger.info("Persistence tap opened. event types = {}", eventTypes);
+    }
+
+    /**
+     * イベントのデータをRingに書き込みます。Router の登録時に呼び出します。
+     *
+     * @param event
+     */
+    public void append(IEvent<?> event) {
+        TapRing ring = rings[event.getEventType().ordinal()];
+        if (ring != null) {
+            ring.append(event.getContent());
+        }
+    }
+
+    /**
+     * 書き込まれたデータを取り出します。DB登録側の1Threadからのみ呼び出してください。
+     *
+     * @param dataList 取り出し先
+     * @param maxElements 最大件数
+     * @return 取り出した件数
+     */
+    public int drainTo(List<IData> dataList, int maxElements) {
+        int count = 0;
+        for (TapRing ring : rings) {
+            if (ring != null && count < maxElements) {
+                count += ring.drainTo(dataList, maxElements - count);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 未取り出しの件数を返します
+     */
+    public int checkRemaining() {
+        long remaining = 0;
+        for (TapRing ring : rings) {
+            if (ring != null) {
+                remaining += ring.remaining();
+            }
+        }
+        return (int) remaining;
+    }
+
+    /**
+     * Tapを使用するかどうか
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 書き込み状況をチェックします
+     */
+    @ManagedOperation
+    public String checkTapStatus() {
+        StringBuilder sb = new StringBuilder("[Persistence Tap]\n");
+        sb.append("enabled=").append(enabled).append(", capacity=").append(capacity).append("\n");
+        for (TapRing ring : rings) {
+            if (ring == null) {
+                continue;
+            }
+            sb.append(ring.eventType.name()).append(" : ").append(ring.overflowPolicy)
+                .append(", remaining=").append(ring.remaining())
+                .append(", maxRemaining=").append(ring.maxRemaining.get())
+                .append(", appended=").append(ring.appendedCount.get())
+                .append(", blocked=").append(ring.blockedCount.get())
+                .append(", dropped=").append(ring.droppedCount.get()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 件数をリセットします
+     */
+    @ManagedOperation
+    public void resetTapCount() {
+        for (TapRing ring : rings) {
+            if (ring != null) {
+                ring.appendedCount.set(0);
+                ring.blockedCount.set(0);
+                ring.droppedCount.set(0);
+                ring.maxRemaining.set(ring.remaining());
+            }
+        }
+    }
+
+    // //////////////////////////////////////
+    // Inner Class
+    // //////////////////////////////////////
+
+    /**
+     * EventType ごとの固定サイズの Ring。書き込みは複数Threadから CAS で Sequence を確保し、読み込みは1Threadのみです。<br>
+     * 格納領域の要素が null でないことを書き込み済みとし、読み込み側は取り出した要素を null に戻してから Sequence を進めます。
+     */
+    class TapRing {
+
+        private final EventType eventType;
+        private final OverflowPolicy overflowPolicy;
+
+        /** 事前確保したデータ格納領域 */
+        private final AtomicReferenceArray<IData> entries;
+
+        private final int mask;
+
+        /** 書き込み側が確保した最終Sequence */
+        private final AtomicLong claimed = new AtomicLong(-1L);
+
+        /** 読み込み済みの最終Sequence */
+        private final AtomicLong sequence = new AtomicLong(-1L);
+
+        // Metrics
+        private final AtomicLong appendedCount = new AtomicLong();
+        private final AtomicLong blockedCount = new AtomicLong();
+        private final AtomicLong droppedCount = new AtomicLong();
+        private final AtomicLong maxRemaining = new AtomicLong();
+
+        public TapRing(EventType eventType, int size, OverflowPolicy overflowPolicy) {
+            this.eventType = eventType;
+            this.overflowPolicy = overflowPolicy;
+            this.entries = new AtomicReferenceArray<>(size);
+            this.mask = size - 1;
+        }
+
+        /**
+         * データを書き込みます。満杯の場合は OverflowPolicy に従います。<br>
+         * BLOCK の待機はロックを保持せずに行うため、他の書き込みThreadを止めません。
+         */
+        public void append(IData data) {
+            if (data == null) {
+                return;
+            }
+            long deadline = 0L;
+            long next;
+            while (true) {
+                long current = claimed.get();
+                next = current + 1;
+                if (next - entries.length() > sequence.get()) {
+                    // 満杯
+                    if (overflowPolicy == OverflowPolicy.DROP) {
+                        droppedCount.incrementAndGet();
+                        return;
+                    }
+                    if (deadline == 0L) {
+                        blockedCount.incrementAndGet();
+                        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+                    } else if (System.nanoTime() > deadline) {
+                        droppedCount.incrementAndGet();
+                        logger.error("Persistence tap is full. Data is dropped. EventType = {}", eventType.name());
+                        return;
+                    }
+                    LockSupport.parkNanos(PARK_NANOSEC);
+                    continue;
+                }
+                if (claimed.compareAndSet(current, next)) {
+                    break;
+                }
+            }
+            entries.lazySet((int) next & mask, data);
+            appendedCount.incrementAndGet();
+            maxRemaining.accumulateAndGet(next - sequence.get(), Math::max);
+        }
+
+        /**
+         * 書き込み済みのデータを取り出し、参照を解放します。<br>
+         * Sequence を確保済みで書き込み前の要素があれば、その手前までを取り出します。
+         */
+        public int drainTo(List<IData> dataList, int maxElements) {
+            long current = sequence.get();
+            long end = Math.min(claimed.get(), current + maxElements);
+            long seq = current;
+            while (seq < end) {
+                int index = (int) (seq + 1) & mask;
+                IData data = entries.get(index);
+                if (data == null) {
+                    break;
+                }
+                dataList.add(data);
+                entries.lazySet(index, null);
+                seq++;
+            }
+            sequence.lazySet(seq);
+            return (int) (seq - current);
+        }
+
+        public long remaining() {
+            return claimed.get() - sequence.get();
+        }
+    }
+
+    /**
+     * Ring が満杯の場合の動作
+     */
+    public enum OverflowPolicy {
+        /** 書き込むデータを破棄する */
+        DROP,
+        /** 空きが出るまで待機し、待機時間を超えた場合は破棄する */
+        BLOCK;
+    }
+
+}
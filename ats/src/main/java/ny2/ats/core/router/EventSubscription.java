@@ -0,0 +1,143 @@
+package ny2.ats.core.router;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import ny2.ats.core.common.Symbol;
+import ny2.ats.core.event.IEvent;
+import ny2.ats.market.connection.MarketType;
+
+/**
+ * Listener の購読条件です。Symbol, MarketType, イベント作成クラスで絞り込みます。<br>
+ * 条件を指定しない項目は全てを対象とします。イベントが該当の項目を持たない場合(Symbolなし等)は条件を適用しません。
+ *
+ * <pre>
+ * eventRouter.registerListener(EventType.MARKET_UPDATE, this,
+ *         EventSubscription.ofSymbols(Symbol.USDJPY, Symbol.EURJPY).andMarketTypes(MarketType.HISTORICAL));
+ * </pre>
+ */
+public class EventSubscription {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** 全てのイベントを購読 */
+    public static final EventSubscription ALL = new EventSubscription(null, null, null);
+
+    /** 対象のSymbol (nullは全て) */
+    private final Set<Symbol> symbols;
+
+    /** 対象のMarketType (nullは全て) */
+    private final Set<MarketType> marketTypes;
+
+    /** 対象のイベント作成クラス (nullは全て) */
+    private final Set<Class<?>> creatorClasses;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    private EventSubscription(Set<Symbol> symbols, Set<MarketType> marketTypes, Set<Class<?>> creatorClasses) {
+        this.symbols = symbols;
+        this.marketTypes = marketTypes;
+        this.creatorClasses = creatorClasses;
+    }
+
+    /**
+     * Symbolで絞り込む購読条件を作成します
+     */
+    public static EventSubscription ofSymbols(Symbol... symbols) {
+        return ALL.andSymbols(symbols);
+    }
+
+    /**
+     * MarketTypeで絞り込む購読条件を作成します
+     */
+    public static EventSubscription ofMarketTypes(MarketType... marketTypes) {
+        return ALL.andMarketTypes(marketTypes);
+    }
+
+    /**
+     * イベント作成クラスで絞り込む購読条件を作成します
+     */
+    public static EventSubscription ofCreatorClasses(Class<?>... creatorClasses) {
+        return ALL.andCreatorClasses(creatorClasses);
+    }
+
+    public EventSubscription andSymbols(Symbol... symbols) {
+        EnumSet<Symbol> symbolSet = EnumSet.noneOf(Symbol.class);
+        symbolSet.addAll(Arrays.asList(symbols));
+        return new EventSubscription(Collections.unmodifiableSet(symbolSet), marketTypes, creatorClasses);
+    }
+
+    public EventSubscription andMarketTypes(MarketType... marketTypes) {
+        EnumSet<MarketType> marketTypeSet = EnumSet.noneOf(MarketType.class);
+        marketTypeSet.addAll(Arrays.asList(marketTypes));
+        return new EventSubscription(symbols, Collections.unmodifiableSet(marketTypeSet), creatorClasses);
+    }
+
+    public EventSubscription andCreatorClasses(Class<?>... creatorClasses) {
+        Set<Class<?>> classSet = new HashSet<>(Arrays.asList(creatorClasses));
+        return new EventSubscription(symbols, marketTypes, Collections.unmodifiableSet(classSet));
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 全てのイベントを購読するかを返します
+     */
+    public boolean isAll() {
+        return symbols == null && marketTypes == null && creatorClasses == null;
+    }
+
+    /**
+     * Symbolが購読対象かを返します。nullの場合(Symbolなしのイベント)は対象とします。
+     */
+    public boolean matchesSymbol(Symbol symbol) {
+        return symbols == null || symbol == null || symbols.contains(symbol);
+    }
+
+    /**
+     * Symbol以外の条件(MarketType, イベント作成クラス)を判定します。
+     * Symbolは Router が事前に振り分けるため、配信時はこちらのみ判定します。
+     */
+    public boolean matchesExceptSymbol(IEvent<?> event) {
+        if (marketTypes != null) {
+            MarketType marketType = event.getMarketType();
+            if (marketType != null && !marketTypes.contains(marketType)) {
+                return false;
+            }
+        }
+        if (creatorClasses != null) {
+            Class<?> creatorClass = event.getCreatorClass();
+            if (creatorClass != null && !creatorClasses.contains(creatorClass)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 全ての条件を判定します
+     */
+    public boolean matches(IEvent<?> event) {
+        return matchesSymbol(event.getSymbol()) && matchesExceptSymbol(event);
+    }
+
+    @Override
+    public String toString() {
+        if (isAll()) {
+            return "ALL";
+        }
+        return "EventSubscription [symbols=" + (symbols == null ? "ALL" : symbols)
+                + ", marketTypes=" + (marketTypes == null ? "ALL" : marketTypes)
+                + ", creatorClasses=" + (creatorClasses == null ? "ALL" : creatorClasses) + "]";
+    }
+
+}
@@ -1,7 +1,10 @@
 package ny2.ats.core.router;
 
 import java.util.EnumSet;
+import java.util.UUID;
 
+import ny2.ats.core.common.Symbol;
+import ny2.ats.core.data.MarketData;
 import ny2.ats.core.event.EventType;
 import ny2.ats.core.event.ExecutionInformationEvent;
 import ny2.ats.core.event.IEvent;
@@ -29,6 +32,15 @@ public interface IEventRouter {
      */
     public abstract void registerListener(EventType eventType, IEventListener listener);
 
+    /**
+     * EventListenerを購読条件付きで登録します。条件に一致するイベントのみ配信されます。
+     *
+     * @param eventType 取得したいイベント種別
+     * @param listener リスナー(通常は自分自身)
+     * @param subscription 購読条件(Symbol, MarketType, イベント作成クラス)
+     */
+    public abstract void registerListener(EventType eventType, IEventListener listener, EventSubscription subscription);
+
     /**
      * EventListenerを複数のイベントに登録します
      *
@@ -37,6 +49,29 @@ public interface IEventRouter {
      */
     public abstract void registerListeners(EnumSet<EventType> eventTypes, IEventListener listener);
 
+    /**
+     * EventListenerを購読条件付きで複数のイベントに登録します
+     *
+     * @param eventTypes 取得したいベント種別セット
+     * @param listener リスナー(通常は自分自身)
+     * @param subscription 購読条件(Symbol, MarketType, イベント作成クラス)
+     */
+    public abstract void registerListeners(EnumSet<EventType> eventTypes, IEventListener listener, EventSubscription subscription);
+
+    /**
+     * MarketUpdateEventを作成します。<br>
+     * イベントを再利用するRouterの場合はPoolのインスタンスを返します。
+     * 戻り値は addEvent に1度だけ渡し、addEvent の後は参照しないでください。
+     *
+     * @param creatorUUID
+     * @param creatorClass
+     * @param marketData
+     * @return
+     */
+    public default MarketUpdateEvent createMarketUpdateEvent(UUID creatorUUID, Class<?> creatorClass, MarketData marketData) {
+        return new MarketUpdateEvent(creatorUUID, creatorClass, marketData);
+    }
+
     /**
      * MarketUpdateEventを登録する
      */
@@ -93,9 +128,37 @@ public interface IEventRouter {
      */
     public abstract void addEvent(IEvent<?> event);
 
+    /**
+     * イベント登録を抑止します。抑止中に登録されたイベントは配信されず破棄されます。
+     * Journal再生中に派生イベントを配信しないために使用します。
+     *
+     * @param suppressEvents 抑止する場合 true
+     */
+    public void setSuppressEvents(boolean suppressEvents);
+
     /**
      * Listenerのリストをトリムします。起動時のListener登録後に一度だけ実行します。
      */
     public void trimListenerLists();
 
+    /**
+     * Symbol に関する処理を実行します。<br>
+     * Symbol 分割型のRouterでは Symbol の Partition で実行し、それ以外のRouterでは呼び出し元Threadで即時実行します。
+     * バックテストで MarketData の更新処理を投入するために使用します。
+     *
+     * @param symbol
+     * @param task
+     */
+    public default void executeForSymbol(Symbol symbol, Runnable task) {
+        task.run();
+    }
+
+    /**
+     * executeForSymbol で投入した処理と、処理中に発生したイベントの配信が完了するまで待機します。<br>
+     * 呼び出し元Threadで配信が完了するRouterでは何もしません。
+     */
+    public default void awaitEvents() {
+        // do nothing
+    }
+
 }
@@ -3,11 +3,16 @@ package ny2.ats.core.router.impl;
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedOperation;
 
+import ny2.ats.core.bus.SharedMemoryEventPublisher;
 import ny2.ats.core.event.EventType;
 import ny2.ats.core.event.ExecutionInformationEvent;
 import ny2.ats.core.event.IEvent;
@@ -22,6 +27,9 @@ import ny2.ats.core.event.PositionUpdateEvent;
 import ny2.ats.core.event.SystemInformationEvent;
 import ny2.ats.core.event.TimerInformationEvent;
 import ny2.ats.core.exception.UnExpectedEventException;
+import ny2.ats.core.journal.EventJournal;
+import ny2.ats.core.persistence.PersistenceTap;
+import ny2.ats.core.router.EventSubscription;
 import ny2.ats.core.router.IEventRouter;
 
 /**
@@ -72,6 +80,46 @@ public abstract class AbstraceEventRouter implements IEventRouter  {
     /** イベントリスナー(TimerInformation) */
     protected final List<IEventListener> timerInformationEventListeners = new ArrayList<>(10);
 
+    /** EventTypeごと、Listenerごとの購読条件 */
+    protected final Map<EventType, Map<IEventListener, EventSubscription>> subscriptionMap = new EnumMap<>(EventType.class);
+
+    /** EventTypeごとの Symbol別配信先 */
+    protected final Map<EventType, SubscribedListeners> subscribedListenersMap = new EnumMap<>(EventType.class);
+
+    //
+    // Journal
+    //
+    /** Event Journal (未定義の場合はnull) */
+    @Autowired(required = false)
+    protected EventJournal eventJournal;
+
+    /** イベント登録の抑止(Journal再生中) */
+    private volatile boolean suppressEvents = false;
+
+    //
+    // Event Bus
+    //
+    /** 共有メモリへの送信 (未定義の場合はnull) */
+    @Autowired(required = false)
+    protected SharedMemoryEventPublisher eventPublisher;
+
+    //
+    // Persistence
+    //
+    /** DB登録側へのデータ受け渡し (未定義の場合はnull) */
+    @Autowired(required = false)
+    protected PersistenceTap persistenceTap;
+
+    //
+    // Latency
+    //
+    /** 配信レイテンシを集計する場合 true */
+    @Value("${router.latency.enabled:false}")
+    protected boolean latencyEnabled;
+
+    /** 配信レイテンシの集計 */
+    protected final EventLatencyRecorder latencyRecorder = new EventLatencyRecorder();
+
 
     // //////////////////////////////////////
     // Constructor
@@ -91,6 +139,12 @@ public abstract class AbstraceEventRouter implements IEventRouter  {
         listenerMap.put(EventType.EXECUTION_INFORMATION, executionInfromationEventListeners);
         listenerMap.put(EventType.SYSTEM_INFORMATION, systemInformationEventListeners);
         listenerMap.put(EventType.TIMER_INFORMATION, timerInformationEventListeners);
+
+        // 購読条件
+        for (EventType eventType : EventType.values()) {
+            subscriptionMap.put(eventType, new HashMap<>());
+            subscribedListenersMap.put(eventType, new SubscribedListeners());
+        }
     }
 
     // //////////////////////////////////////
@@ -98,9 +152,41 @@ public abstract class AbstraceEventRouter implements IEventRouter  {
     // //////////////////////////////////////
 
     @Override
-    public synchronized void registerListener(EventType eventType, IEventListener listener) {
+    public void registerListener(EventType eventType, IEventListener listener) {
+        registerListener(eventType, listener, EventSubscription.ALL);
+    }
+
+    @Override
+    public synchronized void registerListener(EventType eventType, IEventListener listener, EventSubscription subscription) {
         List<IEventListener> eventListeners = searchEventListener(eventType);
         eventListeners.add(listener);
+        subscriptionMap.get(eventType).put(listener, subscription);
+        subscribedListenersMap.get(eventType).rebuild(eventListeners, subscriptionMap.get(eventType));
+        if (!subscription.isAll()) {
+            logger.info("Register listener with subscription. {} : {}, {}", eventType.name(), listener.getClass().getSimpleName(), subscription);
+        }
+    }
+
+    /**
+     * envetTypeに応じた Symbol別配信先を返します
+     *
+     * @param eventType
+     * @return
+     */
+    protected SubscribedListeners searchSubscribedListeners(EventType eventType) {
+        return subscribedListenersMap.get(eventType);
+    }
+
+    /**
+     * Listenerの購読条件を返します。未登録の場合はALLです。
+     *
+     * @param eventType
+     * @param listener
+     * @return
+     */
+    protected EventSubscription searchSubscription(EventType eventType, IEventListener listener) {
+        EventSubscription subscription = subscriptionMap.get(eventType).get(listener);
+        return subscription == null ? EventSubscription.ALL : subscription;
     }
 
     /**
@@ -145,6 +231,13 @@ public abstract class AbstraceEventRouter implements IEventRouter  {
         }
     }
 
+    @Override
+    public synchronized void registerListeners(EnumSet<EventType> eventTypes, IEventListener listener, EventSubscription subscription) {
+        for (EventType eventType : eventTypes) {
+            registerListener(eventType, listener, subscription);
+        }
+    }
+
 
     @Override
     @Deprecated
@@ -192,10 +285,99 @@ public abstract class AbstraceEventRouter implements IEventRouter  {
         }
     }
 
+    /**
+     * イベント登録時の共通処理です。addEventで呼び出します。
+     * レイテンシ集計が有効な場合は登録時刻を記録し、Journal, Event Bus, Persistence Tapが有効な場合は書き込みます。
+     *
+     * @param event
+     * @return 配信する場合 true、抑止中の場合 false
+     */
+    protected boolean acceptEvent(IEvent<?> event) {
+        if (suppressEvents) {
+            return false;
+        }
+        if (latencyEnabled) {
+            event.setEnqueueNanoTime(System.nanoTime());
+        }
+        if (eventJournal != null) {
+            eventJournal.append(event);
+        }
+        if (eventPublisher != null && !isBusReceivedEvent(event)) {
+            eventPublisher.publish(event);
+        }
+        if (persistenceTap != null) {
+            persistenceTap.append(event);
+        }
+        return true;
+    }
 
+    /**
+     * Event Busから受信したイベントかを返します。受信したイベントは再送信しません。
+     *
+     * @param event
+     * @return
+     */
+    protected boolean isBusReceivedEvent(IEvent<?> event) {
+        return false;
+    }
+
+    @Override
+    public void setSuppressEvents(boolean suppressEvents) {
+        logger.info("Suppress events = {}", suppressEvents);
+        this.suppressEvents = suppressEvents;
+    }
 
+    /**
+     * Listenerにイベントを送信し、レイテンシ集計が有効な場合は記録します。Exceptionは呼び出し元で処理します。
+     *
+     * @param listener
+     * @param event
+     */
+    protected void dispatchEvent(IEventListener listener, IEvent<?> event) {
+        if (!latencyEnabled) {
+            listener.onEvent(event);
+            return;
+        }
+        long start = System.nanoTime();
+        listener.onEvent(event);
+        latencyRecorder.record(event.getEventType(), listener.getClass(), event.getEnqueueNanoTime(), start, System.nanoTime());
+    }
 
+    /**
+     * Listenerに複数イベントをまとめて送信し、レイテンシ集計が有効な場合は記録します。Exceptionは呼び出し元で処理します。<br>
+     * 登録から配信開始まではイベントごとに、処理時間はまとめて1回として別に記録します。
+     *
+     * @param listener
+     * @param eventType
+     * @param events 空でないこと
+     */
+    protected void dispatchEvents(IEventListener listener, EventType eventType, List<? extends IEvent<?>> events) {
+        if (!latencyEnabled) {
+            listener.onEvents(eventType, events);
+            return;
+        }
+        long start = System.nanoTime();
+        listener.onEvents(eventType, events);
+        latencyRecorder.recordBatch(eventType, listener.getClass(), events, start, System.nanoTime());
+    }
 
+    /**
+     * 配信レイテンシ(登録から配信開始まで、Listener処理時間)のパーセンタイルを表示します
+     */
+    @ManagedOperation
+    public String checkLatencyStatus() {
+        if (!latencyEnabled) {
+            return "Latency recording is disabled. (router.latency.enabled=false)";
+        }
+        return latencyRecorder.toStatusString();
+    }
 
+    /**
+     * 配信レイテンシの集計をリセットします
+     */
+    @ManagedOperation
+    public void resetLatency() {
+        latencyRecorder.reset();
+    }
 
 }
@@ -0,0 +1,151 @@
+package ny2.ats.core.router.impl;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ny2.ats.core.event.EventType;
+import ny2.ats.core.event.IEvent;
+import ny2.ats.core.util.LatencyHistogram;
+
+/**
+ * Event Router のレイテンシを集計するクラスです。<br>
+ * 登録から配信開始まで(Queue滞留)と Listener の処理時間を、EventType ごと・Listener クラスごとに記録します。<br>
+ * BatchListener への配信は、Queue滞留はイベントごとに記録し、処理時間はまとめて1回分を EventType ごとの別の系列に記録します。
+ */
+public class EventLatencyRecorder {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** EventTypeごとの登録から配信開始まで */
+    private final Map<EventType, LatencyHistogram> queueLatencyMap = new EnumMap<>(EventType.class);
+
+    /** EventTypeごとのListener処理時間 */
+    private final Map<EventType, LatencyHistogram> executionTimeMap = new EnumMap<>(EventType.class);
+
+    /** EventTypeごとのBatchListener処理時間(まとめて1回) */
+    private final Map<EventType, LatencyHistogram> batchExecutionTimeMap = new EnumMap<>(EventType.class);
+
+    /** Listenerクラスごとの登録から配信開始まで */
+    private final Map<Class<?>, LatencyHistogram> listenerQueueLatencyMap = new ConcurrentHashMap<>();
+
+    /** Listenerクラスごとの処理時間 */
+    private final Map<Class<?>, LatencyHistogram> listenerExecutionTimeMap = new ConcurrentHashMap<>();
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    public EventLatencyRecorder() {
+        for (EventType eventType : EventType.values()) {
+            queueLatencyMap.put(eventType, new LatencyHistogram());
+            executionTimeMap.put(eventType, new LatencyHistogram());
+            batchExecutionTimeMap.put(eventType, new LatencyHistogram());
+        }
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 1回の配信結果を記録します
+     *
+     * @param eventType
+     * @param listenerClass
+     * @param enqueueNanoTime 登録時刻(0の場合はQueue滞留を記録しない)
+     * @param startNanoTime Listener呼び出し開始時刻
+     * @param endNanoTime Listener呼び出し終了時刻
+     */
+    public void record(EventType eventType, Class<?> listenerClass, long enqueueNanoTime, long startNanoTime, long endNanoTime) {
+        if (enqueueNanoTime != 0) {
+            long queueLatency = startNanoTime - enqueueNanoTime;
+            queueLatencyMap.get(eventType).recordValue(queueLatency);
+            searchHistogram(listenerQueueLatencyMap, listenerClass).recordValue(queueLatency);
+        }
+        long executionTime = endNanoTime - startNanoTime;
+        executionTimeMap.get(eventType).recordValue(executionTime);
+        searchHistogram(listenerExecutionTimeMap, listenerClass).recordValue(executionTime);
+    }
+
+    /**
+     * BatchListenerへの1回の配信結果を記録します
+     *
+     * @param eventType
+     * @param listenerClass
+     * @param events 配信したイベント(登録時刻が0のイベントはQueue滞留を記録しない)
+     * @param startNanoTime Listener呼び出し開始時刻
+     * @param endNanoTime Listener呼び出し終了時刻
+     */
+    public void recordBatch(EventType eventType, Class<?> listenerClass, List<? extends IEvent<?>> events, long startNanoTime, long endNanoTime) {
+        LatencyHistogram queueLatency = queueLatencyMap.get(eventType);
+        LatencyHistogram listenerQueueLatency = searchHistogram(listenerQueueLatencyMap, listenerClass);
+        for (int i = 0; i < events.size(); i++) {
+            long enqueueNanoTime = events.get(i).getEnqueueNanoTime();
+            if (enqueueNanoTime != 0) {
+                queueLatency.recordValue(startNanoTime - enqueueNanoTime);
+                listenerQueueLatency.recordValue(startNanoTime - enqueueNanoTime);
+            }
+        }
+        long executionTime = endNanoTime - startNanoTime;
+        batchExecutionTimeMap.get(eventType).recordValue(executionTime);
+        searchHistogram(listenerExecutionTimeMap, listenerClass).recordValue(executionTime);
+    }
+
+    private LatencyHistogram searchHistogram(Map<Class<?>, LatencyHistogram> map, Class<?> listenerClass) {
+        LatencyHistogram histogram = map.get(listenerClass);
+        if (histogram == null) {
+            histogram = map.computeIfAbsent(listenerClass, key -> new LatencyHistogram());
+        }
+        return histogram;
+    }
+
+    /**
+     * 集計結果を文字列で返します
+     */
+    public String toStatusString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[Queue Latency - EventType]\n");
+        appendEventTypeMap(sb, queueLatencyMap);
+        sb.append("[Execution Time - EventType]\n");
+        appendEventTypeMap(sb, executionTimeMap);
+        sb.append("[Execution Time - EventType (Batch)]\n");
+        appendEventTypeMap(sb, batchExecutionTimeMap);
+        sb.append("[Queue Latency - Listener]\n");
+        appendListenerMap(sb, listenerQueueLatencyMap);
+        sb.append("[Execution Time - Listener]\n");
+        appendListenerMap(sb, listenerExecutionTimeMap);
+        return sb.toString();
+    }
+
+    private void appendEventTypeMap(StringBuilder sb, Map<EventType, LatencyHistogram> map) {
+        for (Entry<EventType, LatencyHistogram> entry : map.entrySet()) {
+            if (entry.getValue().getTotalCount() == 0) {
+                continue;
+            }
+            sb.append(entry.getKey().name()).append(" : ").append(entry.getValue().toStringMicros()).append("\n");
+        }
+    }
+
+    private void appendListenerMap(StringBuilder sb, Map<Class<?>, LatencyHistogram> map) {
+        for (Entry<Class<?>, LatencyHistogram> entry : map.entrySet()) {
+            sb.append(entry.getKey().getSimpleName()).append(" : ").append(entry.getValue().toStringMicros()).append("\n");
+        }
+    }
+
+    /**
+     * 集計結果をリセットします
+     */
+    public void reset() {
+        queueLatencyMap.values().forEach(LatencyHistogram::reset);
+        executionTimeMap.values().forEach(LatencyHistogram::reset);
+        batchExecutionTimeMap.values().forEach(LatencyHistogram::reset);
+        listenerQueueLatencyMap.values().forEach(LatencyHistogram::reset);
+        listenerExecutionTimeMap.values().forEach(LatencyHistogram::reset);
+    }
+
+}
@@ -1,24 +1,35 @@
 package ny2.ats.core.router.impl;
 
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import javax.annotation.PostConstruct;
 
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.jmx.export.annotation.ManagedResource;
 
+import ny2.ats.core.common.Symbol;
 import ny2.ats.core.event.EventType;
 import ny2.ats.core.event.ExecutionInformationEvent;
 import ny2.ats.core.event.IEvent;
@@ -32,6 +43,13 @@ import ny2.ats.core.event.PLInformationEvent;
 import ny2.ats.core.event.PositionUpdateEvent;
 import ny2.ats.core.event.SystemInformationEvent;
 import ny2.ats.core.event.TimerInformationEvent;
+import ny2.ats.core.router.EventSubscription;
+import ny2.ats.core.thread.ExecutorRegistry;
+import ny2.ats.core.thread.ManagedThreadPoolExecutor;
+import ny2.ats.core.thread.ShutdownPhase;
+import ny2.ats.core.thread.ThreadAffinity;
+import ny2.ats.core.thread.WaitStrategy;
+import ny2.ats.market.connection.MarketType;
 
 /**
  * 非同期型の Event Router です
@@ -46,8 +64,8 @@ public class GenericEventRouterImpl extends AbstraceEventRouter {
 
     // Logger -> super class
 
-    // wait time for add queue
-    private static final int WAIT_MILISEC = 20;
+    /** 破棄不可のEventType(BLOCK固定, 待機時間を超えても破棄しない) */
+    private static final EnumSet<EventType> NON_DROPPABLE_EVENT_TYPES = EnumSet.of(EventType.MARKET_ORDER, EventType.ORDER_UPDATE);
 
     //
     // Queue
@@ -88,20 +106,117 @@ public class GenericEventRouterImpl extends AbstraceEventRouter {
 
     // Executer
     /** EventQueue用のExecuter */
-    private ExecutorService queueExecutor;
+    private ManagedThreadPoolExecutor queueExecutor;
 
     /** Status Checker*/
-    private ScheduledExecutorService statusChecker = Executors.newSingleThreadScheduledExecutor();
+    private ScheduledExecutorService statusChecker;
 
-    /** Listenerへの event dispatch用のExecuter */
-    private ThreadPoolExecutor eventDispatchExecutor = (ThreadPoolExecutor) Executors.newFixedThreadPool(30);
+    //
+    // Dispatch Priority
+    //
+    /** 優先度ごとのListenerへの event dispatch用のExecuter */
+    private final Map<DispatchPriority, PriorityDispatchExecutor> dispatchExecutorMap = new EnumMap<>(DispatchPriority.class);
+
+    /** EventType.ordinal() で参照する dispatch用のExecuter */
+    private final PriorityDispatchExecutor[] eventTypeDispatchExecutors = new PriorityDispatchExecutor[EventType.values().length];
+
+    /** EventTypeごとの優先度 */
+    private final Map<EventType, DispatchPriority> dispatchPriorityMap = new EnumMap<>(EventType.class);
+
+    /** EventTypeごとの優先度設定 (例: INDICATOR_UPDATE:INFORMATIONAL)。未設定はデフォルト */
+    @Value("${router.priority.mapping:}")
+    private String dispatchPrioritySetting;
+
+    /** CRITICAL のThread数 */
+    @Value("${router.priority.threads.critical:4}")
+    private int criticalThreads;
+
+    /** NORMAL のThread数 */
+    @Value("${router.priority.threads.normal:20}")
+    private int normalThreads;
+
+    /** INFORMATIONAL のThread数 */
+    @Value("${router.priority.threads.informational:6}")
+    private int informationalThreads;
+
+    //
+    // Dispatch
+    //
+    /** Listenerへの配信モード */
+    @Value("${router.dispatch.mode:POOL}")
+    private DispatchMode dispatchMode;
+
+    //
+    // MarketUpdate Conflation
+    //
+    /**
+     * MarketUpdateEvent の間引き配信を使用する場合 true<br>
+     * 間引きを受け入れるリスナーには配信モードに関わらず Lane で配信し、Lane 内で (MarketType) ごとに未配信の最新のみ保持します。
+     */
+    @Value("${router.marketupdate.conflation:false}")
+    private boolean marketUpdateConflation;
+
+    /** Symbol ごとの間引き(置き換え)件数 */
+    private final AtomicLongArray conflatedCounts = new AtomicLongArray(Symbol.values().length);
+
+    //
+    // Backpressure
+    //
+    /** EventTypeごとのBackpressure設定 (例: MARKET_UPDATE:DROP_OLDEST,INDICATOR_UPDATE:FAIL_FAST) */
+    @Value("${router.backpressure.policy:}")
+    private String backpressurePolicySetting;
+
+    /** BLOCK の最大待機時間(ミリ秒)。破棄不可のEventTypeは超えた場合も警告して待機を続ける */
+    @Value("${router.backpressure.blocktimeout:1000}")
+    private long blockTimeoutMillis;
+
+    /** EventTypeごとのBackpressure Policy。未設定はBLOCK */
+    private final Map<EventType, BackpressurePolicy> backpressurePolicyMap = new EnumMap<>(EventType.class);
+
+    /** EventTypeごとの破棄件数 */
+    private final Map<EventType, AtomicLong> droppedCountMap = new EnumMap<>(EventType.class);
+
+    /** EventTypeごとのBLOCKの待機時間超過件数 */
+    private final Map<EventType, AtomicLong> blockTimeoutCountMap = new EnumMap<>(EventType.class);
+
+    //
+    // Thread
+    //
+    /** CPU固定 */
+    @Autowired
+    protected ThreadAffinity threadAffinity;
+
+    /** Executor管理 */
+    @Autowired
+    protected ExecutorRegistry executorRegistry;
+
+    /** QueueCrawlerの待機方法 EVENT_TYPE:WAIT_STRATEGY (BLOCKING/YIELDING/SPIN_PARK/BUSY_SPIN)。未設定はBLOCKING */
+    @Value("${thread.wait.router.crawler:}")
+    private String crawlerWaitStrategySetting;
+
+    /** 配信Threadの待機方法 PRIORITY:WAIT_STRATEGY。未設定はBLOCKING */
+    @Value("${thread.wait.router.dispatch:}")
+    private String dispatchWaitStrategySetting;
+
+    /** EventTypeごとのQueueCrawlerの待機方法 */
+    private final Map<EventType, WaitStrategy> crawlerWaitStrategyMap = new EnumMap<>(EventType.class);
+
+    /** 優先度ごとの配信Threadの待機方法 */
+    private final Map<DispatchPriority, WaitStrategy> dispatchWaitStrategyMap = new EnumMap<>(DispatchPriority.class);
+
+    /** SERIAL_LANE 用の Lane。Listenerごとに [Symbol.ordinal()] で参照し、末尾はSymbolなしのイベント用 */
+    private final Map<IEventListener, DispatchLane[]> laneMap = new ConcurrentHashMap<>();
 
     // //////////////////////////////////////
     // Constructor
     // //////////////////////////////////////
 
     public GenericEventRouterImpl() {
-        super(LoggerFactory.getLogger(GenericEventRouterImpl.class));
+        this(LoggerFactory.getLogger(GenericEventRouterImpl.class));
+    }
+
+    protected GenericEventRouterImpl(Logger logger) {
+        super(logger);
         logger.info("Create instance.");
 
         // Queue Map 作成
@@ -115,12 +230,33 @@ public class GenericEventRouterImpl extends AbstraceEventRouter {
         queueMap.put(EventType.EXECUTION_INFORMATION, executionInfromationEventQueue);
         queueMap.put(EventType.SYSTEM_INFORMATION, systemInformationQueue);
         queueMap.put(EventType.TIMER_INFORMATION, timerInformationQueue);
+
+        // Backpressure 初期化
+        for (EventType eventType : EventType.values()) {
+            backpressurePolicyMap.put(eventType, BackpressurePolicy.BLOCK);
+            droppedCountMap.put(eventType, new AtomicLong());
+            blockTimeoutCountMap.put(eventType, new AtomicLong());
+        }
+
+        // Dispatch Priority 初期化
+        for (EventType eventType : EventType.values()) {
+            dispatchPriorityMap.put(eventType, DispatchPriority.defaultOf(eventType));
+        }
     }
 
     @PostConstruct
     private void init() {
         logger.info("PostConstruct instance.");
 
+        // Backpressure Policy 設定
+        setupBackpressurePolicy(backpressurePolicySetting);
+
+        // Wait Strategy 設定
+        setupWaitStrategy();
+
+        // Dispatch Priority 設定
+        setupDispatchPriority(dispatchPrioritySetting);
+
         // Start Executor Thread
         startThread();
     }
@@ -131,117 +267,235 @@ public class GenericEventRouterImpl extends AbstraceEventRouter {
 
     @Override
     public void addEvent(MarketUpdateEvent event) {
-        try {
-            marketUpdateQueue.offer(event, WAIT_MILISEC, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            logger.error("", e);
-        }
+        enqueue(marketUpdateQueue, event);
     }
 
     @Override
     public void addEvent(MarketOrderEvent event) {
-        try {
-            marketOrderQueue.offer(event, WAIT_MILISEC, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            logger.error("", e);
-        }
+        enqueue(marketOrderQueue, event);
     }
 
     @Override
     public void addEvent(OrderUpdateEvent event) {
-        try {
-            orderUpdateQueue.offer(event, WAIT_MILISEC, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            logger.error("", e);
-        }
+        enqueue(orderUpdateQueue, event);
     }
 
     @Override
     public void addEvent(PositionUpdateEvent event) {
-        try {
-            positionUpdateQueue.offer(event, WAIT_MILISEC, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            logger.error("", e);
-        }
+        enqueue(positionUpdateQueue, event);
     }
 
     @Override
     public void addEvent(IndicatorUpdateEvent event) {
-        try {
-            indicatorUpdateQueue.offer(event, WAIT_MILISEC, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            logger.error("", e);
-        }
+        enqueue(indicatorUpdateQueue, event);
     }
 
     @Override
     public void addEvent(ModelInformationEvent event) {
-        try {
-            modelInformationQueue.offer(event, WAIT_MILISEC, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            logger.error("", e);
-        }
+        enqueue(modelInformationQueue, event);
     }
 
     @Override
     public void addEvent(PLInformationEvent event) {
-        try {
-            plInformationQueue.offer(event, WAIT_MILISEC, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            logger.error("", e);
-        }
+        enqueue(plInformationQueue, event);
     }
 
     @Override
     public void addEvent(ExecutionInformationEvent event) {
-        try {
-            executionInfromationEventQueue.offer(event, WAIT_MILISEC, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            logger.error("", e);
-        }
+        enqueue(executionInfromationEventQueue, event);
     }
 
     @Override
     public void addEvent(TimerInformationEvent event) {
-        try {
-            timerInformationQueue.offer(event, WAIT_MILISEC, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            logger.error("", e);
-        }
+        enqueue(timerInformationQueue, event);
     }
 
     @Override
     public void addEvent(SystemInformationEvent event) {
+        enqueue(systemInformationQueue, event);
+    }
+
+    /**
+     * EventTypeのBackpressure Policyに従ってQueueに登録します
+     *
+     * @param queue
+     * @param event
+     */
+    private <E extends IEvent<?>> void enqueue(BlockingQueue<E> queue, E event) {
+        if (acceptEvent(event)) {
+            offerWithPolicy(queue, event);
+        }
+    }
+
+    /**
+     * EventTypeのBackpressure Policyに従ってQueueに登録します(登録時の共通処理済み)
+     *
+     * @param queue
+     * @param event
+     */
+    private <E extends IEvent<?>> void offerWithPolicy(BlockingQueue<E> queue, E event) {
+        EventType eventType = event.getEventType();
         try {
-            systemInformationQueue.offer(event, WAIT_MILISEC, TimeUnit.MILLISECONDS);
+            switch (backpressurePolicyMap.get(eventType)) {
+                case BLOCK:
+                    offerWithTimeout(queue, event);
+                    break;
+                case FAIL_FAST:
+                    if (!queue.offer(event)) {
+                        droppedCountMap.get(eventType).incrementAndGet();
+                    }
+                    break;
+                case DROP_OLDEST:
+                    offerDroppingOldest(queue, event);
+                    break;
+                default:
+                    logger.error("Undefined BackpressurePolicy. EventType = {}", eventType.name());
+            }
         } catch (InterruptedException e) {
             logger.error("", e);
         }
     }
 
+    /**
+     * 最大待機時間まで待機してQueueに登録します。<br>
+     * 待機時間を超えた場合、破棄不可のEventTypeは警告して待機を続け、その他は破棄します。
+     */
+    private <E extends IEvent<?>> void offerWithTimeout(BlockingQueue<E> queue, E event) throws InterruptedException {
+        EventType eventType = event.getEventType();
+        while (!queue.offer(event, blockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            blockTimeoutCountMap.get(eventType).incrementAndGet();
+            if (!NON_DROPPABLE_EVENT_TYPES.contains(eventType)) {
+                droppedCountMap.get(eventType).incrementAndGet();
+                logger.warn("Queue is full over {}ms. Event is dropped. EventType = {}", blockTimeoutMillis, eventType.name());
+                return;
+            }
+            logger.warn("Queue is full over {}ms. Keep waiting. EventType = {}", blockTimeoutMillis, eventType.name());
+        }
+    }
+
+    /**
+     * 登録できるまで先頭のイベントを破棄してQueueに登録します
+     */
+    private <E extends IEvent<?>> void offerDroppingOldest(BlockingQueue<E> queue, E event) {
+        while (!queue.offer(event)) {
+            if (queue.poll() != null) {
+                droppedCountMap.get(event.getEventType()).incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Backpressure Policy を設定します。破棄不可のEventTypeはBLOCKのままとします。
+     *
+     * @param setting EVENT_TYPE:POLICY のカンマ区切り
+     */
+    private void setupBackpressurePolicy(String setting) {
+        if (setting == null || setting.trim().isEmpty()) {
+            return;
+        }
+        for (String item : setting.split(",")) {
+            String[] keyValue = item.trim().split(":");
+            EventType eventType = EventType.valueOf(keyValue[0].trim());
+            BackpressurePolicy policy = BackpressurePolicy.valueOf(keyValue[1].trim());
+            if (NON_DROPPABLE_EVENT_TYPES.contains(eventType) && policy != BackpressurePolicy.BLOCK) {
+                logger.warn("{} cannot be dropped. BackpressurePolicy {} is ignored.", eventType.name(), policy.name());
+                continue;
+            }
+            backpressurePolicyMap.put(eventType, policy);
+        }
+        logger.info("BackpressurePolicy : {}", backpressurePolicyMap);
+    }
+
+    /**
+     * QueueCrawler, 配信Threadの待機方法を設定します
+     */
+    private void setupWaitStrategy() {
+        for (EventType eventType : EventType.values()) {
+            crawlerWaitStrategyMap.put(eventType, WaitStrategy.BLOCKING);
+        }
+        for (DispatchPriority priority : DispatchPriority.values()) {
+            dispatchWaitStrategyMap.put(priority, WaitStrategy.BLOCKING);
+        }
+        if (crawlerWaitStrategySetting != null && !crawlerWaitStrategySetting.trim().isEmpty()) {
+            for (String item : crawlerWaitStrategySetting.split(",")) {
+                String[] keyValue = item.trim().split(":");
+                crawlerWaitStrategyMap.put(EventType.valueOf(keyValue[0].trim()), WaitStrategy.valueOf(keyValue[1].trim()));
+            }
+        }
+        if (dispatchWaitStrategySetting != null && !dispatchWaitStrategySetting.trim().isEmpty()) {
+            for (String item : dispatchWaitStrategySetting.split(",")) {
+                String[] keyValue = item.trim().split(":");
+                dispatchWaitStrategyMap.put(DispatchPriority.valueOf(keyValue[0].trim()), WaitStrategy.valueOf(keyValue[1].trim()));
+            }
+        }
+        logger.info("WaitStrategy (Crawler) : {}", crawlerWaitStrategyMap);
+        logger.info("WaitStrategy (Dispatch) : {}", dispatchWaitStrategyMap);
+    }
+
+    /**
+     * EventTypeごとの優先度と、優先度ごとのExecutorを設定します
+     *
+     * @param setting EVENT_TYPE:PRIORITY のカンマ区切り
+     */
+    private void setupDispatchPriority(String setting) {
+        if (setting != null && !setting.trim().isEmpty()) {
+            for (String item : setting.split(",")) {
+                String[] keyValue = item.trim().split(":");
+                dispatchPriorityMap.put(EventType.valueOf(keyValue[0].trim()), DispatchPriority.valueOf(keyValue[1].trim()));
+            }
+        }
+        dispatchExecutorMap.put(DispatchPriority.CRITICAL, createDispatchExecutor(DispatchPriority.CRITICAL, criticalThreads));
+        dispatchExecutorMap.put(DispatchPriority.NORMAL, createDispatchExecutor(DispatchPriority.NORMAL, normalThreads));
+        dispatchExecutorMap.put(DispatchPriority.INFORMATIONAL, createDispatchExecutor(DispatchPriority.INFORMATIONAL, informationalThreads));
+        for (EventType eventType : EventType.values()) {
+            eventTypeDispatchExecutors[eventType.ordinal()] = dispatchExecutorMap.get(dispatchPriorityMap.get(eventType));
+        }
+        logger.info("DispatchPriority : {}", dispatchPriorityMap);
+        logger.info("DispatchPriority threads : CRITICAL={}, NORMAL={}, INFORMATIONAL={}", criticalThreads, normalThreads, informationalThreads);
+    }
+
+    private PriorityDispatchExecutor createDispatchExecutor(DispatchPriority priority, int threads) {
+        String name = GenericEventRouterImpl.class.getSimpleName() + "-Dispatch-" + priority.name();
+        return executorRegistry.createThreadPool(name, threads, (registryThreads, threadFactory) ->
+                new PriorityDispatchExecutor(name, priority, registryThreads, dispatchWaitStrategyMap.get(priority), threadFactory));
+    }
+
+    /**
+     * EventTypeの優先度に対応する dispatch用のExecuter を返します
+     */
+    private PriorityDispatchExecutor searchDispatchExecutor(EventType eventType) {
+        return eventTypeDispatchExecutors[eventType.ordinal()];
+    }
+
     /**
      * threadを開始する
      */
     public void startThread() {
         // Threadを開始する
-        queueExecutor = Executors.newFixedThreadPool(10);
-        queueExecutor.execute(new QueueCrawler<>(marketUpdateQueue, marketUpdateEventListeners, MarketUpdateEvent.class.getSimpleName()));
-        queueExecutor.execute(new QueueCrawler<>(marketOrderQueue, marketOrderEventListeners, MarketOrderEvent.class.getSimpleName()));
-        queueExecutor.execute(new QueueCrawler<>(orderUpdateQueue, orderUpdateEventListeners, OrderUpdateEvent.class.getSimpleName()));
-        queueExecutor.execute(new QueueCrawler<>(positionUpdateQueue, positionUpdateEventListeners, PositionUpdateEvent.class.getSimpleName()));
-        queueExecutor.execute(new QueueCrawler<>(indicatorUpdateQueue, indicatorUpdateEventListeners, IndicatorUpdateEvent.class.getSimpleName()));
-        queueExecutor.execute(new QueueCrawler<>(modelInformationQueue, modelInformationEventListeners, ModelInformationEvent.class.getSimpleName()));
-        queueExecutor.execute(new QueueCrawler<>(plInformationQueue, plInformationEventListeners, PLInformationEvent.class.getSimpleName()));
-        queueExecutor.execute(new QueueCrawler<>(executionInfromationEventQueue, executionInfromationEventListeners, ExecutionInformationEvent.class.getSimpleName()));
-        queueExecutor.execute(new QueueCrawler<>(timerInformationQueue, timerInformationEventListeners, TimerInformationEvent.class.getSimpleName()));
-        queueExecutor.execute(new QueueCrawler<>(systemInformationQueue, systemInformationEventListeners, SystemInformationEvent.class.getSimpleName()));
+        List<QueueCrawler<?>> crawlers = new ArrayList<>();
+        crawlers.add(new QueueCrawler<>(EventType.MARKET_UPDATE, marketUpdateQueue, searchSubscribedListeners(EventType.MARKET_UPDATE), MarketUpdateEvent.class.getSimpleName()));
+        crawlers.add(new QueueCrawler<>(EventType.MARKET_ORDER, marketOrderQueue, searchSubscribedListeners(EventType.MARKET_ORDER), MarketOrderEvent.class.getSimpleName()));
+        crawlers.add(new QueueCrawler<>(EventType.ORDER_UPDATE, orderUpdateQueue, searchSubscribedListeners(EventType.ORDER_UPDATE), OrderUpdateEvent.class.getSimpleName()));
+        crawlers.add(new QueueCrawler<>(EventType.POSITION_UPDATE, positionUpdateQueue, searchSubscribedListeners(EventType.POSITION_UPDATE), PositionUpdateEvent.class.getSimpleName()));
+        crawlers.add(new QueueCrawler<>(EventType.INDICATOR_UPDATE, indicatorUpdateQueue, searchSubscribedListeners(EventType.INDICATOR_UPDATE), IndicatorUpdateEvent.class.getSimpleName()));
+        crawlers.add(new QueueCrawler<>(EventType.MODEL_INFORMATION, modelInformationQueue, searchSubscribedListeners(EventType.MODEL_INFORMATION), ModelInformationEvent.class.getSimpleName()));
+        crawlers.add(new QueueCrawler<>(EventType.PL_INFORMATION, plInformationQueue, searchSubscribedListeners(EventType.PL_INFORMATION), PLInformationEvent.class.getSimpleName()));
+        crawlers.add(new QueueCrawler<>(EventType.EXECUTION_INFORMATION, executionInfromationEventQueue, searchSubscribedListeners(EventType.EXECUTION_INFORMATION), ExecutionInformationEvent.class.getSimpleName()));
+        crawlers.add(new QueueCrawler<>(EventType.TIMER_INFORMATION, timerInformationQueue, searchSubscribedListeners(EventType.TIMER_INFORMATION), TimerInformationEvent.class.getSimpleName()));
+        crawlers.add(new QueueCrawler<>(EventType.SYSTEM_INFORMATION, systemInformationQueue, searchSubscribedListeners(EventType.SYSTEM_INFORMATION), SystemInformationEvent.class.getSimpleName()));
+        // QueueCrawlerはQueueごとに1Threadを占有するため、Thread数はQueue数で固定(設定・JMXで変更不可)
+        queueExecutor = executorRegistry.createFixedThreadPool(GenericEventRouterImpl.class.getSimpleName() + "-Crawler", crawlers.size(), WaitStrategy.BLOCKING, ShutdownPhase.ROUTER);
+        crawlers.forEach(queueExecutor::execute);
 
         // Status Checker
+        statusChecker = executorRegistry.createScheduledExecutor(GenericEventRouterImpl.class.getSimpleName() + "-StatusChecker", 1, ShutdownPhase.MONITOR);
         statusChecker.scheduleAtFixedRate(() -> {
             try {
                 // Executer
                 logger.info("Executor status check. queueExecutor : " + queueExecutor.toString());
-                logger.info("Executor status check. eventDispatchExecutor : " + eventDispatchExecutor.toString());
+                for (PriorityDispatchExecutor executor : dispatchExecutorMap.values()) {
+                    logger.info("Executor status check. eventDispatchExecutor({}) : {}", executor.priority, executor.toString());
+                }
                 // Queue
                 logger.info("Queue size check. marketUpdateQueue      : " + marketUpdateQueue.size());
                 logger.info("Queue size check. marketOrderQueue       : " + marketOrderQueue.size());
@@ -286,7 +540,11 @@ public class GenericEventRouterImpl extends AbstraceEventRouter {
      * ActiveThread数をチェックします。
      */
     public int checkActiveThread() {
-        return eventDispatchExecutor.getActiveCount();
+        int activeCount = 0;
+        for (PriorityDispatchExecutor executor : dispatchExecutorMap.values()) {
+            activeCount += executor.getBusyCount();
+        }
+        return activeCount;
     }
 
     /**
@@ -309,10 +567,147 @@ public class GenericEventRouterImpl extends AbstraceEventRouter {
     public String checkExecutorStatus() {
         StringBuilder sb = new StringBuilder("[Executor Status]\n");
         sb.append("QueueExecutor : ").append(queueExecutor.toString());
-        sb.append("EventExecutor : ").append(eventDispatchExecutor.toString());
+        for (PriorityDispatchExecutor executor : dispatchExecutorMap.values()) {
+            sb.append("EventExecutor(").append(executor.priority).append(") : ").append(executor.toString());
+        }
         return sb.toString();
     }
 
+    /**
+     * 優先度ごとの dispatch 状況(飽和)をチェックします。
+     * saturated は投入時に全Threadが処理中だった件数です。
+     */
+    @ManagedOperation
+    public String checkPriorityStatus() {
+        StringBuilder sb = new StringBuilder("[Priority Status]\n");
+        for (PriorityDispatchExecutor executor : dispatchExecutorMap.values()) {
+            sb.append(executor.priority.name())
+                .append(" : threads=").append(executor.getCorePoolSize())
+                .append(", busy=").append(executor.getBusyCount())
+                .append(", queued=").append(executor.getQueue().size())
+                .append(", maxQueued=").append(executor.getMaxQueueSize())
+                .append(", submitted=").append(executor.getSubmittedCount())
+                .append(", saturated=").append(executor.getSaturatedCount()).append("\n");
+        }
+        sb.append("[EventType]\n");
+        for (Entry<EventType, DispatchPriority> entry : dispatchPriorityMap.entrySet()) {
+            sb.append(entry.getKey().name()).append(" : ").append(entry.getValue().name()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 優先度ごとの dispatch 件数をリセットします
+     */
+    @ManagedOperation
+    public void resetPriorityStatus() {
+        for (PriorityDispatchExecutor executor : dispatchExecutorMap.values()) {
+            executor.resetMetrics();
+        }
+    }
+
+    /**
+     * Backpressure の状況(Policy, 破棄件数, BLOCKの待機時間超過件数)をチェックします
+     */
+    @ManagedOperation
+    public String checkBackpressureStatus() {
+        StringBuilder sb = new StringBuilder("[Backpressure Status]\n");
+        for (EventType eventType : EventType.values()) {
+            sb.append(eventType.name()).append(" : ").append(backpressurePolicyMap.get(eventType))
+                .append(", dropped=").append(droppedCountMap.get(eventType).get())
+                .append(", blockTimeout=").append(blockTimeoutCountMap.get(eventType).get()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Backpressure の件数をリセットします
+     */
+    @ManagedOperation
+    public void resetBackpressureCount() {
+        for (EventType eventType : EventType.values()) {
+            droppedCountMap.get(eventType).set(0);
+            blockTimeoutCountMap.get(eventType).set(0);
+        }
+    }
+
+    /**
+     * MarketUpdate の Symbol ごとの間引き件数をチェックします
+     */
+    @ManagedOperation
+    public String checkConflationStatus() {
+        StringBuilder sb = new StringBuilder("[Conflation Status] enabled = ").append(marketUpdateConflation).append("\n");
+        for (Symbol symbol : Symbol.values()) {
+            long count = conflatedCounts.get(symbol.ordinal());
+            if (count > 0) {
+                sb.append(symbol.name()).append(" : ").append(count).append("\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * MarketUpdate の間引き件数をリセットします
+     */
+    @ManagedOperation
+    public void resetConflationCount() {
+        for (int i = 0; i < conflatedCounts.length(); i++) {
+            conflatedCounts.set(i, 0);
+        }
+    }
+
+    /**
+     * SERIAL_LANE の Lane ごとの滞留状況をチェックします
+     */
+    @ManagedOperation
+    public String checkLaneStatus() {
+        StringBuilder sb = new StringBuilder("[Lane Status] mode = ").append(dispatchMode).append("\n");
+        for (DispatchLane[] lanes : laneMap.values()) {
+            for (DispatchLane lane : lanes) {
+                if (lane.processedCount.get() == 0 && lane.depth.get() == 0) {
+                    continue;
+                }
+                sb.append(lane.laneName)
+                    .append(" : depth=").append(lane.depth.get())
+                    .append(", maxDepth=").append(lane.maxDepth.get())
+                    .append(", processed=").append(lane.processedCount.get()).append("\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Lane の最大滞留数をリセットします
+     */
+    @ManagedOperation
+    public void resetLaneMaxDepth() {
+        for (DispatchLane[] lanes : laneMap.values()) {
+            for (DispatchLane lane : lanes) {
+                lane.maxDepth.set(lane.depth.get());
+            }
+        }
+    }
+
+    /**
+     * Listener, Symbol に対応する Lane を返します。初回のみ Listener の全Lane を作成します。
+     *
+     * @param listener
+     * @param symbol null の場合はSymbolなし用のLane
+     * @return
+     */
+    private DispatchLane searchLane(IEventListener listener, Symbol symbol) {
+        DispatchLane[] lanes = laneMap.computeIfAbsent(listener, key -> {
+            Symbol[] symbols = Symbol.values();
+            DispatchLane[] newLanes = new DispatchLane[symbols.length + 1];
+            for (int i = 0; i < symbols.length; i++) {
+                newLanes[i] = new DispatchLane(key, symbols[i]);
+            }
+            newLanes[symbols.length] = new DispatchLane(key, null);
+            return newLanes;
+        });
+        return symbol == null ? lanes[lanes.length - 1] : lanes[symbol.ordinal()];
+    }
+
     /**
      * EventListenerの一覧を表示します
      */
@@ -338,41 +733,339 @@ public class GenericEventRouterImpl extends AbstraceEventRouter {
      */
     class QueueCrawler<E extends IEvent<?>> implements Runnable {
 
+        /** まとめて送信する最大件数(BatchListener用) */
+        private static final int MAX_BATCH_SIZE = 1000;
+
+        private EventType eventType;
         private BlockingQueue<E> queue;
-        private List<IEventListener> eventListeners;
+        private SubscribedListeners subscribedListeners;
         private String threadName;
+        private WaitStrategy waitStrategy;
+
+        /** まとめて取得したイベント(BatchListener用)。Crawler Thread のみで再利用する */
+        private final List<E> drainedEvents = new ArrayList<>(MAX_BATCH_SIZE);
+
+        /** 購読条件で絞り込んだイベント(BatchListener用)。Crawler Thread のみで再利用する */
+        private final List<E> filteredEvents = new ArrayList<>(MAX_BATCH_SIZE);
 
-        public QueueCrawler(BlockingQueue<E> queue, List<IEventListener> eventListeners, String eventClassName) {
+        public QueueCrawler(EventType eventType, BlockingQueue<E> queue, SubscribedListeners subscribedListeners, String eventClassName) {
+            this.eventType = eventType;
             this.queue = queue;
-            this.eventListeners = eventListeners;
+            this.subscribedListeners = subscribedListeners;
             this.threadName = QueueCrawler.class.toString() + "<" + eventClassName + ">";
+            this.waitStrategy = crawlerWaitStrategyMap.get(eventType);
         }
 
         @Override
         public void run() {
-            logger.info("{} started.", threadName);
+            // Thread名をEventTypeごとにしてからCPU固定
+            Thread.currentThread().setName(GenericEventRouterImpl.class.getSimpleName() + "-Crawler-" + eventType.name());
+            threadAffinity.bindCurrentThread();
+            logger.info("{} started. WaitStrategy = {}", threadName, waitStrategy);
             while (true) {
                 try {
-                    E event = queue.take();
-                    // 対象のリスナーにイベントを送信
-                    for (int index = 0; index < eventListeners.size(); index++) {
-                        final IEventListener listener = eventListeners.get(index);
-                        eventDispatchExecutor.execute(new Runnable() {
-                            @Override
-                            public void run() {
-                                try {
-                                    listener.onEvent(event);
-                                } catch (Throwable t) {
-                                    logger.error(threadName + " Thread で Error が発生しました", t);
-                                }
-                            }
-                        });
+                    E event = waitStrategy.take(queue);
+                    if (!subscribedListeners.getAll().hasBatchListener()) {
+                        dispatchSingle(event);
+                        continue;
+                    }
+                    // BatchListenerがいる場合は滞留分をまとめて取得
+                    drainedEvents.add(event);
+                    queue.drainTo(drainedEvents, MAX_BATCH_SIZE - 1);
+                    for (int index = 0; index < drainedEvents.size(); index++) {
+                        dispatchSingle(drainedEvents.get(index));
+                    }
+                    dispatchBatch(drainedEvents);
+                    drainedEvents.clear();
+                } catch (InterruptedException e) {
+                    // Executor停止時
+                    logger.info("{} stopped.", threadName);
+                    return;
+                } catch (Throwable t) {
+                    drainedEvents.clear();
+                    logger.error(threadName + " Thread で Error が発生しました", t);
+                }
+            }
+        }
+
+        /**
+         * BatchListener以外のリスナーにイベントを送信します
+         */
+        private void dispatchSingle(E event) {
+            // 購読条件に一致するリスナーのみ対象
+            Symbol symbol = event.getSymbol();
+            SubscribedListeners.Targets targets = subscribedListeners.search(symbol);
+            // 間引き使用時は、間引きを受け入れるリスナーの Lane に最新のみ保持して送信
+            boolean conflation = marketUpdateConflation && eventType == EventType.MARKET_UPDATE;
+            // Lane モードの場合は (Listener, Symbol) ごとに順序を保って送信
+            if (dispatchMode == DispatchMode.SERIAL_LANE) {
+                for (int index = 0; index < targets.size(); index++) {
+                    IEventListener listener = targets.getListener(index);
+                    if (!listener.isBatchListener() && targets.getSubscription(index).matchesExceptSymbol(event)) {
+                        if (conflation && listener.isConflatedMarketUpdateAcceptable()) {
+                            searchLane(listener, symbol).addConflated((MarketUpdateEvent) event);
+                        } else {
+                            searchLane(listener, symbol).add(event);
+                        }
+                    }
+                }
+                return;
+            }
+            // 対象のリスナーにイベントを送信
+            PriorityDispatchExecutor dispatchExecutor = searchDispatchExecutor(event.getEventType());
+            for (int index = 0; index < targets.size(); index++) {
+                final IEventListener listener = targets.getListener(index);
+                if (listener.isBatchListener() || !targets.getSubscription(index).matchesExceptSymbol(event)) {
+                    continue;
+                }
+                if (conflation && listener.isConflatedMarketUpdateAcceptable()) {
+                    searchLane(listener, symbol).addConflated((MarketUpdateEvent) event);
+                    continue;
+                }
+                dispatchExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            dispatchEvent(listener, event);
+                        } catch (Throwable t) {
+                            logger.error(threadName + " Thread で Error が発生しました", t);
+                        }
                     }
+                });
+            }
+        }
+
+        /**
+         * BatchListenerにまとめてイベントを送信します。
+         * リストを再利用するため、Crawler Thread から直接呼び出します(BatchListener は短時間で戻す前提)。
+         */
+        private void dispatchBatch(List<E> events) {
+            SubscribedListeners.Targets targets = subscribedListeners.getAll();
+            for (int index = 0; index < targets.size(); index++) {
+                IEventListener listener = targets.getListener(index);
+                if (!listener.isBatchListener()) {
+                    continue;
+                }
+                // 購読条件で絞り込み
+                EventSubscription subscription = targets.getSubscription(index);
+                List<E> targetEvents = events;
+                if (!subscription.isAll()) {
+                    filteredEvents.clear();
+                    for (int eventIndex = 0; eventIndex < events.size(); eventIndex++) {
+                        E event = events.get(eventIndex);
+                        if (subscription.matches(event)) {
+                            filteredEvents.add(event);
+                        }
+                    }
+                    if (filteredEvents.isEmpty()) {
+                        continue;
+                    }
+                    targetEvents = filteredEvents;
+                }
+                try {
+                    dispatchEvents(listener, eventType, targetEvents);
                 } catch (Throwable t) {
                     logger.error(threadName + " Thread で Error が発生しました", t);
                 }
             }
+            filteredEvents.clear();
+        }
+    }
+
+    /**
+     * (Listener, Symbol) ごとの直列配信 Lane。<br>
+     * Lane 内は1件ずつ直列に処理し、優先度ごとのQueueから優先度の高いイベントを先に処理します(順序は同一優先度内でのみ保証)。
+     * 異なる Lane は未処理イベントの最高優先度の dispatch用のExecuter 上で並列に処理されます。<br>
+     * 間引き配信の MarketUpdateEvent は MarketType ごとの Slot に未配信の最新のみ保持し、Queue には Slot が空から埋まった時のみ登録します。
+     * Listener の処理が遅れても滞留は Slot 数までに抑えられます。
+     */
+    class DispatchLane implements Runnable {
+
+        /** 一度の実行で処理する最大件数(他のLaneへ譲るため) */
+        private static final int MAX_BATCH = 100;
+
+        private final IEventListener listener;
+        private final String laneName;
+
+        /** 優先度ごとのQueue。DispatchPriority.ordinal() で参照 */
+        @SuppressWarnings("unchecked")
+        private final Queue<IEvent<?>>[] laneQueues = new Queue[DispatchPriority.values().length];
+
+        /** 間引き配信用の MarketType ごとの未配信の最新イベント。MarketType.ordinal() で参照 */
+        private final AtomicReferenceArray<MarketUpdateEvent> conflatedSlots = new AtomicReferenceArray<>(MarketType.values().length);
+
+        /** Lane の Symbol(Symbolなしの場合はnull) */
+        private final Symbol symbol;
+
+        /** 実行中またはExecutor登録済みの場合 true */
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        /** 登録先のExecutorの優先度 */
+        private volatile DispatchPriority runningPriority;
+
+        // Metrics
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicInteger maxDepth = new AtomicInteger();
+        private final AtomicLong processedCount = new AtomicLong();
+
+        public DispatchLane(IEventListener listener, Symbol symbol) {
+            this.listener = listener;
+            this.symbol = symbol;
+            this.laneName = DispatchLane.class.getSimpleName() + "<" + listener.getClass().getSimpleName() + ", " + (symbol == null ? "-" : symbol.name()) + ">";
+            for (int i = 0; i < laneQueues.length; i++) {
+                laneQueues[i] = new ConcurrentLinkedQueue<>();
+            }
+        }
+
+        /**
+         * イベントをEventTypeの優先度のQueueに追加し、未実行であれば Executor に登録します
+         */
+        public void add(IEvent<?> event) {
+            DispatchPriority priority = dispatchPriorityMap.get(event.getEventType());
+            laneQueues[priority.ordinal()].offer(event);
+            maxDepth.accumulateAndGet(depth.incrementAndGet(), Math::max);
+            schedule(priority);
+        }
+
+        /**
+         * 間引き配信の MarketUpdateEvent を MarketType の Slot に格納します。
+         * 未配信のイベントがある場合は置き換え、Slot が空だった場合のみ Queue に登録します。
+         */
+        public void addConflated(MarketUpdateEvent event) {
+            MarketUpdateEvent previous = conflatedSlots.getAndSet(event.getMarketType().ordinal(), event);
+            if (previous != null) {
+                conflatedCounts.incrementAndGet(symbol.ordinal());
+                return;
+            }
+            // Queue 上は Slot の目印として扱い、処理時に Slot の最新イベントに置き換える
+            add(event);
+        }
+
+        /**
+         * 未処理イベントの最高優先度の Executor に登録します
+         *
+         * @param defaultPriority 未処理イベントがない場合の優先度
+         */
+        private void schedule(DispatchPriority defaultPriority) {
+            if (scheduled.compareAndSet(false, true)) {
+                DispatchPriority priority = searchPendingPriority();
+                runningPriority = priority == null ? defaultPriority : priority;
+                dispatchExecutorMap.get(runningPriority).execute(this);
+            }
+        }
+
+        /**
+         * 未処理イベントの最高優先度を返します
+         *
+         * @return 未処理イベントがない場合はnull
+         */
+        private DispatchPriority searchPendingPriority() {
+            DispatchPriority[] priorities = DispatchPriority.values();
+            for (int i = 0; i < laneQueues.length; i++) {
+                if (!laneQueues[i].isEmpty()) {
+                    return priorities[i];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void run() {
+            int count = 0;
+            while (count < MAX_BATCH) {
+                DispatchPriority priority = searchPendingPriority();
+                // 実行中のExecutorより高い優先度のイベントは、その優先度のExecutorで処理するため一旦譲る
+                if (priority == null || priority.ordinal() < runningPriority.ordinal()) {
+                    break;
+                }
+                IEvent<?> event = laneQueues[priority.ordinal()].poll();
+                depth.decrementAndGet();
+                count++;
+                if (event.getEventType() == EventType.MARKET_UPDATE && marketUpdateConflation && listener.isConflatedMarketUpdateAcceptable()) {
+                    event = conflatedSlots.getAndSet(((MarketUpdateEvent) event).getMarketType().ordinal(), null);
+                    if (event == null) {
+                        continue;
+                    }
+                }
+                try {
+                    dispatchEvent(listener, event);
+                } catch (Throwable t) {
+                    logger.error(laneName + " で Error が発生しました", t);
+                }
+            }
+            processedCount.addAndGet(count);
+            scheduled.set(false);
+            // 未処理のイベントがあれば最高優先度で再登録
+            DispatchPriority pending = searchPendingPriority();
+            if (pending != null) {
+                schedule(pending);
+            }
         }
     }
 
+    /**
+     * 優先度ごとの dispatch用のExecuter。計測値は ManagedThreadPoolExecutor で記録します。
+     */
+    class PriorityDispatchExecutor extends ManagedThreadPoolExecutor {
+
+        private final DispatchPriority priority;
+
+        public PriorityDispatchExecutor(String name, DispatchPriority priority, int threads, WaitStrategy waitStrategy, ThreadFactory threadFactory) {
+            super(name, threads, waitStrategy, threadFactory, ShutdownPhase.DISPATCH);
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * Listenerへの配信の優先度。優先度ごとに専用のThreadで配信します。
+     */
+    public enum DispatchPriority {
+        /** 取引に直結するイベント */
+        CRITICAL,
+        /** Market, Indicator, Timer */
+        NORMAL,
+        /** 情報通知のみのイベント */
+        INFORMATIONAL;
+
+        /**
+         * EventTypeのデフォルトの優先度を返します
+         */
+        public static DispatchPriority defaultOf(EventType eventType) {
+            switch (eventType) {
+                case MARKET_ORDER:
+                case ORDER_UPDATE:
+                case POSITION_UPDATE:
+                    return CRITICAL;
+                case MARKET_UPDATE:
+                case INDICATOR_UPDATE:
+                case TIMER_INFORMATION:
+                    return NORMAL;
+                default:
+                    return INFORMATIONAL;
+            }
+        }
+    }
+
+    /**
+     * Queueが満杯の場合の動作
+     */
+    public enum BackpressurePolicy {
+        /** 空きができるまで最大待機時間待機し、超えた場合は破棄(破棄不可のEventTypeは待機を続ける) */
+        BLOCK,
+        /** 即時に新しいイベントを破棄 */
+        FAIL_FAST,
+        /** 最古のイベントを破棄して登録 */
+        DROP_OLDEST;
+    }
+
+    /**
+     * Listenerへの配信モード
+     */
+    public enum DispatchMode {
+        /** イベントごとに共有Poolで並列配信(順序保証なし) */
+        POOL,
+        /** (Listener, Symbol) ごとに直列配信 */
+        SERIAL_LANE;
+    }
+
 }
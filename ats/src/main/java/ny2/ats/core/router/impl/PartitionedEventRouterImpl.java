@@ -0,0 +1,412 @@
+package ny2.ats.core.router.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import ny2.ats.core.common.Symbol;
+import ny2.ats.core.event.ExecutionInformationEvent;
+import ny2.ats.core.event.IEvent;
+import ny2.ats.core.event.IEventListener;
+import ny2.ats.core.event.IndicatorUpdateEvent;
+import ny2.ats.core.event.MarketOrderEvent;
+import ny2.ats.core.event.MarketUpdateEvent;
+import ny2.ats.core.event.ModelInformationEvent;
+import ny2.ats.core.event.OrderUpdateEvent;
+import ny2.ats.core.event.PLInformationEvent;
+import ny2.ats.core.event.PositionUpdateEvent;
+import ny2.ats.core.event.SystemInformationEvent;
+import ny2.ats.core.event.TimerInformationEvent;
+import ny2.ats.core.thread.ExecutorRegistry;
+import ny2.ats.core.thread.ShutdownPhase;
+import ny2.ats.core.thread.WaitStrategy;
+
+/**
+ * バックテスト用の Symbol 分割型Routerです<br>
+ * executeForSymbol で投入した処理と Symbol を持つイベントを、Symbol ごとの Partition (単一Thread) で処理します。
+ * Partition Thread では、isSymbolPartitionable() が true のリスナーにのみ、その Partition の Symbol のイベントを即時配信します。<br>
+ * それ以外の配信(false のリスナー、Symbol を持たないイベント、他 Partition の Symbol のイベント)は Partition ごとに記録し、
+ * TimerInformation 等の Symbol を持たないイベントの前と awaitEvents で、全 Partition の処理完了を待ってから(Barrier)呼び出し元Threadで配信します。
+ * 記録した配信は、投入順の通番と Partition 内の発生順で並べるため、false のリスナーが受信する順序は SynchronizedEventRouterImpl と同一になります。<br>
+ * Barrier 後の配信中に発生したイベントは、同期型と同様に呼び出し元Threadで即時配信します。<br>
+ * 結果を同期型と一致させるには、false のリスナーが配信中に作成したイベントで true のリスナーが新たなイベントを作成しないこと、
+ * オーダーIDを Symbol ごとの通番で採番すること(Order.changeSymbolSequenceId)が必要です。
+ */
+// @Service("PartitionedEventRouter") -> xml
+@ManagedResource(objectName="EventRouter:name=PartitionedEventRouter")
+public class PartitionedEventRouterImpl extends AbstraceEventRouter {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    // Logger -> super class
+
+    /** Barrier待機時のpark時間 */
+    private static final long PARK_NANOSEC = TimeUnit.MICROSECONDS.toNanos(10);
+
+    /** Executor管理 */
+    @Autowired
+    private ExecutorRegistry executorRegistry;
+
+    /** Partition数 */
+    @Value("${historical.router.partitions:4}")
+    private int partitionCount;
+
+    /** Symbol.ordinal() % partitionCount で割り当てる Partition */
+    private Partition[] partitions;
+
+    /** 実行中ThreadのPartition(Partition以外のThreadはnull) */
+    private final ThreadLocal<Partition> currentPartition = new ThreadLocal<>();
+
+    /** Partition に投入した処理の通番 */
+    private final AtomicLong taskSequence = new AtomicLong();
+
+    /** Barrier後に呼び出し元Threadで配信する間のLock */
+    private final ReentrantLock serialLock = new ReentrantLock();
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    public PartitionedEventRouterImpl() {
+        super(LoggerFactory.getLogger(PartitionedEventRouterImpl.class));
+        logger.info("Create instance.");
+    }
+
+    @PostConstruct
+    private void init() {
+        logger.info("PostConstruct instance.");
+
+        partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i);
+        }
+        logger.info("Partition count = {}", partitionCount);
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    @Override
+    public void addEvent(MarketUpdateEvent event) {
+        routeEvent(event);
+    }
+
+    @Override
+    public void addEvent(MarketOrderEvent event) {
+        routeEvent(event);
+    }
+
+    @Override
+    public void addEvent(OrderUpdateEvent event) {
+        routeEvent(event);
+    }
+
+    @Override
+    public void addEvent(PositionUpdateEvent event) {
+        routeEvent(event);
+    }
+
+    @Override
+    public void addEvent(IndicatorUpdateEvent event) {
+        routeEvent(event);
+    }
+
+    @Override
+    public void addEvent(ModelInformationEvent event) {
+        routeEvent(event);
+    }
+
+    @Override
+    public void addEvent(PLInformationEvent event) {
+        routeEvent(event);
+    }
+
+    @Override
+    public void addEvent(ExecutionInformationEvent event) {
+        routeEvent(event);
+    }
+
+    @Override
+    public void addEvent(TimerInformationEvent event) {
+        routeEvent(event);
+    }
+
+    @Override
+    public void addEvent(SystemInformationEvent event) {
+        routeEvent(event);
+    }
+
+    /**
+     * Symbol の Partition で処理を実行します。Partition内 または Barrier後の配信中の場合は即時実行します。
+     * Partition内から他の Partition へ投入した処理の順序は保証されません。
+     */
+    @Override
+    public void executeForSymbol(Symbol symbol, Runnable task) {
+        Partition partition = getPartition(symbol);
+        Partition current = currentPartition.get();
+        if (current == partition || (current == null && serialLock.isHeldByCurrentThread())) {
+            task.run();
+        } else {
+            partition.submit(task);
+        }
+    }
+
+    /**
+     * 全Partitionの処理完了を待ち(Barrier)、記録した配信を呼び出し元Threadで行います。
+     * Partition内 または 配信中に呼ばれた場合はデッドロックするため待ちません。
+     */
+    @Override
+    public void awaitEvents() {
+        if (currentPartition.get() != null || serialLock.isHeldByCurrentThread()) {
+            return;
+        }
+        serialLock.lock();
+        try {
+            flushPartitions();
+        } finally {
+            serialLock.unlock();
+        }
+    }
+
+    private Partition getPartition(Symbol symbol) {
+        return partitions[symbol.ordinal() % partitions.length];
+    }
+
+    /**
+     * 呼び出し元Threadに応じてイベントを配信します
+     */
+    private void routeEvent(IEvent<?> event) {
+        if (!acceptEvent(event)) {
+            return;
+        }
+        Partition partition = currentPartition.get();
+        if (partition != null) {
+            sendInPartition(partition, event);
+            return;
+        }
+        if (serialLock.isHeldByCurrentThread()) {
+            sendEvent(event);
+            return;
+        }
+        Symbol symbol = event.getSymbol();
+        if (symbol != null) {
+            Partition target = getPartition(symbol);
+            target.submit(() -> sendInPartition(target, event));
+            return;
+        }
+        serialLock.lock();
+        try {
+            flushPartitions();
+            sendEvent(event);
+        } finally {
+            serialLock.unlock();
+        }
+    }
+
+    /**
+     * Partition Thread で発生したイベントを配信します。
+     * Partition の Symbol のイベントは Partition 可能なリスナーに即時配信し、それ以外は Barrier 後の配信として記録します。
+     */
+    private void sendInPartition(Partition partition, IEvent<?> event) {
+        Symbol symbol = event.getSymbol();
+        if (symbol == null || getPartition(symbol) != partition) {
+            partition.defer(null, event);
+            return;
+        }
+        SubscribedListeners.Targets targets = searchSubscribedListeners(event.getEventType()).search(symbol);
+        for (int index = 0; index < targets.size(); index++) {
+            if (!targets.getSubscription(index).matchesExceptSymbol(event)) {
+                continue;
+            }
+            IEventListener listener = targets.getListener(index);
+            if (listener.isSymbolPartitionable()) {
+                sendEvent(listener, event);
+            } else {
+                partition.defer(listener, event);
+            }
+        }
+    }
+
+    /**
+     * 全Partitionの処理完了を待ち、記録した配信を通番順に行います。serialLock を取得して呼び出してください。
+     */
+    private void flushPartitions() {
+        awaitPartitions();
+
+        // 各Partitionの記録は通番順のため、先頭の通番が最小のPartitionから順に配信する
+        int[] positions = new int[partitions.length];
+        while (true) {
+            Partition next = null;
+            for (Partition partition : partitions) {
+                if (positions[partition.index] < partition.deferredList.size()
+                        && (next == null || partition.deferredList.get(positions[partition.index]).taskSequence
+                                < next.deferredList.get(positions[next.index]).taskSequence)) {
+                    next = partition;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            DeferredEvent deferred = next.deferredList.get(positions[next.index]++);
+            if (deferred.listener == null) {
+                sendEvent(deferred.event);
+            } else {
+                sendEvent(deferred.listener, deferred.event);
+            }
+        }
+        for (Partition partition : partitions) {
+            partition.deferredList.clear();
+        }
+    }
+
+    /**
+     * 全Partitionの処理が完了するまで待機します。
+     * 待機中に他Partitionへ追加された処理も含めて完了を確認します。
+     */
+    private void awaitPartitions() {
+        while (true) {
+            long totalSubmittedBefore = totalSubmitted();
+            boolean idle = true;
+            for (Partition partition : partitions) {
+                if (partition.completedCount.get() != partition.submittedCount.get()) {
+                    idle = false;
+                    break;
+                }
+            }
+            if (idle && totalSubmittedBefore == totalSubmitted()) {
+                return;
+            }
+            LockSupport.parkNanos(PARK_NANOSEC);
+        }
+    }
+
+    private long totalSubmitted() {
+        long total = 0;
+        for (Partition partition : partitions) {
+            total += partition.submittedCount.get();
+        }
+        return total;
+    }
+
+    private void sendEvent(IEvent<?> event) {
+        SubscribedListeners.Targets targets = searchSubscribedListeners(event.getEventType()).search(event.getSymbol());
+        for (int index = 0; index < targets.size(); index++) {
+            if (!targets.getSubscription(index).matchesExceptSymbol(event)) {
+                continue;
+            }
+            sendEvent(targets.getListener(index), event);
+        }
+    }
+
+    private void sendEvent(IEventListener listener, IEvent<?> event) {
+        try {
+            dispatchEvent(listener, event);
+        } catch (Throwable t) {
+            logger.error(event.getEventType().name() + " Thread で Error が発生しました。 ", t);
+        }
+    }
+
+    /**
+     * Partitionの処理状況をチェックします
+     */
+    @ManagedOperation
+    public String checkPartitionStatus() {
+        StringBuilder sb = new StringBuilder("[Partition Status]\n");
+        for (Partition partition : partitions) {
+            sb.append("Partition-").append(partition.index)
+                .append(" : submitted=").append(partition.submittedCount.get())
+                .append(", completed=").append(partition.completedCount.get()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    // //////////////////////////////////////
+    // Inner Class
+    // //////////////////////////////////////
+
+    /**
+     * 単一Threadで順に処理する Partition
+     */
+    class Partition {
+
+        private final int index;
+        private final ExecutorService executor;
+        private final AtomicLong submittedCount = new AtomicLong();
+        private final AtomicLong completedCount = new AtomicLong();
+
+        /** Barrier後に配信するイベント(Partition Threadで追加し、Barrier後に呼び出し元Threadで参照する) */
+        private final List<DeferredEvent> deferredList = new ArrayList<>();
+
+        /** 実行中の処理の通番 */
+        private long currentTaskSequence;
+
+        public Partition(int index) {
+            this.index = index;
+            // Partition内の処理順を保つため1Threadで固定
+            this.executor = executorRegistry.createFixedThreadPool(PartitionedEventRouterImpl.class.getSimpleName() + "-Partition-" + index,
+                    1, WaitStrategy.BLOCKING, ShutdownPhase.ROUTER);
+        }
+
+        public void submit(Runnable task) {
+            long sequence = taskSequence.incrementAndGet();
+            submittedCount.incrementAndGet();
+            executor.execute(() -> {
+                currentPartition.set(this);
+                currentTaskSequence = sequence;
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    logger.error("Partition-" + index + " で Error が発生しました。 ", t);
+                } finally {
+                    completedCount.incrementAndGet();
+                }
+            });
+        }
+
+        /**
+         * Barrier後の配信を記録します
+         *
+         * @param listener 配信先。null の場合は全ての購読リスナー
+         * @param event
+         */
+        public void defer(IEventListener listener, IEvent<?> event) {
+            deferredList.add(new DeferredEvent(currentTaskSequence, listener, event));
+        }
+    }
+
+    /**
+     * Barrier後に配信するイベント
+     */
+    static class DeferredEvent {
+
+        /** 発生した処理の通番 */
+        private final long taskSequence;
+
+        /** 配信先。null の場合は全ての購読リスナー */
+        private final IEventListener listener;
+
+        private final IEvent<?> event;
+
+        public DeferredEvent(long taskSequence, IEventListener listener, IEvent<?> event) {
+            this.taskSequence = taskSequence;
+            this.listener = listener;
+            this.event = event;
+        }
+    }
+
+}
@@ -0,0 +1,547 @@
+package ny2.ats.core.router.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import ny2.ats.core.event.EventType;
+import ny2.ats.core.event.ExecutionInformationEvent;
+import ny2.ats.core.event.IEvent;
+import ny2.ats.core.event.IEventListener;
+import ny2.ats.core.event.IndicatorUpdateEvent;
+import ny2.ats.core.event.MarketOrderEvent;
+import ny2.ats.core.event.MarketUpdateEvent;
+import ny2.ats.core.event.ModelInformationEvent;
+import ny2.ats.core.event.OrderUpdateEvent;
+import ny2.ats.core.event.PLInformationEvent;
+import ny2.ats.core.event.PositionUpdateEvent;
+import ny2.ats.core.event.SystemInformationEvent;
+import ny2.ats.core.event.TimerInformationEvent;
+import ny2.ats.core.router.EventSubscription;
+import ny2.ats.core.thread.ExecutorRegistry;
+import ny2.ats.core.thread.ShutdownPhase;
+import ny2.ats.core.thread.WaitStrategy;
+
+/**
+ * Ring Buffer 型の非同期 Event Router です<br>
+ * EventType ごとに事前確保した Ring Buffer を持ち、Listener ごとの Consumer が Sequence を進めて読み込みます。
+ * イベント配信時に Runnable や Queue の Node を生成しません。<br>
+ * 全Consumerが読み終わったSlotは参照を解放し、配信済みのイベントを保持し続けません。
+ * Consumerの待機方法は thread.wait.router.ring で指定します(BLOCKING は書き込み時の通知で起床)。
+ */
+// @Service("RingBufferEventRouter") -> xml
+@ManagedResource(objectName="EventRouter:name=RingBufferEventRouter")
+public class RingBufferEventRouterImpl extends AbstraceEventRouter {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    // Logger -> super class
+
+    /** wait time for add ring (満杯時)。破棄不可のEventTypeは超えた場合も警告して待機を続ける */
+    private static final long WAIT_NANOSEC = TimeUnit.MILLISECONDS.toNanos(20);
+
+    /** 破棄不可のEventType(満杯時は待機時間を超えても破棄しない) */
+    private static final EnumSet<EventType> NON_DROPPABLE_EVENT_TYPES = EnumSet.of(EventType.MARKET_ORDER, EventType.ORDER_UPDATE);
+
+    /** 満杯時の待機のpark時間 */
+    private static final long PARK_NANOSEC = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /** Ring Buffer サイズ(MarketUpdate) 2の累乗 */
+    private static final int MARKET_UPDATE_RING_SIZE = 16384;
+
+    /** Ring Buffer サイズ(その他) 2の累乗 */
+    private static final int DEFAULT_RING_SIZE = 1024;
+
+    /** 全てのRingBufferのMap */
+    private final Map<EventType, EventRing> ringMap = new EnumMap<>(EventType.class);
+
+    // Executer
+    /** Executor管理 */
+    @Autowired
+    private ExecutorRegistry executorRegistry;
+
+    /** Consumer用のExecuter(Listener登録時にThreadを割り当てる) */
+    private ExecutorService consumerExecutor;
+
+    /** Status Checker*/
+    private ScheduledExecutorService statusChecker;
+
+    /** 稼働中フラグ */
+    private volatile boolean running = true;
+
+    /** Consumerの待機方法 (BLOCKING/YIELDING/SPIN_PARK/BUSY_SPIN) */
+    @Value("${thread.wait.router.ring:BLOCKING}")
+    private WaitStrategy consumerWaitStrategy;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    public RingBufferEventRouterImpl() {
+        super(LoggerFactory.getLogger(RingBufferEventRouterImpl.class));
+        logger.info("Create instance.");
+
+        // Ring Buffer 作成
+        for (EventType eventType : EventType.values()) {
+            int size = eventType == EventType.MARKET_UPDATE ? MARKET_UPDATE_RING_SIZE : DEFAULT_RING_SIZE;
+            ringMap.put(eventType, new EventRing(eventType, size));
+        }
+    }
+
+    @PostConstruct
+    private void init() {
+        logger.info("PostConstruct instance.");
+
+        // Consumerは1ThreadずつListener登録時に追加するため、Thread数は登録数に合わせる
+        consumerExecutor = executorRegistry.createCachedThreadPool(RingBufferEventRouterImpl.class.getSimpleName() + "-Consumer", ShutdownPhase.DISPATCH);
+
+        // Status Checker
+        statusChecker = executorRegistry.createScheduledExecutor(RingBufferEventRouterImpl.class.getSimpleName() + "-StatusChecker", 1, ShutdownPhase.MONITOR);
+        statusChecker.scheduleAtFixedRate(() -> {
+            try {
+                for (EventRing ring : ringMap.values()) {
+                    logger.info("Ring status check. {} : cursor = {}, remaining = {}", ring.eventType.name(), ring.cursor.get(), ring.remaining());
+                }
+            } catch(Throwable t) {
+                logger.error("", t);
+            }
+        }, 0, 1, TimeUnit.MINUTES);
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * Listenerを登録し、対象EventTypeのConsumerを開始します
+     */
+    @Override
+    public synchronized void registerListener(EventType eventType, IEventListener listener, EventSubscription subscription) {
+        super.registerListener(eventType, listener, subscription);
+        RingConsumer consumer = ringMap.get(eventType).addConsumer(listener, subscription, consumerWaitStrategy);
+        consumerExecutor.execute(consumer);
+    }
+
+    @Override
+    public void addEvent(MarketUpdateEvent event) {
+        ringMap.get(EventType.MARKET_UPDATE).publish(event);
+    }
+
+    @Override
+    public void addEvent(MarketOrderEvent event) {
+        ringMap.get(EventType.MARKET_ORDER).publish(event);
+    }
+
+    @Override
+    public void addEvent(OrderUpdateEvent event) {
+        ringMap.get(EventType.ORDER_UPDATE).publish(event);
+    }
+
+    @Override
+    public void addEvent(PositionUpdateEvent event) {
+        ringMap.get(EventType.POSITION_UPDATE).publish(event);
+    }
+
+    @Override
+    public void addEvent(IndicatorUpdateEvent event) {
+        ringMap.get(EventType.INDICATOR_UPDATE).publish(event);
+    }
+
+    @Override
+    public void addEvent(ModelInformationEvent event) {
+        ringMap.get(EventType.MODEL_INFORMATION).publish(event);
+    }
+
+    @Override
+    public void addEvent(PLInformationEvent event) {
+        ringMap.get(EventType.PL_INFORMATION).publish(event);
+    }
+
+    @Override
+    public void addEvent(ExecutionInformationEvent event) {
+        ringMap.get(EventType.EXECUTION_INFORMATION).publish(event);
+    }
+
+    @Override
+    public void addEvent(TimerInformationEvent event) {
+        ringMap.get(EventType.TIMER_INFORMATION).publish(event);
+    }
+
+    @Override
+    public void addEvent(SystemInformationEvent event) {
+        ringMap.get(EventType.SYSTEM_INFORMATION).publish(event);
+    }
+
+    /**
+     * threadを停止する
+     */
+    public void stopThread() {
+        logger.warn("ShutdownNow all thread.");
+        running = false;
+        for (EventRing ring : ringMap.values()) {
+            ring.signalConsumers();
+        }
+        consumerExecutor.shutdownNow();
+        statusChecker.shutdownNow();
+    }
+
+    // //////////////////////////////////////
+    // Method - Utility
+    // //////////////////////////////////////
+
+    /**
+     * 未配信イベント数の合計をチェックします
+     */
+    public long checkTotalQueueSize() {
+        long totalSize = 0;
+        for (EventRing ring : ringMap.values()) {
+            totalSize += ring.remaining();
+        }
+        return totalSize;
+    }
+
+    /**
+     * Ring Bufferの滞留状況をチェックします
+     */
+    @ManagedOperation
+    public String checkQueueStatus() {
+        StringBuilder sb = new StringBuilder("[Ring Status]\n");
+        for (Entry<EventType, EventRing> entry : ringMap.entrySet()) {
+            EventRing ring = entry.getValue();
+            sb.append(entry.getKey().name()).append(" : cursor=").append(ring.cursor.get())
+                .append(", size=").append(ring.entries.length)
+                .append(", remaining=").append(ring.remaining())
+                .append(", dropped=").append(ring.droppedCount.get())
+                .append(", waitTimeout=").append(ring.waitTimeoutCount.get()).append("\n");
+            for (RingConsumer consumer : ring.consumers) {
+                sb.append("  ").append(consumer.listener.getClass().getSimpleName())
+                    .append(" : lag=").append(ring.cursor.get() - consumer.sequence.get()).append("\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Executorの状況チェックします。
+     */
+    @ManagedOperation
+    public String checkExecutorStatus() {
+        StringBuilder sb = new StringBuilder("[Executor Status]\n");
+        sb.append("ConsumerExecutor : ").append(consumerExecutor.toString());
+        return sb.toString();
+    }
+
+    // //////////////////////////////////////
+    // Inner Class
+    // //////////////////////////////////////
+
+    /**
+     * EventType ごとの Ring Buffer です。<br>
+     * 書き込みはリング単位で排他し、読み込みは Consumer ごとの Sequence で管理します。
+     * 満杯時の待機はLockの外で行い、他の書き込み・Slotの解放を止めません。<br>
+     * Slotの参照の解放も書き込みと同じLockで行い、再利用されたSlotを解放しないようにします。
+     */
+    class EventRing {
+
+        private final EventType eventType;
+
+        /** 事前確保したイベント格納領域 */
+        private final IEvent<?>[] entries;
+
+        private final int mask;
+
+        /** 書き込み済みの最終Sequence */
+        private final AtomicLong cursor = new AtomicLong(-1L);
+
+        /** 満杯時に破棄してよいか */
+        private final boolean droppable;
+
+        /** 満杯で登録できなかった件数 */
+        private final AtomicLong droppedCount = new AtomicLong();
+
+        /** 満杯の状態が待機時間を超えた件数 */
+        private final AtomicLong waitTimeoutCount = new AtomicLong();
+
+        /** 書き込み・Slot解放のLock */
+        private final ReentrantLock publishLock = new ReentrantLock();
+
+        /** 参照を解放済みの最終Sequence (publishLock内で更新) */
+        private volatile long releasedSequence = -1L;
+
+        /** BLOCKING で待機中のConsumer用のLock */
+        private final Object waitLock = new Object();
+
+        /** BLOCKING で待機中のConsumer数 */
+        private final AtomicInteger waitingCount = new AtomicInteger();
+
+        /** 登録済みConsumer(登録時にコピーして差し替える) */
+        private volatile RingConsumer[] consumers = new RingConsumer[0];
+
+        public EventRing(EventType eventType, int size) {
+            if (Integer.bitCount(size) != 1) {
+                throw new IllegalArgumentException("Ring size must be a power of 2. size = " + size);
+            }
+            this.eventType = eventType;
+            this.droppable = !NON_DROPPABLE_EVENT_TYPES.contains(eventType);
+            this.entries = new IEvent<?>[size];
+            this.mask = size - 1;
+        }
+
+        /**
+         * Consumerを追加します。現在のcursor以降のイベントから配信します。
+         */
+        public RingConsumer addConsumer(IEventListener listener, EventSubscription subscription, WaitStrategy waitStrategy) {
+            publishLock.lock();
+            try {
+                RingConsumer consumer = new RingConsumer(this, listener, subscription, waitStrategy, cursor.get());
+                RingConsumer[] newConsumers = Arrays.copyOf(consumers, consumers.length + 1);
+                newConsumers[newConsumers.length - 1] = consumer;
+                consumers = newConsumers;
+                return consumer;
+            } finally {
+                publishLock.unlock();
+            }
+        }
+
+        /**
+         * イベントを書き込みます。全Consumerが読み終わるまで上書きしません。
+         * 満杯の状態が待機時間を超えた場合は破棄します(破棄不可のEventTypeは警告して待機を続けます)。
+         */
+        public void publish(IEvent<?> event) {
+            if (!acceptEvent(event)) {
+                return;
+            }
+            long deadline = 0L;
+            while (true) {
+                // 空きがない場合はLockの外で待機
+                if (isFull()) {
+                    if (deadline == 0L) {
+                        deadline = System.nanoTime() + WAIT_NANOSEC;
+                    } else if (System.nanoTime() > deadline) {
+                        waitTimeoutCount.incrementAndGet();
+                        if (droppable) {
+                            droppedCount.incrementAndGet();
+                            logger.warn("Ring buffer is full. Event is dropped. EventType = {}", eventType.name());
+                            return;
+                        }
+                        logger.warn("Ring buffer is full over {}ms. Keep waiting. EventType = {}", TimeUnit.NANOSECONDS.toMillis(WAIT_NANOSEC), eventType.name());
+                        deadline = System.nanoTime() + WAIT_NANOSEC;
+                    }
+                    LockSupport.parkNanos(PARK_NANOSEC);
+                    continue;
+                }
+                publishLock.lock();
+                try {
+                    // 他の書き込みで埋まった場合は待機に戻る
+                    if (isFull()) {
+                        continue;
+                    }
+                    long next = cursor.get() + 1;
+                    entries[(int) next & mask] = event;
+                    cursor.set(next);
+                    break;
+                } finally {
+                    publishLock.unlock();
+                }
+            }
+            // BLOCKING で待機中のConsumerを起床
+            if (waitingCount.get() > 0) {
+                signalConsumers();
+            }
+        }
+
+        /**
+         * 次の書き込み位置を最も遅いConsumerが読み終わっていない場合 true を返します
+         */
+        private boolean isFull() {
+            long current = cursor.get();
+            return current + 1 - entries.length > minimumSequence(current);
+        }
+
+        /**
+         * BLOCKING で待機中のConsumerを起床します
+         */
+        public void signalConsumers() {
+            synchronized (waitLock) {
+                waitLock.notifyAll();
+            }
+        }
+
+        /**
+         * 指定したSequenceが書き込まれるまで待機します(BLOCKING)
+         *
+         * @param sequence
+         * @throws InterruptedException
+         */
+        public void awaitPublish(long sequence) throws InterruptedException {
+            synchronized (waitLock) {
+                waitingCount.incrementAndGet();
+                try {
+                    while (running && cursor.get() < sequence) {
+                        waitLock.wait();
+                    }
+                } finally {
+                    waitingCount.decrementAndGet();
+                }
+            }
+        }
+
+        /**
+         * 全Consumerが読み終わったSlotの参照を解放します。<br>
+         * 書き込み中の場合は解放せずに戻ります(書き込まれたイベントの配信後に再度解放されます)。
+         *
+         * @param consumedSequence 呼び出し元Consumerの配信済みの最終Sequence
+         */
+        public void release(long consumedSequence) {
+            if (releasedSequence >= consumedSequence || !publishLock.tryLock()) {
+                return;
+            }
+            try {
+                long current = cursor.get();
+                long minimum = minimumSequence(current);
+                // 上書き済みのSlot(current - size 以前)は対象外
+                long from = Math.max(releasedSequence, current - entries.length) + 1;
+                for (long seq = from; seq <= minimum; seq++) {
+                    entries[(int) seq & mask] = null;
+                }
+                if (minimum > releasedSequence) {
+                    releasedSequence = minimum;
+                }
+            } finally {
+                publishLock.unlock();
+            }
+        }
+
+        /**
+         * 最も遅いConsumerのSequenceを返します
+         */
+        private long minimumSequence(long defaultValue) {
+            long minimum = defaultValue;
+            for (RingConsumer consumer : consumers) {
+                minimum = Math.min(minimum, consumer.sequence.get());
+            }
+            return minimum;
+        }
+
+        /**
+         * 最も遅いConsumerの未配信件数を返します
+         */
+        public long remaining() {
+            long current = cursor.get();
+            return current - minimumSequence(current);
+        }
+    }
+
+    /**
+     * Listener ごとの Consumer。自身の Sequence から cursor までを順に配信します。
+     */
+    class RingConsumer implements Runnable {
+
+        private final EventRing ring;
+        private final IEventListener listener;
+
+        /** 購読条件 */
+        private final EventSubscription subscription;
+
+        /** 待機方法 */
+        private final WaitStrategy waitStrategy;
+        private final String threadName;
+
+        /** 配信済みの最終Sequence */
+        private final AtomicLong sequence;
+
+        /** BatchListener用の送信リスト(再利用) */
+        private final List<IEvent<?>> batch = new ArrayList<>();
+
+        public RingConsumer(EventRing ring, IEventListener listener, EventSubscription subscription, WaitStrategy waitStrategy, long initialSequence) {
+            this.ring = ring;
+            this.listener = listener;
+            this.subscription = subscription;
+            this.waitStrategy = waitStrategy;
+            this.sequence = new AtomicLong(initialSequence);
+            this.threadName = RingConsumer.class.getSimpleName() + "<" + ring.eventType.name() + ", " + listener.getClass().getSimpleName() + ">";
+        }
+
+        @Override
+        public void run() {
+            logger.info("{} started. waitStrategy = {}", threadName, waitStrategy);
+            int idleCount = 0;
+            while (running) {
+                long next = sequence.get() + 1;
+                long available = ring.cursor.get();
+                if (next > available) {
+                    if (waitStrategy == WaitStrategy.BLOCKING) {
+                        try {
+                            ring.awaitPublish(next);
+                        } catch (InterruptedException e) {
+                            break;
+                        }
+                    } else {
+                        idleCount = waitStrategy.idle(idleCount);
+                    }
+                    continue;
+                }
+                idleCount = 0;
+                // BatchListenerにはまとめて1回で配信
+                if (listener.isBatchListener()) {
+                    batch.clear();
+                    for (long seq = next; seq <= available; seq++) {
+                        IEvent<?> event = ring.entries[(int) seq & ring.mask];
+                        if (subscription.matches(event)) {
+                            batch.add(event);
+                        }
+                    }
+                    try {
+                        if (!batch.isEmpty()) {
+                            dispatchEvents(listener, ring.eventType, batch);
+                        }
+                    } catch (Throwable t) {
+                        logger.error(threadName + " Thread で Error が発生しました", t);
+                    }
+                    batch.clear();
+                    sequence.lazySet(available);
+                    ring.release(available);
+                    continue;
+                }
+                // まとめて配信
+                for (long seq = next; seq <= available; seq++) {
+                    IEvent<?> event = ring.entries[(int) seq & ring.mask];
+                    if (!subscription.matches(event)) {
+                        sequence.lazySet(seq);
+                        continue;
+                    }
+                    try {
+                        dispatchEvent(listener, event);
+                    } catch (Throwable t) {
+                        logger.error(threadName + " Thread で Error が発生しました", t);
+                    }
+                    sequence.lazySet(seq);
+                }
+                ring.release(available);
+            }
+            logger.info("{} stopped.", threadName);
+        }
+    }
+
+}
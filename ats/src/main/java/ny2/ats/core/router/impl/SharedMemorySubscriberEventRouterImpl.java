@@ -0,0 +1,205 @@
+package ny2.ats.core.router.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import ny2.ats.core.bus.SharedMemoryRingFile;
+import ny2.ats.core.event.EventType;
+import ny2.ats.core.event.IEvent;
+import ny2.ats.core.journal.EventJournalCodec;
+import ny2.ats.core.thread.ShutdownPhase;
+import ny2.ats.core.thread.WaitStrategy;
+
+/**
+ * 共有メモリ(SharedMemoryRingFile)からイベントを受信する Router です<br>
+ * 別JVMの SharedMemoryEventPublisher が送信したイベントを受信Threadで読み込み、GenericEventRouterImpl と同様に配信します。
+ * 自JVMで作成したイベントも通常どおり配信します。<br>
+ * Indicator, Model, DB(kdb) を別プロセスに分割する場合に使用します。
+ * 受信したイベントは自JVMの SharedMemoryEventPublisher から再送信しません。
+ */
+// @Service("SharedMemorySubscriberEventRouter") -> xml
+@ManagedResource(objectName="EventRouter:name=SharedMemorySubscriberEventRouter")
+public class SharedMemorySubscriberEventRouterImpl extends GenericEventRouterImpl {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    // Logger -> super class
+
+    /** Ringファイル作成待ち時間 */
+    private static final long OPEN_RETRY_MILLISEC = 1000;
+
+    /** 受信元のRingファイル */
+    @Value("${bus.subscribe.file:/dev/shm/ats-bus.ring}")
+    private String file;
+
+    /** 受信するEventType (カンマ区切り、未設定は全て) */
+    @Value("${bus.subscribe.eventtypes:}")
+    private String eventTypesStr;
+
+    private final EnumSet<EventType> targetEventTypes = EnumSet.allOf(EventType.class);
+
+    /** 受信Threadの待機方法 */
+    @Value("${thread.wait.bus.subscribe:SPIN_PARK}")
+    private WaitStrategy receiveWaitStrategy;
+
+    /** 受信Thread */
+    private volatile Thread receiveThread;
+
+    private volatile boolean running = true;
+
+    /** 読み込み位置(累積byte) */
+    private volatile long readPosition;
+
+    private final AtomicLong receivedCount = new AtomicLong();
+    private final AtomicLong overrunCount = new AtomicLong();
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    public SharedMemorySubscriberEventRouterImpl() {
+        super(LoggerFactory.getLogger(SharedMemorySubscriberEventRouterImpl.class));
+    }
+
+    @PostConstruct
+    private void initSubscriber() {
+        if (StringUtils.isNotBlank(eventTypesStr)) {
+            targetEventTypes.clear();
+            for (String eventTypeStr : StringUtils.split(eventTypesStr, ',')) {
+                targetEventTypes.add(EventType.valueOf(eventTypeStr.trim()));
+            }
+        }
+        // 受信処理がThreadを占有する
+        executorRegistry.createFixedThreadPool(SharedMemorySubscriberEventRouterImpl.class.getSimpleName() + "-Receiver", 1, WaitStrategy.BLOCKING, ShutdownPhase.SOURCE)
+            .execute(this::receive);
+        logger.info("Event Bus subscribe file = {}, event types = {}, wait = {}", file, targetEventTypes, receiveWaitStrategy);
+    }
+
+    @PreDestroy
+    private void destroySubscriber() {
+        running = false;
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    @Override
+    protected boolean isBusReceivedEvent(IEvent<?> event) {
+        return Thread.currentThread() == receiveThread;
+    }
+
+    /**
+     * 受信Threadの処理です。Ringファイルが作成されるまで待ってから、最新位置から受信を開始します。
+     */
+    private void receive() {
+        receiveThread = Thread.currentThread();
+        try (SharedMemoryRingFile ringFile = openRingFile()) {
+            if (ringFile == null) {
+                return;
+            }
+            ByteBuffer recordBuffer = ByteBuffer.allocate(ringFile.getCapacity() >> 1);
+            long position = ringFile.readWritePosition();
+            int idleCount = 0;
+            while (isRunning()) {
+                long writePosition = ringFile.readWritePosition();
+                if (position == writePosition) {
+                    idleCount = receiveWaitStrategy.idle(idleCount);
+                    continue;
+                }
+                idleCount = 0;
+                // 送信側の再起動
+                if (writePosition < position) {
+                    logger.warn("Publisher restarted. position {} -> {}", position, writePosition);
+                    position = writePosition;
+                    continue;
+                }
+                if (ringFile.isOverrun(position, writePosition)) {
+                    overrunCount.incrementAndGet();
+                    logger.warn("Subscriber overrun. skip {} bytes.", writePosition - position);
+                    position = writePosition;
+                    continue;
+                }
+
+                long nextPosition = ringFile.read(position, recordBuffer);
+                // 読み込み中に上書きされていないことを確認
+                if (nextPosition < 0 || ringFile.isOverrun(position, ringFile.readWritePosition())) {
+                    overrunCount.incrementAndGet();
+                    position = ringFile.readWritePosition();
+                    continue;
+                }
+                if (recordBuffer.hasRemaining()) {
+                    dispatchRecord(recordBuffer);
+                }
+                position = nextPosition;
+                readPosition = position;
+            }
+        } catch (IOException e) {
+            logger.error("Failed to open event bus file. " + file, e);
+        }
+    }
+
+    private SharedMemoryRingFile openRingFile() {
+        while (isRunning()) {
+            try {
+                return SharedMemoryRingFile.openReader(file);
+            } catch (IOException e) {
+                // 送信側の作成待ち
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(OPEN_RETRY_MILLISEC));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 停止指示(PreDestroy, Executor停止時の割り込み)がない場合 true を返します
+     */
+    private boolean isRunning() {
+        return running && !Thread.currentThread().isInterrupted();
+    }
+
+    private void dispatchRecord(ByteBuffer recordBuffer) {
+        EventType eventType = EventJournalCodec.toEventType(recordBuffer.get());
+        if (eventType == null) {
+            logger.error("Unknown event type in record. position = {}", readPosition);
+            return;
+        }
+        if (!targetEventTypes.contains(eventType)) {
+            return;
+        }
+        try {
+            IEvent<?> event = EventJournalCodec.decode(eventType, recordBuffer);
+            receivedCount.incrementAndGet();
+            addEvent(event);
+        } catch (Throwable t) {
+            logger.error("Failed to receive event. " + eventType, t);
+        }
+    }
+
+    /**
+     * 受信状況をチェックします
+     */
+    @ManagedOperation
+    public String checkSubscribeStatus() {
+        StringBuilder sb = new StringBuilder("[Subscribe Status]\n");
+        sb.append("File : ").append(file).append(", position=").append(readPosition).append("\n");
+        sb.append("Received : ").append(receivedCount.get()).append(", Overrun : ").append(overrunCount.get());
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,131 @@
+package ny2.ats.core.router.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import ny2.ats.core.common.Symbol;
+import ny2.ats.core.event.IEventListener;
+import ny2.ats.core.router.EventSubscription;
+
+/**
+ * Symbol ごとの配信先 Listener を事前計算して保持するクラスです。<br>
+ * Listener 登録時に再作成し、配信時は Symbol.ordinal() で配列を参照するだけで対象を決定します。
+ * Symbol 以外の条件(MarketType, 作成クラス)は配信時に Targets の購読条件で判定します。
+ */
+public class SubscribedListeners {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    private static final Symbol[] SYMBOLS = Symbol.values();
+
+    /** Symbolなしのイベント用のindex */
+    private static final int NO_SYMBOL_INDEX = SYMBOLS.length;
+
+    /** Symbol.ordinal() ごとの配信先。末尾はSymbolなしのイベント用(全Listener) */
+    private volatile Targets[] symbolTargets;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    public SubscribedListeners() {
+        Targets empty = new Targets(new ArrayList<>(), null);
+        Targets[] targets = new Targets[NO_SYMBOL_INDEX + 1];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = empty;
+        }
+        this.symbolTargets = targets;
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 配信先を再作成します。Listener登録時に呼び出します。
+     *
+     * @param listeners 登録順のListener
+     * @param subscriptionMap Listenerごとの購読条件(未登録はALL)
+     */
+    public synchronized void rebuild(List<IEventListener> listeners, Map<IEventListener, EventSubscription> subscriptionMap) {
+        Targets[] targets = new Targets[NO_SYMBOL_INDEX + 1];
+        for (Symbol symbol : SYMBOLS) {
+            List<IEventListener> symbolListeners = new ArrayList<>(listeners.size());
+            for (IEventListener listener : listeners) {
+                if (searchSubscription(subscriptionMap, listener).matchesSymbol(symbol)) {
+                    symbolListeners.add(listener);
+                }
+            }
+            targets[symbol.ordinal()] = new Targets(symbolListeners, subscriptionMap);
+        }
+        targets[NO_SYMBOL_INDEX] = new Targets(listeners, subscriptionMap);
+        this.symbolTargets = targets;
+    }
+
+    /**
+     * Symbolの配信先を返します
+     *
+     * @param symbol nullの場合はSymbolなしのイベント用(全Listener)
+     * @return
+     */
+    public Targets search(Symbol symbol) {
+        return symbolTargets[symbol == null ? NO_SYMBOL_INDEX : symbol.ordinal()];
+    }
+
+    /**
+     * 全Listenerの配信先を返します
+     */
+    public Targets getAll() {
+        return symbolTargets[NO_SYMBOL_INDEX];
+    }
+
+    private static EventSubscription searchSubscription(Map<IEventListener, EventSubscription> subscriptionMap, IEventListener listener) {
+        EventSubscription subscription = subscriptionMap == null ? null : subscriptionMap.get(listener);
+        return subscription == null ? EventSubscription.ALL : subscription;
+    }
+
+    // //////////////////////////////////////
+    // Inner Class
+    // //////////////////////////////////////
+
+    /**
+     * 配信先のListenerと購読条件の配列(不変)
+     */
+    public static class Targets {
+
+        private final IEventListener[] listeners;
+        private final EventSubscription[] subscriptions;
+        private final boolean hasBatchListener;
+
+        Targets(List<IEventListener> listenerList, Map<IEventListener, EventSubscription> subscriptionMap) {
+            this.listeners = listenerList.toArray(new IEventListener[listenerList.size()]);
+            this.subscriptions = new EventSubscription[listeners.length];
+            boolean batch = false;
+            for (int i = 0; i < listeners.length; i++) {
+                subscriptions[i] = searchSubscription(subscriptionMap, listeners[i]);
+                batch |= listeners[i].isBatchListener();
+            }
+            this.hasBatchListener = batch;
+        }
+
+        public int size() {
+            return listeners.length;
+        }
+
+        public IEventListener getListener(int index) {
+            return listeners[index];
+        }
+
+        public EventSubscription getSubscription(int index) {
+            return subscriptions[index];
+        }
+
+        public boolean hasBatchListener() {
+            return hasBatchListener;
+        }
+    }
+
+}
@@ -1,18 +1,23 @@
 package ny2.ats.core.router.impl;
 
-import java.util.List;
+import java.util.UUID;
 
 import javax.annotation.PostConstruct;
 
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.jmx.export.annotation.ManagedResource;
 
+import ny2.ats.core.data.MarketData;
+
 import ny2.ats.core.event.ExecutionInformationEvent;
 import ny2.ats.core.event.IEvent;
-import ny2.ats.core.event.IEventListener;
 import ny2.ats.core.event.IndicatorUpdateEvent;
 import ny2.ats.core.event.MarketOrderEvent;
 import ny2.ats.core.event.MarketUpdateEvent;
+import ny2.ats.core.event.MarketUpdateEventPool;
+import ny2.ats.core.event.MarketUpdateEventPool.PoolMode;
 import ny2.ats.core.event.ModelInformationEvent;
 import ny2.ats.core.event.OrderUpdateEvent;
 import ny2.ats.core.event.PLInformationEvent;
@@ -33,6 +38,13 @@ public class SynchronizedEventRouterImpl extends AbstraceEventRouter {
 
     // Logger -> super class
 
+    /** MarketUpdateEventの再利用モード (OFF / POOLED / DEBUG) */
+    @Value("${router.eventpool.mode:OFF}")
+    private PoolMode eventPoolMode = PoolMode.OFF;
+
+    /** MarketUpdateEventのPool */
+    private MarketUpdateEventPool marketUpdateEventPool = new MarketUpdateEventPool(PoolMode.OFF);
+
     // //////////////////////////////////////
     // Constructor
     // //////////////////////////////////////
@@ -45,15 +57,30 @@ public class SynchronizedEventRouterImpl extends AbstraceEventRouter {
     @PostConstruct
     private void init() {
         logger.info("PostConstruct instance.");
+        marketUpdateEventPool = new MarketUpdateEventPool(eventPoolMode);
+        logger.info("MarketUpdateEvent pool mode = {}", eventPoolMode);
     }
 
     // //////////////////////////////////////
     // Method
     // //////////////////////////////////////
 
+    /**
+     * 配信は同期で完了するため、POOLED / DEBUG の場合は再利用のイベントを返します
+     */
+    @Override
+    public MarketUpdateEvent createMarketUpdateEvent(UUID creatorUUID, Class<?> creatorClass, MarketData marketData) {
+        return marketUpdateEventPool.acquire(creatorUUID, creatorClass, marketData);
+    }
+
     @Override
     public void addEvent(MarketUpdateEvent event) {
-        sendEvent(event);
+        try {
+            sendEvent(event);
+        } finally {
+            // 全Listenerへの配信後に返却
+            marketUpdateEventPool.release(event);
+        }
     }
 
     @Override
@@ -100,16 +127,30 @@ public class SynchronizedEventRouterImpl extends AbstraceEventRouter {
     public void addEvent(SystemInformationEvent event) {
         sendEvent(event);
     }
+
     private void sendEvent(IEvent<?> event) {
-        List<IEventListener> eventListeners = searchEventListener(event.getEventType());
-        for (int index = 0; index < eventListeners.size(); index++) {
+        if (!acceptEvent(event)) {
+            return;
+        }
+        SubscribedListeners.Targets targets = searchSubscribedListeners(event.getEventType()).search(event.getSymbol());
+        for (int index = 0; index < targets.size(); index++) {
+            if (!targets.getSubscription(index).matchesExceptSymbol(event)) {
+                continue;
+            }
             try {
-                IEventListener listener = eventListeners.get(index);
-                listener.onEvent(event);
+                dispatchEvent(targets.getListener(index), event);
             } catch (Throwable t) {
                 logger.error(event.getEventType().name() + " Thread で Error が発生しました。 ", t);
             }
         }
     }
 
+    /**
+     * MarketUpdateEventの再利用状況をチェックします
+     */
+    @ManagedOperation
+    public String checkEventPoolStatus() {
+        return marketUpdateEventPool.checkPoolStatus();
+    }
+
 }
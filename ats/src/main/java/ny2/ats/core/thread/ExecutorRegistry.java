@@ -0,0 +1,324 @@
+package ny2.ats.core.thread;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedOperationParameters;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import ny2.ats.core.util.ExceptionUtility;
+
+/**
+ * 名前付きのExecutorを作成・管理するクラスです<br>
+ * Thread数は各コンポーネントのデフォルト値を executor.threads (名前:Thread数 のカンマ区切り) で上書きできます。
+ * JMXから状況確認とThread数の変更ができ、終了時は ShutdownPhase の順に停止します。
+ * タスクがThreadを占有する固定サイズのThreadPool(createFixedThreadPool)は、設定・JMXによるThread数の変更を受け付けません。
+ */
+@Component
+@ManagedResource(objectName = "System:name=ExecutorRegistry")
+public class ExecutorRegistry {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Autowired
+    private ThreadAffinity threadAffinity;
+
+    /** Executor名:Thread数 (カンマ区切り) */
+    @Value("${executor.threads:}")
+    private String threadsSetting;
+
+    /** ShutdownPhaseごとの停止待ち時間(秒) */
+    @Value("${executor.shutdown.timeout:5}")
+    private long shutdownTimeoutSec;
+
+    /** Executor名 -> Thread数 (設定値) */
+    private final Map<String, Integer> threadsMap = new HashMap<>();
+
+    /** Executor名 -> Executor */
+    private final Map<String, ThreadPoolExecutor> executorMap = new ConcurrentSkipListMap<>();
+
+    /** Executor名 -> 停止順序 */
+    private final Map<String, ShutdownPhase> shutdownPhaseMap = new ConcurrentSkipListMap<>();
+
+    /** Thread数を変更できないExecutor名 */
+    private final Set<String> fixedExecutorNames = new ConcurrentSkipListSet<>();
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    public ExecutorRegistry() {
+        logger.info("Create instance.");
+    }
+
+    @PostConstruct
+    private void init() {
+        logger.info("PostConstruct instance.");
+        if (StringUtils.isBlank(threadsSetting)) {
+            return;
+        }
+        for (String item : StringUtils.split(threadsSetting, ',')) {
+            String[] keyValue = item.trim().split(":");
+            threadsMap.put(keyValue[0].trim(), Integer.valueOf(keyValue[1].trim()));
+        }
+        logger.info("Executor threads : {}", threadsMap);
+    }
+
+    @PreDestroy
+    private void destroy() {
+        shutdownAll();
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 名前付きの固定サイズのThreadPoolを作成します
+     *
+     * @param name Executor名(Thread名の接頭辞)
+     * @param defaultThreads executor.threads に設定がない場合のThread数
+     * @param waitStrategy
+     * @param shutdownPhase
+     * @return
+     */
+    public ManagedThreadPoolExecutor createThreadPool(String name, int defaultThreads, WaitStrategy waitStrategy, ShutdownPhase shutdownPhase) {
+        return createThreadPool(name, defaultThreads, (threads, threadFactory) ->
+                new ManagedThreadPoolExecutor(name, threads, waitStrategy, threadFactory, shutdownPhase));
+    }
+
+    /**
+     * 名前付きの固定サイズのThreadPoolを作成します。ManagedThreadPoolExecutor のサブクラスを使用する場合に使います。
+     *
+     * @param name Executor名(Thread名の接頭辞)
+     * @param defaultThreads executor.threads に設定がない場合のThread数
+     * @param factory (Thread数, ThreadFactory) から Executor を作成
+     * @return
+     */
+    public <T extends ManagedThreadPoolExecutor> T createThreadPool(String name, int defaultThreads,
+            BiFunction<Integer, ThreadFactory, T> factory) {
+        int threads = searchThreads(name, defaultThreads);
+        T executor = factory.apply(threads, threadAffinity.createThreadFactory(name));
+        register(name, executor, executor.getShutdownPhase(), false);
+        return executor;
+    }
+
+    /**
+     * Thread数を変更できない名前付きのThreadPoolを作成します。<br>
+     * 終了しないタスクをThread数分実行し、各タスクがThreadを占有する場合に使用します。
+     * Thread数が足りないとタスクが開始されないため、executor.threads の設定は無視し、JMXからのThread数変更も拒否します。
+     *
+     * @param name Executor名(Thread名の接頭辞)
+     * @param threads Thread数(占有するタスク数)
+     * @param waitStrategy
+     * @param shutdownPhase
+     * @return
+     */
+    public ManagedThreadPoolExecutor createFixedThreadPool(String name, int threads, WaitStrategy waitStrategy, ShutdownPhase shutdownPhase) {
+        Integer setting = threadsMap.get(name);
+        if (setting != null && setting != threads) {
+            logger.warn("Executor {} has fixed threads. executor.threads setting is ignored. setting = {}, threads = {}", name, setting, threads);
+        }
+        ManagedThreadPoolExecutor executor = new ManagedThreadPoolExecutor(name, threads, waitStrategy, threadAffinity.createThreadFactory(name), shutdownPhase);
+        register(name, executor, shutdownPhase, true);
+        return executor;
+    }
+
+    /**
+     * Threadを占有するタスクを都度追加する名前付きのThreadPoolを作成します。<br>
+     * タスク数が登録時に決まらない場合に使用します。タスクごとにThreadを割り当てるため、
+     * executor.threads の設定は無視し、JMXからのThread数変更も拒否します。
+     *
+     * @param name Executor名(Thread名の接頭辞)
+     * @param shutdownPhase
+     * @return
+     */
+    public ThreadPoolExecutor createCachedThreadPool(String name, ShutdownPhase shutdownPhase) {
+        if (threadsMap.containsKey(name)) {
+            logger.warn("Executor {} creates a thread for each task. executor.threads setting is ignored. setting = {}", name, threadsMap.get(name));
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                threadAffinity.createThreadFactory(name));
+        register(name, executor, shutdownPhase, true);
+        return executor;
+    }
+
+    /**
+     * 名前付きのScheduledExecutorを作成します
+     *
+     * @param name Executor名(Thread名の接頭辞)
+     * @param defaultThreads executor.threads に設定がない場合のThread数
+     * @param shutdownPhase
+     * @return
+     */
+    public ScheduledExecutorService createScheduledExecutor(String name, int defaultThreads, ShutdownPhase shutdownPhase) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(searchThreads(name, defaultThreads), threadAffinity.createThreadFactory(name));
+        register(name, executor, shutdownPhase, false);
+        return executor;
+    }
+
+    private int searchThreads(String name, int defaultThreads) {
+        Integer threads = threadsMap.get(name);
+        return threads == null ? defaultThreads : threads;
+    }
+
+    private void register(String name, ThreadPoolExecutor executor, ShutdownPhase shutdownPhase, boolean fixed) {
+        ThreadPoolExecutor previous = executorMap.put(name, executor);
+        if (previous != null) {
+            logger.warn("Executor {} is registered again. Previous executor is shut down.", name);
+            previous.shutdown();
+        }
+        shutdownPhaseMap.put(name, shutdownPhase);
+        if (fixed) {
+            fixedExecutorNames.add(name);
+        } else {
+            fixedExecutorNames.remove(name);
+        }
+        logger.info("Executor registered. name = {}, threads = {}, phase = {}, fixed = {}", name, executor.getCorePoolSize(), shutdownPhase, fixed);
+    }
+
+    /**
+     * 全てのExecutorを ShutdownPhase の順に停止します。
+     * 各Phaseで新規タスクの受付を止め、待ち時間内に終了しない場合は割り込みで停止します。
+     */
+    public synchronized void shutdownAll() {
+        for (ShutdownPhase phase : ShutdownPhase.values()) {
+            List<String> names = new ArrayList<>();
+            for (Entry<String, ShutdownPhase> entry : shutdownPhaseMap.entrySet()) {
+                if (entry.getValue() == phase && !executorMap.get(entry.getKey()).isShutdown()) {
+                    names.add(entry.getKey());
+                }
+            }
+            if (names.isEmpty()) {
+                continue;
+            }
+            logger.info("Shutdown executors. phase = {}, executors = {}", phase, names);
+            for (String name : names) {
+                executorMap.get(name).shutdown();
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(shutdownTimeoutSec);
+            for (String name : names) {
+                ThreadPoolExecutor executor = executorMap.get(name);
+                try {
+                    long remaining = deadline - System.nanoTime();
+                    if (!executor.awaitTermination(Math.max(remaining, 0), TimeUnit.NANOSECONDS)) {
+                        logger.warn("Executor {} did not terminate in time. ShutdownNow.", name);
+                        executor.shutdownNow();
+                    }
+                } catch (InterruptedException e) {
+                    executor.shutdownNow();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Executorを返します
+     *
+     * @param name
+     * @return 未登録の場合はnull
+     */
+    public ThreadPoolExecutor getExecutor(String name) {
+        return executorMap.get(name);
+    }
+
+    // //////////////////////////////////////
+    // JMX
+    // //////////////////////////////////////
+
+    /**
+     * 全Executorの状況をチェックします
+     */
+    @ManagedOperation
+    public String checkExecutorStatus() {
+        StringBuilder sb = new StringBuilder("[Executor Registry]\n");
+        for (Entry<String, ThreadPoolExecutor> entry : executorMap.entrySet()) {
+            ThreadPoolExecutor executor = entry.getValue();
+            sb.append(entry.getKey()).append(" (").append(shutdownPhaseMap.get(entry.getKey())).append(") : ");
+            if (executor instanceof ManagedThreadPoolExecutor) {
+                sb.append(((ManagedThreadPoolExecutor) executor).toStringMetrics());
+            } else {
+                sb.append("threads=").append(executor.getCorePoolSize())
+                    .append(", active=").append(executor.getActiveCount())
+                    .append(", queued=").append(executor.getQueue().size())
+                    .append(", completed=").append(executor.getCompletedTaskCount());
+            }
+            sb.append(fixedExecutorNames.contains(entry.getKey()) ? " [fixed]" : "");
+            sb.append(executor.isShutdown() ? " [shutdown]" : "").append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * ExecutorのThread数を変更します。固定サイズのExecutorは変更しません。
+     */
+    @ManagedOperation
+    @ManagedOperationParameters({
+        @ManagedOperationParameter(name = "name", description = "Executor name"),
+        @ManagedOperationParameter(name = "threads", description = "Number of threads")})
+    public String resizeExecutor(String name, int threads) {
+        ThreadPoolExecutor executor = executorMap.get(name);
+        if (executor == null) {
+            return "Executor is not registered. " + name;
+        }
+        if (fixedExecutorNames.contains(name)) {
+            logger.warn("Executor {} has fixed threads. Resize is rejected. threads = {}, requested = {}", name, executor.getCorePoolSize(), threads);
+            return String.format("Executor has fixed threads. Resize is rejected : %s, threads %d", name, executor.getCorePoolSize());
+        }
+        try {
+            int before = executor.getCorePoolSize();
+            if (executor instanceof ManagedThreadPoolExecutor) {
+                ((ManagedThreadPoolExecutor) executor).resize(threads);
+            } else {
+                // ScheduledThreadPoolExecutor は corePoolSize のみ有効
+                executor.setCorePoolSize(threads);
+            }
+            logger.info("Executor resized. name = {}, threads = {} -> {}", name, before, threads);
+            return String.format("%s : threads %d -> %d", name, before, threads);
+        } catch (Exception e) {
+            return String.format("Failed to resize : %s, %d \n\n%s", name, threads, ExceptionUtility.getStackTraceString(e));
+        }
+    }
+
+    /**
+     * 計測値をリセットします
+     */
+    @ManagedOperation
+    public void resetExecutorStatus() {
+        for (ThreadPoolExecutor executor : executorMap.values()) {
+            if (executor instanceof ManagedThreadPoolExecutor) {
+                ((ManagedThreadPoolExecutor) executor).resetMetrics();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,191 @@
+package ny2.ats.core.thread;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ny2.ats.core.util.LatencyHistogram;
+
+/**
+ * ExecutorRegistry で管理する固定サイズの ThreadPoolExecutor です<br>
+ * 処理中Thread数, 最大滞留数, 登録件数, 飽和件数, 拒否件数と、タスクの待ち時間・実行時間を記録します。
+ */
+public class ManagedThreadPoolExecutor extends ThreadPoolExecutor {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** Executor名(Thread名の接頭辞) */
+    private final String name;
+
+    /** 停止順序 */
+    private final ShutdownPhase shutdownPhase;
+
+    // Metrics
+    private final AtomicInteger busyCount = new AtomicInteger();
+    private final AtomicInteger maxQueueSize = new AtomicInteger();
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong saturatedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /** 登録から実行開始までの時間(nano秒) */
+    private final LatencyHistogram queueWaitHistogram = new LatencyHistogram();
+
+    /** 実行時間(nano秒) */
+    private final LatencyHistogram executionHistogram = new LatencyHistogram();
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    public ManagedThreadPoolExecutor(String name, int threads, WaitStrategy waitStrategy, ThreadFactory threadFactory, ShutdownPhase shutdownPhase) {
+        super(threads, threads, 0L, TimeUnit.MILLISECONDS, new WaitStrategyBlockingQueue<Runnable>(waitStrategy), threadFactory);
+        this.name = name;
+        this.shutdownPhase = shutdownPhase;
+        setRejectedExecutionHandler((runnable, executor) -> {
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException("Task is rejected by " + name + ". shutdown=" + executor.isShutdown());
+        });
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    @Override
+    public void execute(Runnable command) {
+        submittedCount.incrementAndGet();
+        if (busyCount.get() >= getCorePoolSize()) {
+            saturatedCount.incrementAndGet();
+        }
+        super.execute(new TimedTask(command));
+        maxQueueSize.accumulateAndGet(getQueue().size(), Math::max);
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable runnable) {
+        busyCount.incrementAndGet();
+        if (runnable instanceof TimedTask) {
+            TimedTask task = (TimedTask) runnable;
+            task.startNanoTime = System.nanoTime();
+            queueWaitHistogram.recordValue(task.startNanoTime - task.submitNanoTime);
+        }
+    }
+
+    @Override
+    protected void afterExecute(Runnable runnable, Throwable throwable) {
+        busyCount.decrementAndGet();
+        if (runnable instanceof TimedTask) {
+            executionHistogram.recordValue(System.nanoTime() - ((TimedTask) runnable).startNanoTime);
+        }
+    }
+
+    /**
+     * Thread数を変更します
+     *
+     * @param threads
+     */
+    public void resize(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive. " + threads);
+        }
+        // core <= max を保つ順に変更する
+        if (threads > getMaximumPoolSize()) {
+            setMaximumPoolSize(threads);
+            setCorePoolSize(threads);
+        } else {
+            setCorePoolSize(threads);
+            setMaximumPoolSize(threads);
+        }
+    }
+
+    /**
+     * 計測値をリセットします
+     */
+    public void resetMetrics() {
+        submittedCount.set(0);
+        saturatedCount.set(0);
+        rejectedCount.set(0);
+        maxQueueSize.set(getQueue().size());
+        queueWaitHistogram.reset();
+        executionHistogram.reset();
+    }
+
+    /**
+     * 計測値を1行で返します
+     */
+    public String toStringMetrics() {
+        StringBuilder sb = new StringBuilder(300);
+        sb.append("threads=").append(getCorePoolSize())
+            .append(", busy=").append(busyCount.get())
+            .append(", queued=").append(getQueue().size())
+            .append(", maxQueued=").append(maxQueueSize.get())
+            .append(", submitted=").append(submittedCount.get())
+            .append(", saturated=").append(saturatedCount.get())
+            .append(", rejected=").append(rejectedCount.get())
+            .append("\n  wait ").append(queueWaitHistogram.toStringMicros())
+            .append("\n  exec ").append(executionHistogram.toStringMicros());
+        return sb.toString();
+    }
+
+    // //////////////////////////////////////
+    // Getters and Setters
+    // //////////////////////////////////////
+
+    public String getName() {
+        return name;
+    }
+
+    public ShutdownPhase getShutdownPhase() {
+        return shutdownPhase;
+    }
+
+    public int getBusyCount() {
+        return busyCount.get();
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize.get();
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    public long getSaturatedCount() {
+        return saturatedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    // //////////////////////////////////////
+    // Inner Class
+    // //////////////////////////////////////
+
+    /**
+     * 登録時刻を保持するタスク
+     */
+    private static class TimedTask implements Runnable {
+
+        private final Runnable command;
+        private final long submitNanoTime;
+        private long startNanoTime;
+
+        TimedTask(Runnable command) {
+            this.command = command;
+            this.submitNanoTime = System.nanoTime();
+        }
+
+        @Override
+        public void run() {
+            command.run();
+        }
+    }
+
+}
@@ -0,0 +1,27 @@
+package ny2.ats.core.thread;
+
+/**
+ * Executorの停止順序です。定義順に停止します<br>
+ * イベントの発生元から停止し、後続の処理(配信, Model, DB登録)が滞留分を処理し終えてから停止します。
+ */
+public enum ShutdownPhase {
+
+    /** イベント発生元(Timer等) */
+    SOURCE,
+
+    /** RouterのQueueCrawler */
+    ROUTER,
+
+    /** RouterからListenerへの配信 */
+    DISPATCH,
+
+    /** Model等のイベント処理 */
+    PROCESSOR,
+
+    /** DB登録 */
+    PERSISTENCE,
+
+    /** 状況監視 */
+    MONITOR;
+
+}
@@ -0,0 +1,172 @@
+package ny2.ats.core.thread;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Thread を CPU に固定するクラスです<br>
+ * thread.affinity に「Thread名の前方一致:CPUリスト」をセミコロン区切りで指定します。CPUリストは taskset の形式(例: 2 / 3-4 / 5,7)です。<br>
+ * Java からは CPU Affinity を設定できないため、Linux の /proc/thread-self から Thread ID を取得し taskset で設定します。
+ * Linux 以外、または taskset が無い場合は設定せずにログを出力します。
+ */
+@Component
+@ManagedResource(objectName = "System:name=ThreadAffinity")
+public class ThreadAffinity {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private static final Path THREAD_SELF = Paths.get("/proc/thread-self");
+
+    /** taskset の待ち時間 */
+    private static final long TASKSET_TIMEOUT_SEC = 5;
+
+    /** Thread名の前方一致:CPUリスト (セミコロン区切り) */
+    @Value("${thread.affinity:}")
+    private String affinitySetting;
+
+    /** Thread名の前方一致 -> CPUリスト */
+    private final Map<String, String> affinityMap = new LinkedHashMap<>();
+
+    /** 設定したThread名 -> 結果 */
+    private final Map<String, String> boundThreadMap = new ConcurrentHashMap<>();
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    public ThreadAffinity() {
+        logger.info("Create instance.");
+    }
+
+    @PostConstruct
+    private void init() {
+        logger.info("PostConstruct instance.");
+        if (StringUtils.isBlank(affinitySetting)) {
+            return;
+        }
+        for (String item : StringUtils.split(affinitySetting, ';')) {
+            int index = item.lastIndexOf(':');
+            if (index <= 0) {
+                logger.warn("Invalid thread affinity setting : {}", item);
+                continue;
+            }
+            affinityMap.put(item.substring(0, index).trim(), item.substring(index + 1).trim());
+        }
+        logger.info("Thread Affinity : {}", affinityMap);
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 名前付きのThreadを作成し、開始時にCPUを固定する ThreadFactory を返します
+     *
+     * @param namePrefix Thread名は namePrefix-連番
+     * @return
+     */
+    public ThreadFactory createThreadFactory(String namePrefix) {
+        return new ThreadFactory() {
+            private final AtomicInteger threadNo = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(() -> {
+                    bindCurrentThread();
+                    runnable.run();
+                }, namePrefix + "-" + threadNo.incrementAndGet());
+            }
+        };
+    }
+
+    /**
+     * 実行中のThreadを、Thread名に一致する設定のCPUに固定します。一致する設定がなければ何もしません。
+     */
+    public void bindCurrentThread() {
+        if (affinityMap.isEmpty()) {
+            return;
+        }
+        String threadName = Thread.currentThread().getName();
+        String cpuList = searchCpuList(threadName);
+        if (cpuList == null) {
+            return;
+        }
+        String result;
+        try {
+            String threadId = readThreadId();
+            Process process = new ProcessBuilder("taskset", "-p", "-c", cpuList, threadId).redirectErrorStream(true).start();
+            if (!process.waitFor(TASKSET_TIMEOUT_SEC, TimeUnit.SECONDS)) {
+                process.destroy();
+                result = "timeout";
+            } else if (process.exitValue() != 0) {
+                result = "failed(exit=" + process.exitValue() + ")";
+            } else {
+                result = "cpu=" + cpuList + ", tid=" + threadId;
+            }
+        } catch (IOException e) {
+            result = "failed(" + e.getMessage() + ")";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = "interrupted";
+        }
+        boundThreadMap.put(threadName, result);
+        logger.info("Thread Affinity. thread = {}, {}", threadName, result);
+    }
+
+    /**
+     * 最も長く前方一致する設定のCPUリストを返します
+     */
+    private String searchCpuList(String threadName) {
+        String matchedPrefix = null;
+        for (String prefix : affinityMap.keySet()) {
+            if (threadName.startsWith(prefix) && (matchedPrefix == null || prefix.length() > matchedPrefix.length())) {
+                matchedPrefix = prefix;
+            }
+        }
+        return matchedPrefix == null ? null : affinityMap.get(matchedPrefix);
+    }
+
+    /**
+     * 実行中のThreadのOS上のThread IDを返します。/proc/thread-self は pid/task/tid へのリンクです。
+     */
+    private static String readThreadId() throws IOException {
+        return Files.readSymbolicLink(THREAD_SELF).getFileName().toString();
+    }
+
+    /**
+     * CPU固定の状況をチェックします
+     */
+    @ManagedOperation
+    public String checkAffinityStatus() {
+        StringBuilder sb = new StringBuilder("[Thread Affinity]\n");
+        sb.append("Setting : ").append(affinityMap).append("\n");
+        for (Entry<String, String> entry : boundThreadMap.entrySet()) {
+            sb.append(entry.getKey()).append(" : ").append(entry.getValue()).append("\n");
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,126 @@
+package ny2.ats.core.thread;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Queueが空の場合のThreadの待機方法です<br>
+ * BLOCKING 以外は Queue を poll し続けるため、Threadの起床が速い代わりにCPUを使用します。
+ * BUSY_SPIN は専用のCPUを割り当てたThread(ThreadAffinity)でのみ使用してください。
+ */
+public enum WaitStrategy {
+
+    /** BlockingQueue.take() で待機する(OSによる起床) */
+    BLOCKING,
+
+    /** Thread.yield() しながら待機する */
+    YIELDING,
+
+    /** spin -> yield -> park の順に待機する。park中は最大 PARK_NANOSEC 起床が遅れる */
+    SPIN_PARK,
+
+    /** CPUを占有して待機する */
+    BUSY_SPIN;
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** SPIN_PARK のspin回数 */
+    private static final int SPIN_TRIES = 100;
+
+    /** SPIN_PARK のyield回数 */
+    private static final int YIELD_TRIES = 100;
+
+    /** SPIN_PARK のpark時間 */
+    private static final long PARK_NANOSEC = TimeUnit.MICROSECONDS.toNanos(50);
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * Queueから1件取得します。取得できるまで待機します。
+     *
+     * @param queue
+     * @return
+     * @throws InterruptedException
+     */
+    public <E> E take(BlockingQueue<E> queue) throws InterruptedException {
+        if (this == BLOCKING) {
+            return queue.take();
+        }
+        int idleCount = 0;
+        while (true) {
+            E element = queue.poll();
+            if (element != null) {
+                return element;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            idleCount = idle(idleCount);
+        }
+    }
+
+    /**
+     * Queueから1件取得します。timeoutまで待機します。
+     *
+     * @param queue
+     * @param timeout
+     * @param unit
+     * @return timeoutの場合はnull
+     * @throws InterruptedException
+     */
+    public <E> E poll(BlockingQueue<E> queue, long timeout, TimeUnit unit) throws InterruptedException {
+        if (this == BLOCKING) {
+            return queue.poll(timeout, unit);
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int idleCount = 0;
+        while (true) {
+            E element = queue.poll();
+            if (element != null) {
+                return element;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                return null;
+            }
+            idleCount = idle(idleCount);
+        }
+    }
+
+    /**
+     * 1回分の待機を行います。
+     *
+     * @param idleCount 連続して空だった回数。データ取得時は0に戻してください
+     * @return 次回の idleCount
+     */
+    public int idle(int idleCount) {
+        switch (this) {
+            case YIELDING:
+                Thread.yield();
+                return idleCount + 1;
+            case SPIN_PARK:
+                if (idleCount < SPIN_TRIES) {
+                    return idleCount + 1;
+                } else if (idleCount < SPIN_TRIES + YIELD_TRIES) {
+                    Thread.yield();
+                    return idleCount + 1;
+                }
+                LockSupport.parkNanos(PARK_NANOSEC);
+                return idleCount;
+            case BUSY_SPIN:
+                return idleCount + 1;
+            case BLOCKING:
+            default:
+                LockSupport.parkNanos(PARK_NANOSEC);
+                return idleCount + 1;
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package ny2.ats.core.thread;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 取得時の待機方法を WaitStrategy で指定できる LinkedBlockingQueue です<br>
+ * ThreadPoolExecutor の workQueue に使用し、Worker Thread の待機方法を変更します。
+ * BLOCKING 以外の場合、登録側は待機中のThreadを起床させないため、Thread は自身の WaitStrategy で新しいタスクを検知します。
+ */
+public class WaitStrategyBlockingQueue<E> extends LinkedBlockingQueue<E> {
+
+    private static final long serialVersionUID = 1L;
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    private final WaitStrategy waitStrategy;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    public WaitStrategyBlockingQueue(WaitStrategy waitStrategy) {
+        super();
+        this.waitStrategy = waitStrategy;
+    }
+
+    public WaitStrategyBlockingQueue(WaitStrategy waitStrategy, int capacity) {
+        super(capacity);
+        this.waitStrategy = waitStrategy;
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    @Override
+    public E take() throws InterruptedException {
+        if (waitStrategy == WaitStrategy.BLOCKING) {
+            return super.take();
+        }
+        return waitStrategy.take(this);
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        if (waitStrategy == WaitStrategy.BLOCKING) {
+            return super.poll(timeout, unit);
+        }
+        return waitStrategy.poll(this, timeout, unit);
+    }
+
+    // //////////////////////////////////////
+    // Getters and Setters
+    // //////////////////////////////////////
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+}
@@ -0,0 +1,144 @@
+package ny2.ats.core.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * HDR Histogram 形式(対数 + 線形の Bucket)のレイテンシ集計クラスです。<br>
+ * 2の累乗の区間ごとに32分割した Bucket に記録するため、誤差は約3%以内です。
+ * 記録時にオブジェクトを生成せず、複数スレッドから同時に記録できます。
+ */
+public class LatencyHistogram {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** 区間ごとの分割数(2^SUB_BUCKET_BITS) */
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /** Bucket数(long の正の値全体をカバー) */
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final AtomicLong totalCount = new AtomicLong();
+
+    private final AtomicLong totalValue = new AtomicLong();
+
+    private final AtomicLong maxValue = new AtomicLong();
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 値を記録します。負の値は0として扱います。
+     *
+     * @param value (nano秒等)
+     */
+    public void recordValue(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(value);
+        long currentMax;
+        while (value > (currentMax = maxValue.get())) {
+            if (maxValue.compareAndSet(currentMax, value)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * パーセンタイル値を返します(Bucketの上限値)
+     *
+     * @param percentile 0 - 100
+     * @return
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = totalCount.get();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long cumulative = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            cumulative += counts.get(index);
+            if (cumulative >= target) {
+                return Math.min(highestEquivalentValue(index), maxValue.get());
+            }
+        }
+        return maxValue.get();
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    public double getMean() {
+        long total = totalCount.get();
+        return total == 0 ? 0 : (double) totalValue.get() / total;
+    }
+
+    public long getMaxValue() {
+        return maxValue.get();
+    }
+
+    /**
+     * 記録をリセットします
+     */
+    public void reset() {
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            counts.set(index, 0);
+        }
+        totalCount.set(0);
+        totalValue.set(0);
+        maxValue.set(0);
+    }
+
+    /**
+     * 集計結果を文字列で返します(マイクロ秒表示)
+     *
+     * @return
+     */
+    public String toStringMicros() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("count=").append(getTotalCount())
+            .append(", mean=").append(String.format("%.1f", getMean() / 1000.0))
+            .append(", p50=").append(getValueAtPercentile(50) / 1000)
+            .append(", p90=").append(getValueAtPercentile(90) / 1000)
+            .append(", p99=").append(getValueAtPercentile(99) / 1000)
+            .append(", p99.9=").append(getValueAtPercentile(99.9) / 1000)
+            .append(", max=").append(getMaxValue() / 1000)
+            .append(" (us)");
+        return sb.toString();
+    }
+
+    // //////////////////////////////////////
+    // Method - Bucket
+    // //////////////////////////////////////
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS;
+        int subIndex = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subIndex;
+    }
+
+    private static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        int subIndex = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        return ((long) (SUB_BUCKET_COUNT + subIndex + 1) << shift) - 1;
+    }
+
+}
@@ -1,13 +1,15 @@
 package ny2.ats.database.impl;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.PostConstruct;
 
@@ -22,6 +24,7 @@ import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Service;
 
 import ny2.ats.core.data.IData;
+import ny2.ats.core.data.IndicatorBarInformation;
 import ny2.ats.core.data.IndicatorInformation;
 import ny2.ats.core.data.MarketData;
 import ny2.ats.core.data.ModelInformation;
@@ -33,6 +36,7 @@ import ny2.ats.core.data.SystemInformation;
 import ny2.ats.core.data.TimerInformation;
 import ny2.ats.core.event.EventType;
 import ny2.ats.core.event.ExecutionInformationEvent;
+import ny2.ats.core.event.IEvent;
 import ny2.ats.core.event.IEventListener;
 import ny2.ats.core.event.IndicatorUpdateEvent;
 import ny2.ats.core.event.MarketOrderEvent;
@@ -44,7 +48,11 @@ import ny2.ats.core.event.PositionUpdateEvent;
 import ny2.ats.core.event.SystemInformationEvent;
 import ny2.ats.core.event.TimerInformationEvent;
 import ny2.ats.core.exception.UnExpectedDataException;
+import ny2.ats.core.persistence.PersistenceTap;
 import ny2.ats.core.router.IEventRouter;
+import ny2.ats.core.thread.ExecutorRegistry;
+import ny2.ats.core.thread.ShutdownPhase;
+import ny2.ats.core.thread.WaitStrategy;
 import ny2.ats.database.EventDao;
 import ny2.ats.database.IDBConnectionManager;
 
@@ -66,17 +74,41 @@ public class DBConnectionManagerImpl implements IDBConnectionManager, IEventList
     @Qualifier("KdbEventDao")
     private EventDao eventDao;
 
+    @Autowired
+    private ExecutorRegistry executorRegistry;
+
+    /** Routerから直接データを受け取る場合に使用 */
+    @Autowired
+    private PersistenceTap persistenceTap;
+
     /** Priceデータを保存するかどうか、バックテストでのみ必要に応じてfalseに設定します */
     @Value("${kdb.table.storeprice:true}")
     private boolean isStorePrice = true;
 
     /** Executer for Insert data to database */
-    private ScheduledExecutorService scheduledExecutor = Executors.newSingleThreadScheduledExecutor();
-    private ThreadPoolExecutor queueExecutor = (ThreadPoolExecutor) Executors.newFixedThreadPool(5);
+    private ScheduledExecutorService scheduledExecutor;
+
+    /** Insert用のExecuter。Insertの順序を保つため1Threadで固定 */
+    private ThreadPoolExecutor queueExecutor;
 
     // Event Storing Queue
     private BlockingQueue<IData> dataQueue = new LinkedBlockingQueue<>(100000);
 
+    /** dataQueue が満杯で破棄した件数 */
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /** 一度にInsertする最大件数。dataQueue にこの件数が溜まった場合は定期実行を待たずにInsertする */
+    private static final int MAX_DRAIN_SIZE = 10000;
+
+    /** Insertの定期実行間隔(ミリ秒) */
+    private static final long FLUSH_INTERVAL_MILLIS = 100;
+
+    /** Insert処理が登録済みで未開始の場合 true */
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+
+    /** Insert対象のデータ。Insert用のThreadのみで再利用する */
+    private final List<IData> insertBuffer = new ArrayList<>(MAX_DRAIN_SIZE);
+
     // //////////////////////////////////////
     // Constructor
     // //////////////////////////////////////
@@ -85,80 +117,271 @@ public class DBConnectionManagerImpl implements IDBConnectionManager, IEventList
     private void init() {
         logger.info("PostConstruct instance.");
 
-        // Listener登録。全てのイベント
-        eventRouter.registerListeners(EventType.EVNET_TYPE_ALL, this);
+        scheduledExecutor = executorRegistry.createScheduledExecutor(DBConnectionManagerImpl.class.getSimpleName() + "-Scheduler", 1, ShutdownPhase.PERSISTENCE);
+        queueExecutor = executorRegistry.createFixedThreadPool(DBConnectionManagerImpl.class.getSimpleName() + "-Insert", 1, WaitStrategy.BLOCKING, ShutdownPhase.PERSISTENCE);
 
-        scheduledExecutor.scheduleWithFixedDelay(new Runnable() {
-            @Override
-            public void run() {
+        if (persistenceTap.isEnabled()) {
+            // Persistence Tap 使用時はListener登録せず、Routerの登録時に書き込まれたデータを取り出す
+            EnumSet<EventType> eventTypes = EnumSet.copyOf(EventType.EVNET_TYPE_ALL);
+            if (!isStorePrice) {
+                eventTypes.remove(EventType.MARKET_UPDATE);
+            }
+            persistenceTap.open(eventTypes);
+        } else {
+            // Listener登録。全てのイベント
+            eventRouter.registerListeners(EventType.EVNET_TYPE_ALL, this);
+        }
+
+        scheduledExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                requestFlush();
+            } catch (Throwable t) {
+                logger.error("Unexpected error had occured.", t);
+            }
+        }, 0, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * Insert用のThreadにInsert処理を登録します。登録済みで未開始の場合は何もしません。
+     */
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            queueExecutor.execute(() -> {
                 try {
-                    queueExecutor.execute(new BatchInsertWorker(dataQueue, eventDao));
+                    flush();
                 } catch (Throwable t) {
                     logger.error("Unexpected error had occured.", t);
                 }
+            });
+        }
+    }
+
+    /**
+     * dataQueue (Persistence Tap 使用時は Persistence Tap) のデータを MAX_DRAIN_SIZE ずつ受信順にInsertします。
+     * Insert用の1Threadから呼び出します。
+     */
+    private void flush() {
+        // 開始後に溜まったデータは再登録された処理でInsertする
+        flushRequested.set(false);
+        try {
+            while (true) {
+                insertBuffer.clear();
+                if (persistenceTap.isEnabled()) {
+                    persistenceTap.drainTo(insertBuffer, MAX_DRAIN_SIZE);
+                } else {
+                    dataQueue.drainTo(insertBuffer, MAX_DRAIN_SIZE);
+                }
+                if (insertBuffer.isEmpty()) {
+                    return;
+                }
+                insert(insertBuffer);
             }
-        }, 0, 100, TimeUnit.MILLISECONDS);
+        } finally {
+            insertBuffer.clear();
+        }
     }
 
-    // //////////////////////////////////////
-    // Method
-    // //////////////////////////////////////
+    /**
+     * データを種類ごとのリストに分けてInsertします
+     *
+     * @param allDataList 受信順のデータ
+     */
+    private void insert(List<IData> allDataList) {
+        // each data list
+        List<MarketData> marketDatas = new ArrayList<>(allDataList.size());
+        List<Order> orders = new ArrayList<>();
+        List<Position> positions = new ArrayList<>();
+        List<IndicatorInformation> indicatorInformations = new ArrayList<>();
+        List<ModelInformation> modelInformations = new ArrayList<>();
+        List<PLInformation> plInformations = new ArrayList<>();
+        List<OptimizedExecution> executionInformations = new ArrayList<>();
+        List<SystemInformation> systemInformations = new ArrayList<>();
+        List<TimerInformation> timerInformations = new ArrayList<>();
+
+        try {
+            // Create List
+            for (IData data : allDataList) {
+                if (data instanceof MarketData) {
+                    marketDatas.add((MarketData) data);
+
+                } else if (data instanceof Order) {
+                    orders.add((Order) data);
+
+                } else if (data instanceof Position) {
+                    positions.add((Position) data);
+
+                } else if (data instanceof IndicatorBarInformation) {
+                    // 足ごとのイベントはIndicatorごとに展開して保存
+                    indicatorInformations.addAll(((IndicatorBarInformation) data).getIndicatorInformations());
+
+                } else if (data instanceof IndicatorInformation) {
+                    indicatorInformations.add((IndicatorInformation) data);
+
+                } else if (data instanceof ModelInformation) {
+                    modelInformations.add((ModelInformation) data);
+
+                } else if (data instanceof PLInformation) {
+                    plInformations.add((PLInformation) data);
+
+                } else if (data instanceof OptimizedExecution) {
+                    executionInformations.add((OptimizedExecution) data);
+
+                } else if (data instanceof SystemInformation) {
+                    systemInformations.add((SystemInformation) data);
+
+                } else if (data instanceof TimerInformation) {
+                    timerInformations.add((TimerInformation) data);
+
+                } else {
+                    throw new UnExpectedDataException(data.getClass());
+                }
+            }
+
+            // insert
+            if (!marketDatas.isEmpty()) {
+                // logger.debug("Insert List : MarketData - size = " + marketDatas.size());
+                eventDao.insert(MarketData.class, marketDatas);
+            }
+            if (!orders.isEmpty()) {
+                // logger.debug("Insert List : Order - size = " + orders.size());
+                eventDao.insert(Order.class, orders);
+            }
+            if (!positions.isEmpty()) {
+                // logger.debug("Insert List : Position - size = " + positions.size());
+                eventDao.insert(Position.class, positions);
+            }
+            if (!indicatorInformations.isEmpty()) {
+                // logger.debug("Insert List : IndicatorInformation - size = " + indicatorInformations.size());
+                eventDao.insert(IndicatorInformation.class, indicatorInformations);
+            }
+            if (!modelInformations.isEmpty()) {
+                // logger.debug("Insert List : ModelInformation - size = " + modelInformations.size());
+                eventDao.insert(ModelInformation.class, modelInformations);
+            }
+            if (!plInformations.isEmpty()) {
+                // logger.debug("Insert List : PLInformation - size = " + plInformations.size());
+                eventDao.insert(PLInformation.class, plInformations);
+            }
+            if (!executionInformations.isEmpty()) {
+                // logger.debug("Insert List : OptimizedExecution - size = " + executionInformations.size());
+                eventDao.insert(OptimizedExecution.class, executionInformations);
+            }
+            if (!systemInformations.isEmpty()) {
+                // logger.debug("Insert List : SystemInformation - size = " + systemInformations.size());
+                eventDao.insert(SystemInformation.class, systemInformations);
+            }
+            if (!timerInformations.isEmpty()) {
+                // logger.debug("Insert List : TimerInformation - size = " + timerInformations.size());
+                eventDao.insert(TimerInformation.class, timerInformations);
+            }
+
+        } catch (Exception e) {
+            logger.error("Error in inserting data.", e);
+        }
+    }
+
+    /**
+     * dataQueue に追加します。満杯の場合は配信Threadを止めないよう破棄します。
+     */
+    private void offerData(IData data) {
+        if (!dataQueue.offer(data)) {
+            if (droppedCount.incrementAndGet() % 10000 == 1) {
+                logger.warn("Data queue is full. Data is dropped. total dropped = {}", droppedCount.get());
+            }
+            return;
+        }
+        // 一度にInsertする件数に達した場合は定期実行を待たない
+        if (dataQueue.size() >= MAX_DRAIN_SIZE) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * Routerからまとめて受信し、dataQueueに追加する
+     */
+    @Override
+    public boolean isBatchListener() {
+        return true;
+    }
+
+    @Override
+    public void onEvents(EventType eventType, List<? extends IEvent<?>> events) {
+        if (eventType == EventType.MARKET_UPDATE && !isStorePrice) {
+            return;
+        }
+        // Routerがリストを再利用する場合があるため中身をdataQueueに移す
+        for (int index = 0; index < events.size(); index++) {
+            offerData(events.get(index).getContent());
+        }
+    }
+
+    /**
+     * 全Tickを保存するため間引きしない
+     */
+    @Override
+    public boolean isConflatedMarketUpdateAcceptable() {
+        return false;
+    }
 
     @Override
     public void onEvent(MarketUpdateEvent event) {
         if (isStorePrice) {
-            dataQueue.add(event.getContent());
+            offerData(event.getContent());
         }
     }
 
     @Override
     public void onEvent(MarketOrderEvent event) {
-        dataQueue.add(event.getContent());
+        offerData(event.getContent());
     }
 
     @Override
     public void onEvent(OrderUpdateEvent event) {
-        dataQueue.add(event.getContent());
+        offerData(event.getContent());
     }
 
     @Override
     public void onEvent(PositionUpdateEvent event) {
-        dataQueue.add(event.getContent());
+        offerData(event.getContent());
     }
 
     @Override
     public void onEvent(IndicatorUpdateEvent event) {
-        dataQueue.add(event.getContent());
+        offerData(event.getContent());
     }
 
     @Override
     public void onEvent(PLInformationEvent event) {
-        dataQueue.add(event.getContent());
+        offerData(event.getContent());
     }
 
     @Override
     public void onEvent(ExecutionInformationEvent event) {
-        dataQueue.add(event.getContent());
+        offerData(event.getContent());
     }
 
     @Override
     public void onEvent(ModelInformationEvent event) {
-        dataQueue.add(event.getContent());
+        offerData(event.getContent());
     }
 
     @Override
     public void onEvent(TimerInformationEvent event) {
-        dataQueue.add(event.getContent());
+        offerData(event.getContent());
     }
 
     @Override
     public void onEvent(SystemInformationEvent event) {
-        dataQueue.add(event.getContent());
+        offerData(event.getContent());
     }
 
     @Override
     public int checkdDataQueueSize() {
-        return dataQueue.size();
+        return dataQueue.size() + persistenceTap.checkRemaining();
     }
 
     @Override
@@ -172,7 +395,10 @@ public class DBConnectionManagerImpl implements IDBConnectionManager, IEventList
     @ManagedOperation
     public String checkQueueStatus() {
         StringBuilder sb = new StringBuilder("[Queue Status]\n");
-        sb.append("Data Queue : ").append(dataQueue.size());
+        sb.append("Data Queue : ").append(dataQueue.size()).append(", dropped=").append(droppedCount.get());
+        if (persistenceTap.isEnabled()) {
+            sb.append("\n").append(persistenceTap.checkTapStatus());
+        }
         return sb.toString();
     }
 
@@ -196,115 +422,4 @@ public class DBConnectionManagerImpl implements IDBConnectionManager, IEventList
     // Getters and Setters
     // //////////////////////////////////////
 
-
-    // //////////////////////////////////////
-    // Inner Class
-    // //////////////////////////////////////
-
-    private class BatchInsertWorker implements Runnable {
-        private EventDao eventDao;
-        private BlockingQueue<IData> dataQueue;
-
-        public BatchInsertWorker(BlockingQueue<IData> dataQueue, EventDao eventDao) {
-            this.dataQueue = dataQueue;
-            this.eventDao = eventDao;
-        }
-
-        @Override
-        public void run() {
-            // drain from queue and create each list
-            int queueSize = dataQueue.size();
-            List<IData> allDataList = new ArrayList<>(queueSize);
-            dataQueue.drainTo(allDataList, queueSize);
-
-            // each data list
-            List<MarketData> marketDatas = new ArrayList<>(queueSize);
-            List<Order> orders = new ArrayList<>();
-            List<Position> positions = new ArrayList<>();
-            List<IndicatorInformation> indicatorInformations = new ArrayList<>();
-            List<ModelInformation> modelInformations = new ArrayList<>();
-            List<PLInformation> plInformations = new ArrayList<>();
-            List<OptimizedExecution> executionInformations = new ArrayList<>();
-            List<SystemInformation> systemInformations = new ArrayList<>();
-            List<TimerInformation> timerInformations = new ArrayList<>();
-
-            try {
-                // Create List
-                for (IData data : allDataList) {
-                    if (data instanceof MarketData) {
-                        marketDatas.add((MarketData) data);
-
-                    } else if (data instanceof Order) {
-                        orders.add((Order) data);
-
-                    } else if (data instanceof Position) {
-                        positions.add((Position) data);
-
-                    } else if (data instanceof IndicatorInformation) {
-                        indicatorInformations.add((IndicatorInformation) data);
-
-                    } else if (data instanceof ModelInformation) {
-                        modelInformations.add((ModelInformation) data);
-
-                    } else if (data instanceof PLInformation) {
-                        plInformations.add((PLInformation) data);
-
-                    } else if (data instanceof OptimizedExecution) {
-                        executionInformations.add((OptimizedExecution) data);
-
-                    } else if (data instanceof SystemInformation) {
-                        systemInformations.add((SystemInformation) data);
-
-                    } else if (data instanceof TimerInformation) {
-                        timerInformations.add((TimerInformation) data);
-
-                    } else {
-                        throw new UnExpectedDataException(data.getClass());
-                    }
-                }
-
-                // insert
-                if (!marketDatas.isEmpty()) {
-                    // logger.debug("Insert List : MarketData - size = " + marketDatas.size());
-                    eventDao.insert(MarketData.class, marketDatas);
-                }
-                if (!orders.isEmpty()) {
-                    // logger.debug("Insert List : Order - size = " + orders.size());
-                    eventDao.insert(Order.class, orders);
-                }
-                if (!positions.isEmpty()) {
-                    // logger.debug("Insert List : Position - size = " + positions.size());
-                    eventDao.insert(Position.class, positions);
-                }
-                if (!indicatorInformations.isEmpty()) {
-                    // logger.debug("Insert List : IndicatorInformation - size = " + indicatorInformations.size());
-                    eventDao.insert(IndicatorInformation.class, indicatorInformations);
-                }
-                if (!modelInformations.isEmpty()) {
-                    // logger.debug("Insert List : ModelInformation - size = " + modelInformations.size());
-                    eventDao.insert(ModelInformation.class, modelInformations);
-                }
-                if (!plInformations.isEmpty()) {
-                    // logger.debug("Insert List : PLInformation - size = " + plInformations.size());
-                    eventDao.insert(PLInformation.class, plInformations);
-                }
-                if (!executionInformations.isEmpty()) {
-                    // logger.debug("Insert List : OptimizedExecution - size = " + executionInformations.size());
-                    eventDao.insert(OptimizedExecution.class, executionInformations);
-                }
-                if (!systemInformations.isEmpty()) {
-                    // logger.debug("Insert List : SystemInformation - size = " + systemInformations.size());
-                    eventDao.insert(SystemInformation.class, systemInformations);
-                }
-                if (!timerInformations.isEmpty()) {
-                    // logger.debug("Insert List : TimerInformation - size = " + timerInformations.size());
-                    eventDao.insert(TimerInformation.class, timerInformations);
-                }
-
-            } catch (Exception e) {
-                logger.error("Error in inserting data.", e);
-            }
-        }
-    }
-
 }
@@ -17,6 +17,7 @@ import org.springframework.beans.factory.annotation.Value;
 import ny2.ats.core.common.Period;
 import ny2.ats.core.common.Symbol;
 import ny2.ats.core.data.MarketData;
+import ny2.ats.core.data.Order;
 import ny2.ats.core.event.MarketUpdateEvent;
 import ny2.ats.database.kdb.KdbByFunctionType;
 import ny2.ats.indicator.IIndicatorDataHolder;
@@ -95,6 +96,10 @@ public class HistoricalTesterSetup {
     @Value("${historical.tester.writedisk}")
     private boolean writeDisk;
 
+    /** オーダーIDをSymbolごとの通番で採番するかどうか */
+    @Value("${historical.order.symbolsequenceid:true}")
+    private boolean symbolSequenceOrderId;
+
     /** 取引開始時刻(月曜) */
     @Value("#{T(java.time.LocalTime).parse('${historical.trade.startmonday}')}")
     private LocalTime startTradeMonday;
@@ -200,6 +205,9 @@ public class HistoricalTesterSetup {
         // Indicator設定
         setupIndicator();
 
+        // オーダーID採番
+        setupOrderId();
+
         // デプロイモデル
         deployModels();
 
@@ -216,9 +224,19 @@ public class HistoricalTesterSetup {
         logger.info("Indicator: Period Times = {}", indicatorPeriodTimes);
         logger.info("Indicator: Period Ticks = {}", indicatorPeriodTicks);
         logger.info("Indicator: Data Hold Days = [{}]", indicatorDataHoldDays);
+        indicatorDataHolder.setHoldDays(indicatorDataHoldDays);
         indicatorDataHolder.initialize(indicatorSymbols, indicatorTypes, indicatorPeriodTimes, indicatorPeriodTicks);
     }
 
+    /**
+     * オーダーIDの採番方法を設定します。
+     * Symbolごとの通番の場合は、Routerの種類によらず同じオーダーIDになります。
+     */
+    public void setupOrderId() {
+        logger.info("Order: Symbol sequence ID = [{}]", symbolSequenceOrderId);
+        Order.changeSymbolSequenceId(symbolSequenceOrderId);
+    }
+
     /**
      * 設定ファイルにしたがってモデルをデプロイします
      * 設定にブランクがあるものは無視します
@@ -15,6 +15,7 @@ import org.springframework.beans.factory.annotation.Value;
 
 import ny2.ats.core.common.Symbol;
 import ny2.ats.core.data.MarketData;
+import ny2.ats.core.router.IEventRouter;
 import ny2.ats.core.util.MarketTimeUtility;
 import ny2.ats.core.util.SystemUtility;
 import ny2.ats.database.HistoricalDao;
@@ -58,6 +59,10 @@ public class HistoricalTesterImpl implements IHistoricalTester {
     @Autowired
     private TimerChecker timerChecker;
 
+    /** Event Router (Partition型の場合はMarketData更新をPartitionで処理する) */
+    @Autowired
+    private IEventRouter eventRouter;
+
 
     /** モデル稼動状態 */
     private boolean isModelRunning = false;
@@ -256,8 +261,9 @@ public class HistoricalTesterImpl implements IHistoricalTester {
             // Timer更新チェック
             timerChecker.proceedTimer(marketData.getMarketDateTime());
             // MarketData更新
-            historicalConnector.updateMarketData(marketData);
+            updateMarketData(marketData);
         }
+        awaitRouter();
     }
 
     /**
@@ -288,12 +294,28 @@ public class HistoricalTesterImpl implements IHistoricalTester {
                 // Timer更新チェック
                 timerChecker.proceedTimer(marketData.getMarketDateTime());
                 // MarketData更新
-                historicalConnector.updateMarketData(marketData);
+                updateMarketData(marketData);
 
             } catch (Exception e) {
                 logger.error("", e);
             }
         }
+        awaitRouter();
+    }
+
+    /**
+     * MarketDataを更新します。Symbol分割型Routerの場合は対象SymbolのPartitionで処理します。
+     * @param marketData
+     */
+    private void updateMarketData(MarketData marketData) {
+        eventRouter.executeForSymbol(marketData.getSymbol(), () -> historicalConnector.updateMarketData(marketData));
+    }
+
+    /**
+     * Routerの処理完了を待ちます
+     */
+    private void awaitRouter() {
+        eventRouter.awaitEvents();
     }
 
     /**
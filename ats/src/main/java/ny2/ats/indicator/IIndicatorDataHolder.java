@@ -34,6 +34,14 @@ public interface IIndicatorDataHolder {
      */
     public void initialize(Set<Symbol> symbols, Set<IndicatorType> indicatorTypes, Set<Period> indicatorPeriodTimes, Set<Period> indicatorPeriodTicks);
 
+    /**
+     * Indicatorのデータ保持日数を設定します。initialize の前に呼び出してください。<br>
+     * 時間の Period のデータ列は保持日数分の件数で循環し、古いデータは追加時に削除されます。
+     *
+     * @param holdDays 0以下の場合は上限なし
+     */
+    public void setHoldDays(int holdDays);
+
     public Set<Symbol> getIndicatorSymbols();
 
     public Set<IndicatorType> getIndicatorTypes();
@@ -1,5 +1,9 @@
 package ny2.ats.indicator;
 
+import java.util.List;
+
+import ny2.ats.core.common.Period;
+import ny2.ats.core.common.Symbol;
 import ny2.ats.core.event.IEventListener;
 
 /**
@@ -8,8 +12,12 @@ import ny2.ats.core.event.IEventListener;
 public interface IIndicatorManager extends IEventListener {
 
     /**
-     * Send IndicatorInformation to EventRouter
-     * @param indicator
+     * Send IndicatorBarInformation to EventRouter
+     * 1本の足で計算した全Indicatorをまとめて1イベントで送信します。
+     *
+     * @param symbol
+     * @param period
+     * @param indicators
      */
-    public void sendIndicatorUpdate(Indicator<?> indicator);
+    public void sendIndicatorUpdate(Symbol symbol, Period period, List<Indicator<?>> indicators);
 }
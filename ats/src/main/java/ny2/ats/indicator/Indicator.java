@@ -1,7 +1,6 @@
 package ny2.ats.indicator;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -11,6 +10,8 @@ import org.slf4j.LoggerFactory;
 import ny2.ats.core.common.Period;
 import ny2.ats.core.common.Symbol;
 import ny2.ats.core.util.CollectionUtility;
+import ny2.ats.indicator.series.ColumnarSeries;
+import ny2.ats.indicator.series.DateTimeColumn;
 
 /**
  * IndicatorType, Symbol, Period ごとのIndicator情報を保持する抽象クラスです。<br>
@@ -36,6 +37,15 @@ public abstract class Indicator<T extends CalcPeriod> {
     /** データ文字列出力時に複数値が存在する際の区切り文字 */
     protected static final String VALUE_DELIMITER = ",";
 
+    /** 1日の秒数 */
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+    /** データ列の最大件数の下限。各Processorが参照する最大の期間より大きくすること */
+    private static final int MIN_SERIES_SIZE = 1_000;
+
+    /** データ保持日数。0以下は上限なし。Indicator作成前に設定します */
+    private static volatile int holdDays = 0;
+
 
     /** 対象のインディケーター */
     protected final IndicatorType type;
@@ -46,8 +56,11 @@ public abstract class Indicator<T extends CalcPeriod> {
     /** 対象の期間 */
     protected final Period period;
 
+    /** データ列(時刻列と各データ列)。最大件数は保持日数と Period から決まります */
+    protected final ColumnarSeries series;
+
     /** データ列時刻(後方が新しい時刻) */
-    protected final List<LocalDateTime> dateTimeList = new ArrayList<>();
+    protected final DateTimeColumn dateTimeList;
 
     // //////////////////////////////////////
     // Constructor
@@ -58,12 +71,45 @@ public abstract class Indicator<T extends CalcPeriod> {
         this.type = type;
         this.symbol = symbol;
         this.period = period;
+        this.series = new ColumnarSeries(calcSeriesSize(period, holdDays));
+        this.dateTimeList = series.getDateTimeColumn();
     }
 
     // //////////////////////////////////////
     // Method
     // //////////////////////////////////////
 
+    /**
+     * 保持日数からデータ列の最大件数を計算します。<br>
+     * 時間の Period は (保持日数 + 1) 日分の件数とし、MIN_SERIES_SIZE を下限とします。
+     * Tick の Period は1日の件数が決まらないため、DAILY は保持日数で削除しないため、上限なし(0)とします。
+     *
+     * @param period
+     * @param holdDays 0以下は上限なし
+     * @return 最大件数。0は上限なし
+     */
+    public static int calcSeriesSize(Period period, int holdDays) {
+        if (holdDays <= 0 || period.isTickPeriod() || period == Period.DAILY) {
+            return 0;
+        }
+        long periodSeconds = period.getChronoUnit().getDuration().getSeconds() * period.getTimeInverval();
+        long size = (holdDays + 1) * SECONDS_PER_DAY / periodSeconds;
+        return (int) Math.min(Math.max(size, MIN_SERIES_SIZE), Integer.MAX_VALUE - 8);
+    }
+
+    /**
+     * データ保持日数を設定します。設定後に作成した Indicator のデータ列は保持日数分の件数で循環します
+     *
+     * @param holdDays 0以下は上限なし
+     */
+    public static void setHoldDays(int holdDays) {
+        Indicator.holdDays = holdDays;
+    }
+
+    public static int getHoldDays() {
+        return holdDays;
+    }
+
     /**
      * 最新の更新時刻を返します。
      * @return
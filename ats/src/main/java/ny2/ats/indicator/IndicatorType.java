@@ -1,8 +1,13 @@
 package ny2.ats.indicator;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
 
+import ny2.ats.indicator.graph.SeriesInput;
+import ny2.ats.indicator.graph.SeriesNode;
 import ny2.ats.indicator.indicators.BollingerBandEMAIndicator;
 import ny2.ats.indicator.indicators.BollingerBandIndicator;
 import ny2.ats.indicator.indicators.BollingerBandIndicator.BollingerPeriod;
@@ -35,34 +40,47 @@ public enum IndicatorType {
     OHLC(OHLCIndicator.class, OHLCType.class),
 
     // 単純移動平均(Moving Average)
-    MA(MovingAverageIndicator.class, MAPeriod.class),
+    MA(MovingAverageIndicator.class, MAPeriod.class,
+            SeriesInput.of(SeriesNode.CLOSE_MOMENTS, MAPeriod.values(), MAPeriod::getPeriodCount)),
     // 指数平滑移動平均
-    EMA(ExponentialMovingAverageIndicator.class, MAPeriod.class),
+    EMA(ExponentialMovingAverageIndicator.class, MAPeriod.class,
+            SeriesInput.of(SeriesNode.CLOSE_EMA, MAPeriod.values(), MAPeriod::getPeriodCount)),
 
     // RSI (Relative Strength index)
-    RSI(RSIIndicator.class, RSIPeriod.class),
+    RSI(RSIIndicator.class, RSIPeriod.class,
+            SeriesInput.of(SeriesNode.CLOSE_GAIN_LOSS, RSIPeriod.values(), RSIPeriod::getPeriodCount)),
 
     // RCI (Rank Correlation Index)
-    RCI(RankCorrelationIndexIndicator.class, RankCIPeriod.class),
+    RCI(RankCorrelationIndexIndicator.class, RankCIPeriod.class,
+            SeriesInput.of(SeriesNode.CLOSE_RANK_CORRELATION, RankCIPeriod.values(), RankCIPeriod::getPeriodCount)),
 
     // MACD
-    MACD(MACDIndicator.class, MACDPeriod.class),
+    MACD(MACDIndicator.class, MACDPeriod.class,
+            SeriesInput.of(SeriesNode.CLOSE_MACD, MACDPeriod.values(), MACDPeriod::getShortPeriod, MACDPeriod::getLongPeriod, MACDPeriod::getTriggerPriod)),
 
     // ボリンジャーバンド
-    BOLLINGER(BollingerBandIndicator.class, BollingerPeriod.class),
-    BOLLINGER_EMA(BollingerBandEMAIndicator.class, BollingerPeriod.class),
+    BOLLINGER(BollingerBandIndicator.class, BollingerPeriod.class,
+            SeriesInput.of(SeriesNode.CLOSE_MOMENTS, BollingerPeriod.values(), BollingerPeriod::getPeriod)),
+    BOLLINGER_EMA(BollingerBandEMAIndicator.class, BollingerPeriod.class,
+            SeriesInput.of(SeriesNode.CLOSE_EMA, BollingerPeriod.values(), BollingerPeriod::getPeriod),
+            SeriesInput.of(SeriesNode.CLOSE_MOMENTS, BollingerPeriod.values(), BollingerPeriod::getPeriod)),
 
     // ストキャスティクス
-    STOCHASTICS(StochasticsIndicator.class, StochasticsPeriod.class),
+    STOCHASTICS(StochasticsIndicator.class, StochasticsPeriod.class,
+            SeriesInput.of(SeriesNode.CLOSE_EXTREMES, StochasticsPeriod.values(), StochasticsPeriod::getKPeriod)),
 
     // 一目均衡表
-    ICHIMOKU(IchimokuIndicator.class, IchimokuPeriod.class),
+    ICHIMOKU(IchimokuIndicator.class, IchimokuPeriod.class,
+            SeriesInput.of(SeriesNode.CLOSE_EXTREMES, IchimokuPeriod.values(), IchimokuPeriod::getTenkanPeriod, IchimokuPeriod::getKijunPeriod, IchimokuPeriod::getSenkouPriod)),
 
     // 線形回帰分析
-    LINEAR_REG(LinearRegressionIndicator.class, LRPeriod.class),
+    LINEAR_REG(LinearRegressionIndicator.class, LRPeriod.class,
+            SeriesInput.of(SeriesNode.CLOSE_REGRESSION, LRPeriod.values(), LRPeriod::getPeriodCount)),
 
     // 価格レンジ
-    PRICE_RANGE(PriceRangeIndicator.class, PriceRangePeriod.class);
+    PRICE_RANGE(PriceRangeIndicator.class, PriceRangePeriod.class,
+            SeriesInput.of(SeriesNode.HIGH_RANGE, PriceRangePeriod.values(), PriceRangePeriod::getPeriodCount),
+            SeriesInput.of(SeriesNode.LOW_RANGE, PriceRangePeriod.values(), PriceRangePeriod::getPeriodCount));
 
 
     // //////////////////////////////////////
@@ -79,13 +97,17 @@ public enum IndicatorType {
     /** 対象IndicatorのCalcPeriodクラス */
     private Class<? extends CalcPeriod> calcPeriodClass;
 
+    /** 入力とする共有ノードと期間 */
+    private List<SeriesInput> inputs;
+
     // //////////////////////////////////////
     // Constructor
     // //////////////////////////////////////
 
-    private IndicatorType(Class<? extends Indicator<? extends CalcPeriod>> indicatorClass, Class<? extends CalcPeriod> calcPeriodClass) {
+    private IndicatorType(Class<? extends Indicator<? extends CalcPeriod>> indicatorClass, Class<? extends CalcPeriod> calcPeriodClass, SeriesInput... inputs) {
         this.indicatorClass = indicatorClass;
         this.calcPeriodClass = calcPeriodClass;
+        this.inputs = Collections.unmodifiableList(Arrays.asList(inputs));
     }
 
     /**
@@ -124,4 +146,13 @@ public enum IndicatorType {
         return calcPeriodClass;
     }
 
+    /**
+     * 入力とする共有ノードと期間を返します。OHLC は共有ノードを使用しません
+     *
+     * @return
+     */
+    public List<SeriesInput> getInputs() {
+        return inputs;
+    }
+
 }
@@ -0,0 +1,189 @@
+package ny2.ats.indicator.calc;
+
+import java.util.Arrays;
+
+/**
+ * 直近の値に対して、任意の区間 [from, to] の最大値(または最小値)とその位置を O(log n) で返すクラスです。<br>
+ * 値は追加順の通番(Sequence, 0始まり)で指定します。直近 capacity 件を Ring 上の Segment Tree(プリミティブ配列)で保持し、
+ * 追加ごとに葉から根までを更新します。同値の場合は Sequence が小さい(古い)方を返します。<br>
+ * 同期化していないため、1つのThreadから使用してください。
+ */
+public class RangeExtremumIndex implements SeriesCalculator {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** true: 最大値 / false: 最小値 */
+    private final boolean maximum;
+
+    /** 保持する件数 */
+    private final int capacity;
+
+    /** 葉の数(2の累乗) */
+    private final int leafCount;
+
+    /** 葉の値 (Sequence % leafCount の位置) */
+    private final double[] values;
+
+    /** 葉の Sequence */
+    private final long[] sequences;
+
+    /** 各ノードの区間で最大(最小)となる葉の位置。未使用は -1 */
+    private final int[] tree;
+
+    /** 追加した件数(累計) */
+    private long count;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    /**
+     * @param capacity 保持する件数(検索できる区間の最大長)
+     * @param maximum true: 最大値 / false: 最小値
+     */
+    public RangeExtremumIndex(int capacity, boolean maximum) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive. " + capacity);
+        }
+        this.capacity = capacity;
+        this.maximum = maximum;
+        this.leafCount = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.values = new double[leafCount];
+        this.sequences = new long[leafCount];
+        this.tree = new int[leafCount * 2];
+        Arrays.fill(tree, -1);
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 値を追加します
+     *
+     * @param value
+     */
+    @Override
+    public void add(double value) {
+        int leaf = (int) (count % leafCount);
+        values[leaf] = value;
+        sequences[leaf] = count;
+        count++;
+        int node = leaf + leafCount;
+        tree[node] = leaf;
+        for (node >>= 1; node > 0; node >>= 1) {
+            tree[node] = better(tree[node * 2], tree[node * 2 + 1]);
+        }
+    }
+
+    /**
+     * 全ての値を破棄します
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(tree, -1);
+        count = 0;
+    }
+
+    /**
+     * 区間 [from, to] の最大値(最小値)の Sequence を返します
+     *
+     * @param from 開始 Sequence (含む)
+     * @param to 終了 Sequence (含む)
+     * @return
+     */
+    public long searchSequence(long from, long to) {
+        checkRange(from, to);
+        int fromLeaf = (int) (from % leafCount);
+        int toLeaf = (int) (to % leafCount);
+        int best;
+        if (fromLeaf <= toLeaf) {
+            best = query(fromLeaf, toLeaf);
+        } else {
+            // Ringの末尾で折り返す場合は2区間
+            best = better(query(fromLeaf, leafCount - 1), query(0, toLeaf));
+        }
+        return sequences[best];
+    }
+
+    /**
+     * 区間 [from, to] の最大値(最小値)を返します
+     *
+     * @param from 開始 Sequence (含む)
+     * @param to 終了 Sequence (含む)
+     * @return
+     */
+    public double search(long from, long to) {
+        return getValue(searchSequence(from, to));
+    }
+
+    /**
+     * 指定した Sequence の値を返します
+     *
+     * @param sequence
+     * @return
+     */
+    public double getValue(long sequence) {
+        checkRange(sequence, sequence);
+        return values[(int) (sequence % leafCount)];
+    }
+
+    /**
+     * 葉の区間 [fromLeaf, toLeaf] を検索します
+     */
+    private int query(int fromLeaf, int toLeaf) {
+        int best = -1;
+        for (int left = fromLeaf + leafCount, right = toLeaf + leafCount + 1; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                best = better(best, tree[left++]);
+            }
+            if ((right & 1) == 1) {
+                best = better(best, tree[--right]);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 2つの葉のうち最大(最小)の方を返します。同値は Sequence が小さい方です。
+     */
+    private int better(int leaf1, int leaf2) {
+        if (leaf1 < 0) {
+            return leaf2;
+        }
+        if (leaf2 < 0) {
+            return leaf1;
+        }
+        double value1 = values[leaf1];
+        double value2 = values[leaf2];
+        if (value1 == value2) {
+            return sequences[leaf1] <= sequences[leaf2] ? leaf1 : leaf2;
+        }
+        if (maximum) {
+            return value1 > value2 ? leaf1 : leaf2;
+        } else {
+            return value1 < value2 ? leaf1 : leaf2;
+        }
+    }
+
+    private void checkRange(long from, long to) {
+        if (from > to || from < count - capacity || from < 0 || to >= count) {
+            throw new IndexOutOfBoundsException("from = " + from + ", to = " + to + ", count = " + count + ", capacity = " + capacity);
+        }
+    }
+
+    // //////////////////////////////////////
+    // Getters and Setters
+    // //////////////////////////////////////
+
+    public long getCount() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+}
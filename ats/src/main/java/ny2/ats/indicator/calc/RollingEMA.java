@@ -0,0 +1,132 @@
+package ny2.ats.indicator.calc;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * 指数平滑移動平均(EMA)を期間(window)ごとに O(1) で更新するクラスです。<br>
+ * N件目は最初のN件の単純平均を初期値とし、以降は 前回値 + α * (値 - 前回値), α = 2 / (N + 1) で更新します。
+ * 各値は丸め処理(通貨ペアの subpip 等)をしてから保持し、次の計算に使用します。<br>
+ * 同期化していないため、1つのThreadから使用してください。
+ */
+public class RollingEMA implements SeriesCalculator {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** 保持する期間(昇順) */
+    private final int[] windows;
+
+    /** 期間 -> windows の index。対象外は -1 */
+    private final int[] windowIndex;
+
+    /** 丸め処理 */
+    private final DoubleUnaryOperator rounding;
+
+    /** 期間ごとの EMA */
+    private final double[] emas;
+
+    /** 最大の期間までの値の合計(初期値の計算用) */
+    private double seedSum;
+
+    /** seedSum の誤差の補正(Kahan) */
+    private double seedCompensation;
+
+    /** 追加した件数(累計) */
+    private long count;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    /**
+     * @param rounding 丸め処理
+     * @param windows 保持する期間。重複可
+     */
+    public RollingEMA(DoubleUnaryOperator rounding, int... windows) {
+        this.windows = Arrays.stream(windows).distinct().sorted().toArray();
+        if (this.windows.length == 0 || this.windows[0] < 1) {
+            throw new IllegalArgumentException("windows must be positive. " + Arrays.toString(windows));
+        }
+        this.windowIndex = new int[this.windows[this.windows.length - 1] + 1];
+        Arrays.fill(windowIndex, -1);
+        for (int i = 0; i < this.windows.length; i++) {
+            windowIndex[this.windows[i]] = i;
+        }
+        this.rounding = rounding;
+        this.emas = new double[this.windows.length];
+        Arrays.fill(emas, Double.NaN);
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    @Override
+    public void add(double value) {
+        count++;
+        if (count <= windows[windows.length - 1]) {
+            double y = value - seedCompensation;
+            double t = seedSum + y;
+            seedCompensation = (t - seedSum) - y;
+            seedSum = t;
+        }
+        for (int i = 0; i < windows.length; i++) {
+            int window = windows[i];
+            if (count == window) {
+                // N件目は単純平均
+                emas[i] = rounding.applyAsDouble(seedSum / window);
+            } else if (count > window) {
+                double alpha = 2.0 / (window + 1);
+                emas[i] = rounding.applyAsDouble(emas[i] + alpha * (value - emas[i]));
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(emas, Double.NaN);
+        seedSum = 0;
+        seedCompensation = 0;
+        count = 0;
+    }
+
+    /**
+     * 指定した期間の値が揃っているかを返します
+     *
+     * @param window
+     * @return
+     */
+    public boolean isAvailable(int window) {
+        return count >= window;
+    }
+
+    /**
+     * 期間ごとの EMA を返します。件数が足りない場合はNaNです。
+     *
+     * @param window コンストラクタで指定した期間
+     * @return
+     */
+    public double getEMA(int window) {
+        int i = searchIndex(window);
+        return count >= window ? emas[i] : Double.NaN;
+    }
+
+    private int searchIndex(int window) {
+        int i = window < windowIndex.length && window > 0 ? windowIndex[window] : -1;
+        if (i < 0) {
+            throw new IllegalArgumentException("window is not registered. " + window + ", windows = " + Arrays.toString(windows));
+        }
+        return i;
+    }
+
+    // //////////////////////////////////////
+    // Getters and Setters
+    // //////////////////////////////////////
+
+    public long getCount() {
+        return count;
+    }
+
+}
@@ -0,0 +1,203 @@
+package ny2.ats.indicator.calc;
+
+import java.util.Arrays;
+
+/**
+ * 直近N件の最大値・最小値を償却 O(1) で返すクラスです。<br>
+ * 期間(window)ごとに単調な Deque を2つ(最大値用は降順、最小値用は昇順)持ち、値の Sequence をプリミティブ配列の Ring で保持します。
+ * 新しい値を追加する際に、それより小さい(最大値用)/大きい(最小値用)値を末尾から取り除き、期間外になった値を先頭から取り除きます。<br>
+ * 同期化していないため、1つのThreadから使用してください。
+ */
+public class RollingExtremes implements SeriesCalculator {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** 保持する期間(昇順) */
+    private final int[] windows;
+
+    /** 期間 -> windows の index。対象外は -1 */
+    private final int[] windowIndex;
+
+    /** 直近の値の Ring。サイズは最大の期間 */
+    private final double[] values;
+
+    /** 期間ごとの最大値用 Deque */
+    private final MonotonicDeque[] maxDeques;
+
+    /** 期間ごとの最小値用 Deque */
+    private final MonotonicDeque[] minDeques;
+
+    /** 追加した件数(累計) */
+    private long count;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    /**
+     * @param windows 保持する期間。重複可
+     */
+    public RollingExtremes(int... windows) {
+        this.windows = Arrays.stream(windows).distinct().sorted().toArray();
+        if (this.windows.length == 0 || this.windows[0] < 1) {
+            throw new IllegalArgumentException("windows must be positive. " + Arrays.toString(windows));
+        }
+        int capacity = this.windows[this.windows.length - 1];
+        this.windowIndex = new int[capacity + 1];
+        Arrays.fill(windowIndex, -1);
+        this.values = new double[capacity];
+        this.maxDeques = new MonotonicDeque[this.windows.length];
+        this.minDeques = new MonotonicDeque[this.windows.length];
+        for (int i = 0; i < this.windows.length; i++) {
+            windowIndex[this.windows[i]] = i;
+            maxDeques[i] = new MonotonicDeque(this.windows[i], true);
+            minDeques[i] = new MonotonicDeque(this.windows[i], false);
+        }
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 値を追加します
+     *
+     * @param value
+     */
+    @Override
+    public void add(double value) {
+        for (int i = 0; i < windows.length; i++) {
+            maxDeques[i].add(count, value);
+            minDeques[i].add(count, value);
+        }
+        values[(int) (count % values.length)] = value;
+        count++;
+    }
+
+    /**
+     * 全ての値を破棄します
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < windows.length; i++) {
+            maxDeques[i].clear();
+            minDeques[i].clear();
+        }
+        count = 0;
+    }
+
+    /**
+     * 指定した期間の値が揃っているかを返します
+     *
+     * @param window
+     * @return
+     */
+    public boolean isAvailable(int window) {
+        return count >= window;
+    }
+
+    /**
+     * 直近N件の最大値を返します。件数が足りない場合はNaNです。
+     *
+     * @param window コンストラクタで指定した期間
+     * @return
+     */
+    public double getMax(int window) {
+        MonotonicDeque deque = maxDeques[searchIndex(window)];
+        if (count < window) {
+            return Double.NaN;
+        }
+        return values[(int) (deque.first() % values.length)];
+    }
+
+    /**
+     * 直近N件の最小値を返します。件数が足りない場合はNaNです。
+     *
+     * @param window コンストラクタで指定した期間
+     * @return
+     */
+    public double getMin(int window) {
+        MonotonicDeque deque = minDeques[searchIndex(window)];
+        if (count < window) {
+            return Double.NaN;
+        }
+        return values[(int) (deque.first() % values.length)];
+    }
+
+    private int searchIndex(int window) {
+        int i = window < windowIndex.length && window > 0 ? windowIndex[window] : -1;
+        if (i < 0) {
+            throw new IllegalArgumentException("window is not registered. " + window + ", windows = " + Arrays.toString(windows));
+        }
+        return i;
+    }
+
+    // //////////////////////////////////////
+    // Getters and Setters
+    // //////////////////////////////////////
+
+    public long getCount() {
+        return count;
+    }
+
+    // //////////////////////////////////////
+    // Inner Class
+    // //////////////////////////////////////
+
+    /**
+     * 値の Sequence を保持する単調な Deque。最大で期間と同じ件数を保持します。
+     */
+    private class MonotonicDeque {
+
+        private final int window;
+
+        /** true: 先頭が最大値(降順) / false: 先頭が最小値(昇順) */
+        private final boolean descending;
+
+        /** Sequence の Ring */
+        private final long[] sequences;
+
+        private int head;
+        private int size;
+
+        MonotonicDeque(int window, boolean descending) {
+            this.window = window;
+            this.descending = descending;
+            this.sequences = new long[window];
+        }
+
+        /**
+         * Sequence を追加します。values への書き込み前に呼び出します。
+         */
+        void add(long sequence, double value) {
+            // 期間外を先頭から除去
+            if (size > 0 && sequences[head] <= sequence - window) {
+                head = (head + 1) % window;
+                size--;
+            }
+            // 新しい値に劣る値を末尾から除去 (同値も新しい方を残す)
+            while (size > 0) {
+                int tail = (head + size - 1) % window;
+                int compare = Double.compare(values[(int) (sequences[tail] % values.length)], value);
+                if (descending ? compare > 0 : compare < 0) {
+                    break;
+                }
+                size--;
+            }
+            sequences[(head + size) % window] = sequence;
+            size++;
+        }
+
+        long first() {
+            return sequences[head];
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+    }
+
+}
@@ -0,0 +1,235 @@
+package ny2.ats.indicator.calc;
+
+import java.util.Arrays;
+
+/**
+ * 直近N件の値の変化(上昇幅・下落幅)を集計し、RSI の計算に使用する値を O(1) で返すクラスです。<br>
+ * 期間(window)ごとに次の2種類を同時に保持します。
+ * <ul>
+ * <li>直近N件の変化の単純合計(Cutler)。値の追加ごとに新しい変化を足して期間外になった変化を引きます。
+ * 浮動小数点の誤差が蓄積しないよう、期間ごとに期間と同じ件数を追加するたびに保持している変化から合計を再計算します。</li>
+ * <li>Wilder の平滑化平均。最初のN件の単純平均を初期値とし、以降は (前回値 * (N-1) + 変化) / N で更新します。</li>
+ * </ul>
+ * 同期化していないため、1つのThreadから使用してください。
+ */
+public class RollingGainLoss implements SeriesCalculator {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** 保持する期間(昇順) */
+    private final int[] windows;
+
+    /** 期間 -> windows の index。対象外は -1 */
+    private final int[] windowIndex;
+
+    /** 直近の上昇幅の Ring。サイズは最大の期間 */
+    private final double[] gains;
+
+    /** 直近の下落幅(正の値)の Ring。サイズは最大の期間 */
+    private final double[] losses;
+
+    /** 期間ごとの上昇幅の合計 */
+    private final double[] gainSums;
+
+    /** 期間ごとの下落幅の合計 */
+    private final double[] lossSums;
+
+    /** 期間ごとの上昇幅の Wilder 平均 */
+    private final double[] wilderGains;
+
+    /** 期間ごとの下落幅の Wilder 平均 */
+    private final double[] wilderLosses;
+
+    /** 期間ごとの前回の再計算からの件数 */
+    private final int[] countsSinceRebuild;
+
+    /** 前回の値 */
+    private double lastValue = Double.NaN;
+
+    /** 追加した値の件数(累計)。変化の件数は count - 1 */
+    private long count;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    /**
+     * @param windows 保持する期間(変化の件数)。重複可
+     */
+    public RollingGainLoss(int... windows) {
+        this.windows = Arrays.stream(windows).distinct().sorted().toArray();
+        if (this.windows.length == 0 || this.windows[0] < 1) {
+            throw new IllegalArgumentException("windows must be positive. " + Arrays.toString(windows));
+        }
+        int capacity = this.windows[this.windows.length - 1];
+        this.windowIndex = new int[capacity + 1];
+        Arrays.fill(windowIndex, -1);
+        for (int i = 0; i < this.windows.length; i++) {
+            windowIndex[this.windows[i]] = i;
+        }
+        this.gains = new double[capacity];
+        this.losses = new double[capacity];
+        this.gainSums = new double[this.windows.length];
+        this.lossSums = new double[this.windows.length];
+        this.wilderGains = new double[this.windows.length];
+        this.wilderLosses = new double[this.windows.length];
+        this.countsSinceRebuild = new int[this.windows.length];
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 値を追加します
+     *
+     * @param value
+     */
+    @Override
+    public void add(double value) {
+        if (count++ == 0) {
+            lastValue = value;
+            return;
+        }
+        double gain = Math.max(value - lastValue, 0);
+        double loss = Math.max(lastValue - value, 0);
+        lastValue = value;
+
+        // 変化の Sequence
+        long changeSeq = count - 2;
+        int capacity = gains.length;
+        for (int i = 0; i < windows.length; i++) {
+            int window = windows[i];
+            if (changeSeq >= window) {
+                // 期間外になる変化を引く(上書き前に参照する)
+                int removedIndex = (int) ((changeSeq - window) % capacity);
+                gainSums[i] -= gains[removedIndex];
+                lossSums[i] -= losses[removedIndex];
+            }
+            gainSums[i] += gain;
+            lossSums[i] += loss;
+
+            if (changeSeq == window - 1) {
+                // 最初のN件は単純平均
+                wilderGains[i] = gainSums[i] / window;
+                wilderLosses[i] = lossSums[i] / window;
+            } else if (changeSeq >= window) {
+                wilderGains[i] = (wilderGains[i] * (window - 1) + gain) / window;
+                wilderLosses[i] = (wilderLosses[i] * (window - 1) + loss) / window;
+            }
+        }
+        int latestIndex = (int) (changeSeq % capacity);
+        gains[latestIndex] = gain;
+        losses[latestIndex] = loss;
+        for (int i = 0; i < windows.length; i++) {
+            if (++countsSinceRebuild[i] >= windows[i]) {
+                rebuild(i, changeSeq + 1);
+            }
+        }
+    }
+
+    /**
+     * 保持している変化から期間の合計を再計算します
+     */
+    private void rebuild(int i, long changeCount) {
+        countsSinceRebuild[i] = 0;
+        int capacity = gains.length;
+        int size = (int) Math.min(changeCount, windows[i]);
+        double gainSum = 0;
+        double lossSum = 0;
+        for (long seq = changeCount - size; seq < changeCount; seq++) {
+            int index = (int) (seq % capacity);
+            gainSum += gains[index];
+            lossSum += losses[index];
+        }
+        gainSums[i] = gainSum;
+        lossSums[i] = lossSum;
+    }
+
+    /**
+     * 全ての値を破棄します
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(gainSums, 0);
+        Arrays.fill(lossSums, 0);
+        Arrays.fill(wilderGains, 0);
+        Arrays.fill(wilderLosses, 0);
+        Arrays.fill(countsSinceRebuild, 0);
+        lastValue = Double.NaN;
+        count = 0;
+    }
+
+    /**
+     * 指定した期間の変化が揃っているか(値が N+1 件以上あるか)を返します
+     *
+     * @param window
+     * @return
+     */
+    public boolean isAvailable(int window) {
+        return count >= window + 1;
+    }
+
+    /**
+     * 直近N件の上昇幅の合計を返します。件数が足りない場合はNaNです。
+     *
+     * @param window コンストラクタで指定した期間
+     * @return
+     */
+    public double getGainSum(int window) {
+        int i = searchIndex(window);
+        return isAvailable(window) ? gainSums[i] : Double.NaN;
+    }
+
+    /**
+     * 直近N件の下落幅の合計を返します。件数が足りない場合はNaNです。
+     *
+     * @param window コンストラクタで指定した期間
+     * @return
+     */
+    public double getLossSum(int window) {
+        int i = searchIndex(window);
+        return isAvailable(window) ? lossSums[i] : Double.NaN;
+    }
+
+    /**
+     * 上昇幅の Wilder 平均を返します。件数が足りない場合はNaNです。
+     *
+     * @param window コンストラクタで指定した期間
+     * @return
+     */
+    public double getWilderGain(int window) {
+        int i = searchIndex(window);
+        return isAvailable(window) ? wilderGains[i] : Double.NaN;
+    }
+
+    /**
+     * 下落幅の Wilder 平均を返します。件数が足りない場合はNaNです。
+     *
+     * @param window コンストラクタで指定した期間
+     * @return
+     */
+    public double getWilderLoss(int window) {
+        int i = searchIndex(window);
+        return isAvailable(window) ? wilderLosses[i] : Double.NaN;
+    }
+
+    private int searchIndex(int window) {
+        int i = window < windowIndex.length && window > 0 ? windowIndex[window] : -1;
+        if (i < 0) {
+            throw new IllegalArgumentException("window is not registered. " + window + ", windows = " + Arrays.toString(windows));
+        }
+        return i;
+    }
+
+    // //////////////////////////////////////
+    // Getters and Setters
+    // //////////////////////////////////////
+
+    public long getCount() {
+        return count;
+    }
+
+}
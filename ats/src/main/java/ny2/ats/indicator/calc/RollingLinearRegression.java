@@ -0,0 +1,199 @@
+package ny2.ats.indicator.calc;
+
+import java.util.Arrays;
+
+/**
+ * 直近N件の値に対する線形回帰 y = a0 + a1 * x (x は 0 から N-1) の係数を O(1) で返すクラスです。<br>
+ * x は固定なので Σx, Σx^2 は期間から求まり、期間ごとに Σy と Σ(x * y) のみを保持します。
+ * 値の追加時は x が1つずつずれるため、Σ(x * y) から期間内の Σy を引いて新しい値を加えます。<br>
+ * 浮動小数点の誤差が蓄積しないよう、期間ごとに期間と同じ件数を追加するたびに保持している値から合計を再計算します(1件あたり償却 O(1))。
+ * また桁落ちを防ぐため、y は期間ごとの基準値(再計算時の最新値)との差で保持します。<br>
+ * 同期化していないため、1つのThreadから使用してください。
+ */
+public class RollingLinearRegression implements SeriesCalculator {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** 保持する期間(昇順) */
+    private final int[] windows;
+
+    /** 期間 -> windows の index。対象外は -1 */
+    private final int[] windowIndex;
+
+    /** 直近の値の Ring。サイズは最大の期間 */
+    private final double[] values;
+
+    /** 期間ごとの Σ(y - 基準値) */
+    private final double[] sumYs;
+
+    /** 期間ごとの Σ(x * (y - 基準値)) */
+    private final double[] sumXYs;
+
+    /** 期間ごとの基準値 */
+    private final double[] shifts;
+
+    /** 期間ごとの前回の再計算からの件数 */
+    private final int[] countsSinceRebuild;
+
+    /** 追加した件数(累計) */
+    private long count;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    /**
+     * @param windows 保持する期間。重複可
+     */
+    public RollingLinearRegression(int... windows) {
+        this.windows = Arrays.stream(windows).distinct().sorted().toArray();
+        if (this.windows.length == 0 || this.windows[0] < 2) {
+            throw new IllegalArgumentException("windows must be 2 or more. " + Arrays.toString(windows));
+        }
+        int capacity = this.windows[this.windows.length - 1];
+        this.windowIndex = new int[capacity + 1];
+        Arrays.fill(windowIndex, -1);
+        for (int i = 0; i < this.windows.length; i++) {
+            windowIndex[this.windows[i]] = i;
+        }
+        this.values = new double[capacity];
+        this.sumYs = new double[this.windows.length];
+        this.sumXYs = new double[this.windows.length];
+        this.shifts = new double[this.windows.length];
+        this.countsSinceRebuild = new int[this.windows.length];
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 値を追加します
+     *
+     * @param value
+     */
+    @Override
+    public void add(double value) {
+        if (count == 0) {
+            Arrays.fill(shifts, value);
+        }
+        int capacity = values.length;
+        for (int i = 0; i < windows.length; i++) {
+            int window = windows[i];
+            double shifted = value - shifts[i];
+            if (count >= window) {
+                // x = 0 の値を除き、残りの x を1つずつ減らす(上書き前に参照する)
+                double removed = values[(int) ((count - window) % capacity)] - shifts[i];
+                sumYs[i] -= removed;
+                sumXYs[i] -= sumYs[i];
+                sumXYs[i] += (window - 1) * shifted;
+            } else {
+                sumXYs[i] += count * shifted;
+            }
+            sumYs[i] += shifted;
+        }
+        values[(int) (count % capacity)] = value;
+        count++;
+        for (int i = 0; i < windows.length; i++) {
+            if (++countsSinceRebuild[i] >= windows[i]) {
+                rebuild(i);
+            }
+        }
+    }
+
+    /**
+     * 保持している値から期間の合計を再計算します。基準値は最新の値にします。
+     */
+    private void rebuild(int i) {
+        countsSinceRebuild[i] = 0;
+        int capacity = values.length;
+        double shift = values[(int) ((count - 1) % capacity)];
+        int size = (int) Math.min(count, windows[i]);
+        double sumY = 0;
+        double sumXY = 0;
+        int x = 0;
+        for (long seq = count - size; seq < count; seq++, x++) {
+            double shifted = values[(int) (seq % capacity)] - shift;
+            sumY += shifted;
+            sumXY += x * shifted;
+        }
+        shifts[i] = shift;
+        sumYs[i] = sumY;
+        sumXYs[i] = sumXY;
+    }
+
+    /**
+     * 全ての値を破棄します
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(sumYs, 0);
+        Arrays.fill(sumXYs, 0);
+        Arrays.fill(countsSinceRebuild, 0);
+        count = 0;
+    }
+
+    /**
+     * 指定した期間の値が揃っているかを返します
+     *
+     * @param window
+     * @return
+     */
+    public boolean isAvailable(int window) {
+        return count >= window;
+    }
+
+    /**
+     * 直近N件の回帰直線の傾き a1 を返します。件数が足りない場合はNaNです。
+     *
+     * @param window コンストラクタで指定した期間
+     * @return
+     */
+    public double getSlope(int window) {
+        int i = searchIndex(window);
+        if (count < window) {
+            return Double.NaN;
+        }
+        double n = window;
+        double sumX = n * (n - 1) / 2;
+        double sumXSq = (n - 1) * n * (2 * n - 1) / 6;
+        return (n * sumXYs[i] - sumX * sumYs[i]) / (n * sumXSq - sumX * sumX);
+    }
+
+    /**
+     * 直近N件の回帰直線の最新時点(x = N-1)の値 a0 + a1 * (N-1) を返します。件数が足りない場合はNaNです。
+     *
+     * @param window コンストラクタで指定した期間
+     * @return
+     */
+    public double getLatestValue(int window) {
+        int i = searchIndex(window);
+        if (count < window) {
+            return Double.NaN;
+        }
+        double n = window;
+        double sumX = n * (n - 1) / 2;
+        double a1 = getSlope(window);
+        double a0 = (sumYs[i] - a1 * sumX) / n;
+        return shifts[i] + a0 + a1 * (n - 1);
+    }
+
+    private int searchIndex(int window) {
+        int i = window < windowIndex.length && window > 0 ? windowIndex[window] : -1;
+        if (i < 0) {
+            throw new IllegalArgumentException("window is not registered. " + window + ", windows = " + Arrays.toString(windows));
+        }
+        return i;
+    }
+
+    // //////////////////////////////////////
+    // Getters and Setters
+    // //////////////////////////////////////
+
+    public long getCount() {
+        return count;
+    }
+
+}
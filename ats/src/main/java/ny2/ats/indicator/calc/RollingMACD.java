@@ -0,0 +1,157 @@
+package ny2.ats.indicator.calc;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * 終値のEMA(RollingEMA)から MACD とその Trigger(MACD の EMA)を期間の組ごとに O(1) で更新するクラスです。<br>
+ * 期間は (短期, 長期, Trigger) の組で指定します。短期・長期のEMAは入力ノードの RollingEMA を参照するため、
+ * 入力ノードを先に更新してから値を追加してください。<br>
+ * Trigger は従来の MACDProcessor と同じく、最初の有効な MACD を除いた前回までの MACD を RollingEMA で平滑化します。<br>
+ * 同期化していないため、1つのThreadから使用してください。
+ */
+public class RollingMACD implements SeriesCalculator {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** 期間の組の要素数 (短期, 長期, Trigger) */
+    public static final int WINDOW_ARITY = 3;
+
+    /** 短期・長期のEMA(入力ノード) */
+    private final RollingEMA closeEMA;
+
+    /** 丸め処理 */
+    private final DoubleUnaryOperator rounding;
+
+    /** 組ごとの短期の期間 */
+    private final int[] shortWindows;
+
+    /** 組ごとの長期の期間 */
+    private final int[] longWindows;
+
+    /** 組ごとの Trigger の期間 */
+    private final int[] triggerWindows;
+
+    /** 組ごとの Trigger */
+    private final RollingEMA[] triggerEMAs;
+
+    /** 組ごとの最新の MACD */
+    private final double[] macds;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    /**
+     * @param closeEMA 短期・長期の期間を保持する RollingEMA
+     * @param rounding 丸め処理
+     * @param windows (短期, 長期, Trigger) の組を並べた期間
+     */
+    public RollingMACD(RollingEMA closeEMA, DoubleUnaryOperator rounding, int... windows) {
+        if (windows.length == 0 || windows.length % WINDOW_ARITY != 0) {
+            throw new IllegalArgumentException("windows must be (short, long, trigger) tuples. " + Arrays.toString(windows));
+        }
+        int size = windows.length / WINDOW_ARITY;
+        this.closeEMA = closeEMA;
+        this.rounding = rounding;
+        this.shortWindows = new int[size];
+        this.longWindows = new int[size];
+        this.triggerWindows = new int[size];
+        this.triggerEMAs = new RollingEMA[size];
+        this.macds = new double[size];
+        for (int i = 0; i < size; i++) {
+            shortWindows[i] = windows[i * WINDOW_ARITY];
+            longWindows[i] = windows[i * WINDOW_ARITY + 1];
+            triggerWindows[i] = windows[i * WINDOW_ARITY + 2];
+            triggerEMAs[i] = new RollingEMA(rounding, triggerWindows[i]);
+        }
+        Arrays.fill(macds, Double.NaN);
+    }
+
+    /**
+     * 期間の組から入力ノード(RollingEMA)に必要な短期・長期の期間を返します
+     *
+     * @param windows (短期, 長期, Trigger) の組を並べた期間
+     * @return
+     */
+    public static int[] toEMAWindows(int[] windows) {
+        int[] emaWindows = new int[windows.length / WINDOW_ARITY * 2];
+        for (int i = 0; i < windows.length / WINDOW_ARITY; i++) {
+            emaWindows[i * 2] = windows[i * WINDOW_ARITY];
+            emaWindows[i * 2 + 1] = windows[i * WINDOW_ARITY + 1];
+        }
+        return emaWindows;
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 入力ノードの更新後に呼び出します。値は入力ノードと同じ終値ですが使用しません。
+     *
+     * @param value
+     */
+    @Override
+    public void add(double value) {
+        // 今回の値の Sequence
+        long sequence = closeEMA.getCount() - 1;
+        for (int i = 0; i < macds.length; i++) {
+            // 前回の MACD が最初の有効な MACD(Sequence = 長期 - 1)より後であれば Trigger に追加する
+            if (sequence - 1 >= longWindows[i]) {
+                triggerEMAs[i].add(macds[i]);
+            }
+            double shortEma = closeEMA.getEMA(shortWindows[i]);
+            double longEma = closeEMA.getEMA(longWindows[i]);
+            if (Double.isNaN(shortEma) || Double.isNaN(longEma)) {
+                macds[i] = Double.NaN;
+            } else {
+                macds[i] = rounding.applyAsDouble(shortEma - longEma);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (RollingEMA triggerEMA : triggerEMAs) {
+            triggerEMA.clear();
+        }
+        Arrays.fill(macds, Double.NaN);
+    }
+
+    /**
+     * 最新の MACD を返します。件数が足りない場合はNaNです。
+     *
+     * @param shortWindow
+     * @param longWindow
+     * @param triggerWindow
+     * @return
+     */
+    public double getMACD(int shortWindow, int longWindow, int triggerWindow) {
+        return macds[searchIndex(shortWindow, longWindow, triggerWindow)];
+    }
+
+    /**
+     * 最新の Trigger を返します。件数が足りない場合はNaNです。
+     *
+     * @param shortWindow
+     * @param longWindow
+     * @param triggerWindow
+     * @return
+     */
+    public double getTrigger(int shortWindow, int longWindow, int triggerWindow) {
+        return triggerEMAs[searchIndex(shortWindow, longWindow, triggerWindow)].getEMA(triggerWindow);
+    }
+
+    private int searchIndex(int shortWindow, int longWindow, int triggerWindow) {
+        for (int i = 0; i < macds.length; i++) {
+            if (shortWindows[i] == shortWindow && longWindows[i] == longWindow && triggerWindows[i] == triggerWindow) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("windows are not registered. " + shortWindow + ", " + longWindow + ", " + triggerWindow);
+    }
+
+}
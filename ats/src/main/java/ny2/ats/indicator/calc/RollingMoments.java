@@ -0,0 +1,215 @@
+package ny2.ats.indicator.calc;
+
+import java.util.Arrays;
+
+/**
+ * 直近N件の合計・二乗和を保持し、平均と標準偏差を O(1) で返すクラスです。<br>
+ * 複数の期間(window)を同時に保持し、値の追加ごとに各期間の合計に新しい値を足して期間外になった値を引きます。
+ * 浮動小数点の誤差が蓄積しないよう、期間ごとに期間と同じ件数を追加するたびに保持している値から合計を再計算します(1件あたり償却 O(1))。
+ * また桁落ちを防ぐため、合計は期間ごとの基準値(再計算時の最新値)との差で保持します。
+ * 水準が急に変わった場合など、期間外の値を引いて二乗和が前回の再計算以降の最大値から大きく減った場合も再計算します。<br>
+ * 同期化していないため、1つのThreadから使用してください。
+ */
+public class RollingMoments implements SeriesCalculator {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** 二乗和が最大値のこの比率を下回ったら再計算する(有効桁が半分程度失われた状態) */
+    private static final double CANCELLATION_RATIO = 1e-8;
+
+    /** 保持する期間(昇順) */
+    private final int[] windows;
+
+    /** 期間 -> windows の index。対象外は -1 */
+    private final int[] windowIndex;
+
+    /** 直近の値の Ring。サイズは最大の期間 */
+    private final double[] values;
+
+    /** 期間ごとの (値 - 基準値) の合計 */
+    private final double[] sums;
+
+    /** 期間ごとの (値 - 基準値) の二乗和 */
+    private final double[] squareSums;
+
+    /** 期間ごとの基準値 */
+    private final double[] shifts;
+
+    /** 期間ごとの前回の再計算からの件数 */
+    private final int[] countsSinceRebuild;
+
+    /** 期間ごとの前回の再計算からの二乗和の最大値 */
+    private final double[] squareSumPeaks;
+
+    /** 追加した件数(累計) */
+    private long count;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    /**
+     * @param windows 保持する期間。重複可
+     */
+    public RollingMoments(int... windows) {
+        this.windows = Arrays.stream(windows).distinct().sorted().toArray();
+        if (this.windows.length == 0 || this.windows[0] < 1) {
+            throw new IllegalArgumentException("windows must be positive. " + Arrays.toString(windows));
+        }
+        int capacity = this.windows[this.windows.length - 1];
+        this.windowIndex = new int[capacity + 1];
+        Arrays.fill(windowIndex, -1);
+        for (int i = 0; i < this.windows.length; i++) {
+            windowIndex[this.windows[i]] = i;
+        }
+        this.values = new double[capacity];
+        this.sums = new double[this.windows.length];
+        this.squareSums = new double[this.windows.length];
+        this.shifts = new double[this.windows.length];
+        this.countsSinceRebuild = new int[this.windows.length];
+        this.squareSumPeaks = new double[this.windows.length];
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 値を追加します
+     *
+     * @param value
+     */
+    @Override
+    public void add(double value) {
+        if (count == 0) {
+            Arrays.fill(shifts, value);
+        }
+        int capacity = values.length;
+        int latestIndex = (int) (count % capacity);
+        for (int i = 0; i < windows.length; i++) {
+            int window = windows[i];
+            if (count >= window) {
+                // 期間外になる値を引く(上書き前に参照する)
+                double removed = values[(int) ((count - window) % capacity)] - shifts[i];
+                sums[i] -= removed;
+                squareSums[i] -= removed * removed;
+            }
+            double shifted = value - shifts[i];
+            sums[i] += shifted;
+            squareSums[i] += shifted * shifted;
+        }
+        values[latestIndex] = value;
+        count++;
+        for (int i = 0; i < windows.length; i++) {
+            squareSumPeaks[i] = Math.max(squareSumPeaks[i], squareSums[i]);
+            if (++countsSinceRebuild[i] >= windows[i] || squareSums[i] < squareSumPeaks[i] * CANCELLATION_RATIO) {
+                rebuild(i);
+            }
+        }
+    }
+
+    /**
+     * 保持している値から期間の合計を再計算します。基準値は最新の値にします。
+     */
+    private void rebuild(int i) {
+        countsSinceRebuild[i] = 0;
+        int capacity = values.length;
+        double shift = values[(int) ((count - 1) % capacity)];
+        int size = (int) Math.min(count, windows[i]);
+        double sum = 0;
+        double squareSum = 0;
+        for (long seq = count - size; seq < count; seq++) {
+            double shifted = values[(int) (seq % capacity)] - shift;
+            sum += shifted;
+            squareSum += shifted * shifted;
+        }
+        shifts[i] = shift;
+        sums[i] = sum;
+        squareSums[i] = squareSum;
+        squareSumPeaks[i] = squareSum;
+    }
+
+    /**
+     * 全ての値を破棄します
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(sums, 0);
+        Arrays.fill(squareSums, 0);
+        Arrays.fill(countsSinceRebuild, 0);
+        Arrays.fill(squareSumPeaks, 0);
+        count = 0;
+    }
+
+    /**
+     * 指定した期間の値が揃っているかを返します
+     *
+     * @param window
+     * @return
+     */
+    public boolean isAvailable(int window) {
+        return count >= window;
+    }
+
+    /**
+     * 直近N件の平均を返します。件数が足りない場合はNaNです。
+     *
+     * @param window コンストラクタで指定した期間
+     * @return
+     */
+    public double getMean(int window) {
+        int i = searchIndex(window);
+        if (count < window) {
+            return Double.NaN;
+        }
+        return shifts[i] + sums[i] / window;
+    }
+
+    /**
+     * 直近N件の標本分散(N-1で割る)を返します。件数が足りない場合はNaNです。
+     *
+     * @param window コンストラクタで指定した期間
+     * @return
+     */
+    public double getVariance(int window) {
+        int i = searchIndex(window);
+        if (count < window) {
+            return Double.NaN;
+        }
+        if (window == 1) {
+            return 0.0;
+        }
+        double variance = (squareSums[i] - sums[i] * sums[i] / window) / (window - 1);
+        // 誤差で負になる場合
+        return variance < 0 ? 0.0 : variance;
+    }
+
+    /**
+     * 直近N件の標本標準偏差を返します。件数が足りない場合はNaNです。
+     *
+     * @param window コンストラクタで指定した期間
+     * @return
+     */
+    public double getStandardDeviation(int window) {
+        return Math.sqrt(getVariance(window));
+    }
+
+    private int searchIndex(int window) {
+        int i = window < windowIndex.length && window > 0 ? windowIndex[window] : -1;
+        if (i < 0) {
+            throw new IllegalArgumentException("window is not registered. " + window + ", windows = " + Arrays.toString(windows));
+        }
+        return i;
+    }
+
+    // //////////////////////////////////////
+    // Getters and Setters
+    // //////////////////////////////////////
+
+    public long getCount() {
+        return count;
+    }
+
+}
@@ -0,0 +1,335 @@
+package ny2.ats.indicator.calc;
+
+import java.util.Arrays;
+
+/**
+ * 直近N件の値の順位と時系列順位(1..N)の順位相関係数(Spearman)を返すクラスです。RCI の計算に使用します。<br>
+ * 期間(window)ごとに値を順序統計木(Treap)で保持し、各ノードに部分木の件数と Sequence の合計を持たせます。
+ * 値の追加・期間外の値の除去のたびに、順位が変わる値の Sequence 合計を木から O(log n) で求め、
+ * Σ(Sequence × 順位) と同順位の補正項 Σ(t^3 - t) を更新します。<br>
+ * 同順位は平均順位とし、Pearson の相関係数として計算するため、commons-math の
+ * SpearmansCorrelation (NaturalRanking, TiesStrategy.AVERAGE) と同じ値になります。全て同値の場合は NaN です。<br>
+ * 同期化していないため、1つのThreadから使用してください。
+ */
+public class RollingRankCorrelation implements SeriesCalculator {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** 保持する期間(昇順) */
+    private final int[] windows;
+
+    /** 期間 -> windows の index。対象外は -1 */
+    private final int[] windowIndex;
+
+    /** 直近の値の Ring。サイズは最大の期間 */
+    private final double[] values;
+
+    /** 期間ごとの順位保持 */
+    private final RankWindow[] rankWindows;
+
+    /** 追加した件数(累計) */
+    private long count;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    /**
+     * @param windows 保持する期間。重複可
+     */
+    public RollingRankCorrelation(int... windows) {
+        this.windows = Arrays.stream(windows).distinct().sorted().toArray();
+        if (this.windows.length == 0 || this.windows[0] < 1) {
+            throw new IllegalArgumentException("windows must be positive. " + Arrays.toString(windows));
+        }
+        int capacity = this.windows[this.windows.length - 1];
+        this.windowIndex = new int[capacity + 1];
+        Arrays.fill(windowIndex, -1);
+        this.values = new double[capacity];
+        this.rankWindows = new RankWindow[this.windows.length];
+        for (int i = 0; i < this.windows.length; i++) {
+            windowIndex[this.windows[i]] = i;
+            rankWindows[i] = new RankWindow(this.windows[i]);
+        }
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 値を追加します
+     *
+     * @param value
+     */
+    @Override
+    public void add(double value) {
+        for (int i = 0; i < windows.length; i++) {
+            int window = windows[i];
+            if (count >= window) {
+                // 期間外になる値を除去する(上書き前に参照する)
+                long removedSeq = count - window;
+                rankWindows[i].remove(values[(int) (removedSeq % values.length)], removedSeq);
+            }
+            rankWindows[i].insert(value, count);
+        }
+        values[(int) (count % values.length)] = value;
+        count++;
+    }
+
+    /**
+     * 全ての値を破棄します
+     */
+    @Override
+    public void clear() {
+        for (RankWindow rankWindow : rankWindows) {
+            rankWindow.clear();
+        }
+        count = 0;
+    }
+
+    /**
+     * 指定した期間の値が揃っているかを返します
+     *
+     * @param window
+     * @return
+     */
+    public boolean isAvailable(int window) {
+        return count >= window;
+    }
+
+    /**
+     * 直近N件の順位相関係数を返します。件数が足りない場合、全て同値の場合はNaNです。
+     *
+     * @param window コンストラクタで指定した期間
+     * @return
+     */
+    public double getCorrelation(int window) {
+        RankWindow rankWindow = rankWindows[searchIndex(window)];
+        if (count < window) {
+            return Double.NaN;
+        }
+        return rankWindow.correlation(count - window);
+    }
+
+    private int searchIndex(int window) {
+        int i = window < windowIndex.length && window > 0 ? windowIndex[window] : -1;
+        if (i < 0) {
+            throw new IllegalArgumentException("window is not registered. " + window + ", windows = " + Arrays.toString(windows));
+        }
+        return i;
+    }
+
+    // //////////////////////////////////////
+    // Getters and Setters
+    // //////////////////////////////////////
+
+    public long getCount() {
+        return count;
+    }
+
+    // //////////////////////////////////////
+    // Inner Class
+    // //////////////////////////////////////
+
+    /**
+     * 1つの期間の値を (値, Sequence) の順で保持する Treap。<br>
+     * ノードは Sequence % window + 1 の位置を使用します(0 は空)。順位は全て2倍した整数で扱います。
+     */
+    private static class RankWindow {
+
+        private final int window;
+
+        // Node
+        private final double[] keys;
+        private final long[] seqs;
+        private final int[] lefts;
+        private final int[] rights;
+        private final int[] priorities;
+        /** 部分木の件数 */
+        private final int[] sizes;
+        /** 部分木の Sequence の合計 */
+        private final long[] seqSums;
+
+        private int root;
+
+        /** Σ(Sequence × 2 × 順位) */
+        private long weightedRankSum;
+
+        /** 同順位の補正項 Σ(t^3 - t) */
+        private long tieSum;
+
+        /** Priority 用の乱数(xorshift) */
+        private int seed = 0x2545F491;
+
+        // split / below の結果
+        private int splitLeft;
+        private int splitRight;
+        private int belowCount;
+        private long belowSeqSum;
+
+        RankWindow(int window) {
+            this.window = window;
+            this.keys = new double[window + 1];
+            this.seqs = new long[window + 1];
+            this.lefts = new int[window + 1];
+            this.rights = new int[window + 1];
+            this.priorities = new int[window + 1];
+            this.sizes = new int[window + 1];
+            this.seqSums = new long[window + 1];
+        }
+
+        /**
+         * 値を追加し、既存の値の順位の変化を反映します
+         */
+        void insert(double value, long seq) {
+            below(value, false);
+            int less = belowCount;
+            long lessSeqSum = belowSeqSum;
+            below(value, true);
+            int equal = belowCount - less;
+            long equalSeqSum = belowSeqSum - lessSeqSum;
+            long greaterSeqSum = seqSums[root] - belowSeqSum;
+
+            // より大きい値は順位+1、同値は+0.5
+            weightedRankSum += 2 * greaterSeqSum + equalSeqSum + seq * (2L * less + equal + 2);
+            tieSum += 3L * equal * equal + 3L * equal;
+
+            int node = (int) (seq % window) + 1;
+            keys[node] = value;
+            seqs[node] = seq;
+            lefts[node] = 0;
+            rights[node] = 0;
+            priorities[node] = nextPriority();
+            sizes[node] = 1;
+            seqSums[node] = seq;
+            split(root, value, seq);
+            int left = splitLeft;
+            int right = splitRight;
+            root = merge(merge(left, node), right);
+        }
+
+        /**
+         * 値を除去し、残りの値の順位の変化を反映します
+         */
+        void remove(double value, long seq) {
+            split(root, value, seq);
+            int left = splitLeft;
+            split(splitRight, value, seq + 1);
+            root = merge(left, splitRight);
+
+            below(value, false);
+            int less = belowCount;
+            long lessSeqSum = belowSeqSum;
+            below(value, true);
+            int equal = belowCount - less;
+            long equalSeqSum = belowSeqSum - lessSeqSum;
+            long greaterSeqSum = seqSums[root] - belowSeqSum;
+
+            weightedRankSum -= 2 * greaterSeqSum + equalSeqSum + seq * (2L * less + equal + 2);
+            tieSum -= 3L * equal * equal + 3L * equal;
+        }
+
+        /**
+         * 順位相関係数を計算します
+         *
+         * @param firstSeq 期間の最初の Sequence
+         */
+        double correlation(long firstSeq) {
+            long n = window;
+            // 位置 = Sequence - firstSeq + 1 として 4 × Σ(位置 - 平均)(順位 - 平均)
+            long twiceProductSum = weightedRankSum - (firstSeq - 1) * n * (n + 1);
+            long covariance4 = 2 * twiceProductSum - n * (n + 1) * (n + 1);
+            // 12 × Σ(位置 - 平均)^2, 12 × Σ(順位 - 平均)^2
+            double dateSquareSum12 = n * (n * n - 1);
+            double rankSquareSum12 = n * (n * n - 1) - tieSum;
+            if (rankSquareSum12 <= 0) {
+                return Double.NaN;
+            }
+            return 3.0 * covariance4 / Math.sqrt(dateSquareSum12 * rankSquareSum12);
+        }
+
+        void clear() {
+            root = 0;
+            weightedRankSum = 0;
+            tieSum = 0;
+        }
+
+        /**
+         * value より小さい(inclusive の場合は以下の)値の件数と Sequence の合計を belowCount, belowSeqSum に設定します
+         */
+        private void below(double value, boolean inclusive) {
+            int t = root;
+            int resultCount = 0;
+            long resultSeqSum = 0;
+            while (t != 0) {
+                int compare = Double.compare(keys[t], value);
+                if (compare < 0 || (inclusive && compare == 0)) {
+                    resultCount += sizes[lefts[t]] + 1;
+                    resultSeqSum += seqSums[lefts[t]] + seqs[t];
+                    t = rights[t];
+                } else {
+                    t = lefts[t];
+                }
+            }
+            belowCount = resultCount;
+            belowSeqSum = resultSeqSum;
+        }
+
+        /**
+         * (value, seq) より小さいノードを splitLeft、以上のノードを splitRight に分割します
+         */
+        private void split(int t, double value, long seq) {
+            if (t == 0) {
+                splitLeft = 0;
+                splitRight = 0;
+                return;
+            }
+            int compare = Double.compare(keys[t], value);
+            if (compare < 0 || (compare == 0 && seqs[t] < seq)) {
+                split(rights[t], value, seq);
+                rights[t] = splitLeft;
+                update(t);
+                splitLeft = t;
+            } else {
+                split(lefts[t], value, seq);
+                lefts[t] = splitRight;
+                update(t);
+                splitRight = t;
+            }
+        }
+
+        private int merge(int left, int right) {
+            if (left == 0) {
+                return right;
+            }
+            if (right == 0) {
+                return left;
+            }
+            if (priorities[left] > priorities[right]) {
+                rights[left] = merge(rights[left], right);
+                update(left);
+                return left;
+            } else {
+                lefts[right] = merge(left, lefts[right]);
+                update(right);
+                return right;
+            }
+        }
+
+        private void update(int t) {
+            sizes[t] = sizes[lefts[t]] + sizes[rights[t]] + 1;
+            seqSums[t] = seqSums[lefts[t]] + seqSums[rights[t]] + seqs[t];
+        }
+
+        private int nextPriority() {
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            return seed;
+        }
+    }
+
+}
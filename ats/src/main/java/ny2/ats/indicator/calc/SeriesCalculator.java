@@ -0,0 +1,21 @@
+package ny2.ats.indicator.calc;
+
+/**
+ * 時系列の値を1件ずつ受け取って集計するクラスのインターフェースです。<br>
+ * OHLCIndicator が足ごとに1回だけ値を追加し、複数の Processor で結果を共有します。
+ */
+public interface SeriesCalculator {
+
+    /**
+     * 値を追加します
+     *
+     * @param value
+     */
+    public void add(double value);
+
+    /**
+     * 全ての値を破棄します
+     */
+    public void clear();
+
+}
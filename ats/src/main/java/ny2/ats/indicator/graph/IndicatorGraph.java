@@ -0,0 +1,141 @@
+package ny2.ats.indicator.graph;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import ny2.ats.core.common.Period;
+import ny2.ats.core.common.Symbol;
+import ny2.ats.indicator.IndicatorType;
+
+/**
+ * Indicatorと共有ノードの依存関係(OHLC -&gt; SeriesNode -&gt; Indicator)を表すクラスです。<br>
+ * 作成対象の IndicatorType が宣言した入力(SeriesInput)を集め、必要なノードのみを、参照される全ての期間をまとめて1つずつ作成します。
+ * ノードは足ごとに1回だけ更新され、同じノードを入力とするIndicatorは計算結果を共有します。<br>
+ * 他のノードを入力とするノード(SeriesNode#getSource)がある場合は、入力ノードも必要な期間とともに作成します。
+ * ノードは宣言順(入力ノードが先)に更新し、ノードを全て更新してから各Indicatorを計算する順序で依存関係を満たします。
+ * Tick の Period は IndicatorType.INDICATOR_FOR_TICK の入力のみ作成します。
+ */
+public class IndicatorGraph {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** 作成対象のIndicator */
+    private final Set<IndicatorType> indicatorTypes;
+
+    /** Time Period のノードと期間 */
+    private final Map<SeriesNode, int[]> timeNodeWindows;
+
+    /** Tick Period のノードと期間 */
+    private final Map<SeriesNode, int[]> tickNodeWindows;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    /**
+     * @param indicatorTypes 作成対象のIndicator
+     */
+    public IndicatorGraph(Set<IndicatorType> indicatorTypes) {
+        this.indicatorTypes = indicatorTypes.isEmpty() ? EnumSet.noneOf(IndicatorType.class) : EnumSet.copyOf(indicatorTypes);
+        this.timeNodeWindows = collectNodeWindows(this.indicatorTypes);
+        Set<IndicatorType> tickTypes = EnumSet.copyOf(this.indicatorTypes);
+        tickTypes.retainAll(IndicatorType.INDICATOR_FOR_TICK);
+        this.tickNodeWindows = collectNodeWindows(tickTypes);
+    }
+
+    /**
+     * 全てのIndicatorを対象としたグラフを作成します
+     *
+     * @return
+     */
+    public static IndicatorGraph all() {
+        return new IndicatorGraph(EnumSet.allOf(IndicatorType.class));
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * IndicatorType の入力から、ノードごとに参照される期間をまとめます
+     */
+    private static Map<SeriesNode, int[]> collectNodeWindows(Set<IndicatorType> types) {
+        Map<SeriesNode, int[]> nodeWindows = new EnumMap<>(SeriesNode.class);
+        for (IndicatorType type : types) {
+            for (SeriesInput input : type.getInputs()) {
+                nodeWindows.merge(input.getNode(), input.getWindows(), input.getNode()::mergeWindows);
+            }
+        }
+        // 入力ノードは先に宣言されているため、逆順に辿ると間接的な依存も含めて期間をまとめられる
+        SeriesNode[] nodes = SeriesNode.values();
+        for (int i = nodes.length - 1; i >= 0; i--) {
+            SeriesNode source = nodes[i].getSource();
+            int[] windows = nodeWindows.get(nodes[i]);
+            if (source != null && windows != null) {
+                nodeWindows.merge(source, nodes[i].getSourceWindows(windows), source::mergeWindows);
+            }
+        }
+        return Collections.unmodifiableMap(nodeWindows);
+    }
+
+    /**
+     * (Symbol, Period) ごとの共有ノードを作成します
+     *
+     * @param symbol
+     * @param period
+     * @return
+     */
+    public SeriesNodeSet createNodeSet(Symbol symbol, Period period) {
+        return new SeriesNodeSet(getNodeWindows(period), symbol);
+    }
+
+    /**
+     * Period で作成するノードと期間を返します
+     *
+     * @param period
+     * @return
+     */
+    public Map<SeriesNode, int[]> getNodeWindows(Period period) {
+        return period.isTickPeriod() ? tickNodeWindows : timeNodeWindows;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(200);
+        for (Entry<SeriesNode, int[]> entry : timeNodeWindows.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(entry.getKey()).append(" -> ");
+            boolean first = true;
+            for (IndicatorType type : indicatorTypes) {
+                if (type.getInputs().stream().anyMatch(input -> input.getNode() == entry.getKey())) {
+                    sb.append(first ? "" : "/").append(type);
+                    first = false;
+                }
+            }
+            for (SeriesNode node : timeNodeWindows.keySet()) {
+                if (node.getSource() == entry.getKey()) {
+                    sb.append(first ? "" : "/").append(node);
+                    first = false;
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    // //////////////////////////////////////
+    // Getters and Setters
+    // //////////////////////////////////////
+
+    public Set<IndicatorType> getIndicatorTypes() {
+        return Collections.unmodifiableSet(indicatorTypes);
+    }
+
+}
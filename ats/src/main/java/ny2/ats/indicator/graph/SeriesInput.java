@@ -0,0 +1,63 @@
+package ny2.ats.indicator.graph;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * Indicatorの入力(グラフの辺)を表すクラスです。入力ノードと、Indicatorが参照する期間を保持します。
+ */
+public class SeriesInput {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** 入力ノード */
+    private final SeriesNode node;
+
+    /** 参照する期間 */
+    private final int[] windows;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    public SeriesInput(SeriesNode node, int... windows) {
+        this.node = node;
+        this.windows = windows.clone();
+    }
+
+    /**
+     * 計算期間enumの各値から参照する期間を取り出して入力を作成します
+     *
+     * @param node 入力ノード
+     * @param calcPeriods 計算期間enumの値
+     * @param windowFunctions 計算期間から期間を取り出す関数(複数の期間を参照する場合は複数指定)
+     * @return
+     */
+    @SafeVarargs
+    public static <T> SeriesInput of(SeriesNode node, T[] calcPeriods, ToIntFunction<T>... windowFunctions) {
+        int[] windows = Arrays.stream(calcPeriods)
+                .flatMapToInt(calcPeriod -> Arrays.stream(windowFunctions).mapToInt(f -> f.applyAsInt(calcPeriod)))
+                .toArray();
+        return new SeriesInput(node, windows);
+    }
+
+    @Override
+    public String toString() {
+        return node + Arrays.toString(windows);
+    }
+
+    // //////////////////////////////////////
+    // Getters and Setters
+    // //////////////////////////////////////
+
+    public SeriesNode getNode() {
+        return node;
+    }
+
+    public int[] getWindows() {
+        return windows.clone();
+    }
+
+}
@@ -0,0 +1,180 @@
+package ny2.ats.indicator.graph;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+
+import ny2.ats.core.common.Symbol;
+import ny2.ats.core.exception.ATSRuntimeException;
+import ny2.ats.indicator.calc.RangeExtremumIndex;
+import ny2.ats.indicator.calc.RollingEMA;
+import ny2.ats.indicator.calc.RollingExtremes;
+import ny2.ats.indicator.calc.RollingGainLoss;
+import ny2.ats.indicator.calc.RollingLinearRegression;
+import ny2.ats.indicator.calc.RollingMACD;
+import ny2.ats.indicator.calc.RollingMoments;
+import ny2.ats.indicator.calc.RollingRankCorrelation;
+import ny2.ats.indicator.calc.SeriesCalculator;
+import ny2.ats.indicator.impl.OHLC;
+import ny2.ats.indicator.indicators.OHLCIndicator.OHLCType;
+
+/**
+ * 複数のIndicatorで共有する中間結果(グラフのノード)を表すenumです。<br>
+ * 各ノードは入力となるOHLCの列と、必要な期間から計算クラスを作成する方法を宣言します。
+ * 他のノードの計算結果を使用するノードは、入力ノード(source)とその期間も宣言します。入力ノードは必ず先に宣言するため、
+ * 宣言順(ordinal順)に更新すれば依存関係を満たします。<br>
+ * Indicator側は IndicatorType に入力ノードと期間を宣言し、IndicatorGraph が必要なノードのみを作成します。
+ */
+public enum SeriesNode {
+
+    // 移動統計(平均, 標準偏差)
+    CLOSE_MOMENTS(OHLCType.CLOSE, (windows, symbol) -> new RollingMoments(windows)),
+    // 直近N期間の最大・最小
+    CLOSE_EXTREMES(OHLCType.CLOSE, (windows, symbol) -> new RollingExtremes(windows)),
+    // 指数平滑移動平均
+    CLOSE_EMA(OHLCType.CLOSE, (windows, symbol) -> new RollingEMA(symbol::roundSubPips, windows)),
+    // 順位相関
+    CLOSE_RANK_CORRELATION(OHLCType.CLOSE, (windows, symbol) -> new RollingRankCorrelation(windows)),
+    // 線形回帰
+    CLOSE_REGRESSION(OHLCType.CLOSE, (windows, symbol) -> new RollingLinearRegression(windows)),
+    // 上昇幅・下落幅
+    CLOSE_GAIN_LOSS(OHLCType.CLOSE, (windows, symbol) -> new RollingGainLoss(windows)),
+    // MACDとTrigger。期間は (短期, 長期, Trigger) の組で、短期・長期のEMAは CLOSE_EMA を使用する
+    CLOSE_MACD(OHLCType.CLOSE, CLOSE_EMA, RollingMACD.WINDOW_ARITY, RollingMACD::toEMAWindows,
+            (windows, symbol, source) -> new RollingMACD((RollingEMA) source, symbol::roundSubPips, windows)),
+    // highの区間最大値(最大の期間を保持件数とする)
+    HIGH_RANGE(OHLCType.HIGH, (windows, symbol) -> new RangeExtremumIndex(Arrays.stream(windows).max().getAsInt(), true)),
+    // lowの区間最小値(最大の期間を保持件数とする)
+    LOW_RANGE(OHLCType.LOW, (windows, symbol) -> new RangeExtremumIndex(Arrays.stream(windows).max().getAsInt(), false));
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** 入力となるOHLCの列 */
+    private final OHLCType input;
+
+    /** 入力ノード。OHLCの列のみを入力とする場合は null */
+    private final SeriesNode source;
+
+    /** 期間の組の要素数。1 の場合は期間を重複なしの昇順で保持します */
+    private final int windowArity;
+
+    /** 期間から入力ノードに必要な期間を求める */
+    private final UnaryOperator<int[]> sourceWindows;
+
+    /** (期間, 通貨ペア, 入力ノードの計算クラス) から計算クラスを作成 */
+    private final CalculatorFactory factory;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    private SeriesNode(OHLCType input, BiFunction<int[], Symbol, SeriesCalculator> factory) {
+        this(input, null, 1, windows -> new int[0], (windows, symbol, source) -> factory.apply(windows, symbol));
+    }
+
+    private SeriesNode(OHLCType input, SeriesNode source, int windowArity, UnaryOperator<int[]> sourceWindows, CalculatorFactory factory) {
+        this.input = input;
+        this.source = source;
+        this.windowArity = windowArity;
+        this.sourceWindows = sourceWindows;
+        this.factory = factory;
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 計算クラスを作成します
+     *
+     * @param windows 必要な期間
+     * @param symbol
+     * @param sourceCalculator 入力ノードの計算クラス。入力ノードがない場合は null
+     * @return
+     */
+    public SeriesCalculator createCalculator(int[] windows, Symbol symbol, SeriesCalculator sourceCalculator) {
+        return factory.create(windows, symbol, sourceCalculator);
+    }
+
+    /**
+     * 期間から入力ノードに必要な期間を返します
+     *
+     * @param windows
+     * @return
+     */
+    public int[] getSourceWindows(int[] windows) {
+        return sourceWindows.apply(windows);
+    }
+
+    /**
+     * 同じノードへの入力の期間をまとめます
+     *
+     * @param windows
+     * @param other
+     * @return 重複を除いた期間。組でない場合は昇順
+     */
+    public int[] mergeWindows(int[] windows, int[] other) {
+        if (windowArity == 1) {
+            return IntStream.concat(Arrays.stream(windows), Arrays.stream(other)).distinct().sorted().toArray();
+        }
+        // 組の場合は宣言順を保って重複した組を除く
+        int[] merged = Arrays.copyOf(windows, windows.length + other.length);
+        int size = windows.length;
+        for (int i = 0; i < other.length; i += windowArity) {
+            boolean duplicated = false;
+            for (int j = 0; j < size && !duplicated; j += windowArity) {
+                duplicated = Arrays.equals(Arrays.copyOfRange(merged, j, j + windowArity), Arrays.copyOfRange(other, i, i + windowArity));
+            }
+            if (!duplicated) {
+                System.arraycopy(other, i, merged, size, windowArity);
+                size += windowArity;
+            }
+        }
+        return Arrays.copyOf(merged, size);
+    }
+
+    /**
+     * OHLCから入力値を取り出します
+     *
+     * @param ohlc
+     * @return
+     */
+    public double getInputValue(OHLC ohlc) {
+        switch (input) {
+            case OPEN:
+                return ohlc.getOpen();
+            case HIGH:
+                return ohlc.getHigh();
+            case LOW:
+                return ohlc.getLow();
+            case CLOSE:
+                return ohlc.getClose();
+            default:
+                throw new ATSRuntimeException("Unsupported input. " + input);
+        }
+    }
+
+    public OHLCType getInput() {
+        return input;
+    }
+
+    public SeriesNode getSource() {
+        return source;
+    }
+
+    // //////////////////////////////////////
+    // Inner Class
+    // //////////////////////////////////////
+
+    /**
+     * 計算クラスを作成する関数です
+     */
+    @FunctionalInterface
+    private interface CalculatorFactory {
+        SeriesCalculator create(int[] windows, Symbol symbol, SeriesCalculator sourceCalculator);
+    }
+
+}
@@ -0,0 +1,102 @@
+package ny2.ats.indicator.graph;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import ny2.ats.core.common.Symbol;
+import ny2.ats.core.exception.ATSRuntimeException;
+import ny2.ats.indicator.calc.SeriesCalculator;
+import ny2.ats.indicator.impl.OHLC;
+
+/**
+ * 1つの (Symbol, Period) の共有ノードの計算クラスを保持します。OHLCIndicator が保持し、足ごとに1回だけ各ノードを更新します。<br>
+ * 同期化していないため、1つのThreadから更新してください。
+ */
+public class SeriesNodeSet {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** ノードの計算クラス(IndicatorGraph で決めた順) */
+    private final Map<SeriesNode, SeriesCalculator> calculatorMap = new EnumMap<>(SeriesNode.class);
+
+    /** 更新順のノード */
+    private final SeriesNode[] nodes;
+
+    /** 更新順の計算クラス */
+    private final SeriesCalculator[] calculators;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    /**
+     * @param nodeWindows 作成するノードと期間(更新順。入力ノードが先)
+     * @param symbol
+     */
+    SeriesNodeSet(Map<SeriesNode, int[]> nodeWindows, Symbol symbol) {
+        this.nodes = new SeriesNode[nodeWindows.size()];
+        this.calculators = new SeriesCalculator[nodeWindows.size()];
+        int i = 0;
+        for (Entry<SeriesNode, int[]> entry : nodeWindows.entrySet()) {
+            SeriesNode source = entry.getKey().getSource();
+            SeriesCalculator calculator = entry.getKey().createCalculator(entry.getValue(), symbol, source == null ? null : calculatorMap.get(source));
+            calculatorMap.put(entry.getKey(), calculator);
+            nodes[i] = entry.getKey();
+            calculators[i] = calculator;
+            i++;
+        }
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 確定したOHLCで全てのノードを更新します
+     *
+     * @param ohlc
+     */
+    public void add(OHLC ohlc) {
+        for (int i = 0; i < nodes.length; i++) {
+            calculators[i].add(nodes[i].getInputValue(ohlc));
+        }
+    }
+
+    /**
+     * 全てのノードの値を破棄します
+     */
+    public void clear() {
+        for (SeriesCalculator calculator : calculators) {
+            calculator.clear();
+        }
+    }
+
+    /**
+     * ノードが作成されているかを返します
+     *
+     * @param node
+     * @return
+     */
+    public boolean contains(SeriesNode node) {
+        return calculatorMap.containsKey(node);
+    }
+
+    /**
+     * ノードの計算クラスを返します
+     *
+     * @param node
+     * @param calculatorClass
+     * @return
+     */
+    public <C extends SeriesCalculator> C get(SeriesNode node, Class<C> calculatorClass) {
+        SeriesCalculator calculator = calculatorMap.get(node);
+        if (calculator == null) {
+            throw new ATSRuntimeException("Series node is not created. No indicator declares it as input. node = " + node);
+        }
+        return calculatorClass.cast(calculator);
+    }
+
+}
@@ -1,6 +1,7 @@
 package ny2.ats.indicator.impl;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
@@ -8,7 +9,12 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
 
 import javax.annotation.PostConstruct;
 
@@ -22,23 +28,19 @@ import ny2.ats.core.common.Period;
 import ny2.ats.core.common.Symbol;
 import ny2.ats.core.data.MarketData;
 import ny2.ats.core.data.TimerInformation;
+import ny2.ats.core.exception.ATSRuntimeException;
+import ny2.ats.core.thread.ExecutorRegistry;
+import ny2.ats.core.thread.ShutdownPhase;
+import ny2.ats.core.thread.WaitStrategy;
 import ny2.ats.indicator.IIndicatorDataHolder;
 import ny2.ats.indicator.IIndicatorManager;
 import ny2.ats.indicator.Indicator;
 import ny2.ats.indicator.IndicatorProcessor;
 import ny2.ats.indicator.IndicatorType;
-import ny2.ats.indicator.indicators.BollingerBandEMAIndicator;
-import ny2.ats.indicator.indicators.BollingerBandIndicator;
-import ny2.ats.indicator.indicators.ExponentialMovingAverageIndicator;
-import ny2.ats.indicator.indicators.IchimokuIndicator;
-import ny2.ats.indicator.indicators.LinearRegressionIndicator;
-import ny2.ats.indicator.indicators.MACDIndicator;
-import ny2.ats.indicator.indicators.MovingAverageIndicator;
+import ny2.ats.indicator.graph.IndicatorGraph;
 import ny2.ats.indicator.indicators.OHLCIndicator;
-import ny2.ats.indicator.indicators.PriceRangeIndicator;
 import ny2.ats.indicator.indicators.RSIIndicator;
-import ny2.ats.indicator.indicators.RankCorrelationIndexIndicator;
-import ny2.ats.indicator.indicators.StochasticsIndicator;
+import ny2.ats.indicator.indicators.RSIIndicator.RSIMode;
 import ny2.ats.indicator.processor.BollingerBandEMAProcessor;
 import ny2.ats.indicator.processor.BollingerBandProcessor;
 import ny2.ats.indicator.processor.ExponentialMovingAverageProcessor;
@@ -64,6 +66,9 @@ public class IndicatorDataHolderImpl implements IIndicatorDataHolder {
     @Autowired
     private IIndicatorManager indicatorManager;
 
+    @Autowired
+    private ExecutorRegistry executorRegistry;
+
     /** Indicator作成対象Symbol */
     @Value("#{T(ny2.ats.core.common.Symbol).valueOfStringArray('${indicator.dataholder.symbols}'.split(','))}")
     private Set<Symbol> indicatorSymbols;
@@ -80,6 +85,29 @@ public class IndicatorDataHolderImpl implements IIndicatorDataHolder {
     @Value("#{T(ny2.ats.core.common.Period).valueOfStringArray('${indicator.dataholder.periodticks}'.split(','))}")
     private Set<Period> indicatorPeriodTicks;
 
+    /** RSIの計算方法 */
+    @Value("${indicator.dataholder.rsimode:SIMPLE}")
+    private RSIMode rsiMode;
+
+    /** Indicatorデータ保持日数(0以下の場合は上限なし) */
+    @Value("${indicator.dataholder.holddays:0}")
+    private int holdDays;
+
+    /** 足の確定時に通貨ペアごとのIndicator計算を並列に行うか */
+    @Value("${indicator.dataholder.parallel:false}")
+    private boolean parallelUpdate;
+
+    /** Indicator計算Threadの待機方法 (BLOCKING/YIELDING/SPIN_PARK/BUSY_SPIN) */
+    @Value("${thread.wait.indicator:BLOCKING}")
+    private WaitStrategy indicatorWaitStrategy;
+
+    /** Indicator計算のThread数 (並列計算時のみ。executor.threads の設定が優先) */
+    @Value("${indicator.dataholder.threads:4}")
+    private int indicatorThreads;
+
+    /** Indicator計算用のExecutor (並列計算時のみ) */
+    private ExecutorService indicatorExecutor;
+
     /** Indicator作成の最小期間 */
     private Period shortestTimePeriod;
 
@@ -117,6 +145,12 @@ public class IndicatorDataHolderImpl implements IIndicatorDataHolder {
     private void init() {
         // logger.info("PostConstruct instance.");
         // initializeDefault();
+
+        // Indicator計算用Executor
+        if (parallelUpdate) {
+            indicatorExecutor = executorRegistry.createThreadPool(IndicatorDataHolderImpl.class.getSimpleName() + "-Calc", indicatorThreads, indicatorWaitStrategy, ShutdownPhase.PROCESSOR);
+        }
+        logger.info("Indicator parallel update = {}, WaitStrategy = {}", parallelUpdate, indicatorWaitStrategy);
     }
 
     @Override
@@ -139,6 +173,10 @@ public class IndicatorDataHolderImpl implements IIndicatorDataHolder {
 
     @Override
     public void initialize() {
+        // データ保持日数(Indicator作成前に設定する)
+        Indicator.setHoldDays(holdDays);
+        logger.info("Indicator data hold days = {}", holdDays);
+
         // 最小更新間隔
         this.shortestTimePeriod = Period.getShortestPeriod(indicatorPeriodTimes);
 
@@ -152,6 +190,11 @@ public class IndicatorDataHolderImpl implements IIndicatorDataHolder {
             this.latestOHLCMap.put(symbol, new OHLCLatestMap(symbol, indicatorPeriodTimes, indicatorPeriodTicks));
         }
 
+        // Indicatorと共有ノードの依存関係(OHLCIndicator作成前に設定する)
+        IndicatorGraph indicatorGraph = new IndicatorGraph(indicatorTypes);
+        OHLCIndicator.setIndicatorGraph(indicatorGraph);
+        logger.info("Indicator graph : {}", indicatorGraph);
+
         // Indicator OHLC
         // this.ohlcMap = new IndicatorDataMap<OHLCIndicator>(IndicatorType.OHLC, indicatorSymbols, indicatorPeriodAll);
         indicatorTypes.add(IndicatorType.OHLC);
@@ -160,7 +203,7 @@ public class IndicatorDataHolderImpl implements IIndicatorDataHolder {
         }
 
         // Indicatorデータ初期化
-        initializeMap(indicatorSymbols, indicatorTypes, indicatorPeriodAll);
+        initializeMap(indicatorSymbols, indicatorPeriodAll);
 
         // 更新時刻Map
         for (Period period : indicatorPeriodTimes) {
@@ -169,102 +212,43 @@ public class IndicatorDataHolderImpl implements IIndicatorDataHolder {
     }
 
     /**
-     * IndicatorProcessor、indicatorDataMap初期化を行います。
+     * IndicatorProcessor、indicatorDataMap初期化を行います。<br>
+     * 各Indicatorの入力(共有ノード)は IndicatorType に宣言し、ここでは Processor の作成方法のみを登録します。
+     * Processor は IndicatorType の定義順に計算します。
      */
-    private void initializeMap(Set<Symbol> symbols, Set<IndicatorType> indicatorTypes, Set<Period> indicatorPeriodAll) {
-        // typeは使いまわす
-        IndicatorType type = null;
-
+    private void initializeMap(Set<Symbol> symbols, Set<Period> indicatorPeriodAll) {
         // OHLC(特別扱い)
         // type = IndicatorType.OHLC;
 
-        // MA
-        type = IndicatorType.MA;
-        if (indicatorTypes.contains(type)) {
-            IndicatorDataMap<MovingAverageIndicator> smaMap = new IndicatorDataMap<MovingAverageIndicator>(type, symbols, indicatorPeriodAll);
-            allIndicatorDataMap.put(type, smaMap);
-            allProcessorMap.put(type, new MovingAverageProcessor(ohlcMap, smaMap));
-        }
-
-        // EMA
-        type = IndicatorType.EMA;
-        if (indicatorTypes.contains(type)) {
-            IndicatorDataMap<ExponentialMovingAverageIndicator> emaMap = new IndicatorDataMap<ExponentialMovingAverageIndicator>(type, symbols, indicatorPeriodAll);
-            allIndicatorDataMap.put(type, emaMap);
-            allProcessorMap.put(type, new ExponentialMovingAverageProcessor(ohlcMap, emaMap));
-        }
-
-        // RSI
-        type = IndicatorType.RSI;
-        if (indicatorTypes.contains(type)) {
-            IndicatorDataMap<RSIIndicator> rsiMap = new IndicatorDataMap<RSIIndicator>(type, symbols, indicatorPeriodAll);
-            allIndicatorDataMap.put(type, rsiMap);
-            allProcessorMap.put(type, new RSIProcessor(ohlcMap, rsiMap));
-        }
-
-        // RCI (Rank Correlation Index)
-        type = IndicatorType.RCI;
-        if (indicatorTypes.contains(type)) {
-            IndicatorDataMap<RankCorrelationIndexIndicator> rciMap = new IndicatorDataMap<RankCorrelationIndexIndicator>(type, symbols, indicatorPeriodAll);
-            allIndicatorDataMap.put(type, rciMap);
-            allProcessorMap.put(type, new RankCorrelationIndexProcessor(ohlcMap, rciMap));
-        }
-
-        // MACD
-        type = IndicatorType.MACD;
-        if (indicatorTypes.contains(type)) {
-            IndicatorDataMap<MACDIndicator> macdMap = new IndicatorDataMap<MACDIndicator>(type, symbols, indicatorPeriodAll);
-            allIndicatorDataMap.put(type, macdMap);
-            allProcessorMap.put(type, new MACDProcessor(ohlcMap, macdMap));
-        }
-
-        // BOLLINGER
-        type = IndicatorType.BOLLINGER;
-        if (indicatorTypes.contains(type)) {
-            IndicatorDataMap<BollingerBandIndicator> bollingerMap = new IndicatorDataMap<BollingerBandIndicator>(type, symbols, indicatorPeriodAll);
-            allIndicatorDataMap.put(type, bollingerMap);
-            allProcessorMap.put(type, new BollingerBandProcessor(ohlcMap, bollingerMap));
-        }
-
-        // BOLLINGER EMA
-        type = IndicatorType.BOLLINGER_EMA;
-        if (indicatorTypes.contains(type)) {
-            IndicatorDataMap<BollingerBandEMAIndicator> bollingerEMAMap = new IndicatorDataMap<BollingerBandEMAIndicator>(type, symbols, indicatorPeriodAll);
-            allIndicatorDataMap.put(type, bollingerEMAMap);
-            allProcessorMap.put(type, new BollingerBandEMAProcessor(ohlcMap, bollingerEMAMap));
-        }
-
-        // STOCHASTIC FAST
-        type = IndicatorType.STOCHASTICS;
-        if (indicatorTypes.contains(type)) {
-            IndicatorDataMap<StochasticsIndicator> stochasticsMap = new IndicatorDataMap<StochasticsIndicator>(type, symbols, indicatorPeriodAll);
-            allIndicatorDataMap.put(type, stochasticsMap);
-            allProcessorMap.put(type, new StochasticsProcessor(ohlcMap, stochasticsMap));
-        }
-
-        // ICHIMOKU
-        type = IndicatorType.ICHIMOKU;
-        if (indicatorTypes.contains(type)) {
-            IndicatorDataMap<IchimokuIndicator> ichimokuMap = new IndicatorDataMap<IchimokuIndicator>(type, symbols, indicatorPeriodAll);
-            allIndicatorDataMap.put(type, ichimokuMap);
-            allProcessorMap.put(type, new IchimokuProcessor(ohlcMap, ichimokuMap));
-        }
-
-        // LIN_REG
-        type = IndicatorType.LINEAR_REG;
-        if (indicatorTypes.contains(type)) {
-            IndicatorDataMap<LinearRegressionIndicator> lrMap = new IndicatorDataMap<LinearRegressionIndicator>(type, symbols, indicatorPeriodAll);
-            allIndicatorDataMap.put(type, lrMap);
-            allProcessorMap.put(type, new LinearRegressionProcessor(ohlcMap, lrMap));
-        }
+        addIndicator(IndicatorType.MA, symbols, indicatorPeriodAll, MovingAverageProcessor::new);
+        addIndicator(IndicatorType.EMA, symbols, indicatorPeriodAll, ExponentialMovingAverageProcessor::new);
+        this.<RSIIndicator> addIndicator(IndicatorType.RSI, symbols, indicatorPeriodAll, (ohlcDataMap, rsiMap) -> new RSIProcessor(ohlcDataMap, rsiMap, rsiMode));
+        addIndicator(IndicatorType.RCI, symbols, indicatorPeriodAll, RankCorrelationIndexProcessor::new);
+        addIndicator(IndicatorType.MACD, symbols, indicatorPeriodAll, MACDProcessor::new);
+        addIndicator(IndicatorType.BOLLINGER, symbols, indicatorPeriodAll, BollingerBandProcessor::new);
+        addIndicator(IndicatorType.BOLLINGER_EMA, symbols, indicatorPeriodAll, BollingerBandEMAProcessor::new);
+        addIndicator(IndicatorType.STOCHASTICS, symbols, indicatorPeriodAll, StochasticsProcessor::new);
+        addIndicator(IndicatorType.ICHIMOKU, symbols, indicatorPeriodAll, IchimokuProcessor::new);
+        addIndicator(IndicatorType.LINEAR_REG, symbols, indicatorPeriodAll, LinearRegressionProcessor::new);
+        addIndicator(IndicatorType.PRICE_RANGE, symbols, indicatorPeriodAll, PriceRangeProcessor::new);
+    }
 
-        // PRICE_RANGE
-        type = IndicatorType.PRICE_RANGE;
-        if (indicatorTypes.contains(type)) {
-            IndicatorDataMap<PriceRangeIndicator> priceRangeMap = new IndicatorDataMap<PriceRangeIndicator>(type, symbols, indicatorPeriodAll);
-            allIndicatorDataMap.put(type, priceRangeMap);
-            allProcessorMap.put(type, new PriceRangeProcessor(ohlcMap, priceRangeMap));
+    /**
+     * 作成対象(indicatorTypes に含まれる)の場合、IndicatorDataMap と IndicatorProcessor を作成して登録します
+     *
+     * @param type
+     * @param symbols
+     * @param indicatorPeriodAll
+     * @param processorFactory (OHLCデータ, Indicatorデータ) から Processor を作成
+     */
+    private <I extends Indicator<?>> void addIndicator(IndicatorType type, Set<Symbol> symbols, Set<Period> indicatorPeriodAll,
+            BiFunction<IndicatorDataMap<OHLCIndicator>, IndicatorDataMap<I>, IndicatorProcessor<I, ?>> processorFactory) {
+        if (!indicatorTypes.contains(type)) {
+            return;
         }
+        IndicatorDataMap<I> indicatorMap = new IndicatorDataMap<I>(type, symbols, indicatorPeriodAll);
+        allIndicatorDataMap.put(type, indicatorMap);
+        allProcessorMap.put(type, processorFactory.apply(ohlcMap, indicatorMap));
     }
 
     // //////////////////////////////////////
@@ -309,6 +293,8 @@ public class IndicatorDataHolderImpl implements IIndicatorDataHolder {
         // Periodごとの更新時刻の更新
         lastUpdateTimeMap.put(period, baseDateTime);
 
+        // 更新対象のOHLC (通貨ペアの順序はlatestOHLCMapの順)
+        Map<Symbol, OHLC> updateOHLCMap = new EnumMap<>(Symbol.class);
         for (Symbol symbol : latestOHLCMap.keySet()) {
             // 最新データを次の期間に更新して、最新データ取得
             OHLC ohlc = latestOHLCMap.get(symbol).moveNextDateTime(period, nextDateTime);
@@ -328,9 +314,16 @@ public class IndicatorDataHolderImpl implements IIndicatorDataHolder {
                 }
                 ohlc.update(lastOHLC.getCloseBid(), lastOHLC.getCloseAsk());
             }
+            updateOHLCMap.put(symbol, ohlc);
+        }
 
-            // Notify to Indicators
-            updateOHLCAndIndicators(symbol, period, ohlc);
+        // Notify to Indicators
+        if (indicatorExecutor != null && updateOHLCMap.size() > 1) {
+            updateOHLCAndIndicatorsParallel(period, updateOHLCMap);
+        } else {
+            for (Entry<Symbol, OHLC> entry : updateOHLCMap.entrySet()) {
+                updateOHLCAndIndicators(entry.getKey(), period, entry.getValue());
+            }
         }
 
         // 更新待ち確認
@@ -351,6 +344,59 @@ public class IndicatorDataHolderImpl implements IIndicatorDataHolder {
      * @param ohlc
      */
     private void updateOHLCAndIndicators(Symbol symbol, Period period, OHLC ohlc) {
+        List<Indicator<?>> indicators = calculateOHLCAndIndicators(symbol, period, ohlc);
+        // Event送信
+        indicatorManager.sendIndicatorUpdate(symbol, period, indicators);
+    }
+
+    /**
+     * 通貨ペアごとのIndicator計算を並列に行い、全ての計算が終わってから通貨ペアの順にEventを送信します。<br>
+     * 計算は (Symbol, Period) ごとに独立しているため、1つの通貨ペアのIndicatorは1つのThreadで順に計算します。
+     * 計算に失敗した場合は、その通貨ペアより前のEventのみ送信します(逐次計算と同じ)。
+     * @param period
+     * @param updateOHLCMap
+     */
+    private void updateOHLCAndIndicatorsParallel(Period period, Map<Symbol, OHLC> updateOHLCMap) {
+        List<Callable<List<Indicator<?>>>> tasks = new ArrayList<>(updateOHLCMap.size());
+        for (Entry<Symbol, OHLC> entry : updateOHLCMap.entrySet()) {
+            Symbol symbol = entry.getKey();
+            OHLC ohlc = entry.getValue();
+            tasks.add(() -> calculateOHLCAndIndicators(symbol, period, ohlc));
+        }
+
+        // 全ての計算の完了を待つ
+        List<Future<List<Indicator<?>>>> futures;
+        try {
+            futures = indicatorExecutor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ATSRuntimeException("Interrupted while calculating indicators. Period = " + period, e);
+        }
+
+        // Event送信 (通貨ペアの順)
+        int i = 0;
+        for (Symbol symbol : updateOHLCMap.keySet()) {
+            List<Indicator<?>> indicators;
+            try {
+                indicators = futures.get(i++).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ATSRuntimeException("Interrupted while calculating indicators. Period = " + period, e);
+            } catch (ExecutionException e) {
+                throw new ATSRuntimeException("Failed to calculate indicators. Symbol = " + symbol + ", Period = " + period, e.getCause());
+            }
+            indicatorManager.sendIndicatorUpdate(symbol, period, indicators);
+        }
+    }
+
+    /**
+     * OHLCを追加して全てのIndicatorを計算し、Event送信対象のIndicatorを返します。
+     * @param symbol
+     * @param period
+     * @param ohlc
+     * @return OHLCと計算したIndicator
+     */
+    private List<Indicator<?>> calculateOHLCAndIndicators(Symbol symbol, Period period, OHLC ohlc) {
         // Firstly, Update OHLC
         // Round OHLC values, then add DataMap.
         ohlc.roundAll();
@@ -366,25 +412,19 @@ public class IndicatorDataHolderImpl implements IIndicatorDataHolder {
             // Indicator計算
             entry.getValue().updateOHLC(ohlc);
         }
-//        // Indicatorをparallel計算 - indicatorが10個くらいなら不要
-//        allProcessorMap.entrySet().parallelStream()
-//                // Tickは対象Indicatorのみ
-//                .filter(e -> !period.isTickPeriod() || IndicatorType.INDICATOR_FOR_TICK.contains(e.getKey()))
-//                .forEach(e -> e.getValue().updateOHLC(ohlc));
 
-
-        // すべてのIndicatorを計算してからEvent送信する
-        // Send event (OHLC)
-        indicatorManager.sendIndicatorUpdate(ohlcIndicator);
-        // Send event (indicators)
+        // すべてのIndicatorを計算してから足ごとに1回Event送信する
+        List<Indicator<?>> indicators = new ArrayList<>(allIndicatorDataMap.size() + 1);
+        // OHLC
+        indicators.add(ohlcIndicator);
+        // indicators
         for (IndicatorDataMap<?> datalMap : allIndicatorDataMap.values()) {
             if (period.isTickPeriod() && !IndicatorType.INDICATOR_FOR_TICK.contains(datalMap.getType())) {
                 continue;
             }
-            // Event送信
-            Indicator<?> indicator = datalMap.getSymbolMap(symbol).getIndicator(period);
-            indicatorManager.sendIndicatorUpdate(indicator);
+            indicators.add(datalMap.getSymbolMap(symbol).getIndicator(period));
         }
+        return indicators;
     }
 
     /**
@@ -471,6 +511,11 @@ public class IndicatorDataHolderImpl implements IIndicatorDataHolder {
         return allProcessorMap;
     }
 
+    @Override
+    public void setHoldDays(int holdDays) {
+        this.holdDays = holdDays;
+    }
+
     public Set<Symbol> getIndicatorSymbols() {
         return indicatorSymbols;
     }
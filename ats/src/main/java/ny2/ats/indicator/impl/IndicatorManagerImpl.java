@@ -1,5 +1,6 @@
 package ny2.ats.indicator.impl;
 
+import java.util.List;
 import java.util.UUID;
 
 import javax.annotation.PostConstruct;
@@ -18,12 +19,13 @@ import org.springframework.stereotype.Service;
 import ny2.ats.core.common.BidAsk;
 import ny2.ats.core.common.Period;
 import ny2.ats.core.common.Symbol;
-import ny2.ats.core.data.IndicatorInformation;
+import ny2.ats.core.data.IndicatorBarInformation;
 import ny2.ats.core.data.MarketData;
 import ny2.ats.core.event.EventType;
 import ny2.ats.core.event.IndicatorUpdateEvent;
 import ny2.ats.core.event.MarketUpdateEvent;
 import ny2.ats.core.event.TimerInformationEvent;
+import ny2.ats.core.router.EventSubscription;
 import ny2.ats.core.router.IEventRouter;
 import ny2.ats.core.util.ExceptionUtility;
 import ny2.ats.indicator.IIndicatorDataHolder;
@@ -73,8 +75,8 @@ public class IndicatorManagerImpl implements IIndicatorManager {
     private void init() {
         logger.info("PostConstruct instance.");
 
-        // listener登録
-        eventRouter.registerListener(EventType.MARKET_UPDATE, this);
+        // listener登録 (MarketUpdateは対象Marketのみ購読)
+        eventRouter.registerListener(EventType.MARKET_UPDATE, this, EventSubscription.ofMarketTypes(indicatorMarketType));
         eventRouter.registerListener(EventType.TIMER_INFORMATION, this);
 
         // info
@@ -87,6 +89,30 @@ public class IndicatorManagerImpl implements IIndicatorManager {
     // Method @Override
     // //////////////////////////////////////
 
+    /**
+     * OHLC作成のため全Tickを受信する
+     */
+    @Override
+    public boolean isConflatedMarketUpdateAcceptable() {
+        return false;
+    }
+
+    /**
+     * 起動時にJournalからOHLCを再計算する
+     */
+    @Override
+    public boolean isJournalReplayTarget() {
+        return true;
+    }
+
+    /**
+     * MarketUpdate では対象SymbolのOHLC, Indicatorのみを更新する
+     */
+    @Override
+    public boolean isSymbolPartitionable() {
+        return true;
+    }
+
     @Override
     public void onEvent(MarketUpdateEvent event) {
         MarketData marketData = event.getContent();
@@ -103,9 +129,9 @@ public class IndicatorManagerImpl implements IIndicatorManager {
     }
 
     @Override
-    public void sendIndicatorUpdate(Indicator<?> indicator) {
-        IndicatorInformation indicatorInformation = new IndicatorInformation(indicator);
-        IndicatorUpdateEvent event = new IndicatorUpdateEvent(uuid, getClass(), indicatorInformation);
+    public void sendIndicatorUpdate(Symbol symbol, Period period, List<Indicator<?>> indicators) {
+        IndicatorBarInformation indicatorBarInformation = new IndicatorBarInformation(symbol, period, indicators);
+        IndicatorUpdateEvent event = new IndicatorUpdateEvent(uuid, getClass(), indicatorBarInformation);
         eventRouter.addEvent(event);
     }
 
@@ -58,7 +58,7 @@ public class BollingerBandIndicator extends SimpleIndicator<BollingerPeriod> {
     protected void initializeMap() {
         // valueMap初期化
         for (BollingerPeriod calcPeriod : BollingerPeriod.values()) {
-            valueMap.put(calcPeriod, new ArrayList<>());
+            valueMap.put(calcPeriod, series.createDoubleColumn());
         }
     }
 
@@ -68,9 +68,9 @@ public class BollingerBandIndicator extends SimpleIndicator<BollingerPeriod> {
     private void initializeMapForBollinger() {
         // valueMap初期化
         for (BollingerPeriod calcPeriod : BollingerPeriod.values()) {
-            sigmaMap.put(calcPeriod, new ArrayList<>());
-            plusMap.put(calcPeriod, new ArrayList<>());
-            minusMap.put(calcPeriod, new ArrayList<>());
+            sigmaMap.put(calcPeriod, series.createDoubleColumn());
+            plusMap.put(calcPeriod, series.createDoubleColumn());
+            minusMap.put(calcPeriod, series.createDoubleColumn());
         }
     }
 
@@ -166,16 +166,7 @@ public class BollingerBandIndicator extends SimpleIndicator<BollingerPeriod> {
 
     @Override
     protected void reduceDatAdditionalItems(int holdDays, int remainFromIndex) {
-        // 追加は sigmaMap, plusMap, minusMap
-        for (List<Double> list : sigmaMap.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
-        for (List<Double> list : plusMap.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
-        for (List<Double> list : minusMap.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
+        // 各データ列は series で削除済み
     };
 
     // //////////////////////////////////////
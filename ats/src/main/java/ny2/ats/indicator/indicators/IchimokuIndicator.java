@@ -55,7 +55,7 @@ public class IchimokuIndicator extends SimpleIndicator<IchimokuPeriod> {
     protected void initializeMap() {
         // valueMap初期化
         for (IchimokuPeriod calcPeriod : IchimokuPeriod.values()) {
-            valueMap.put(calcPeriod, new ArrayList<>());
+            valueMap.put(calcPeriod, series.createDoubleColumn());
         }
     }
 
@@ -65,11 +65,11 @@ public class IchimokuIndicator extends SimpleIndicator<IchimokuPeriod> {
     private void initializeMapForIchimoku() {
         // valueMap初期化
         for (IchimokuPeriod calcPeriod : IchimokuPeriod.values()) {
-            tenkanMap.put(calcPeriod, new ArrayList<>());
+            tenkanMap.put(calcPeriod, series.createDoubleColumn());
             // kijunMap.put(calcPeriod, new ArrayList<>());
-            senkou1Map.put(calcPeriod, new ArrayList<>());
-            senkou2Map.put(calcPeriod, new ArrayList<>());
-            chikouMap.put(calcPeriod, new ArrayList<>());
+            senkou1Map.put(calcPeriod, series.createDoubleColumn());
+            senkou2Map.put(calcPeriod, series.createDoubleColumn());
+            chikouMap.put(calcPeriod, series.createDoubleColumn());
         }
     }
 
@@ -175,19 +175,7 @@ public class IchimokuIndicator extends SimpleIndicator<IchimokuPeriod> {
 
     @Override
     protected void reduceDatAdditionalItems(int holdDays, int remainFromIndex) {
-        // 追加は tenkanMap, senkou1Map, senkou2Map, chikouMap
-        for (List<Double> list : tenkanMap.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
-        for (List<Double> list : senkou1Map.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
-        for (List<Double> list : senkou2Map.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
-        for (List<Double> list : chikouMap.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
+        // 各データ列は series で削除済み
     };
 
     // //////////////////////////////////////
@@ -48,7 +48,7 @@ public class LinearRegressionIndicator extends SimpleIndicator<LRPeriod> {
     protected void initializeMap() {
         // valueMap初期化
         for (LRPeriod lrPeriod : LRPeriod.values()) {
-            valueMap.put(lrPeriod, new ArrayList<>());
+            valueMap.put(lrPeriod, series.createDoubleColumn());
         }
     }
 
@@ -58,7 +58,7 @@ public class LinearRegressionIndicator extends SimpleIndicator<LRPeriod> {
     private void initializeMapForLR() {
         // valueMap初期化
         for (LRPeriod lrPeriod : LRPeriod.values()) {
-            currentInterceptMap.put(lrPeriod, new ArrayList<>());
+            currentInterceptMap.put(lrPeriod, series.createDoubleColumn());
         }
     }
 
@@ -129,10 +129,7 @@ public class LinearRegressionIndicator extends SimpleIndicator<LRPeriod> {
 
     @Override
     protected void reduceDatAdditionalItems(int holdDays, int remainFromIndex) {
-        // 追加は currentInterceptMap
-        for (List<Double> list : currentInterceptMap.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
+        // 各データ列は series で削除済み
     };
 
     // //////////////////////////////////////
@@ -53,7 +53,7 @@ public class MACDIndicator extends SimpleIndicator<MACDPeriod> {
     protected void initializeMap() {
         // valueMap初期化
         for (MACDPeriod macdPeriod : MACDPeriod.values()) {
-            valueMap.put(macdPeriod, new ArrayList<>());
+            valueMap.put(macdPeriod, series.createDoubleColumn());
         }
     }
 
@@ -64,9 +64,9 @@ public class MACDIndicator extends SimpleIndicator<MACDPeriod> {
         // valueMap初期化
         for (MACDPeriod macdPeriod : MACDPeriod.values()) {
             // macdMap
-            shortMap.put(macdPeriod, new ArrayList<>());
-            longMap.put(macdPeriod, new ArrayList<>());
-            triggertMap.put(macdPeriod, new ArrayList<>());
+            shortMap.put(macdPeriod, series.createDoubleColumn());
+            longMap.put(macdPeriod, series.createDoubleColumn());
+            triggertMap.put(macdPeriod, series.createDoubleColumn());
         }
     }
 
@@ -156,16 +156,7 @@ public class MACDIndicator extends SimpleIndicator<MACDPeriod> {
 
     @Override
     protected void reduceDatAdditionalItems(int holdDays, int remainFromIndex) {
-        // 追加は shortMap, longMap, triggertMap
-        for (List<Double> list : shortMap.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
-        for (List<Double> list : longMap.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
-        for (List<Double> list : triggertMap.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
+        // 各データ列は series で削除済み
     };
 
     // //////////////////////////////////////
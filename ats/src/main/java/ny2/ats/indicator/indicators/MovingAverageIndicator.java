@@ -1,7 +1,5 @@
 package ny2.ats.indicator.indicators;
 
-import java.util.ArrayList;
-
 import ny2.ats.core.common.Period;
 import ny2.ats.core.common.Symbol;
 import ny2.ats.indicator.CalcPeriod;
@@ -35,7 +33,7 @@ public class MovingAverageIndicator extends SimpleIndicator<MAPeriod> {
     protected void initializeMap() {
         // valueMap初期化
         for (MAPeriod maPeriod : MAPeriod.values()) {
-            valueMap.put(maPeriod, new ArrayList<>());
+            valueMap.put(maPeriod, series.createDoubleColumn());
         }
     }
 
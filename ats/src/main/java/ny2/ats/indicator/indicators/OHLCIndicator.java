@@ -12,8 +12,20 @@ import ny2.ats.core.exception.ATSRuntimeException;
 import ny2.ats.core.util.CollectionUtility;
 import ny2.ats.indicator.CalcPeriod;
 import ny2.ats.indicator.IndicatorType;
+import ny2.ats.indicator.calc.RangeExtremumIndex;
+import ny2.ats.indicator.calc.RollingEMA;
+import ny2.ats.indicator.calc.RollingExtremes;
+import ny2.ats.indicator.calc.RollingGainLoss;
+import ny2.ats.indicator.calc.RollingLinearRegression;
+import ny2.ats.indicator.calc.RollingMACD;
+import ny2.ats.indicator.calc.RollingMoments;
+import ny2.ats.indicator.calc.RollingRankCorrelation;
+import ny2.ats.indicator.graph.IndicatorGraph;
+import ny2.ats.indicator.graph.SeriesNode;
+import ny2.ats.indicator.graph.SeriesNodeSet;
 import ny2.ats.indicator.impl.OHLC;
 import ny2.ats.indicator.indicators.OHLCIndicator.OHLCType;
+import ny2.ats.indicator.series.DoubleColumn;
 
 /**
  * Indicator用のOHLCのクラスです
@@ -28,19 +40,25 @@ public class OHLCIndicator extends SimpleIndicator<OHLCType> {
     // valueMap にはOHLCをそれぞれ入れる
 
     /** OHLC列 */
-    private final List<OHLC> ohlcList = new ArrayList<>();
+    private final List<OHLC> ohlcList = series.createObjectColumn();
 
     /** openデータ列 */
-    private final List<Double> openList = new ArrayList<>();
+    private final DoubleColumn openList = series.createDoubleColumn();
 
     /** highデータ列 */
-    private final List<Double> highList = new ArrayList<>();
+    private final DoubleColumn highList = series.createDoubleColumn();
 
     /** lowデータ列 */
-    private final List<Double> lowList = new ArrayList<>();
+    private final DoubleColumn lowList = series.createDoubleColumn();
 
     /** closeデータ列 */
-    private final List<Double> closeList = new ArrayList<>();
+    private final DoubleColumn closeList = series.createDoubleColumn();
+
+    /** Indicatorと共有ノードの依存関係。OHLCIndicator作成前に設定します */
+    private static volatile IndicatorGraph indicatorGraph = IndicatorGraph.all();
+
+    /** 共有ノード(移動統計, 最大・最小, EMA 等)。作成対象のIndicatorが入力とするノードのみ保持し、各Processorで共有します */
+    private final SeriesNodeSet seriesNodes;
 
     // //////////////////////////////////////
     // Constructor
@@ -48,6 +66,7 @@ public class OHLCIndicator extends SimpleIndicator<OHLCType> {
 
     public OHLCIndicator(IndicatorType type, Symbol symbol, Period period) {
         super(OHLCIndicator.class, type, symbol, period);
+        this.seriesNodes = indicatorGraph.createNodeSet(symbol, period);
         initializeMapForOHLC();
     }
 
@@ -124,12 +143,13 @@ public class OHLCIndicator extends SimpleIndicator<OHLCType> {
         highList.add(ohlc.getHigh());
         lowList.add(ohlc.getLow());
         closeList.add(ohlc.getClose());
+        // 共有ノードを更新
+        seriesNodes.add(ohlc);
     }
 
     @Override
     protected void reduceDatAdditionalItems(int holdDays, int remainFromIndex) {
-        // ohlcList のみ追加リスト
-        CollectionUtility.removeHeadIndex(ohlcList, remainFromIndex);
+        // 各データ列は series で削除済み
     };
 
     // //////////////////////////////////////
@@ -192,6 +212,15 @@ public class OHLCIndicator extends SimpleIndicator<OHLCType> {
         }
     }
 
+    /**
+     * Indicatorと共有ノードの依存関係を設定します。設定後に作成した OHLCIndicator は、作成対象のIndicatorが入力とするノードのみ保持します
+     *
+     * @param graph
+     */
+    public static void setIndicatorGraph(IndicatorGraph graph) {
+        indicatorGraph = graph;
+    }
+
     // //////////////////////////////////////
     // Getters and Setters
     // //////////////////////////////////////
@@ -200,22 +229,62 @@ public class OHLCIndicator extends SimpleIndicator<OHLCType> {
         return ohlcList;
     }
 
-    public List<Double> getOpenList() {
+    public DoubleColumn getOpenList() {
         return openList;
     }
 
-    public List<Double> getHighList() {
+    public DoubleColumn getHighList() {
         return highList;
     }
 
-    public List<Double> getLowList() {
+    public DoubleColumn getLowList() {
         return lowList;
     }
 
-    public List<Double> getCloseList() {
+    public DoubleColumn getCloseList() {
         return closeList;
     }
 
+    public RollingMoments getCloseMoments() {
+        return seriesNodes.get(SeriesNode.CLOSE_MOMENTS, RollingMoments.class);
+    }
+
+    public RollingExtremes getCloseExtremes() {
+        return seriesNodes.get(SeriesNode.CLOSE_EXTREMES, RollingExtremes.class);
+    }
+
+    public RangeExtremumIndex getHighRangeIndex() {
+        return seriesNodes.get(SeriesNode.HIGH_RANGE, RangeExtremumIndex.class);
+    }
+
+    public RangeExtremumIndex getLowRangeIndex() {
+        return seriesNodes.get(SeriesNode.LOW_RANGE, RangeExtremumIndex.class);
+    }
+
+    public RollingRankCorrelation getCloseRankCorrelation() {
+        return seriesNodes.get(SeriesNode.CLOSE_RANK_CORRELATION, RollingRankCorrelation.class);
+    }
+
+    public RollingLinearRegression getCloseRegression() {
+        return seriesNodes.get(SeriesNode.CLOSE_REGRESSION, RollingLinearRegression.class);
+    }
+
+    public RollingGainLoss getCloseGainLoss() {
+        return seriesNodes.get(SeriesNode.CLOSE_GAIN_LOSS, RollingGainLoss.class);
+    }
+
+    public RollingEMA getCloseEMA() {
+        return seriesNodes.get(SeriesNode.CLOSE_EMA, RollingEMA.class);
+    }
+
+    public RollingMACD getCloseMACD() {
+        return seriesNodes.get(SeriesNode.CLOSE_MACD, RollingMACD.class);
+    }
+
+    public SeriesNodeSet getSeriesNodes() {
+        return seriesNodes;
+    }
+
     // //////////////////////////////////////
     // Inner Class
     // //////////////////////////////////////
@@ -10,10 +10,12 @@ import java.util.TreeMap;
 import ny2.ats.core.common.Period;
 import ny2.ats.core.common.Symbol;
 import ny2.ats.core.exception.ATSRuntimeException;
-import ny2.ats.core.util.CollectionUtility;
 import ny2.ats.indicator.CalcPeriod;
 import ny2.ats.indicator.IndicatorType;
 import ny2.ats.indicator.indicators.PriceRangeIndicator.PriceRangePeriod;
+import ny2.ats.indicator.series.BooleanColumn;
+import ny2.ats.indicator.series.DoubleColumn;
+import ny2.ats.indicator.series.IntColumn;
 
 /**
  * 価格レンジ(サポートライン)のIndicatorクラスです。
@@ -39,6 +41,13 @@ public class PriceRangeIndicator extends SimpleIndicator<PriceRangePeriod> {
     /** 下値サポート・トライ回数 データ列 */
     protected final SortedMap<PriceRangePeriod, List<Integer>> lowerSupportTrialMap = new TreeMap<>();
 
+    // 各Mapと同じデータ列をプリミティブ型で参照する(PriceRangePeriod.ordinal() で参照)
+    private final DoubleColumn[] upperSupportColumns = new DoubleColumn[PriceRangePeriod.values().length];
+    private final DoubleColumn[] lowerSupportColumns = new DoubleColumn[PriceRangePeriod.values().length];
+    private final BooleanColumn[] upperSupportValidColumns = new BooleanColumn[PriceRangePeriod.values().length];
+    private final BooleanColumn[] lowerSupportValidColumns = new BooleanColumn[PriceRangePeriod.values().length];
+    private final IntColumn[] upperSupportTrialColumns = new IntColumn[PriceRangePeriod.values().length];
+    private final IntColumn[] lowerSupportTrialColumns = new IntColumn[PriceRangePeriod.values().length];
 
     // //////////////////////////////////////
     // Constructor
@@ -49,12 +58,19 @@ public class PriceRangeIndicator extends SimpleIndicator<PriceRangePeriod> {
 
         // 各Map初期化
         for (PriceRangePeriod calcPeriod : PriceRangePeriod.values()) {
-            upperSupportMap.put(calcPeriod, new ArrayList<>());
-            lowerSupportMap.put(calcPeriod, new ArrayList<>());
-            upperSupportValidMap.put(calcPeriod, new ArrayList<>());
-            lowerSupportValidMap.put(calcPeriod, new ArrayList<>());
-            upperSupportTrialMap.put(calcPeriod, new ArrayList<>());
-            lowerSupportTrialMap.put(calcPeriod, new ArrayList<>());
+            int i = calcPeriod.ordinal();
+            upperSupportColumns[i] = series.createDoubleColumn();
+            lowerSupportColumns[i] = series.createDoubleColumn();
+            upperSupportValidColumns[i] = series.createBooleanColumn();
+            lowerSupportValidColumns[i] = series.createBooleanColumn();
+            upperSupportTrialColumns[i] = series.createIntColumn();
+            lowerSupportTrialColumns[i] = series.createIntColumn();
+            upperSupportMap.put(calcPeriod, upperSupportColumns[i]);
+            lowerSupportMap.put(calcPeriod, lowerSupportColumns[i]);
+            upperSupportValidMap.put(calcPeriod, upperSupportValidColumns[i]);
+            lowerSupportValidMap.put(calcPeriod, lowerSupportValidColumns[i]);
+            upperSupportTrialMap.put(calcPeriod, upperSupportTrialColumns[i]);
+            lowerSupportTrialMap.put(calcPeriod, lowerSupportTrialColumns[i]);
         }
     }
 
@@ -82,18 +98,11 @@ public class PriceRangeIndicator extends SimpleIndicator<PriceRangePeriod> {
         StringBuilder sb = new StringBuilder();
         for (PriceRangePeriod calcPeriod : valueMap.keySet()) {
             // 最後の値を取得
-            Double upper = CollectionUtility.getLast(upperSupportMap.get(calcPeriod));
-            Double lower = CollectionUtility.getLast(lowerSupportMap.get(calcPeriod));
-            Boolean upperValid = CollectionUtility.getLast(upperSupportValidMap.get(calcPeriod));
-            Boolean lowerValid = CollectionUtility.getLast(lowerSupportValidMap.get(calcPeriod));
-            Integer upperTrial = CollectionUtility.getLast(upperSupportTrialMap.get(calcPeriod));
-            Integer lowerTrial = CollectionUtility.getLast(lowerSupportTrialMap.get(calcPeriod));
-
             sb.append(calcPeriod.getName()).append(NAME_DELIMITER)
-                    .append(upper.toString()).append(VALUE_DELIMITER)
-                    .append(lower.toString()).append(VALUE_DELIMITER)
-                    .append(upperTrial.toString()).append(VALUE_DELIMITER)
-                    .append(lowerTrial.toString())
+                    .append(getLastUpperSupport(calcPeriod)).append(VALUE_DELIMITER)
+                    .append(getLastLowerSupport(calcPeriod)).append(VALUE_DELIMITER)
+                    .append(getLastUpperSupportTrial(calcPeriod)).append(VALUE_DELIMITER)
+                    .append(getLastLowerSupportTrial(calcPeriod))
                     .append(DATA_DELIMITER);
         }
         // Delete the last delimiter
@@ -112,12 +121,12 @@ public class PriceRangeIndicator extends SimpleIndicator<PriceRangePeriod> {
         Map<CalcPeriod, List<Double>> lastValueMap = new HashMap<>();
         for (PriceRangePeriod calcPeriod : PriceRangePeriod.values()) {
             List<Double> lastValueList = new ArrayList<>();
-            lastValueList.add(CollectionUtility.getLast(upperSupportMap.get(calcPeriod)));
-            lastValueList.add(CollectionUtility.getLast(lowerSupportMap.get(calcPeriod)));
-            lastValueList.add(CollectionUtility.getLast(upperSupportValidMap.get(calcPeriod)) ? 1.0 : 0.0);
-            lastValueList.add(CollectionUtility.getLast(lowerSupportValidMap.get(calcPeriod)) ? 1.0 : 0.0);
-            lastValueList.add(CollectionUtility.getLast(upperSupportTrialMap.get(calcPeriod)).doubleValue());
-            lastValueList.add(CollectionUtility.getLast(lowerSupportTrialMap.get(calcPeriod)).doubleValue());
+            lastValueList.add(getLastUpperSupport(calcPeriod));
+            lastValueList.add(getLastLowerSupport(calcPeriod));
+            lastValueList.add(getLastUpperSupportValid(calcPeriod) ? 1.0 : 0.0);
+            lastValueList.add(getLastLowerSupportValid(calcPeriod) ? 1.0 : 0.0);
+            lastValueList.add((double) getLastUpperSupportTrial(calcPeriod));
+            lastValueList.add((double) getLastLowerSupportTrial(calcPeriod));
             lastValueMap.put(calcPeriod, lastValueList);
         }
         return lastValueMap;
@@ -147,61 +156,54 @@ public class PriceRangeIndicator extends SimpleIndicator<PriceRangePeriod> {
      * @param upperTrial
      * @param lowerTrial
      */
-    public void addValueData(PriceRangePeriod calcPeriod, Double upperValue, Double lowerValue, Boolean upperValid, Boolean lowerValid, Integer upperTrial, Integer lowerTrial) {
+    public void addValueData(PriceRangePeriod calcPeriod, double upperValue, double lowerValue, boolean upperValid, boolean lowerValid, int upperTrial, int lowerTrial) {
+        int i = calcPeriod.ordinal();
         // support
-        upperSupportMap.get(calcPeriod).add(upperValue);
-        lowerSupportMap.get(calcPeriod).add(lowerValue);
+        upperSupportColumns[i].add(upperValue);
+        lowerSupportColumns[i].add(lowerValue);
 
         // validation
-        upperSupportValidMap.get(calcPeriod).add(upperValid);
-        lowerSupportValidMap.get(calcPeriod).add(lowerValid);
+        upperSupportValidColumns[i].add(upperValid);
+        lowerSupportValidColumns[i].add(lowerValid);
 
         // trial count
-        upperSupportTrialMap.get(calcPeriod).add(upperTrial);
-        lowerSupportTrialMap.get(calcPeriod).add(lowerTrial);
+        upperSupportTrialColumns[i].add(upperTrial);
+        lowerSupportTrialColumns[i].add(lowerTrial);
     }
 
     @Override
     protected void reduceDatAdditionalItems(int holdDays, int remainFromIndex) {
-        for (List<Double> list : upperSupportMap.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
-        for (List<Boolean> list : upperSupportValidMap.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
-        for (List<Boolean> list : lowerSupportValidMap.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
-        for (List<Integer> list : upperSupportTrialMap.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
-        for (List<Integer> list : lowerSupportTrialMap.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
+        // 各データ列は series で削除済み
     };
 
     // //////////////////////////////////////
     // Method
     // //////////////////////////////////////
 
-    // 各種最新値取得
-    public Double getLastUpperSupport(PriceRangePeriod calcPeriod) {
-        return CollectionUtility.getLast(upperSupportMap.get(calcPeriod));
+    // 各種最新値取得 (データが無い場合は NaN / false / 0)
+    public double getLastUpperSupport(PriceRangePeriod calcPeriod) {
+        DoubleColumn column = upperSupportColumns[calcPeriod.ordinal()];
+        return column.isEmpty() ? Double.NaN : column.getDouble(column.size() - 1);
     }
-    public Double getLastLowerSupport(PriceRangePeriod calcPeriod) {
-        return CollectionUtility.getLast(lowerSupportMap.get(calcPeriod));
+    public double getLastLowerSupport(PriceRangePeriod calcPeriod) {
+        DoubleColumn column = lowerSupportColumns[calcPeriod.ordinal()];
+        return column.isEmpty() ? Double.NaN : column.getDouble(column.size() - 1);
     }
-    public Boolean getLastUpperSupportValid(PriceRangePeriod calcPeriod) {
-        return CollectionUtility.getLast(upperSupportValidMap.get(calcPeriod));
+    public boolean getLastUpperSupportValid(PriceRangePeriod calcPeriod) {
+        BooleanColumn column = upperSupportValidColumns[calcPeriod.ordinal()];
+        return column.isEmpty() ? false : column.getBoolean(column.size() - 1);
     }
-    public Boolean getLastLowerSupportValid(PriceRangePeriod calcPeriod) {
-        return CollectionUtility.getLast(lowerSupportValidMap.get(calcPeriod));
+    public boolean getLastLowerSupportValid(PriceRangePeriod calcPeriod) {
+        BooleanColumn column = lowerSupportValidColumns[calcPeriod.ordinal()];
+        return column.isEmpty() ? false : column.getBoolean(column.size() - 1);
     }
-    public Integer getLastUpperSupportTrial(PriceRangePeriod calcPeriod) {
-        return CollectionUtility.getLast(upperSupportTrialMap.get(calcPeriod));
+    public int getLastUpperSupportTrial(PriceRangePeriod calcPeriod) {
+        IntColumn column = upperSupportTrialColumns[calcPeriod.ordinal()];
+        return column.isEmpty() ? 0 : column.getInt(column.size() - 1);
     }
-    public Integer getLastLowerSupportTrial(PriceRangePeriod calcPeriod) {
-        return CollectionUtility.getLast(lowerSupportTrialMap.get(calcPeriod));
+    public int getLastLowerSupportTrial(PriceRangePeriod calcPeriod) {
+        IntColumn column = lowerSupportTrialColumns[calcPeriod.ordinal()];
+        return column.isEmpty() ? 0 : column.getInt(column.size() - 1);
     }
 
     // 各種リスト取得
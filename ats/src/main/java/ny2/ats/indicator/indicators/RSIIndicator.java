@@ -1,7 +1,5 @@
 package ny2.ats.indicator.indicators;
 
-import java.util.ArrayList;
-
 import ny2.ats.core.common.Period;
 import ny2.ats.core.common.Symbol;
 import ny2.ats.indicator.CalcPeriod;
@@ -29,7 +27,7 @@ public class RSIIndicator extends SimpleIndicator<RSIPeriod> {
     protected void initializeMap() {
         // valueMap初期化
         for (RSIPeriod rsiPeriod : RSIPeriod.values()) {
-            valueMap.put(rsiPeriod, new ArrayList<>());
+            valueMap.put(rsiPeriod, series.createDoubleColumn());
         }
     }
 
@@ -59,6 +57,18 @@ public class RSIIndicator extends SimpleIndicator<RSIPeriod> {
     // Inner Class
     // //////////////////////////////////////
 
+    /**
+     * RSIの計算方法です
+     */
+    public enum RSIMode {
+        /** 直近N期間の上昇幅・下落幅の単純合計 (Cutler)。期間ごとに終値から再計算します */
+        SIMPLE,
+        /** SIMPLE と同じ単純合計を、終値の追加ごとに更新した合計から返します。誤差は再計算時に解消されますが、SIMPLE と完全には一致しません */
+        ROLLING,
+        /** 上昇幅・下落幅の Wilder 平滑化平均 */
+        WILDER;
+    }
+
     public enum RSIPeriod implements CalcPeriod {
         P09(9),
         P11(11),
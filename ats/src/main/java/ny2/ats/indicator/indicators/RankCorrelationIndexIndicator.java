@@ -1,7 +1,5 @@
 package ny2.ats.indicator.indicators;
 
-import java.util.ArrayList;
-
 import ny2.ats.core.common.Period;
 import ny2.ats.core.common.Symbol;
 import ny2.ats.indicator.CalcPeriod;
@@ -30,7 +28,7 @@ public class RankCorrelationIndexIndicator extends SimpleIndicator<RankCIPeriod>
     protected void initializeMap() {
         // valueMap初期化
         for (RankCIPeriod rciPeriod : RankCIPeriod.values()) {
-            valueMap.put(rciPeriod, new ArrayList<>());
+            valueMap.put(rciPeriod, series.createDoubleColumn());
         }
     }
 
@@ -4,7 +4,6 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -108,23 +107,18 @@ public abstract class SimpleIndicator<T extends CalcPeriod> extends Indicator<T>
     @Override
     public void reduceData(int holdDays) {
         LocalDateTime holdBaseDateTime = LocalDateTime.of(getLastDateTime().toLocalDate().minus(holdDays, ChronoUnit.DAYS), LocalTime.MIN);
-        int baseIndex = Collections.binarySearch(dateTimeList, holdBaseDateTime);
+        int baseIndex = dateTimeList.binarySearch(holdBaseDateTime);
         int remainFromIndex = baseIndex >= 0 ? baseIndex : ~baseIndex;
         logger.info("{} Reduce data : head/base/last = {} / {} / {}, remain/size = {} / {}", getLogHeadder(), dateTimeList.get(0), holdBaseDateTime, getLastDateTime(), remainFromIndex, dateTimeList.size());
 
         StringBuilder sb = new StringBuilder(100);
         sb.append("time = ").append(dateTimeList.size()).append("->");
 
-        // remove from each list
-        // time
-        CollectionUtility.removeHeadIndex(dateTimeList, remainFromIndex);
+        // remove from each list (時刻列と series に登録した全データ列)
+        series.removeHead(remainFromIndex);
         sb.append(dateTimeList.size()).append(", ");
-
-        // value
         for (Entry<T, List<Double>> valueEntry : valueMap.entrySet()) {
-            sb.append(valueEntry.getKey().getName()).append(" = ").append(valueEntry.getValue().size()).append("->");
-            CollectionUtility.removeHeadIndex(valueEntry.getValue(), remainFromIndex);
-            sb.append(valueEntry.getValue().size()).append(", ");
+            sb.append(valueEntry.getKey().getName()).append(" = ").append(valueEntry.getValue().size()).append(", ");
         }
         logger.info("{} Reduce result : {}", getLogHeadder(), sb.toString());
 
@@ -133,7 +127,8 @@ public abstract class SimpleIndicator<T extends CalcPeriod> extends Indicator<T>
     }
 
     /**
-     * 各Indicatorで追加したItemから過去データを削除します
+     * 各Indicatorで追加したItemから過去データを削除します<br>
+     * series に登録したデータ列は削除済みのため、それ以外のItemのみ削除します。
      *
      * @param holdDays データ保存期間
      * @param remainFromIndex dateTimeと同じ個数のListを使用している場合はこのindex以降を残す
@@ -158,7 +153,7 @@ public abstract class SimpleIndicator<T extends CalcPeriod> extends Indicator<T>
         // 念のため同一時刻の確認
         LocalDateTime lastTime = getLastDateTime();
         if (!newDateTime.equals(lastTime)) {
-            dateTimeList.add(newDateTime);
+            series.addDateTime(newDateTime);
         }
     }
 
@@ -57,7 +57,7 @@ public class StochasticsIndicator extends SimpleIndicator<StochasticsPeriod> {
     protected void initializeMap() {
         // valueMap初期化
         for (StochasticsPeriod stochasticsPeriod : StochasticsPeriod.values()) {
-            valueMap.put(stochasticsPeriod, new ArrayList<>());
+            valueMap.put(stochasticsPeriod, series.createDoubleColumn());
         }
     }
 
@@ -67,11 +67,11 @@ public class StochasticsIndicator extends SimpleIndicator<StochasticsPeriod> {
     private void initializeMapForStochastics() {
         // valueMap初期化
         for (StochasticsPeriod stochasticsPeriod : StochasticsPeriod.values()) {
-            kMap.put(stochasticsPeriod, new ArrayList<>());
+            kMap.put(stochasticsPeriod, series.createDoubleColumn());
 //            dMap.put(stochasticsPeriod, new ArrayList<>());
-            slowDMap.put(stochasticsPeriod, new ArrayList<>());
-            closeMinMap.put(stochasticsPeriod, new ArrayList<>());
-            maxMinMap.put(stochasticsPeriod, new ArrayList<>());
+            slowDMap.put(stochasticsPeriod, series.createDoubleColumn());
+            closeMinMap.put(stochasticsPeriod, series.createDoubleColumn());
+            maxMinMap.put(stochasticsPeriod, series.createDoubleColumn());
         }
     }
 
@@ -164,19 +164,7 @@ public class StochasticsIndicator extends SimpleIndicator<StochasticsPeriod> {
 
     @Override
     protected void reduceDatAdditionalItems(int holdDays, int remainFromIndex) {
-        // 追加は kMap, dMap, closeMinMap
-        for (List<Double> list : kMap.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
-        for (List<Double> list : slowDMap.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
-        for (List<Double> list : closeMinMap.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
-        for (List<Double> list : maxMinMap.values()) {
-            CollectionUtility.removeHeadIndex(list, remainFromIndex);
-        }
+        // 各データ列は series で削除済み
     };
 
     // //////////////////////////////////////
@@ -1,14 +1,12 @@
 package ny2.ats.indicator.processor;
 
 import java.time.LocalDateTime;
-import java.util.List;
-
-import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 
 import ny2.ats.core.common.Period;
 import ny2.ats.core.common.Symbol;
-import ny2.ats.core.util.CollectionUtility;
 import ny2.ats.indicator.IndicatorProcessor;
+import ny2.ats.indicator.calc.RollingEMA;
+import ny2.ats.indicator.calc.RollingMoments;
 import ny2.ats.indicator.impl.IndicatorDataMap;
 import ny2.ats.indicator.indicators.BollingerBandEMAIndicator;
 import ny2.ats.indicator.indicators.BollingerBandIndicator.BollingerPeriod;
@@ -39,51 +37,36 @@ public class BollingerBandEMAProcessor extends IndicatorProcessor<BollingerBandE
     public void updateOHLC(Symbol symbol, Period period, LocalDateTime dateTime) {
         OHLCIndicator ohlcIndicator = ohlcMap.getSymbolMap(symbol).getIndicator(period);
         BollingerBandEMAIndicator indicator = indicatorMap.getSymbolMap(symbol).getIndicator(period);
-        Double lastClose = ohlcIndicator.getLastClose();
+        // EMAと標準偏差は OHLCIndicator の共有ノード(EMA, BOLLINGERと共有)で計算済み
+        RollingEMA closeEMA = ohlcIndicator.getCloseEMA();
+        RollingMoments closeMoments = ohlcIndicator.getCloseMoments();
 
         // add time / calculate value
         indicator.addTimeData(dateTime);
         for (BollingerPeriod calcPeriod : BollingerPeriod.values()) {
-            List<Double> emaList = indicator.getMAList(calcPeriod);
-            calcBollingerBandEMA(calcPeriod, emaList, lastClose, symbol, indicator);
+            calcBollingerBandEMA(calcPeriod, closeEMA, closeMoments, symbol, indicator);
         }
     }
 
     /**
-     * BollingerBandEMA の値を計算します
+     * BollingerBandEMA の値を計算します。EMAを中心に、closeの標準偏差で幅を計算します。
      * @param calcPeriod
-     * @param emaList
-     * @param lastClose
+     * @param closeEMA
+     * @param closeMoments
      * @param symbol
      * @param indicator
-     * @param dateTime
      */
-    private void calcBollingerBandEMA(BollingerPeriod calcPeriod, List<Double> emaList, Double lastClose, Symbol symbol, BollingerBandEMAIndicator indicator) {
-        // EMA計算を単純化する
-        if (emaList.isEmpty() || CollectionUtility.getLast(emaList).isNaN()) {
-            // 最初は終値で単純化
-            indicator.addValueData(calcPeriod, lastClose, Double.NaN, Double.NaN, Double.NaN);
+    private void calcBollingerBandEMA(BollingerPeriod calcPeriod, RollingEMA closeEMA, RollingMoments closeMoments, Symbol symbol, BollingerBandEMAIndicator indicator) {
+        // N期間のデータを使用して計算する
+        if (!closeEMA.isAvailable(calcPeriod.getPeriod()) || !closeMoments.isAvailable(calcPeriod.getPeriod())) {
+            // 期間が足りない場合はNaNを入れる
+            indicator.addValueData(calcPeriod, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
             return;
         }
-        Double lastEma = CollectionUtility.getLast(emaList);
-        // EMA計算
-        double alpha = 2.0 / (calcPeriod.getPeriod() + 1);
-        double ema = lastEma + alpha * (lastClose - lastEma);
 
-        // 計算期間が足りない場合はNaNを入れる
-        if (emaList.size() < calcPeriod.getPeriod() - 1) {
-            indicator.addValueData(calcPeriod, ema, Double.NaN, Double.NaN, Double.NaN);
-            return;
-        }
-
-        List<Double> subList = CollectionUtility.lastSubListView(emaList, calcPeriod.getPeriod() - 1);
-        DescriptiveStatistics statistics = new DescriptiveStatistics(calcPeriod.getPeriod());
-        for (Double d : subList) {
-            statistics.addValue(d);
-        }
-        statistics.addValue(ema);
-        ema = symbol.roundSubPips(ema);
-        double sigma = symbol.roundSubPips(statistics.getStandardDeviation());
+        // EMAは丸め済み。標準偏差は標本標準偏差(N-1)
+        double ema = closeEMA.getEMA(calcPeriod.getPeriod());
+        double sigma = symbol.roundSubPips(closeMoments.getStandardDeviation(calcPeriod.getPeriod()));
         double plus = ema + sigma;
         double minus = ema - sigma;
         // add data
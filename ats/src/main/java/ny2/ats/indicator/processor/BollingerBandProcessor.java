@@ -1,14 +1,11 @@
 package ny2.ats.indicator.processor;
 
 import java.time.LocalDateTime;
-import java.util.List;
-
-import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 
 import ny2.ats.core.common.Period;
 import ny2.ats.core.common.Symbol;
-import ny2.ats.core.util.CollectionUtility;
 import ny2.ats.indicator.IndicatorProcessor;
+import ny2.ats.indicator.calc.RollingMoments;
 import ny2.ats.indicator.impl.IndicatorDataMap;
 import ny2.ats.indicator.indicators.BollingerBandIndicator;
 import ny2.ats.indicator.indicators.BollingerBandIndicator.BollingerPeriod;
@@ -39,37 +36,33 @@ public class BollingerBandProcessor extends IndicatorProcessor<BollingerBandIndi
     public void updateOHLC(Symbol symbol, Period period, LocalDateTime dateTime) {
         OHLCIndicator ohlcIndicator = ohlcMap.getSymbolMap(symbol).getIndicator(period);
         BollingerBandIndicator indicator = indicatorMap.getSymbolMap(symbol).getIndicator(period);
-        List<Double> closeList = ohlcIndicator.getCloseList();
+        RollingMoments closeMoments = ohlcIndicator.getCloseMoments();
 
         // add time / calculate value
         indicator.addTimeData(dateTime);
         for (BollingerPeriod calcPeriod : BollingerPeriod.values()) {
-            calcBollingerBand(calcPeriod, closeList, symbol, indicator);
+            calcBollingerBand(calcPeriod, closeMoments, symbol, indicator);
         }
     }
 
     /**
-     * MAの値を計算します
-     * @param maPeriod
-     * @param closeList
+     * Bollinger Band の値を計算します。closeの移動統計の合計から計算します。
+     * @param calcPeriod
+     * @param closeMoments
      * @param symbol
      * @return
      */
-    private void calcBollingerBand(BollingerPeriod calcPeriod, List<Double> closeList, Symbol symbol, BollingerBandIndicator indicator) {
+    private void calcBollingerBand(BollingerPeriod calcPeriod, RollingMoments closeMoments, Symbol symbol, BollingerBandIndicator indicator) {
         // N期間のデータを使用して計算する
-        if (closeList.size() < calcPeriod.getPeriod()) {
+        if (!closeMoments.isAvailable(calcPeriod.getPeriod())) {
             // 期間が足りない場合はNaNを入れる
             indicator.addValueData(calcPeriod, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
             return;
         }
 
-        List<Double> subList = CollectionUtility.lastSubListView(closeList, calcPeriod.getPeriod());
-        DescriptiveStatistics statistics = new DescriptiveStatistics(calcPeriod.getPeriod());
-        for (Double d : subList) {
-            statistics.addValue(d);
-        }
-        double sma = symbol.roundSubPips(statistics.getMean());
-        double sigma = symbol.roundSubPips(statistics.getStandardDeviation());
+        // 標準偏差は標本標準偏差(N-1)
+        double sma = symbol.roundSubPips(closeMoments.getMean(calcPeriod.getPeriod()));
+        double sigma = symbol.roundSubPips(closeMoments.getStandardDeviation(calcPeriod.getPeriod()));
         double plus = sma + sigma;
         double minus = sma - sigma;
         // add data
@@ -1,13 +1,13 @@
 package ny2.ats.indicator.processor;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
 
 import ny2.ats.core.common.Period;
 import ny2.ats.core.common.Symbol;
 import ny2.ats.core.util.CollectionUtility;
 import ny2.ats.indicator.IndicatorProcessor;
+import ny2.ats.indicator.calc.RollingExtremes;
 import ny2.ats.indicator.impl.IndicatorDataMap;
 import ny2.ats.indicator.indicators.IchimokuIndicator;
 import ny2.ats.indicator.indicators.IchimokuIndicator.IchimokuPeriod;
@@ -40,11 +40,12 @@ public class IchimokuProcessor extends IndicatorProcessor<IchimokuIndicator, Ich
         OHLCIndicator ohlcIndicator = ohlcMap.getSymbolMap(symbol).getIndicator(period);
         IchimokuIndicator ichimokuIndicator = indicatorMap.getSymbolMap(symbol).getIndicator(period);
         List<Double> closeList = ohlcIndicator.getCloseList();
+        RollingExtremes closeExtremes = ohlcIndicator.getCloseExtremes();
 
         // add time / calculate value
         ichimokuIndicator.addTimeData(dateTime);
         for (IchimokuPeriod calcPeriod : IchimokuPeriod.values()) {
-            calcIchimoku(ichimokuIndicator, calcPeriod, closeList);
+            calcIchimoku(ichimokuIndicator, calcPeriod, closeList, closeExtremes);
         }
     }
 
@@ -53,8 +54,9 @@ public class IchimokuProcessor extends IndicatorProcessor<IchimokuIndicator, Ich
      * @param ichimokuIndicator
      * @param calcPeriod
      * @param closeList
+     * @param closeExtremes
      */
-    private void calcIchimoku(IchimokuIndicator ichimokuIndicator, IchimokuPeriod calcPeriod, List<Double> closeList) {
+    private void calcIchimoku(IchimokuIndicator ichimokuIndicator, IchimokuPeriod calcPeriod, List<Double> closeList, RollingExtremes closeExtremes) {
         // NaNで初期化する
         double tenkan = Double.NaN;
         double kijun = Double.NaN;
@@ -62,15 +64,15 @@ public class IchimokuProcessor extends IndicatorProcessor<IchimokuIndicator, Ich
         double senkou2 = Double.NaN;
         double chikou = CollectionUtility.getLast(closeList);
         // データが期間分足りていれば設定
-        if (closeList.size() >= calcPeriod.getTenkanPeriod()) {
-            tenkan = calcHighLowHalf(closeList, calcPeriod.getTenkanPeriod());
+        if (closeExtremes.isAvailable(calcPeriod.getTenkanPeriod())) {
+            tenkan = calcHighLowHalf(closeExtremes, calcPeriod.getTenkanPeriod());
         }
-        if (closeList.size() >= calcPeriod.getKijunPeriod()) {
-            kijun = calcHighLowHalf(closeList, calcPeriod.getKijunPeriod());
+        if (closeExtremes.isAvailable(calcPeriod.getKijunPeriod())) {
+            kijun = calcHighLowHalf(closeExtremes, calcPeriod.getKijunPeriod());
             senkou1 = (tenkan + kijun) / 2;
         }
-        if (closeList.size() >= calcPeriod.getSenkouPriod()) {
-            senkou2 = calcHighLowHalf(closeList, calcPeriod.getSenkouPriod());
+        if (closeExtremes.isAvailable(calcPeriod.getSenkouPriod())) {
+            senkou2 = calcHighLowHalf(closeExtremes, calcPeriod.getSenkouPriod());
         }
 
         // double tenkan = calcHighLowHalf(closeList, calcPeriod.getTenkanPeriod());
@@ -83,14 +85,13 @@ public class IchimokuProcessor extends IndicatorProcessor<IchimokuIndicator, Ich
 
     /**
      * 過去指定期間の (高値+安値)/2 を計算します
-     * @param closeList
+     * @param closeExtremes
      * @param period
      * @return
      */
-    private double calcHighLowHalf(List<Double> closeList, int period) {
-        List<Double> subList = CollectionUtility.lastSubListView(closeList, period);
-        double high = Collections.max(subList);
-        double low = Collections.min(subList);
+    private double calcHighLowHalf(RollingExtremes closeExtremes, int period) {
+        double high = closeExtremes.getMax(period);
+        double low = closeExtremes.getMin(period);
         return (high + low) / 2;
     }
 
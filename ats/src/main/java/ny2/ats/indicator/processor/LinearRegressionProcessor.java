@@ -1,13 +1,12 @@
 package ny2.ats.indicator.processor;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 import ny2.ats.core.common.Period;
 import ny2.ats.core.common.Symbol;
-import ny2.ats.core.util.CollectionUtility;
 import ny2.ats.core.util.NumberUtility;
 import ny2.ats.indicator.IndicatorProcessor;
+import ny2.ats.indicator.calc.RollingLinearRegression;
 import ny2.ats.indicator.impl.IndicatorDataMap;
 import ny2.ats.indicator.indicators.LinearRegressionIndicator;
 import ny2.ats.indicator.indicators.LinearRegressionIndicator.LRPeriod;
@@ -41,55 +40,35 @@ public class LinearRegressionProcessor extends IndicatorProcessor<LinearRegressi
     public void updateOHLC(Symbol symbol, Period period, LocalDateTime dateTime) {
         OHLCIndicator ohlcIndicator = ohlcMap.getSymbolMap(symbol).getIndicator(period);
         LinearRegressionIndicator lrIndicator = indicatorMap.getSymbolMap(symbol).getIndicator(period);
-        List<Double> closeList = ohlcIndicator.getCloseList();
+        RollingLinearRegression closeRegression = ohlcIndicator.getCloseRegression();
 
         // add time / calculate value
         lrIndicator.addTimeData(dateTime);
         for (LRPeriod lrPeriod : LRPeriod.values()) {
-            calcLR(lrPeriod, closeList, symbol, lrIndicator);
+            calcLR(lrPeriod, closeRegression, symbol, lrIndicator);
         }
     }
 
     /**
-     * 回帰分析の値を計算します
+     * 回帰分析の値を計算します<br>
+     * Σy, Σxy は OHLCIndicator で close の追加ごとに更新されています。xは0からn-1を使います。
      * @param lrPeriod
-     * @param closeList
+     * @param closeRegression
      * @param symbol
      * @param lrIndicator
-     * @param dateTime
      */
-    protected void calcLR(LRPeriod lrPeriod, List<Double> closeList, Symbol symbol, LinearRegressionIndicator lrIndicator) {
+    protected void calcLR(LRPeriod lrPeriod, RollingLinearRegression closeRegression, Symbol symbol, LinearRegressionIndicator lrIndicator) {
         // N期間のデータを使用して計算する
-        if (closeList.size() < lrPeriod.getPeriodCount()) {
+        if (!closeRegression.isAvailable(lrPeriod.getPeriodCount())) {
             // 期間が足りない場合はNaNを入れる
             lrIndicator.addValueData(lrPeriod, Double.NaN, Double.NaN);
             return;
         }
 
-        int n = lrPeriod.getPeriodCount();
-        List<Double> nList = CollectionUtility.lastSubListView(closeList, n);
-
-        // 計算に使用する値
-        // xは0からn-1を使います
-        int sigmaX = 0;
-        int sigmaXSq = 0;
-        double sigmaY = 0.0;
-        double sigmaXY = 0.0;
-
-        for (int i = 0; i < n; i++) {
-            sigmaX += i;
-            sigmaXSq += i * i;
-            sigmaY += nList.get(i);
-            sigmaXY += i * nList.get(i);
-        }
-
-        // a0, a1を計算します。
         // 傾き
-        double a1 = (n * sigmaXY - sigmaX * sigmaY) / (n * sigmaXSq - sigmaX * sigmaX);
-        // y切片
-        double a0 = (sigmaY - a1 * sigmaX) / n;
+        double a1 = closeRegression.getSlope(lrPeriod.getPeriodCount());
         // 現在時刻の切片
-        double a0Current = a0 + a1 * (n - 1);
+        double a0Current = closeRegression.getLatestValue(lrPeriod.getPeriodCount());
 
         // 丸め
         a1 = NumberUtility.roundFixedPrecision(a1, 3);
@@ -1,12 +1,11 @@
 package ny2.ats.indicator.processor;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 import ny2.ats.core.common.Period;
 import ny2.ats.core.common.Symbol;
-import ny2.ats.core.util.CollectionUtility;
 import ny2.ats.indicator.IndicatorProcessor;
+import ny2.ats.indicator.calc.RollingMoments;
 import ny2.ats.indicator.impl.IndicatorDataMap;
 import ny2.ats.indicator.indicators.MovingAverageIndicator;
 import ny2.ats.indicator.indicators.MovingAverageIndicator.MAPeriod;
@@ -37,31 +36,30 @@ public class MovingAverageProcessor extends IndicatorProcessor<MovingAverageIndi
     public void updateOHLC(Symbol symbol, Period period, LocalDateTime dateTime) {
         OHLCIndicator ohlcIndicator = ohlcMap.getSymbolMap(symbol).getIndicator(period);
         MovingAverageIndicator maIndicator = indicatorMap.getSymbolMap(symbol).getIndicator(period);
-        List<Double> closeList = ohlcIndicator.getCloseList();
+        RollingMoments closeMoments = ohlcIndicator.getCloseMoments();
 
         // add time / calculate value
         maIndicator.addTimeData(dateTime);
         for (MovingAverageIndicator.MAPeriod maPeriod : MovingAverageIndicator.MAPeriod.values()) {
-            Double ma = calcMA(maPeriod, closeList, symbol);
+            Double ma = calcMA(maPeriod, closeMoments, symbol);
             maIndicator.addValueData(maPeriod, ma);
         }
     }
 
     /**
-     * MAの値を計算します
+     * MAの値を計算します。closeの移動統計の合計から計算します。
      * @param maPeriod
-     * @param closeList
+     * @param closeMoments
      * @param symbol
      * @return
      */
-    private double calcMA(MAPeriod maPeriod, List<Double> closeList, Symbol symbol) {
+    private double calcMA(MAPeriod maPeriod, RollingMoments closeMoments, Symbol symbol) {
         // N期間のデータを使用して計算する
-        if (closeList.size() < maPeriod.getPeriodCount()) {
+        if (!closeMoments.isAvailable(maPeriod.getPeriodCount())) {
             // 期間が足りない場合はNaNを入れる
             return Double.NaN;
         }
-        List<Double> subList = CollectionUtility.lastSubListView(closeList, maPeriod.getPeriodCount());
-        double ma = subList.stream().mapToDouble(Double::doubleValue).average().getAsDouble();
+        double ma = closeMoments.getMean(maPeriod.getPeriodCount());
         return symbol.roundSubPips(ma);
     }
 
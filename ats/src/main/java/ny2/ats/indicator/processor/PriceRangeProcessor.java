@@ -1,13 +1,11 @@
 package ny2.ats.indicator.processor;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
-import java.util.List;
 
 import ny2.ats.core.common.Period;
 import ny2.ats.core.common.Symbol;
-import ny2.ats.core.util.CollectionUtility;
 import ny2.ats.indicator.IndicatorProcessor;
+import ny2.ats.indicator.calc.RangeExtremumIndex;
 import ny2.ats.indicator.impl.IndicatorDataMap;
 import ny2.ats.indicator.indicators.OHLCIndicator;
 import ny2.ats.indicator.indicators.PriceRangeIndicator;
@@ -39,90 +37,73 @@ public class PriceRangeProcessor extends IndicatorProcessor<PriceRangeIndicator,
     @Override
     public void updateOHLC(Symbol symbol, Period period, LocalDateTime dateTime) {
         OHLCIndicator ohlc = ohlcMap.getSymbolMap(symbol).getIndicator(period);
-        List<Double> highList = ohlc.getHighList();
-        List<Double> lowList = ohlc.getLowList();
+        RangeExtremumIndex highIndex = ohlc.getHighRangeIndex();
+        RangeExtremumIndex lowIndex = ohlc.getLowRangeIndex();
         PriceRangeIndicator indicator = indicatorMap.getSymbolMap(symbol).getIndicator(period);
 
         // add time / calculate value
         indicator.addTimeData(dateTime);
         for (PriceRangePeriod calcPeriod : PriceRangePeriod.values()) {
-            calculatePriceRange(calcPeriod, highList, lowList, symbol, indicator);
+            calculatePriceRange(calcPeriod, highIndex, lowIndex, symbol, indicator);
         }
     }
 
     /**
      * Price Range の値を計算します
      * @param calcPeriod
-     * @param highList
-     * @param lowList
+     * @param highIndex
+     * @param lowIndex
      * @param symbol
      * @param indicator
      */
-    private void calculatePriceRange(PriceRangePeriod calcPeriod, List<Double> highList, List<Double> lowList, Symbol symbol, PriceRangeIndicator indicator) {
+    private void calculatePriceRange(PriceRangePeriod calcPeriod, RangeExtremumIndex highIndex, RangeExtremumIndex lowIndex, Symbol symbol, PriceRangeIndicator indicator) {
         // N期間のデータを使用して計算する
-        if (highList.size() < calcPeriod.getPeriodCount()) {
+        int periodCount = calcPeriod.getPeriodCount();
+        if (highIndex.getCount() < periodCount) {
             // 期間が足りない場合はNaNを入れる
-            indicator.addValueData(calcPeriod, Double.NaN, Double.NaN, Boolean.FALSE, Boolean.FALSE, 0, 0);
+            indicator.addValueData(calcPeriod, Double.NaN, Double.NaN, false, false, 0, 0);
             return;
         }
 
-        // 期間リスト
-        List<Double> highSubList = CollectionUtility.lastSubListView(highList, calcPeriod.getPeriodCount());
-        List<Double> lowSubList = CollectionUtility.lastSubListView(lowList, calcPeriod.getPeriodCount());
-
-        // 期間内の価格レンジを取得
-//        double max = Collections.max(highSubList);
-//        double min = Collections.min(lowSubList);
-//        double length = max - min;
-
-        // 最小値を探して、その前後をチェックしてdip/rallyになっているか確かめる
-        double max = Double.MIN_VALUE;
-        int maxIndex = -1;
-        double min = Double.MAX_VALUE;
-        int minIndex = -1;
-
-        for (int i = 0; i < calcPeriod.getPeriodCount(); i++) {
-            double high = highSubList.get(i);
-            if (high > max) {
-                max = high;
-                maxIndex = i;
-            }
-            double low = lowSubList.get(i);
-            if (low < min) {
-                min = low;
-                minIndex = i;
-            }
-        }
+        // 期間の Sequence [first, last]
+        long last = highIndex.getCount() - 1;
+        long first = last - periodCount + 1;
+
+        // 最大値・最小値を探して、その前後をチェックしてdip/rallyになっているか確かめる
+        long maxSeq = highIndex.searchSequence(first, last);
+        double max = highIndex.getValue(maxSeq);
+        long minSeq = lowIndex.searchSequence(first, last);
+        double min = lowIndex.getValue(minSeq);
 
         // dip/rally が無ければ前回の値を使う
         double upperSupport = indicator.getLastUpperSupport(calcPeriod);
         double lowerSupport = indicator.getLastLowerSupport(calcPeriod);
-        Boolean upperValid = indicator.getLastUpperSupportValid(calcPeriod);
-        Boolean lowerValid = indicator.getLastLowerSupportValid(calcPeriod);
+        boolean upperValid = indicator.getLastUpperSupportValid(calcPeriod);
+        boolean lowerValid = indicator.getLastLowerSupportValid(calcPeriod);
 
         // 前後をチェックしてdip/rallyになっているか確かめる
         // rallyの確認 - maxの前後に閾値以下の値があること
-        if (maxIndex > 0 && maxIndex < calcPeriod.getPeriodCount() - 1
-                && Collections.min(lowSubList.subList(0, maxIndex)) < max * (1 - calcPeriod.getExtremumRatio())
-                && Collections.min(lowSubList.subList(maxIndex, lowSubList.size())) < max * (1 - calcPeriod.getExtremumRatio())) {
+        if (maxSeq > first && maxSeq < last
+                && lowIndex.search(first, maxSeq - 1) < max * (1 - calcPeriod.getExtremumRatio())
+                && lowIndex.search(maxSeq, last) < max * (1 - calcPeriod.getExtremumRatio())) {
             upperSupport = max;
-            upperValid = Boolean.TRUE;
+            upperValid = true;
         } else {
             // 有効性確認
             if (max > upperSupport) {
-                upperValid = Boolean.FALSE;
+                upperValid = false;
             }
         }
         // dipの確認 - minの前後に閾値以上の値があること
-        if (minIndex > 0 && minIndex < calcPeriod.getPeriodCount() - 1
-                && Collections.max(highSubList.subList(0, minIndex)) > min * (1 + calcPeriod.getExtremumRatio())
-                && Collections.max(highSubList.subList(minIndex, highSubList.size())) > min * (1 + calcPeriod.getExtremumRatio())) {
+        if (minSeq > first && minSeq < last
+                && highIndex.search(first, minSeq - 1) > min * (1 + calcPeriod.getExtremumRatio())
+                && highIndex.search(minSeq, last) > min * (1 + calcPeriod.getExtremumRatio())) {
             lowerSupport = min;
-            lowerValid = Boolean.TRUE;
+            lowerValid = true;
         } else {
             // 有効性確認
             if (min < lowerSupport) {
-                lowerValid = Boolean.FALSE;
+                lowerValid = false;
             }
         }
 
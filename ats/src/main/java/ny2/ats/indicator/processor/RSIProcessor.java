@@ -1,16 +1,17 @@
 package ny2.ats.indicator.processor;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 import ny2.ats.core.common.Period;
 import ny2.ats.core.common.Symbol;
-import ny2.ats.core.util.CollectionUtility;
 import ny2.ats.core.util.NumberUtility;
 import ny2.ats.indicator.IndicatorProcessor;
+import ny2.ats.indicator.calc.RollingGainLoss;
 import ny2.ats.indicator.impl.IndicatorDataMap;
+import ny2.ats.indicator.series.DoubleColumn;
 import ny2.ats.indicator.indicators.OHLCIndicator;
 import ny2.ats.indicator.indicators.RSIIndicator;
+import ny2.ats.indicator.indicators.RSIIndicator.RSIMode;
 import ny2.ats.indicator.indicators.RSIIndicator.RSIPeriod;
 
 /**
@@ -22,12 +23,20 @@ public class RSIProcessor extends IndicatorProcessor<RSIIndicator, RSIPeriod> {
     // Field
     // //////////////////////////////////////
 
+    /** 計算方法 */
+    private final RSIMode mode;
+
     // //////////////////////////////////////
     // Constructor
     // //////////////////////////////////////
 
     public RSIProcessor(IndicatorDataMap<OHLCIndicator> ohlcMap, IndicatorDataMap<RSIIndicator> valueMap) {
+        this(ohlcMap, valueMap, RSIMode.SIMPLE);
+    }
+
+    public RSIProcessor(IndicatorDataMap<OHLCIndicator> ohlcMap, IndicatorDataMap<RSIIndicator> valueMap, RSIMode mode) {
         super(ohlcMap, valueMap);
+        this.mode = mode;
     }
 
     // //////////////////////////////////////
@@ -38,38 +47,69 @@ public class RSIProcessor extends IndicatorProcessor<RSIIndicator, RSIPeriod> {
     public void updateOHLC(Symbol symbol, Period period, LocalDateTime dateTime) {
         OHLCIndicator ohlcIndicator = ohlcMap.getSymbolMap(symbol).getIndicator(period);
         RSIIndicator rsiIndicator = indicatorMap.getSymbolMap(symbol).getIndicator(period);
-        List<Double> closeList = ohlcIndicator.getCloseList();
 
         // add time / calculate value
         rsiIndicator.addTimeData(dateTime);
         for (RSIPeriod rsiPeriod : RSIPeriod.values()) {
-            double rsi = calcRSI(rsiPeriod, closeList);
+            double rsi;
+            if (mode == RSIMode.SIMPLE) {
+                rsi = calcRSI(rsiPeriod, ohlcIndicator.getCloseList());
+            } else {
+                rsi = calcRSI(rsiPeriod, ohlcIndicator.getCloseGainLoss());
+            }
             rsiIndicator.addValueData(rsiPeriod, rsi);
         }
     }
 
     /**
-     * RSIの値を計算します
+     * 直近N+1期間の終値からRSIの値を計算します
      * @param rsiPeriod
      * @param closeList
      * @return
      */
-    private double calcRSI(RSIPeriod rsiPeriod, List<Double> closeList) {
+    private double calcRSI(RSIPeriod rsiPeriod, DoubleColumn closeList) {
         // N+1期間のデータを使用して計算する
         if (closeList.size() < rsiPeriod.getPeriodCount() + 1) {
             // 期間が足りない場合はNaNを入れる
             return Double.NaN;
         }
-        List<Double> subList = CollectionUtility.lastSubListView(closeList, rsiPeriod.getPeriodCount() + 1);
         double totalGain = 0;
         double totalLoss = 0;
-
-        for (int i = 0; i < subList.size() - 1; i++) {
-            Double close1 = subList.get(i).doubleValue();
-            Double close2 = subList.get(i + 1).doubleValue();
+        for (int i = closeList.size() - rsiPeriod.getPeriodCount(); i < closeList.size(); i++) {
+            double close1 = closeList.getDouble(i - 1);
+            double close2 = closeList.getDouble(i);
             totalGain += Math.max(close2 - close1, 0);
             totalLoss += Math.max(close1 - close2, 0);
         }
+        return calcRSI(totalGain, totalLoss);
+    }
+
+    /**
+     * OHLCIndicator で終値の追加ごとに集計した上昇幅・下落幅からRSIの値を計算します
+     * @param rsiPeriod
+     * @param closeGainLoss
+     * @return
+     */
+    private double calcRSI(RSIPeriod rsiPeriod, RollingGainLoss closeGainLoss) {
+        // N+1期間のデータを使用して計算する
+        if (!closeGainLoss.isAvailable(rsiPeriod.getPeriodCount())) {
+            // 期間が足りない場合はNaNを入れる
+            return Double.NaN;
+        }
+        double totalGain;
+        double totalLoss;
+        if (mode == RSIMode.WILDER) {
+            // 平均をN期間の合計に換算する
+            totalGain = closeGainLoss.getWilderGain(rsiPeriod.getPeriodCount()) * rsiPeriod.getPeriodCount();
+            totalLoss = closeGainLoss.getWilderLoss(rsiPeriod.getPeriodCount()) * rsiPeriod.getPeriodCount();
+        } else {
+            totalGain = closeGainLoss.getGainSum(rsiPeriod.getPeriodCount());
+            totalLoss = closeGainLoss.getLossSum(rsiPeriod.getPeriodCount());
+        }
+        return calcRSI(totalGain, totalLoss);
+    }
+
+    private double calcRSI(double totalGain, double totalLoss) {
         // ゼロ割防止
         if (totalGain + totalLoss < 0.0001) {
             return Double.NaN;
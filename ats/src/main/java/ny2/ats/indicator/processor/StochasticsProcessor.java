@@ -1,7 +1,6 @@
 package ny2.ats.indicator.processor;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
 
 import ny2.ats.core.common.Period;
@@ -9,6 +8,7 @@ import ny2.ats.core.common.Symbol;
 import ny2.ats.core.util.CollectionUtility;
 import ny2.ats.core.util.NumberUtility;
 import ny2.ats.indicator.IndicatorProcessor;
+import ny2.ats.indicator.calc.RollingExtremes;
 import ny2.ats.indicator.impl.IndicatorDataMap;
 import ny2.ats.indicator.indicators.OHLCIndicator;
 import ny2.ats.indicator.indicators.StochasticsIndicator;
@@ -45,7 +45,7 @@ public class StochasticsProcessor extends IndicatorProcessor<StochasticsIndicato
         // add time / calculate value
         stochasticsIndicator.addTimeData(dateTime);
         for (StochasticsPeriod stochasticsPeriod : StochasticsPeriod.values()) {
-            calcStochastics(stochasticsPeriod, closeList, symbol, stochasticsIndicator);
+            calcStochastics(stochasticsPeriod, closeList, ohlcIndicator.getCloseExtremes(), symbol, stochasticsIndicator);
         }
     }
 
@@ -53,25 +53,24 @@ public class StochasticsProcessor extends IndicatorProcessor<StochasticsIndicato
      * Stochasticsを計算します。
      * @param stochasticsPeriod
      * @param closeList
+     * @param closeExtremes
      * @param symbol
      * @param stochasticsIndicator
-     * @param dateTime
      */
-    protected void calcStochastics(StochasticsPeriod stochasticsPeriod, List<Double> closeList, Symbol symbol, StochasticsIndicator stochasticsIndicator) {
+    protected void calcStochastics(StochasticsPeriod stochasticsPeriod, List<Double> closeList, RollingExtremes closeExtremes, Symbol symbol, StochasticsIndicator stochasticsIndicator) {
         int kPeriod = stochasticsPeriod.getKPeriod();
         int dPeriod = stochasticsPeriod.getDPeriod();
         int slowDPeriod = stochasticsPeriod.getSlowDPeriod();
 
         // すべてのデータが揃うには、 kPeriod + dPeriod + slowDPeriod 期間が必要
         // まず %K には、 kPeriod期間が必要
-        if (closeList.size() < kPeriod) {
+        if (!closeExtremes.isAvailable(kPeriod)) {
             // 期間が足りない場合はNaNを入れる
             stochasticsIndicator.addValueData(stochasticsPeriod, Double.NaN, Double.NaN, Double.NaN,Double.NaN,Double.NaN);
             return;
         }
-        List<Double> closeKSubList = CollectionUtility.lastSubListView(closeList, kPeriod);
-        double max = Collections.max(closeKSubList);
-        double min = Collections.min(closeKSubList);
+        double max = closeExtremes.getMax(kPeriod);
+        double min = closeExtremes.getMin(kPeriod);
         double closeMin = CollectionUtility.getLast(closeList).doubleValue() - min;
         double maxMin = max - min;
         // ゼロ割り対策
@@ -0,0 +1,85 @@
+package ny2.ats.indicator.series;
+
+/**
+ * 真偽値のデータ列です。boolean 配列を循環して保持し、List&lt;Boolean&gt; として参照できます。<br>
+ * 値の取得・追加はプリミティブの getBoolean / add(boolean) を使用してください。
+ */
+public class BooleanColumn extends RingColumn<Boolean> {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    private boolean[] values = new boolean[0];
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    /**
+     * @param maxSize 最大件数。0以下は上限なし
+     */
+    public BooleanColumn(int maxSize) {
+        super(maxSize);
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 値を追加します
+     *
+     * @param value
+     */
+    public void add(boolean value) {
+        int slot = appendSlot();
+        values[slot] = value;
+    }
+
+    /**
+     * 指定位置の値を返します
+     *
+     * @param index
+     * @return
+     */
+    public boolean getBoolean(int index) {
+        return values[slot(index)];
+    }
+
+    /**
+     * 値を追加します。プリミティブの列のため null は追加できません。
+     *
+     * @param value
+     * @throws IllegalArgumentException value が null の場合
+     */
+    @Override
+    public boolean add(Boolean value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null cannot be added to BooleanColumn.");
+        }
+        add(value.booleanValue());
+        return true;
+    }
+
+    @Override
+    public Boolean get(int index) {
+        return getBoolean(index);
+    }
+
+    @Override
+    protected int arrayLength() {
+        return values.length;
+    }
+
+    @Override
+    protected void resize(int newLength) {
+        values = copyInOrder(values, new boolean[newLength]);
+    }
+
+    @Override
+    protected void move(int from, int to) {
+        values[to] = values[from];
+    }
+
+}
@@ -0,0 +1,132 @@
+package ny2.ats.indicator.series;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Indicatorのデータを列ごとに保持する時系列です。<br>
+ * 時刻列(DateTimeColumn)と、時刻と同じ件数のデータ列を保持します。各列は配列を循環して使用する RingColumn で、
+ * 最大件数を指定した場合は最大件数に達した後の追加で最も古い値が O(1) で削除され、使用メモリは一定になります。<br>
+ * 登録した列は removeHead で時刻列と一緒に先頭から削除します(O(1))。<br>
+ * 同期化していないため、1つのThreadから更新してください。
+ */
+public class ColumnarSeries {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** 各列の最大件数。0以下は上限なし */
+    private final int maxSize;
+
+    /** 時刻列 */
+    private final DateTimeColumn dateTimeColumn;
+
+    /** 時刻と同じ件数のデータ列 */
+    private final List<RingColumn<?>> columns = new ArrayList<>();
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    /**
+     * @param maxSize 各列の最大件数。0以下は上限なし
+     */
+    public ColumnarSeries(int maxSize) {
+        this.maxSize = maxSize;
+        this.dateTimeColumn = new DateTimeColumn(maxSize);
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 数値のデータ列を作成して登録します
+     *
+     * @return
+     */
+    public DoubleColumn createDoubleColumn() {
+        return registerColumn(new DoubleColumn(maxSize));
+    }
+
+    /**
+     * 整数のデータ列を作成して登録します
+     *
+     * @return
+     */
+    public IntColumn createIntColumn() {
+        return registerColumn(new IntColumn(maxSize));
+    }
+
+    /**
+     * 真偽値のデータ列を作成して登録します
+     *
+     * @return
+     */
+    public BooleanColumn createBooleanColumn() {
+        return registerColumn(new BooleanColumn(maxSize));
+    }
+
+    /**
+     * オブジェクトのデータ列を作成して登録します
+     *
+     * @return
+     */
+    public <E> ObjectColumn<E> createObjectColumn() {
+        return registerColumn(new ObjectColumn<>(maxSize));
+    }
+
+    private <C extends RingColumn<?>> C registerColumn(C column) {
+        columns.add(column);
+        return column;
+    }
+
+    /**
+     * 時刻を追加します
+     *
+     * @param dateTime
+     */
+    public void addDateTime(LocalDateTime dateTime) {
+        dateTimeColumn.add(dateTime);
+    }
+
+    /**
+     * 時刻列と登録したデータ列の先頭から指定件数を削除します
+     *
+     * @param count
+     */
+    public void removeHead(int count) {
+        if (count <= 0) {
+            return;
+        }
+        dateTimeColumn.subList(0, Math.min(count, dateTimeColumn.size())).clear();
+        for (RingColumn<?> column : columns) {
+            column.subList(0, Math.min(count, column.size())).clear();
+        }
+    }
+
+    /**
+     * 時刻の件数を返します
+     */
+    public int size() {
+        return dateTimeColumn.size();
+    }
+
+    // //////////////////////////////////////
+    // Getters and Setters
+    // //////////////////////////////////////
+
+    public DateTimeColumn getDateTimeColumn() {
+        return dateTimeColumn;
+    }
+
+    /**
+     * 各列の最大件数を返します。0以下は上限なし
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+}
@@ -0,0 +1,130 @@
+package ny2.ats.indicator.series;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 時刻のデータ列です。LocalDateTime を UTC とみなしたエポックナノ秒の long 配列を循環して保持し、List&lt;LocalDateTime&gt; として参照できます。<br>
+ * 時刻は昇順に追加されることを前提とし、検索は long のまま行います。get() は呼び出しごとに LocalDateTime を生成します。
+ */
+public class DateTimeColumn extends RingColumn<LocalDateTime> {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /** エポックナノ秒 */
+    private long[] epochNanos = new long[0];
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    /**
+     * @param maxSize 最大件数。0以下は上限なし
+     */
+    public DateTimeColumn(int maxSize) {
+        super(maxSize);
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * LocalDateTime をエポックナノ秒に変換します
+     */
+    public static long toEpochNano(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * NANOS_PER_SECOND + dateTime.getNano();
+    }
+
+    /**
+     * エポックナノ秒を LocalDateTime に変換します
+     */
+    public static LocalDateTime fromEpochNano(long epochNano) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochNano, NANOS_PER_SECOND), (int) Math.floorMod(epochNano, NANOS_PER_SECOND), ZoneOffset.UTC);
+    }
+
+    @Override
+    public boolean add(LocalDateTime dateTime) {
+        int slot = appendSlot();
+        epochNanos[slot] = toEpochNano(dateTime);
+        return true;
+    }
+
+    @Override
+    public LocalDateTime get(int index) {
+        return fromEpochNano(getEpochNano(index));
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof LocalDateTime)) {
+            return -1;
+        }
+        int index = binarySearch((LocalDateTime) o);
+        if (index < 0) {
+            return -1;
+        }
+        // 同一時刻が複数ある場合は最初の位置
+        long key = getEpochNano(index);
+        while (index > 0 && getEpochNano(index - 1) == key) {
+            index--;
+        }
+        return index;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * 指定時刻の位置を二分探索します。戻り値は Collections.binarySearch と同じです。
+     *
+     * @param dateTime
+     * @return 位置。存在しない場合は (-(挿入位置) - 1)
+     */
+    public int binarySearch(LocalDateTime dateTime) {
+        long key = toEpochNano(dateTime);
+        int low = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midValue = getEpochNano(mid);
+            if (midValue < key) {
+                low = mid + 1;
+            } else if (midValue > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * 指定位置のエポックナノ秒を返します
+     */
+    public long getEpochNano(int index) {
+        return epochNanos[slot(index)];
+    }
+
+    @Override
+    protected int arrayLength() {
+        return epochNanos.length;
+    }
+
+    @Override
+    protected void resize(int newLength) {
+        epochNanos = copyInOrder(epochNanos, new long[newLength]);
+    }
+
+    @Override
+    protected void move(int from, int to) {
+        epochNanos[to] = epochNanos[from];
+    }
+
+}
@@ -0,0 +1,85 @@
+package ny2.ats.indicator.series;
+
+/**
+ * 数値のデータ列です。double 配列を循環して保持し、List&lt;Double&gt; として参照できます。<br>
+ * 値の取得・追加はプリミティブの getDouble / add(double) を使用してください。
+ */
+public class DoubleColumn extends RingColumn<Double> {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    private double[] values = new double[0];
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    /**
+     * @param maxSize 最大件数。0以下は上限なし
+     */
+    public DoubleColumn(int maxSize) {
+        super(maxSize);
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 値を追加します
+     *
+     * @param value
+     */
+    public void add(double value) {
+        int slot = appendSlot();
+        values[slot] = value;
+    }
+
+    /**
+     * 指定位置の値を返します
+     *
+     * @param index
+     * @return
+     */
+    public double getDouble(int index) {
+        return values[slot(index)];
+    }
+
+    /**
+     * 値を追加します。プリミティブの列のため null は追加できません(欠損値は Double.NaN を使用してください)。
+     *
+     * @param value
+     * @throws IllegalArgumentException value が null の場合
+     */
+    @Override
+    public boolean add(Double value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null cannot be added to DoubleColumn. Use Double.NaN for a missing value.");
+        }
+        add(value.doubleValue());
+        return true;
+    }
+
+    @Override
+    public Double get(int index) {
+        return getDouble(index);
+    }
+
+    @Override
+    protected int arrayLength() {
+        return values.length;
+    }
+
+    @Override
+    protected void resize(int newLength) {
+        values = copyInOrder(values, new double[newLength]);
+    }
+
+    @Override
+    protected void move(int from, int to) {
+        values[to] = values[from];
+    }
+
+}
@@ -0,0 +1,85 @@
+package ny2.ats.indicator.series;
+
+/**
+ * 整数のデータ列です。int 配列を循環して保持し、List&lt;Integer&gt; として参照できます。<br>
+ * 値の取得・追加はプリミティブの getInt / add(int) を使用してください。
+ */
+public class IntColumn extends RingColumn<Integer> {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    private int[] values = new int[0];
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    /**
+     * @param maxSize 最大件数。0以下は上限なし
+     */
+    public IntColumn(int maxSize) {
+        super(maxSize);
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 値を追加します
+     *
+     * @param value
+     */
+    public void add(int value) {
+        int slot = appendSlot();
+        values[slot] = value;
+    }
+
+    /**
+     * 指定位置の値を返します
+     *
+     * @param index
+     * @return
+     */
+    public int getInt(int index) {
+        return values[slot(index)];
+    }
+
+    /**
+     * 値を追加します。プリミティブの列のため null は追加できません。
+     *
+     * @param value
+     * @throws IllegalArgumentException value が null の場合
+     */
+    @Override
+    public boolean add(Integer value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null cannot be added to IntColumn.");
+        }
+        add(value.intValue());
+        return true;
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    @Override
+    protected int arrayLength() {
+        return values.length;
+    }
+
+    @Override
+    protected void resize(int newLength) {
+        values = copyInOrder(values, new int[newLength]);
+    }
+
+    @Override
+    protected void move(int from, int to) {
+        values[to] = values[from];
+    }
+
+}
@@ -0,0 +1,65 @@
+package ny2.ats.indicator.series;
+
+import java.util.Arrays;
+
+/**
+ * オブジェクトのデータ列です。配列を循環して保持し、削除した位置の参照は解放します。
+ * @param <E>
+ */
+public class ObjectColumn<E> extends RingColumn<E> {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    private Object[] values = new Object[0];
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    /**
+     * @param maxSize 最大件数。0以下は上限なし
+     */
+    public ObjectColumn(int maxSize) {
+        super(maxSize);
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    @Override
+    public boolean add(E value) {
+        int slot = appendSlot();
+        values[slot] = value;
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        return (E) values[slot(index)];
+    }
+
+    @Override
+    protected int arrayLength() {
+        return values.length;
+    }
+
+    @Override
+    protected void resize(int newLength) {
+        values = copyInOrder(values, new Object[newLength]);
+    }
+
+    @Override
+    protected void move(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    protected void release(int from, int count) {
+        Arrays.fill(values, from, from + count, null);
+    }
+
+}
@@ -0,0 +1,189 @@
+package ny2.ats.indicator.series;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * 配列を循環して使用するデータ列の抽象クラスです。<br>
+ * 最大件数(maxSize)を指定した場合、最大件数に達した後の追加は最も古い値を上書きし、先頭の値が O(1) で削除されます。
+ * 最大件数が 0 以下の場合は上限なしで、配列を2倍ずつ拡張します。<br>
+ * 先頭(古い側)・末尾からの範囲削除は位置の移動のみで O(1) です。途中の範囲削除は先頭側・末尾側のうち少ない方の値を詰めます。<br>
+ * 同期化していないため、1つのThreadから更新してください。
+ * @param <E>
+ */
+public abstract class RingColumn<E> extends AbstractList<E> implements RandomAccess {
+
+    // //////////////////////////////////////
+    // Field
+    // //////////////////////////////////////
+
+    /** 配列の初期サイズ */
+    private static final int INITIAL_LENGTH = 16;
+
+    /** 最大件数。0以下は上限なし */
+    private final int maxSize;
+
+    /** 先頭(最も古い値)の配列上の位置 */
+    private int head;
+
+    /** 件数 */
+    private int size;
+
+    // //////////////////////////////////////
+    // Constructor
+    // //////////////////////////////////////
+
+    /**
+     * @param maxSize 最大件数。0以下は上限なし
+     */
+    protected RingColumn(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    // //////////////////////////////////////
+    // Method
+    // //////////////////////////////////////
+
+    /**
+     * 配列のサイズを返します
+     */
+    protected abstract int arrayLength();
+
+    /**
+     * 配列を指定サイズに作り直します。copyInOrder で先頭から順に詰めてください。
+     *
+     * @param newLength
+     */
+    protected abstract void resize(int newLength);
+
+    /**
+     * 配列上の位置 from の値を位置 to にコピーします
+     *
+     * @param from 配列上の位置
+     * @param to 配列上の位置
+     */
+    protected abstract void move(int from, int to);
+
+    /**
+     * 指定した配列上の範囲の参照を解放します。プリミティブの列では何もしません。
+     *
+     * @param from 配列上の位置
+     * @param count
+     */
+    protected void release(int from, int count) {
+        // do nothing
+    }
+
+    /**
+     * 末尾に追加する値の配列上の位置を返します。最大件数に達している場合は最も古い値の位置です。<br>
+     * 配列を拡張する場合があるため、配列を参照する前に呼び出してください。
+     */
+    protected final int appendSlot() {
+        int length = arrayLength();
+        modCount++;
+        if (size == length) {
+            if (maxSize > 0 && size >= maxSize) {
+                // 最も古い値を上書き
+                int slot = head;
+                head = head + 1 == length ? 0 : head + 1;
+                return slot;
+            }
+            int newLength = Math.max(length * 2, INITIAL_LENGTH);
+            resize(maxSize > 0 ? Math.min(newLength, maxSize) : newLength);
+            head = 0;
+            length = arrayLength();
+        }
+        int slot = head + size;
+        size++;
+        return slot < length ? slot : slot - length;
+    }
+
+    /**
+     * 論理位置(0 が最も古い値)を配列上の位置に変換します
+     *
+     * @param index
+     * @return
+     */
+    protected final int slot(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int slot = head + index;
+        int length = arrayLength();
+        return slot < length ? slot : slot - length;
+    }
+
+    /**
+     * src の値を先頭から順に dst へコピーして dst を返します
+     *
+     * @param src
+     * @param dst src と同じ型の配列
+     * @return dst
+     */
+    protected final <A> A copyInOrder(A src, A dst) {
+        int length = arrayLength();
+        int firstPart = Math.min(size, length - head);
+        System.arraycopy(src, head, dst, 0, firstPart);
+        System.arraycopy(src, 0, dst, firstPart, size - firstPart);
+        return dst;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        removeRange(0, size);
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("From: " + fromIndex + ", To: " + toIndex + ", Size: " + size);
+        }
+        int count = toIndex - fromIndex;
+        if (count == 0) {
+            return;
+        }
+        if (fromIndex < size - toIndex) {
+            // 削除範囲より前の値を後ろへ詰め、先頭を進める
+            for (int index = fromIndex - 1; index >= 0; index--) {
+                move(slot(index), slot(index + count));
+            }
+            releaseRange(0, count);
+            int length = arrayLength();
+            head = head + count < length ? head + count : head + count - length;
+        } else {
+            // 削除範囲より後の値を前へ詰める
+            for (int index = toIndex; index < size; index++) {
+                move(slot(index), slot(index - count));
+            }
+            releaseRange(size - count, count);
+        }
+        size -= count;
+        modCount++;
+    }
+
+    private void releaseRange(int fromIndex, int count) {
+        int from = slot(fromIndex);
+        int firstPart = Math.min(count, arrayLength() - from);
+        release(from, firstPart);
+        if (count > firstPart) {
+            release(0, count - firstPart);
+        }
+    }
+
+    // //////////////////////////////////////
+    // Getters and Setters
+    // //////////////////////////////////////
+
+    /**
+     * 最大件数を返します。0以下は上限なし
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+}
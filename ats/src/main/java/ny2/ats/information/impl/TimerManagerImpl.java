@@ -2,7 +2,6 @@ package ny2.ats.information.impl;
 
 import java.time.LocalDateTime;
 import java.util.Map.Entry;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -16,6 +15,8 @@ import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Component;
 
 import ny2.ats.core.common.Period;
+import ny2.ats.core.thread.ExecutorRegistry;
+import ny2.ats.core.thread.ShutdownPhase;
 import ny2.ats.information.ITimerManager;
 import ny2.ats.information.TimerChecker;
 
@@ -34,6 +35,9 @@ public class TimerManagerImpl implements ITimerManager {
     @Autowired
     private TimerChecker timerChecker;
 
+    @Autowired
+    private ExecutorRegistry executorRegistry;
+
     /** Timer用のExecuter */
     private ScheduledExecutorService executorService;
 
@@ -51,7 +55,7 @@ public class TimerManagerImpl implements ITimerManager {
         logger.info("Start TimerChecker thread.");
         timerChecker.resetTimer(LocalDateTime.now());
 
-        executorService = Executors.newSingleThreadScheduledExecutor();
+        executorService = executorRegistry.createScheduledExecutor(TimerManagerImpl.class.getSimpleName() + "-Timer", 1, ShutdownPhase.SOURCE);
         executorService.scheduleAtFixedRate(new Runnable() {
             @Override
             public void run() {
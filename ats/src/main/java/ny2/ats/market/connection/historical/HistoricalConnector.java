@@ -12,8 +12,8 @@ import org.springframework.beans.factory.annotation.Qualifier;
 
 import ny2.ats.core.common.Symbol;
 import ny2.ats.core.data.MarketData;
-import ny2.ats.core.event.MarketUpdateEvent;
 import ny2.ats.core.exception.ATSRuntimeException;
+import ny2.ats.core.router.IEventRouter;
 import ny2.ats.market.connection.IMarketConnector;
 import ny2.ats.market.connection.MarketType;
 import ny2.ats.market.order.impl.HistoricalOrderManagerImpl;
@@ -38,6 +38,9 @@ public class HistoricalConnector implements IMarketConnector {
     @Autowired
     private IMarketManager marketManager;
 
+    @Autowired
+    private IEventRouter eventRouter;
+
     @Autowired
     @Qualifier("HistoricalOrderManager")
     private HistoricalOrderManagerImpl orderManager;
@@ -118,8 +121,8 @@ public class HistoricalConnector implements IMarketConnector {
     public void updateMarketData(MarketData marketData) {
         // 執行用データ更新、指値チェック (執行に使うためイベント送信よりも先に実行する)
         orderManager.updateMarketAndCheckLimitStop(marketData);
-        // イベント送信
-        marketManager.updateFromMarket(new MarketUpdateEvent(uuid, getClass(), marketData));
+        // イベント送信 (同期型Routerの場合は再利用のイベント)
+        marketManager.updateFromMarket(eventRouter.createMarketUpdateEvent(uuid, getClass(), marketData));
     }
 
 }
@@ -60,4 +60,21 @@ public interface IOrderManager {
      */
     public void updateMarketForOptimizer(MarketData marketData);
 
+    /**
+     * Event Journal から復元した未約定オーダーを管理対象に追加します。
+     * @param order
+     */
+    public default void restoreOpenOrder(Order order) {
+        // 何もしない
+    }
+
+    /**
+     * Symbol ごとに並行してオーダーを受け付けられるかを返します。
+     * Symbol 分割型Routerで、MarketOrder を Symbol の Partition Thread から受け付けるかの判断に使用します。
+     * @return 並行して受け付けられる場合 true
+     */
+    public default boolean isSymbolPartitionable() {
+        return false;
+    }
+
 }
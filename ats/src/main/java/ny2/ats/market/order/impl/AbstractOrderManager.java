@@ -78,6 +78,11 @@ public abstract class AbstractOrderManager implements IOrderManager {
         }
     }
 
+    @Override
+    public void restoreOpenOrder(Order order) {
+        orderMap.put(order.getOrderId(), order);
+    }
+
     /**
      * 執行最適化情報を登録します
      * @param order
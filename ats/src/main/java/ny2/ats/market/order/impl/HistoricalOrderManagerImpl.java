@@ -113,6 +113,14 @@ public class HistoricalOrderManagerImpl extends AbstractOrderManager {
         }
     }
 
+    /**
+     * オーダーとレートは Symbol ごとに保持するため、Symbol をまたいで状態を持つ Optimizer を使用しない場合のみ並行して受け付けます
+     */
+    @Override
+    public boolean isSymbolPartitionable() {
+        return !enableOptimizer;
+    }
+
     @Override
     public void amendOrderToMarket(Order order) {
         // Auto-generated method stub
@@ -14,6 +14,7 @@ import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Service;
 
+import ny2.ats.core.data.MarketData;
 import ny2.ats.core.data.Order;
 import ny2.ats.core.data.SystemInformation.SystemInfromationType;
 import ny2.ats.core.event.EventType;
@@ -74,6 +75,19 @@ public class MarketManagerImpl implements IMarketManager, IEventListener {
     // Method
     // //////////////////////////////////////
 
+    /**
+     * 全てのOrderManagerが Symbol ごとに並行してオーダーを受け付けられる場合は Partition Thread で受信する
+     */
+    @Override
+    public boolean isSymbolPartitionable() {
+        for (IOrderManager orderManager : orderManagerMap.values()) {
+            if (!orderManager.isSymbolPartitionable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public void onEvent(MarketOrderEvent event) {
         Order order = event.getContent();
@@ -110,11 +124,13 @@ public class MarketManagerImpl implements IMarketManager, IEventListener {
 
     @Override
     public void updateFromMarket(MarketUpdateEvent marketUpdate) {
+        // イベントは再利用される場合があるため addEvent の前に取得する
+        MarketData marketData = marketUpdate.getContent();
         eventRouter.addEvent(marketUpdate);
 
         // TODO Routerから受け取ったほうがよいかも or 別スレッド
         for (IOrderManager orderManager : orderManagerMap.values()) {
-            orderManager.updateMarketForOptimizer(marketUpdate.getContent());
+            orderManager.updateMarketForOptimizer(marketData);
         }
     }
 
@@ -5,6 +5,7 @@ import com.udojava.jmx.wrapper.JMXBeanAttribute;
 import com.udojava.jmx.wrapper.JMXBeanOperation;
 import com.udojava.jmx.wrapper.JMXBeanParameter;
 
+import ny2.ats.core.data.IndicatorBarInformation;
 import ny2.ats.core.data.IndicatorInformation;
 import ny2.ats.core.data.MarketData;
 import ny2.ats.core.data.Order;
@@ -150,6 +151,18 @@ public interface IModel {
         // Do nothing.
     }
 
+    /**
+     * 足の確定を受けて動作します。全Indicatorの計算後に足ごとに1回呼び出されます。<br>
+     * デフォルトではIndicatorごとに {@link #receiveIndicatorUpdate(IndicatorInformation)} を呼び出します(OHLCが先頭)。
+     *
+     * @param indicatorBarInformation
+     */
+    public default void receiveIndicatorUpdate(IndicatorBarInformation indicatorBarInformation) {
+        for (IndicatorInformation indicatorInformation : indicatorBarInformation.getIndicatorInformations()) {
+            receiveIndicatorUpdate(indicatorInformation);
+        }
+    }
+
     /**
      * Timerを受信して動作します。
      * @param timerInformation
@@ -1,5 +1,6 @@
 package ny2.ats.model.impl;
 
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -10,7 +11,6 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.PostConstruct;
@@ -18,6 +18,7 @@ import javax.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.jmx.export.annotation.ManagedResource;
@@ -25,6 +26,7 @@ import org.springframework.stereotype.Service;
 
 import ny2.ats.core.common.Period;
 import ny2.ats.core.common.Symbol;
+import ny2.ats.core.data.IndicatorBarInformation;
 import ny2.ats.core.data.IndicatorInformation;
 import ny2.ats.core.data.MarketData;
 import ny2.ats.core.data.ModelInformation;
@@ -42,6 +44,9 @@ import ny2.ats.core.event.PositionUpdateEvent;
 import ny2.ats.core.event.SystemInformationEvent;
 import ny2.ats.core.event.TimerInformationEvent;
 import ny2.ats.core.router.IEventRouter;
+import ny2.ats.core.thread.ExecutorRegistry;
+import ny2.ats.core.thread.ShutdownPhase;
+import ny2.ats.core.thread.WaitStrategy;
 import ny2.ats.information.IJmxManager;
 import ny2.ats.information.JmxDomainType;
 import ny2.ats.market.connection.MarketType;
@@ -76,6 +81,9 @@ public class ModelManagerImpl implements IModelManager, IEventListener {
     @Autowired
     private IModelIndicatorDataHolder modelIndicatorDataHolder;
 
+    @Autowired
+    private ExecutorRegistry executorRegistry;
+
 
     // Model関連
     /** 処理対象通貨ペアのセット  */
@@ -95,7 +103,14 @@ public class ModelManagerImpl implements IModelManager, IEventListener {
 
     // その他
     /** Model処理e実行用のExecuter */
-    private final ExecutorService modelExecutor = Executors.newFixedThreadPool(10);
+    private ExecutorService modelExecutor;
+
+    /** Model処理のThread数 */
+    private static final int MODEL_THREADS = 10;
+
+    /** Model処理Threadの待機方法 (BLOCKING/YIELDING/SPIN_PARK/BUSY_SPIN) */
+    @Value("${thread.wait.model:BLOCKING}")
+    private WaitStrategy modelWaitStrategy;
 
     /** モデルとMBeanの名前Map */
     private final Map<IModel, String> modelMBeanMap = new HashMap<>();
@@ -106,6 +121,9 @@ public class ModelManagerImpl implements IModelManager, IEventListener {
     /** 動作モード */
     private boolean multiThreadMode = true;
 
+    /** 全てのモデルが単一Symbolのイベントのみを受信し、他のSymbolのレートを参照しないかどうか */
+    private volatile boolean singleSymbolModels = true;
+
     // //////////////////////////////////////
     // Constructor
     // //////////////////////////////////////
@@ -118,6 +136,10 @@ public class ModelManagerImpl implements IModelManager, IEventListener {
     private void init() {
         logger.info("PostConstruct instance.");
 
+        // Model処理用Executor
+        modelExecutor = executorRegistry.createThreadPool(ModelManagerImpl.class.getSimpleName() + "-Model", MODEL_THREADS, modelWaitStrategy, ShutdownPhase.PROCESSOR);
+        logger.info("Model WaitStrategy = {}", modelWaitStrategy);
+
         // subscribe event
         eventRouter.registerListeners(EventType.EVNET_TYPE_CLIENT_ALL, this);
     }
@@ -126,6 +148,16 @@ public class ModelManagerImpl implements IModelManager, IEventListener {
     // Method (IEventListener)
     // //////////////////////////////////////
 
+    /**
+     * シングルスレッドモードで、全てのモデルが単一Symbolのイベントのみを受信する場合は Partition Thread で受信する<br>
+     * 約定時のPosition更新(ModelPositionHolder)は Ccy2/JPY のレートを参照するため、JPYを含まないSymbolのモデルがある場合は対象外とする。
+     * 他の Partition で更新中のレートを読むと、再生ごとに結果が変わるため。
+     */
+    @Override
+    public boolean isSymbolPartitionable() {
+        return !multiThreadMode && singleSymbolModels;
+    }
+
     @Override
     public void onEvent(MarketUpdateEvent marketUpdateEvent) {
         MarketData marketData = marketUpdateEvent.getContent();
@@ -169,22 +201,24 @@ public class ModelManagerImpl implements IModelManager, IEventListener {
 
     @Override
     public void onEvent(IndicatorUpdateEvent event) {
-        IndicatorInformation indicatorInformation = event.getContent();
+        IndicatorBarInformation indicatorBarInformation = event.getContent();
 
         // DataHolderに登録
-        modelIndicatorDataHolder.updateIndicator(indicatorInformation);
+        for (IndicatorInformation indicatorInformation : indicatorBarInformation.getIndicatorInformations()) {
+            modelIndicatorDataHolder.updateIndicator(indicatorInformation);
+        }
 
         // Get target models
-        Set<IModel> modelSet = indicatorListenerMap.get(indicatorInformation.getSymbol());
-        // 受信モデルがあればデータを送信する。
+        Set<IModel> modelSet = indicatorListenerMap.get(indicatorBarInformation.getSymbol());
+        // 受信モデルがあればデータを送信する。足ごとに1回
         if (modelSet != null) {
             if (multiThreadMode) {
                 for (IModel model : modelSet) {
-                    modelExecutor.execute(() -> model.receiveIndicatorUpdate(indicatorInformation));
+                    modelExecutor.execute(() -> model.receiveIndicatorUpdate(indicatorBarInformation));
                 }
             } else {
                 for (IModel model : modelSet) {
-                    model.receiveIndicatorUpdate(indicatorInformation);
+                    model.receiveIndicatorUpdate(indicatorBarInformation);
                 }
             }
         }
@@ -250,6 +284,8 @@ public class ModelManagerImpl implements IModelManager, IEventListener {
 
         // 処理対象通貨ペア一覧を更新
         targetSymbolSet.add(symbol);
+
+        updateSingleSymbolModels();
     }
 
     @Override
@@ -272,6 +308,27 @@ public class ModelManagerImpl implements IModelManager, IEventListener {
             indicatorListenerMap.put(symbol, modelSet);
         }
         modelSet.add(model);
+
+        updateSingleSymbolModels();
+    }
+
+    /**
+     * 複数のSymbolのMarketUpdate, IndicatorUpdateを受信するモデル、Ccy2/JPYのレートを参照するモデルがあるか確認します
+     */
+    private void updateSingleSymbolModels() {
+        Map<IModel, Symbol> modelSymbolMap = new HashMap<>();
+        for (Map<Symbol, Set<IModel>> listenerMap : Arrays.asList(marketDataListenerMap, indicatorListenerMap)) {
+            for (Entry<Symbol, Set<IModel>> entry : listenerMap.entrySet()) {
+                for (IModel model : entry.getValue()) {
+                    Symbol symbol = modelSymbolMap.putIfAbsent(model, entry.getKey());
+                    if ((symbol != null && symbol != entry.getKey()) || entry.getKey().getCcy2JpySymbol() != entry.getKey()) {
+                        singleSymbolModels = false;
+                        return;
+                    }
+                }
+            }
+        }
+        singleSymbolModels = true;
     }
 
     @Override
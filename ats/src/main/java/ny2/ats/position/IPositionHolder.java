@@ -20,6 +20,13 @@ public interface IPositionHolder {
      */
     public Position updatePosition(Order filledOrder, MarketData marketData, MarketData ccy2JpyMarketData);
 
+    /**
+     * 保存済みのPositionで置き換えます。起動時に Event Journal の Checkpoint から復元する場合に使用します。
+     *
+     * @param position
+     */
+    public void restorePosition(Position position);
+
     /**
      * 全てのPositionを取得します
      * @return
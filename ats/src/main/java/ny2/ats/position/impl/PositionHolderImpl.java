@@ -73,6 +73,14 @@ public class PositionHolderImpl implements IPositionHolder {
         return position;
     }
 
+    @Override
+    public synchronized void restorePosition(Position position) {
+        symbolPositionMap.put(position.getSymbol(), position);
+        if (position.getExecuteDateTime() != null) {
+            lastExecuteDateTime = position.getExecuteDateTime();
+        }
+    }
+
     /**
      * ポジションマップに通貨ペアを追加します
      *
@@ -86,6 +86,14 @@ public class PositionManagerImpl implements IPositionManager, IEventListener {
     // Method
     // //////////////////////////////////////
 
+    /**
+     * 起動時にJournalからPositionを再計算する
+     */
+    @Override
+    public boolean isJournalReplayTarget() {
+        return true;
+    }
+
     @Override
     public void onEvent(MarketUpdateEvent event) {
         // 最新レートを保持
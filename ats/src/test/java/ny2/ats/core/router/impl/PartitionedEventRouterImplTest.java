@@ -0,0 +1,371 @@
+package ny2.ats.core.router.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+
+import ny2.ats.core.common.OrderAction;
+import ny2.ats.core.common.OrderStatus;
+import ny2.ats.core.common.OrderType;
+import ny2.ats.core.common.Period;
+import ny2.ats.core.common.Side;
+import ny2.ats.core.common.Symbol;
+import ny2.ats.core.data.MarketData;
+import ny2.ats.core.data.ModelInformation;
+import ny2.ats.core.data.ModelInformation.ModelInfromationType;
+import ny2.ats.core.data.Order;
+import ny2.ats.core.data.Order.OrderBuilder;
+import ny2.ats.core.data.PLInformation;
+import ny2.ats.core.event.EventType;
+import ny2.ats.core.event.IEvent;
+import ny2.ats.core.event.IEventListener;
+import ny2.ats.core.event.MarketOrderEvent;
+import ny2.ats.core.event.MarketUpdateEvent;
+import ny2.ats.core.event.ModelInformationEvent;
+import ny2.ats.core.event.OrderUpdateEvent;
+import ny2.ats.core.event.TimerInformationEvent;
+import ny2.ats.core.router.IEventRouter;
+import ny2.ats.core.thread.ExecutorRegistry;
+import ny2.ats.core.thread.ThreadAffinity;
+import ny2.ats.market.connection.MarketType;
+import ny2.ats.model.ModelType;
+import ny2.ats.model.ModelVersion;
+import ny2.ats.position.impl.PositionHolderImpl;
+import ny2.ats.position.impl.PositionManagerImpl;
+
+/**
+ * 同期型Router(SynchronizedEventRouterImpl)と Symbol 分割型Router(PartitionedEventRouterImpl)で同じバックテストシナリオを実行し、
+ * 結果が一致することを確認します。<br>
+ * シナリオは乱数Seed固定のレートで、Symbolごとのモデルと約定処理(Partition Thread で受信)、
+ * Symbol をまたいで状態を持つ PositionManagerImpl と全イベントの記録(1つのThreadで受信)を動かします。
+ * 記録したイベント、モデルの約定、最終Positionを比較します。
+ */
+public class PartitionedEventRouterImplTest {
+
+    private static final String PARTITIONS_PROPERTY = "historical.router.partitions";
+
+    /** 対象Symbol */
+    private static final List<Symbol> SYMBOLS = Arrays.asList(Symbol.USDJPY, Symbol.EURJPY, Symbol.EURUSD, Symbol.GBPUSD, Symbol.AUDUSD);
+
+    /** 初期レート(SYMBOLSの順) */
+    private static final double[] INITIAL_PRICES = { 100.0, 140.0, 1.4, 1.6, 0.9 };
+
+    /** Tick数 */
+    private static final int TICK_COUNT = 50_000;
+
+    /** 乱数Seed */
+    private static final long SEED = 20140107L;
+
+    /** 開始日時 */
+    private static final LocalDateTime START_DATE_TIME = LocalDateTime.of(2014, 1, 7, 9, 0);
+
+    private static final UUID uuid = UUID.randomUUID();
+
+    @After
+    public void tearDown() {
+        System.clearProperty(PARTITIONS_PROPERTY);
+        Order.changeSymbolSequenceId(false);
+    }
+
+    @Test
+    public void testSinglePartition() {
+        assertSameResult(1);
+    }
+
+    @Test
+    public void testMultiPartitions() {
+        assertSameResult(4);
+    }
+
+    @Test
+    public void testPartitionsMoreThanSymbols() {
+        assertSameResult(SYMBOLS.size() + 2);
+    }
+
+    private void assertSameResult(int partitions) {
+        System.setProperty(PARTITIONS_PROPERTY, String.valueOf(partitions));
+        List<String> expected = runScenario(SynchronizedEventRouterImpl.class);
+        List<String> actual = runScenario(PartitionedEventRouterImpl.class);
+
+        int size = Math.min(expected.size(), actual.size());
+        for (int index = 0; index < size; index++) {
+            assertEquals("partitions = " + partitions + ", index = " + index, expected.get(index), actual.get(index));
+        }
+        assertEquals("partitions = " + partitions, expected.size(), actual.size());
+    }
+
+    /**
+     * 指定したRouterでシナリオを実行し、結果を返します
+     *
+     * @param routerClass
+     * @return 記録したイベント、モデルの約定、最終Position
+     */
+    private static List<String> runScenario(Class<? extends IEventRouter> routerClass) {
+        Order.changeSymbolSequenceId(true);
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.register(PropertySourcesPlaceholderConfigurer.class, ThreadAffinity.class, ExecutorRegistry.class, routerClass,
+                PositionHolderImpl.class, PositionManagerImpl.class);
+        context.refresh();
+        try {
+            IEventRouter eventRouter = context.getBean(IEventRouter.class);
+            PositionManagerImpl positionManager = context.getBean(PositionManagerImpl.class);
+
+            // PositionManagerImpl は init で登録済み
+            EventRecorder recorder = new EventRecorder();
+            SymbolModel model = new SymbolModel(eventRouter);
+            SymbolOrderBook orderBook = new SymbolOrderBook(eventRouter);
+            eventRouter.registerListeners(EnumSet.of(EventType.MARKET_UPDATE, EventType.ORDER_UPDATE, EventType.TIMER_INFORMATION), model);
+            eventRouter.registerListener(EventType.MARKET_ORDER, orderBook);
+            eventRouter.registerListeners(EventType.EVNET_TYPE_ALL, recorder);
+            eventRouter.trimListenerLists();
+
+            // Position換算用の初期データ
+            double[] prices = INITIAL_PRICES.clone();
+            for (int i = 0; i < SYMBOLS.size(); i++) {
+                positionManager.onEvent(new MarketUpdateEvent(uuid, PartitionedEventRouterImplTest.class,
+                        createMarketData(SYMBOLS.get(i), prices[i], "0", START_DATE_TIME)));
+            }
+
+            // 実行
+            Random random = new Random(SEED);
+            LocalDateTime dateTime = START_DATE_TIME;
+            LocalDateTime nextTimerDateTime = START_DATE_TIME.plusMinutes(1);
+            for (int tick = 1; tick <= TICK_COUNT; tick++) {
+                dateTime = dateTime.plusNanos(random.nextInt(1000) * 1_000_000L);
+                while (!dateTime.isBefore(nextTimerDateTime)) {
+                    eventRouter.addEvent(new TimerInformationEvent(uuid, PartitionedEventRouterImplTest.class, Period.MIN_1, nextTimerDateTime, nextTimerDateTime.plusMinutes(1)));
+                    nextTimerDateTime = nextTimerDateTime.plusMinutes(1);
+                }
+                int i = random.nextInt(SYMBOLS.size());
+                prices[i] += SYMBOLS.get(i).getSubPipValue() * (random.nextInt(21) - 10);
+                MarketData marketData = createMarketData(SYMBOLS.get(i), prices[i], String.valueOf(tick), dateTime);
+
+                // HistoricalConnector と同様に約定処理の後にレートを配信する
+                eventRouter.executeForSymbol(marketData.getSymbol(), () -> {
+                    orderBook.updateMarketData(marketData);
+                    eventRouter.addEvent(eventRouter.createMarketUpdateEvent(uuid, PartitionedEventRouterImplTest.class, marketData));
+                });
+            }
+            eventRouter.awaitEvents();
+
+            // 結果
+            List<String> result = new ArrayList<>(recorder.trace);
+            for (Symbol symbol : SYMBOLS) {
+                result.addAll(model.traces[symbol.ordinal()]);
+            }
+            result.add(positionManager.showAllPosition());
+            return result;
+
+        } finally {
+            context.close();
+        }
+    }
+
+    private static MarketData createMarketData(Symbol symbol, double price, String quoteId, LocalDateTime dateTime) {
+        double spread = symbol.getSubPipValue() * 5;
+        return new MarketData(MarketType.HISTORICAL, symbol, quoteId, price, price + spread, 1_000_000, 1_000_000, true, dateTime);
+    }
+
+    // //////////////////////////////////////
+    // Inner Class
+    // //////////////////////////////////////
+
+    /**
+     * 受信した全イベントを記録します(1つのThreadで受信)
+     */
+    static class EventRecorder implements IEventListener {
+
+        private final List<String> trace = new ArrayList<>();
+
+        @Override
+        public void onEvent(IEvent<?> event) {
+            if (event.getEventType() == EventType.PL_INFORMATION) {
+                PLInformation plInformation = (PLInformation) event.getContent();
+                trace.add("PLInformation [" + plInformation.getPlJpy() + ", " + plInformation.getPlDetail() + ", " + plInformation.getNetAmountDetail()
+                        + ", " + plInformation.getReportDateTime() + "]");
+            } else if (event.getEventType() == EventType.MODEL_INFORMATION) {
+                ModelInformation modelInformation = (ModelInformation) event.getContent();
+                trace.add(modelInformation.toStringSummary() + " " + modelInformation.getInformation1());
+            } else {
+                trace.add(event.getContent().toStringSummary());
+            }
+        }
+    }
+
+    /**
+     * Symbolごとに単純な移動平均の乖離で売買するモデルです(Partition Thread で受信)。
+     * Timerでは保有時間の長いポジションを決済します。
+     */
+    static class SymbolModel implements IEventListener {
+
+        private static final int AMOUNT = 10_000;
+        private static final int WARMUP_TICKS = 20;
+        private static final double ENTRY_PIPS = 1.5;
+        private static final double EXIT_PIPS = 3.0;
+        private static final int HOLD_MINUTES = 30;
+
+        private final IEventRouter eventRouter;
+        private final int[] tickCounts = new int[Symbol.values().length];
+        private final double[] averages = new double[Symbol.values().length];
+        private final MarketData[] lastMarketData = new MarketData[Symbol.values().length];
+        private final Order[] openOrders = new Order[Symbol.values().length];
+        private final boolean[] ordering = new boolean[Symbol.values().length];
+        private final List<String>[] traces;
+
+        @SuppressWarnings("unchecked")
+        public SymbolModel(IEventRouter eventRouter) {
+            this.eventRouter = eventRouter;
+            this.traces = new List[Symbol.values().length];
+            for (int i = 0; i < traces.length; i++) {
+                traces[i] = new ArrayList<>();
+            }
+        }
+
+        @Override
+        public boolean isSymbolPartitionable() {
+            return true;
+        }
+
+        @Override
+        public void onEvent(MarketUpdateEvent event) {
+            MarketData marketData = event.getContent();
+            Symbol symbol = marketData.getSymbol();
+            int i = symbol.ordinal();
+            lastMarketData[i] = marketData;
+            averages[i] = tickCounts[i] == 0 ? marketData.getMidPrice() : averages[i] * 0.9 + marketData.getMidPrice() * 0.1;
+            if (++tickCounts[i] < WARMUP_TICKS || ordering[i]) {
+                return;
+            }
+            double diffPips = symbol.convertRealToPips(marketData.getMidPrice() - averages[i]);
+            if (openOrders[i] == null) {
+                if (Math.abs(diffPips) >= ENTRY_PIPS) {
+                    // 乖離と逆方向に指値
+                    Side side = diffPips > 0 ? Side.SELL : Side.BUY;
+                    sendOrder(Order.createNewOrderBuilder(MarketType.HISTORICAL, ModelType.TEST_MODEL, ModelVersion.DUMMY_VERSION,
+                            marketData.getQuoteId(), symbol, side, OrderType.LIMIT, marketData.getPrice(side.getOpenBidAsk()), AMOUNT), marketData);
+                }
+            } else {
+                double plPips = symbol.convertRealToPips(marketData.getMidPrice() - openOrders[i].getExecutePrice());
+                if (openOrders[i].getSide() == Side.SELL) {
+                    plPips = -plPips;
+                }
+                if (Math.abs(plPips) >= EXIT_PIPS) {
+                    sendCloseOrder(openOrders[i], marketData);
+                }
+            }
+        }
+
+        @Override
+        public void onEvent(OrderUpdateEvent event) {
+            Order order = event.getContent();
+            int i = order.getSymbol().ordinal();
+            if (order.getOrderStatus() != OrderStatus.FILLED) {
+                return;
+            }
+            ordering[i] = false;
+            openOrders[i] = order.getOriginalOrderId() == null ? order : null;
+            traces[i].add(order.toStringSummary());
+
+            // Symbol を持たないイベント
+            ModelInformation modelInformation = new ModelInformation(ModelType.TEST_MODEL, ModelVersion.DUMMY_VERSION, ModelInfromationType.DEAL_SYGNAL,
+                    String.valueOf(order.getOrderId()), null, null, null, null, order.getMarketDateTime());
+            eventRouter.addEvent(new ModelInformationEvent(uuid, getClass(), modelInformation));
+        }
+
+        @Override
+        public void onEvent(TimerInformationEvent event) {
+            // 全Symbolの状態を参照する(Barrier後に呼び出し元Threadで受信)
+            LocalDateTime currentDateTime = event.getContent().getCurrentDateTime();
+            for (Symbol symbol : SYMBOLS) {
+                int i = symbol.ordinal();
+                Order openOrder = openOrders[i];
+                if (openOrder != null && !ordering[i] && openOrder.getMarketDateTime().plusMinutes(HOLD_MINUTES).isBefore(currentDateTime)) {
+                    sendCloseOrder(openOrder, lastMarketData[i]);
+                }
+            }
+        }
+
+        private void sendCloseOrder(Order openOrder, MarketData marketData) {
+            Side side = openOrder.getSide().getReverseSide();
+            sendOrder(Order.createNewOrderBuilderAsClose(MarketType.HISTORICAL, ModelType.TEST_MODEL, ModelVersion.DUMMY_VERSION,
+                    marketData.getQuoteId(), openOrder.getSymbol(), side, OrderType.MARKET, marketData.getPrice(side.getOpenBidAsk()), AMOUNT,
+                    openOrder.getOrderId(), null), marketData);
+        }
+
+        private void sendOrder(OrderBuilder orderBuilder, MarketData marketData) {
+            orderBuilder.setMarketDateTime(marketData.getMarketDateTime());
+            Order order = orderBuilder.createInstance();
+            ordering[order.getSymbol().ordinal()] = true;
+            eventRouter.addEvent(new MarketOrderEvent(uuid, getClass(), order));
+        }
+    }
+
+    /**
+     * Symbolごとにオーダーを保持し、次のレートで約定します(Partition Thread で受信)
+     */
+    static class SymbolOrderBook implements IEventListener {
+
+        private final IEventRouter eventRouter;
+        private final List<Order>[] orderLists;
+
+        @SuppressWarnings("unchecked")
+        public SymbolOrderBook(IEventRouter eventRouter) {
+            this.eventRouter = eventRouter;
+            this.orderLists = new List[Symbol.values().length];
+            for (int i = 0; i < orderLists.length; i++) {
+                orderLists[i] = new ArrayList<>();
+            }
+        }
+
+        @Override
+        public boolean isSymbolPartitionable() {
+            return true;
+        }
+
+        @Override
+        public void onEvent(MarketOrderEvent event) {
+            Order order = event.getContent();
+            orderLists[order.getSymbol().ordinal()].add(order);
+        }
+
+        /**
+         * レート更新時にオーダーを約定します
+         */
+        public void updateMarketData(MarketData marketData) {
+            List<Order> orderList = orderLists[marketData.getSymbol().ordinal()];
+            for (int index = 0; index < orderList.size();) {
+                Order order = orderList.get(index);
+                double marketPrice = marketData.getPrice(order.getSide().getOpenBidAsk());
+                boolean executable = order.getOrderType() == OrderType.MARKET
+                        || (order.getSide() == Side.BUY ? marketPrice <= order.getOrderPrice() : marketPrice >= order.getOrderPrice());
+                if (!executable) {
+                    index++;
+                    continue;
+                }
+                orderList.remove(index);
+                double executePrice = order.getOrderType() == OrderType.MARKET ? marketPrice : order.getOrderPrice();
+                Order filledOrder = OrderBuilder.getBuilder(order)
+                        .setOrderAction(OrderAction.FILL)
+                        .setOrderStatus(OrderStatus.FILLED)
+                        .setExecutePrice(executePrice)
+                        .setExecuteAmount(order.getOrderAmount())
+                        .setMarketDateTime(marketData.getMarketDateTime())
+                        .createInstance();
+                eventRouter.addEvent(new OrderUpdateEvent(uuid, getClass(), filledOrder));
+            }
+        }
+    }
+
+}
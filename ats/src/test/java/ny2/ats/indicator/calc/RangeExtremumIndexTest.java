@@ -0,0 +1,104 @@
+package ny2.ats.indicator.calc;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * RangeExtremumIndex の区間検索を、subList に対する Collections.max / min と比較します。<br>
+ * 同値の場合に古い Sequence を返すこと、capacity を超えて Ring が折り返した後の区間(折り返しをまたぐ区間を含む)を確認します。
+ */
+public class RangeExtremumIndexTest {
+
+    private static final long SEED = 20140107L;
+
+    @Test
+    public void testMaximum() {
+        assertRandomSeries(52, true, 10);
+        assertRandomSeries(64, true, 10);
+    }
+
+    @Test
+    public void testMinimum() {
+        assertRandomSeries(52, false, 10);
+        assertRandomSeries(64, false, 10);
+    }
+
+    @Test
+    public void testTies() {
+        // 2段階のみ
+        assertRandomSeries(26, true, 2);
+        assertRandomSeries(26, false, 2);
+    }
+
+    @Test
+    public void testCapacityOne() {
+        assertRandomSeries(1, true, 10);
+    }
+
+    @Test
+    public void testClear() {
+        RangeExtremumIndex index = new RangeExtremumIndex(8, true);
+        for (int i = 0; i < 20; i++) {
+            index.add(100 + i);
+        }
+        index.clear();
+        index.add(3);
+        index.add(1);
+        index.add(3);
+        assertEquals(0L, index.searchSequence(0, 2));
+        assertEquals(2L, index.searchSequence(1, 2));
+        assertEquals(3.0, index.search(0, 2), 0.0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOutOfCapacity() {
+        RangeExtremumIndex index = new RangeExtremumIndex(8, true);
+        for (int i = 0; i < 20; i++) {
+            index.add(i);
+        }
+        index.search(11, 19);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testNotAdded() {
+        RangeExtremumIndex index = new RangeExtremumIndex(8, true);
+        index.add(1);
+        index.search(0, 1);
+    }
+
+    /**
+     * 値を追加するたびに、保持している全ての区間 [from, to] を検索して比較します
+     *
+     * @param capacity
+     * @param maximum
+     * @param levels 値の段階数。小さいほど同値が増えます
+     */
+    private void assertRandomSeries(int capacity, boolean maximum, int levels) {
+        Random random = new Random(SEED);
+        RangeExtremumIndex index = new RangeExtremumIndex(capacity, maximum);
+        List<Double> added = new ArrayList<>();
+        for (int i = 0; i < capacity * 5 + 3; i++) {
+            double value = random.nextInt(levels);
+            index.add(value);
+            added.add(value);
+            long to = added.size() - 1;
+            for (long from = Math.max(0, added.size() - capacity); from <= to; from++) {
+                List<Double> subList = added.subList((int) from, (int) to + 1);
+                double expected = maximum ? Collections.max(subList) : Collections.min(subList);
+                // 同値は古い方
+                long expectedSequence = from + subList.indexOf(expected);
+                String message = "capacity = " + capacity + ", from = " + from + ", to = " + to;
+                assertEquals(message, expected, index.search(from, to), 0.0);
+                assertEquals(message, expectedSequence, index.searchSequence(from, to));
+                assertEquals(message, expected, index.getValue(expectedSequence), 0.0);
+            }
+        }
+    }
+
+}
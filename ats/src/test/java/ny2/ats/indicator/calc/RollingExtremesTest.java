@@ -0,0 +1,117 @@
+package ny2.ats.indicator.calc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * RollingExtremes の最大値・最小値を、直近N件の subList に対する Collections.max / min と比較します。<br>
+ * 同値が頻繁に出るよう値を少数の段階に丸め、最大の期間より十分長い系列で Ring の折り返しを確認します。
+ */
+public class RollingExtremesTest {
+
+    private static final int[] WINDOWS = { 1, 5, 9, 26, 52 };
+
+    private static final int SERIES_SIZE = 5_000;
+
+    private static final long SEED = 20140107L;
+
+    @Test
+    public void testRandomWalk() {
+        Random random = new Random(SEED);
+        double value = 100.0;
+        List<Double> series = new ArrayList<>();
+        for (int i = 0; i < SERIES_SIZE; i++) {
+            value += random.nextGaussian();
+            series.add(value);
+        }
+        assertSeries(series);
+    }
+
+    @Test
+    public void testTies() {
+        Random random = new Random(SEED);
+        List<Double> series = new ArrayList<>();
+        for (int i = 0; i < SERIES_SIZE; i++) {
+            // 0.0 - 3.0 の4段階
+            series.add((double) random.nextInt(4));
+        }
+        assertSeries(series);
+    }
+
+    @Test
+    public void testMonotonic() {
+        List<Double> series = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            series.add((double) i);
+        }
+        for (int i = 200; i > 0; i--) {
+            series.add((double) i);
+        }
+        // 同値の連続
+        for (int i = 0; i < 200; i++) {
+            series.add(7.0);
+        }
+        assertSeries(series);
+    }
+
+    @Test
+    public void testClear() {
+        RollingExtremes extremes = new RollingExtremes(WINDOWS);
+        for (int i = 0; i < 100; i++) {
+            extremes.add(i);
+        }
+        extremes.clear();
+        assertFalse(extremes.isAvailable(1));
+        assertTrue(Double.isNaN(extremes.getMax(1)));
+
+        List<Double> series = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            double value = -i;
+            extremes.add(value);
+            series.add(value);
+            assertWindows(extremes, series);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnregisteredWindow() {
+        new RollingExtremes(WINDOWS).getMax(10);
+    }
+
+    private void assertSeries(List<Double> series) {
+        RollingExtremes extremes = new RollingExtremes(WINDOWS);
+        List<Double> added = new ArrayList<>();
+        for (Double value : series) {
+            extremes.add(value);
+            added.add(value);
+            assertWindows(extremes, added);
+        }
+        assertEquals(series.size(), extremes.getCount());
+    }
+
+    private void assertWindows(RollingExtremes extremes, List<Double> added) {
+        int size = added.size();
+        for (int window : WINDOWS) {
+            if (size < window) {
+                assertFalse(extremes.isAvailable(window));
+                assertTrue(Double.isNaN(extremes.getMax(window)));
+                assertTrue(Double.isNaN(extremes.getMin(window)));
+                continue;
+            }
+            List<Double> subList = added.subList(size - window, size);
+            String message = "size = " + size + ", window = " + window;
+            assertTrue(message, extremes.isAvailable(window));
+            assertEquals(message, Collections.max(subList), extremes.getMax(window), 0.0);
+            assertEquals(message, Collections.min(subList), extremes.getMin(window), 0.0);
+        }
+    }
+
+}
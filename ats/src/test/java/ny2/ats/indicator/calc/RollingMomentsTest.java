@@ -0,0 +1,129 @@
+package ny2.ats.indicator.calc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.junit.Test;
+
+import ny2.ats.core.util.CollectionUtility;
+
+/**
+ * RollingMoments の平均・標準偏差を、従来の subList の平均(Stream の average)と commons-math の DescriptiveStatistics で
+ * 直近N件ごとに計算した値と比較します。<br>
+ * 期間より十分長い系列で、期間ごとの合計の再計算(基準値の更新)を何度も通し、誤差が蓄積しないことを確認します。
+ */
+public class RollingMomentsTest {
+
+    private static final int[] WINDOWS = { 1, 2, 20, 21, 200 };
+
+    private static final int SERIES_SIZE = 20_000;
+
+    private static final long SEED = 20140107L;
+
+    /** 比較の許容誤差(値の大きさに対する比率) */
+    private static final double RELATIVE_DELTA = 1e-10;
+
+    @Test
+    public void testRandomWalk() {
+        Random random = new Random(SEED);
+        double value = 100.0;
+        List<Double> series = new ArrayList<>();
+        for (int i = 0; i < SERIES_SIZE; i++) {
+            value += random.nextGaussian() * 0.01;
+            series.add(value);
+        }
+        assertSeries(series);
+    }
+
+    @Test
+    public void testLevelShift() {
+        // 水準が大きく変わる系列。基準値との差が大きくなる区間と、再計算で基準値が追従した後の桁落ちを確認する
+        Random random = new Random(SEED);
+        List<Double> series = new ArrayList<>();
+        for (int i = 0; i < SERIES_SIZE; i++) {
+            double level = (i / 1_000) % 2 == 0 ? 1.0 : 1_000_000.0;
+            series.add(level + random.nextGaussian() * 0.0001);
+        }
+        assertSeries(series);
+    }
+
+    @Test
+    public void testConstant() {
+        List<Double> series = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            series.add(109.123);
+        }
+        RollingMoments moments = assertSeries(series);
+        for (int window : WINDOWS) {
+            assertEquals(109.123, moments.getMean(window), 0.0);
+            assertEquals(0.0, moments.getStandardDeviation(window), 0.0);
+        }
+    }
+
+    @Test
+    public void testClear() {
+        RollingMoments moments = new RollingMoments(WINDOWS);
+        for (int i = 0; i < 500; i++) {
+            moments.add(i);
+        }
+        moments.clear();
+        assertFalse(moments.isAvailable(1));
+        assertTrue(Double.isNaN(moments.getMean(1)));
+
+        List<Double> added = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            double value = 1.3 + (i % 11) * 0.01;
+            moments.add(value);
+            added.add(value);
+            assertWindows(moments, added);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnregisteredWindow() {
+        new RollingMoments(WINDOWS).getMean(3);
+    }
+
+    private RollingMoments assertSeries(List<Double> series) {
+        RollingMoments moments = new RollingMoments(WINDOWS);
+        List<Double> added = new ArrayList<>();
+        for (Double value : series) {
+            moments.add(value);
+            added.add(value);
+            assertWindows(moments, added);
+        }
+        assertEquals(series.size(), moments.getCount());
+        return moments;
+    }
+
+    private void assertWindows(RollingMoments moments, List<Double> added) {
+        for (int window : WINDOWS) {
+            if (added.size() < window) {
+                assertFalse(moments.isAvailable(window));
+                assertTrue(Double.isNaN(moments.getMean(window)));
+                assertTrue(Double.isNaN(moments.getStandardDeviation(window)));
+                continue;
+            }
+            List<Double> subList = CollectionUtility.lastSubListView(added, window);
+            DescriptiveStatistics statistics = new DescriptiveStatistics(window);
+            for (Double d : subList) {
+                statistics.addValue(d);
+            }
+            // 従来の MovingAverageProcessor の計算
+            double average = subList.stream().mapToDouble(Double::doubleValue).average().getAsDouble();
+
+            String message = "size = " + added.size() + ", window = " + window;
+            double delta = Math.abs(average) * RELATIVE_DELTA;
+            assertEquals(message, average, moments.getMean(window), delta);
+            assertEquals(message, statistics.getMean(), moments.getMean(window), delta);
+            assertEquals(message, statistics.getStandardDeviation(), moments.getStandardDeviation(window), delta);
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+package ny2.ats.indicator.calc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.math3.stat.correlation.SpearmansCorrelation;
+import org.apache.commons.math3.stat.ranking.NaNStrategy;
+import org.apache.commons.math3.stat.ranking.NaturalRanking;
+import org.apache.commons.math3.stat.ranking.TiesStrategy;
+import org.junit.Test;
+
+import ny2.ats.core.util.CollectionUtility;
+
+/**
+ * RollingRankCorrelation の順位相関係数を、直近N件ごとに commons-math の SpearmansCorrelation で計算した値と比較します。<br>
+ * 比較側は従来の RankCorrelationIndexProcessor と同じく、NaturalRanking (TiesStrategy.AVERAGE) の順位と時系列順位(1..N)を使用します。
+ * 同順位が頻繁に出る系列と、最大の期間より十分長い系列(Ring の折り返し)を確認します。
+ */
+public class RollingRankCorrelationTest {
+
+    private static final int[] WINDOWS = { 2, 9, 26, 52 };
+
+    private static final int SERIES_SIZE = 3_000;
+
+    private static final long SEED = 20140107L;
+
+    private static final double DELTA = 1e-12;
+
+    private final NaturalRanking ranking = new NaturalRanking(NaNStrategy.FAILED, TiesStrategy.AVERAGE);
+
+    private final SpearmansCorrelation correlation = new SpearmansCorrelation();
+
+    @Test
+    public void testRandomWalk() {
+        Random random = new Random(SEED);
+        double value = 100.0;
+        List<Double> series = new ArrayList<>();
+        for (int i = 0; i < SERIES_SIZE; i++) {
+            value += random.nextGaussian();
+            series.add(value);
+        }
+        assertSeries(series);
+    }
+
+    @Test
+    public void testTies() {
+        Random random = new Random(SEED);
+        List<Double> series = new ArrayList<>();
+        for (int i = 0; i < SERIES_SIZE; i++) {
+            // 0.0 - 4.0 の5段階
+            series.add((double) random.nextInt(5));
+        }
+        assertSeries(series);
+    }
+
+    @Test
+    public void testTiesOnPriceGrid() {
+        // レートを pip 単位に丸めて同値を発生させる
+        Random random = new Random(SEED);
+        double value = 100.0;
+        List<Double> series = new ArrayList<>();
+        for (int i = 0; i < SERIES_SIZE; i++) {
+            value += random.nextInt(3) - 1;
+            series.add(Math.round(value * 100) / 100.0);
+        }
+        assertSeries(series);
+    }
+
+    @Test
+    public void testAllEqual() {
+        RollingRankCorrelation rankCorrelation = new RollingRankCorrelation(WINDOWS);
+        for (int i = 0; i < 100; i++) {
+            rankCorrelation.add(1.0);
+        }
+        for (int window : WINDOWS) {
+            assertTrue(Double.isNaN(rankCorrelation.getCorrelation(window)));
+        }
+    }
+
+    @Test
+    public void testClear() {
+        RollingRankCorrelation rankCorrelation = new RollingRankCorrelation(WINDOWS);
+        for (int i = 0; i < 100; i++) {
+            rankCorrelation.add(i);
+        }
+        rankCorrelation.clear();
+        assertFalse(rankCorrelation.isAvailable(WINDOWS[0]));
+
+        List<Double> series = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            double value = -i % 7;
+            rankCorrelation.add(value);
+            series.add(value);
+            assertWindows(rankCorrelation, series);
+        }
+    }
+
+    private void assertSeries(List<Double> series) {
+        RollingRankCorrelation rankCorrelation = new RollingRankCorrelation(WINDOWS);
+        List<Double> added = new ArrayList<>();
+        for (Double value : series) {
+            rankCorrelation.add(value);
+            added.add(value);
+            assertWindows(rankCorrelation, added);
+        }
+        assertEquals(series.size(), rankCorrelation.getCount());
+    }
+
+    private void assertWindows(RollingRankCorrelation rankCorrelation, List<Double> added) {
+        for (int window : WINDOWS) {
+            if (added.size() < window) {
+                assertFalse(rankCorrelation.isAvailable(window));
+                assertTrue(Double.isNaN(rankCorrelation.getCorrelation(window)));
+                continue;
+            }
+            String message = "size = " + added.size() + ", window = " + window;
+            assertEquals(message, calcSpearman(added, window), rankCorrelation.getCorrelation(window), DELTA);
+        }
+    }
+
+    /**
+     * 従来の RankCorrelationIndexProcessor と同じ方法で直近N件の順位相関係数を計算します
+     */
+    private double calcSpearman(List<Double> added, int window) {
+        List<Double> subList = CollectionUtility.lastSubListView(added, window);
+        double[] ranks = ranking.rank(CollectionUtility.toPrimitiveDouble(subList));
+        double[] dateRanks = new double[window];
+        for (int i = 0; i < dateRanks.length; i++) {
+            dateRanks[i] = i + 1;
+        }
+        return correlation.correlation(dateRanks, ranks);
+    }
+
+}